@@ -1,4 +1,5 @@
 CREATE EXTENSION IF NOT EXISTS pgcrypto;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
 CREATE TABLE role (
     role_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
@@ -21,14 +22,35 @@ CREATE TABLE users (
 
 CREATE INDEX index_user_role_id ON users(role_id);
 
+-- Change stamps of the tables whose cache snapshots are restored at startup. Every inserted or updated row takes a
+-- fresh number from one sequence, so the set of a table's stamps changes with every committed insert, update or
+-- delete, whenever it commits and whatever the writers' clocks say. nextval takes no row lock and leaves no dead
+-- tuple, so concurrent writers, such as the stock updates of checkouts, never wait on each other for it.
+CREATE SEQUENCE change_seq;
+
+CREATE FUNCTION stamp_change_seq() RETURNS TRIGGER AS $$
+BEGIN
+	NEW.change_seq := nextval('change_seq');
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
 CREATE TABLE category (
     category_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
 	name VARCHAR(100) NOT NULL,
 	description VARCHAR(255) NOT NULL,
 	created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-	updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+	updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+	change_seq BIGINT NOT NULL DEFAULT nextval('change_seq')
 );
 
+CREATE TRIGGER trigger_category_change_seq
+	BEFORE UPDATE ON category
+	FOR EACH ROW EXECUTE FUNCTION stamp_change_seq();
+
+-- Substring (ILIKE '%term%') category search
+CREATE INDEX index_category_name_trgm ON category USING GIN (name gin_trgm_ops);
+
 CREATE TABLE product (
     product_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
 	name VARCHAR(100) NOT NULL,
@@ -38,6 +60,11 @@ CREATE TABLE product (
 	category_id UUID NOT NULL,
 	created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
 	updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+	change_seq BIGINT NOT NULL DEFAULT nextval('change_seq'),
+	search_vector TSVECTOR GENERATED ALWAYS AS (
+		setweight(to_tsvector('english', name), 'A') ||
+		setweight(to_tsvector('english', description), 'B')
+	) STORED,
 
 	CONSTRAINT fk_category_in_product
 		FOREIGN KEY (category_id) 
@@ -45,7 +72,17 @@ CREATE TABLE product (
 		ON DELETE RESTRICT
 );
 
-CREATE INDEX index_product_category_id ON product(category_id);
+-- Listings are ordered by (name, product_id); these let a page seek straight to its first row
+CREATE INDEX index_product_name_id ON product(name, product_id);
+CREATE INDEX index_product_category_name_id ON product(category_id, name, product_id);
+-- Full-text product search (name weighted above description)
+CREATE INDEX index_product_search_vector ON product USING GIN (search_vector);
+-- Substring (ILIKE '%term%') and misspelled (name % term) product name search
+CREATE INDEX index_product_name_trgm ON product USING GIN (name gin_trgm_ops);
+
+CREATE TRIGGER trigger_product_change_seq
+	BEFORE UPDATE ON product
+	FOR EACH ROW EXECUTE FUNCTION stamp_change_seq();
 
 CREATE TABLE customer (
     customer_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
@@ -96,6 +133,8 @@ CREATE TABLE orders(
 );
 
 CREATE INDEX index_order_customer_id ON orders(customer_id);
+-- Order history is read newest first; pages seek straight to their first row
+CREATE INDEX index_order_date_id ON orders(order_date DESC, order_id DESC);
 
 CREATE TABLE order_item (
 	order_item_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
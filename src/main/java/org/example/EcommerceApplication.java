@@ -7,6 +7,12 @@ import org.example.application.ApplicationControllerFactory;
 import org.example.ui.Router;
 
 public class EcommerceApplication extends Application {
+    @Override
+    public void init() {
+        // Runs on the launcher thread, so the first window opens on warm caches without blocking the FX thread
+        ApplicationContext.getInstance().warmUp();
+    }
+
     @Override
     public void start(Stage stage) throws Exception {
         ApplicationContext context = ApplicationContext.getInstance();
@@ -19,6 +25,11 @@ public class EcommerceApplication extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        ApplicationContext.getInstance().shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -1,23 +1,589 @@
 package org.example.application;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
+/**
+ * Bounded, thread-safe cache for database results.
+ *
+ * Keys are {@link CacheKey}s spread over a fixed number of segments, each guarded by its own lock and kept in
+ * access order so the least recently used entry of a segment is evicted once the segment is full.
+ * Loaders run outside the segment lock, so a slow query never blocks hits on other keys.
+ *
+ * Entries expire according to the {@link CachePolicy} of their namespace. Namespaces with
+ * refresh-ahead enabled reload an entry on a background thread when it is hit after its refresh
+ * age, so callers keep getting the current value while the new one loads. An empty {@link Optional}
+ * is a "not found" answer and, when the policy sets a negative TTL, expires after that shorter TTL
+ * and is never refreshed ahead.
+ *
+ * Every entry is tagged with its namespace plus any extra tags given at load time, and records the
+ * generation of each tag when its load started. {@link #invalidateTag(String)} only bumps a tag's
+ * generation; entries holding an older generation are treated as misses when next read and age
+ * out through normal eviction, so invalidation cost does not depend on how many entries are cached.
+ *
+ * Concurrent misses on the same key are coalesced: the first caller runs the loader while the others
+ * wait on its result. No lock is held while the loader runs, and a failed load is rethrown to every
+ * waiter without being cached.
+ *
+ * Writers that already hold the new value can {@link #put} it directly (write-through) instead of
+ * invalidating, so readers keep hitting while only the entries that could contain the changed row
+ * are invalidated by tag.
+ *
+ * Hits (and how many of them were "not found" answers), misses, load latency, evictions, expirations
+ * and invalidations are counted per namespace and exposed through {@link #stats()}.
+ *
+ * A namespace can have an {@link OffHeapTier} attached for its entity keys. Misses on such keys are
+ * looked up there before the loader runs, and every value loaded or written through is also stored
+ * there, so the tier keeps entities the size bound has evicted from the heap. Key and namespace
+ * invalidations apply to both tiers, and the namespace TTL counts from when the value was first read
+ * from the database. Keys loaded with extra tags bypass the tier, as it cannot honour those tags.
+ */
 public class ApplicationCache {
-    private final Map<String, Object> cache = new HashMap<>();
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final Segment[] segments;
+    private final Map<String, CachePolicy> policies;
+    private final ExecutorService refreshExecutor;
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, NamespaceMetrics> metrics = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, OffHeapTier<?>> secondTiers = new ConcurrentHashMap<>();
+
+    public ApplicationCache(int maximumSize, int segmentCount) {
+        this(maximumSize, segmentCount, Map.of(), 1);
+    }
+
+    public ApplicationCache(int maximumSize, int segmentCount, Map<String, CachePolicy> policies, int refreshThreads) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("maximumSize must be positive");
+        if (segmentCount <= 0) throw new IllegalArgumentException("segmentCount must be positive");
+
+        int segmentCapacity = Math.max(1, (maximumSize + segmentCount - 1) / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        this.policies = Map.copyOf(policies);
+        this.refreshExecutor = Executors.newFixedThreadPool(Math.max(1, refreshThreads), daemonThreads());
+    }
+
+    /**
+     * Return the cached value for {@code key}, running {@code loader} on a miss.
+     *
+     * Null results are returned but not cached. When the key's namespace refreshes ahead, the
+     * loader is kept with the entry and may later be invoked from a background thread, so it must
+     * not depend on resources owned by the calling thread.
+     *
+     * @param key cache key
+     * @param loader supplier invoked when the key is absent, expired or invalidated
+     * @param tags extra tags, besides the key's namespace, that can invalidate this entry
+     * @return the cached or freshly loaded value
+     */
+    @SuppressWarnings("unchecked")
+    public <T>T getOrLoad(CacheKey key, Supplier<T> loader, String... tags) {
+        Segment segment = segmentFor(key);
+        Entry cached = lookup(key, segment);
+        if (cached != null) {
+            NamespaceMetrics namespaceMetrics = metricsFor(cached.namespace());
+            namespaceMetrics.hits.increment();
+            if (cached.negative) namespaceMetrics.negativeHits.increment();
+            return (T) cached.value;
+        }
+        String namespace = key.namespace();
+        metricsFor(namespace).misses.increment();
+
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, pending);
+        if (leader != null) return (T) await(leader);
+
+        try {
+            // Another caller may have finished loading between our miss and claiming the key.
+            cached = lookup(key, segment);
+            if (cached != null) {
+                pending.complete(cached.value);
+                return (T) cached.value;
+            }
+
+            String[] entryTags = withNamespace(namespace, tags);
+            long[] entryGenerations = generationsOf(entryTags);
+            long loadStart = System.nanoTime();
+            OffHeapTier<Object> tier = tags.length == 0 ? secondTierFor(key) : null;
+            Entry promoted = tier == null ? null : promote(tier, key, loader, entryTags, entryGenerations);
+            if (promoted != null) {
+                segment.putUnlessWrittenSince(key, promoted, loadStart);
+                pending.complete(promoted.value);
+                return (T) promoted.value;
+            }
+
+            T loaded = timedLoad(namespace, loader);
+            if (isNegative(loaded)) metricsFor(namespace).negativeLoads.increment();
+            if (loaded != null) {
+                long loadedAt = System.nanoTime();
+                segment.putUnlessWrittenSince(key, newEntry(loaded, loader, entryTags, entryGenerations, loadedAt), loadStart);
+                if (tier != null) storeUnlessWrittenSince(tier, key, loaded, loadedAt, loadStart);
+            }
+            pending.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    /**
+     * Return the cached value for {@code key} without loading it. Counts as a hit or a miss.
+     *
+     * @param key cache key
+     * @return the cached value, or {@code null} when absent, expired or invalidated
+     */
+    public <T> T getIfPresent(CacheKey key) {
+        return getIfPresent(key, null);
+    }
+
+    /**
+     * Return the cached value for {@code key} without loading it, copying a value found only in the
+     * off-heap tier back onto the heap. Counts as a hit or a miss.
+     *
+     * @param key cache key
+     * @param loader supplier used for refresh-ahead of a value copied from the off-heap tier, as for
+     *               {@link #getOrLoad}; when {@code null} the value is returned without being copied
+     * @return the cached value, or {@code null} when absent, expired or invalidated
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getIfPresent(CacheKey key, Supplier<T> loader) {
+        Segment segment = segmentFor(key);
+        Entry cached = lookup(key, segment);
+        NamespaceMetrics namespaceMetrics = metricsFor(key.namespace());
+        if (cached == null) {
+            namespaceMetrics.misses.increment();
+            OffHeapTier<Object> tier = secondTierFor(key);
+            if (tier == null) return null;
+            String[] entryTags = withNamespace(key.namespace(), new String[0]);
+            Entry promoted = promote(tier, key, loader, entryTags, generationsOf(entryTags));
+            if (promoted == null) return null;
+            if (loader != null) segment.putIfAbsent(key, promoted);
+            return (T) promoted.value;
+        }
+        namespaceMetrics.hits.increment();
+        if (cached.negative) namespaceMetrics.negativeHits.increment();
+        return (T) cached.value;
+    }
+
+    /**
+     * Store a freshly read value unless the key already holds a current one.
+     *
+     * Meant for values read as a side effect of a broader query: an existing entry is at least as
+     * fresh, and may have been written through after the query ran.
+     *
+     * @param key cache key
+     * @param value value to cache; ignored when {@code null}
+     * @param loader supplier used for refresh-ahead, as for {@link #getOrLoad}
+     * @param tags extra tags, besides the key's namespace, that can invalidate this entry
+     */
+    public <T> void putIfAbsent(CacheKey key, T value, Supplier<T> loader, String... tags) {
+        if (value == null) return;
+        String[] entryTags = withNamespace(key.namespace(), tags);
+        long now = System.nanoTime();
+        segmentFor(key).putIfAbsent(key, newEntry(value, loader, entryTags, generationsOf(entryTags), now));
+        OffHeapTier<Object> tier = tags.length == 0 ? secondTierFor(key) : null;
+        if (tier != null && value instanceof Optional<?> optional && optional.isPresent())
+            tier.putIfAbsent(key, optional.get(), now);
+    }
+
+    /**
+     * Store a value that is known to be current, typically right after the write that produced it commits.
+     *
+     * A load of the same key that started before this call will not overwrite the stored value.
+     *
+     * @param key cache key
+     * @param value value to cache; {@code null} removes the entry instead
+     * @param loader supplier used for refresh-ahead, as for {@link #getOrLoad}
+     * @param tags extra tags, besides the key's namespace, that can invalidate this entry
+     */
+    public <T> void put(CacheKey key, T value, Supplier<T> loader, String... tags) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        String[] entryTags = withNamespace(key.namespace(), tags);
+        long now = System.nanoTime();
+        segmentFor(key).put(key, newEntry(value, loader, entryTags, generationsOf(entryTags), now));
+        OffHeapTier<Object> tier = secondTierFor(key);
+        if (tier == null) return;
+        if (tags.length == 0 && value instanceof Optional<?> optional && optional.isPresent())
+            tier.put(key, optional.get(), now);
+        else
+            tier.remove(key);
+    }
+
+    public void invalidate(CacheKey key) {
+        if (segmentFor(key).remove(key) != null)
+            metricsFor(key.namespace()).invalidations.increment();
+        OffHeapTier<Object> tier = secondTierFor(key);
+        if (tier != null) tier.remove(key);
+    }
+
+    /**
+     * Invalidate every entry carrying {@code tag} in constant time.
+     *
+     * Namespaces are implicit tags, so {@code invalidateTag("product")} drops all product entries.
+     *
+     * @param tag namespace or extra tag given at load time
+     */
+    public void invalidateTag(String tag) {
+        generations.computeIfAbsent(tag, t -> new AtomicLong()).incrementAndGet();
+        metricsFor(namespaceOf(tag)).invalidations.increment();
+        OffHeapTier<?> tier = secondTiers.get(tag);
+        if (tier != null) tier.clear();
+    }
+
+    /**
+     * Keep the entity keys of {@code tier}'s namespace in {@code tier} as well. Attach before the
+     * namespace is first used.
+     */
+    public void attachSecondTier(OffHeapTier<?> tier) {
+        secondTiers.put(tier.namespace(), tier);
+    }
+
+    /**
+     * @return a snapshot of the counters of every attached off-heap tier, ordered by namespace
+     */
+    public List<SecondTierStats> secondTierStats() {
+        return secondTiers.values().stream()
+                .map(OffHeapTier::stats)
+                .sorted(Comparator.comparing(SecondTierStats::namespace))
+                .toList();
+    }
+
+    /**
+     * Collect the live values of every entry with the given namespace and kind, without touching recency.
+     *
+     * @return values that are neither expired nor invalidated
+     */
+    List<Object> currentValues(String namespace, String kind) {
+        List<Object> values = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Segment segment : segments) {
+            segment.collectCurrent(namespace, kind, now, values);
+        }
+        return values;
+    }
+
+    /**
+     * @return a snapshot of the counters of every namespace seen so far, ordered by namespace
+     */
+    public List<CacheStats> stats() {
+        return metrics.values().stream()
+                .map(NamespaceMetrics::snapshot)
+                .sorted(Comparator.comparing(CacheStats::namespace))
+                .toList();
+    }
+
+    /**
+     * @return number of entries currently held across all segments, including expired ones not yet removed
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Stop the background refresh threads. Cached values remain readable.
+     */
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Entry lookup(CacheKey key, Segment segment) {
+        Entry cached = segment.get(key);
+        if (cached == null) return null;
+
+        long now = System.nanoTime();
+        boolean expired = cached.isExpired(now);
+        if (!expired && isCurrent(cached)) {
+            if (cached.isDueForRefresh(now)) scheduleRefresh(key, segment, cached);
+            return cached;
+        }
+        if (segment.remove(key, cached) && expired)
+            metricsFor(cached.namespace()).expirations.increment();
+        return null;
+    }
+
+    /**
+     * Run {@code loader}, recording its duration and outcome in the namespace's load metrics.
+     */
+    <T> T timedLoad(String namespace, Supplier<T> loader) {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T loaded = loader.get();
+            succeeded = true;
+            return loaded;
+        } finally {
+            metricsFor(namespace).recordLoad(System.nanoTime() - start, succeeded);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    private void scheduleRefresh(CacheKey key, Segment segment, Entry stale) {
+        if (!stale.refreshing.compareAndSet(false, true)) return;
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    long[] entryGenerations = generationsOf(stale.tags);
+                    long refreshStart = System.nanoTime();
+                    Object refreshed = timedLoad(stale.namespace(), stale.loader);
+                    if (refreshed != null) {
+                        long refreshedAt = System.nanoTime();
+                        segment.replace(key, stale, newEntry(refreshed, stale.loader,
+                                stale.tags, entryGenerations, refreshedAt));
+                        OffHeapTier<Object> tier = stale.tags.length == 1 ? secondTierFor(key) : null;
+                        if (tier != null) storeUnlessWrittenSince(tier, key, refreshed, refreshedAt, refreshStart);
+                    }
+                } catch (RuntimeException e) {
+                    // The stale value keeps being served until it expires; a later hit may retry.
+                    stale.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stale.refreshing.set(false);
+        }
+    }
+
+    private Entry newEntry(Object value, Supplier<?> loader, String[] tags, long[] tagGenerations, long now) {
+        CachePolicy policy = policies.getOrDefault(tags[0], CachePolicy.NO_EXPIRY);
+        boolean negative = isNegative(value);
+        if (negative && policy.expiresNegatives()) {
+            // "Not found" answers are short-lived and not worth refreshing in the background
+            long expiresAt = now + policy.negativeTimeToLive().toNanos();
+            return new Entry(value, true, now, expiresAt, NEVER, loader, tags, tagGenerations);
+        }
+        long expiresAt = policy.expires() ? now + policy.timeToLive().toNanos() : NEVER;
+        long refreshAt = policy.refreshesAhead() ? now + policy.refreshAfter().toNanos() : NEVER;
+        return new Entry(value, negative, now, expiresAt, refreshAt, loader, tags, tagGenerations);
+    }
+
+    /**
+     * Build a heap entry from {@code key}'s value in the off-heap tier, keeping the time it was first read.
+     *
+     * @return the entry, or {@code null} when the tier has no current value
+     */
+    private Entry promote(OffHeapTier<Object> tier, CacheKey key, Supplier<?> loader,
+                          String[] tags, long[] tagGenerations) {
+        OffHeapTier.Hit<Object> hit = tier.get(key);
+        if (hit == null) return null;
+        Entry entry = newEntry(Optional.of(hit.value()), loader, tags, tagGenerations, hit.writtenAt());
+        if (entry.isExpired(System.nanoTime())) {
+            tier.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static void storeUnlessWrittenSince(OffHeapTier<Object> tier, CacheKey key, Object value,
+                                                long writtenAt, long loadStart) {
+        if (value instanceof Optional<?> optional && optional.isPresent())
+            tier.putUnlessWrittenSince(key, optional.get(), writtenAt, loadStart);
+        else
+            tier.remove(key);
+    }
 
     @SuppressWarnings("unchecked")
-    public <T>T getOrLoad(String key, Supplier<T> loader) {
-        return (T) cache.computeIfAbsent(key, k -> loader.get());
+    private OffHeapTier<Object> secondTierFor(CacheKey key) {
+        if (secondTiers.isEmpty()) return null;
+        OffHeapTier<?> tier = secondTiers.get(key.namespace());
+        return tier != null && tier.holds(key) ? (OffHeapTier<Object>) tier : null;
+    }
+
+    private static boolean isNegative(Object value) {
+        return value instanceof Optional<?> optional && optional.isEmpty();
+    }
+
+    private boolean isCurrent(Entry entry) {
+        for (int i = 0; i < entry.tags.length; i++) {
+            if (generationOf(entry.tags[i]) != entry.tagGenerations[i]) return false;
+        }
+        return true;
+    }
+
+    private long[] generationsOf(String[] tags) {
+        long[] result = new long[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            result[i] = generationOf(tags[i]);
+        }
+        return result;
+    }
+
+    private long generationOf(String tag) {
+        AtomicLong generation = generations.get(tag);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private NamespaceMetrics metricsFor(String namespace) {
+        return metrics.computeIfAbsent(namespace, NamespaceMetrics::new);
     }
 
-    public void invalidate(String key) {
-        cache.remove(key);
+    private static String namespaceOf(String tag) {
+        int separator = tag.indexOf(':');
+        return separator < 0 ? tag : tag.substring(0, separator);
     }
 
-    public void invalidateByPrefix(String prefix) {
-        cache.keySet().removeIf(k -> k.startsWith(prefix));
+    private static String[] withNamespace(String namespace, String[] tags) {
+        String[] result = new String[tags.length + 1];
+        result[0] = namespace;
+        System.arraycopy(tags, 0, result, 1, tags.length);
+        return result;
     }
 
+    private Segment segmentFor(CacheKey key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[Math.floorMod(hash, segments.length)];
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Entry {
+        final Object value;
+        final boolean negative;
+        final long writtenAt;
+        final long expiresAt;
+        final long refreshAt;
+        final Supplier<?> loader;
+        final String[] tags;
+        final long[] tagGenerations;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(Object value, boolean negative, long writtenAt, long expiresAt, long refreshAt,
+              Supplier<?> loader, String[] tags, long[] tagGenerations) {
+            this.value = value;
+            this.negative = negative;
+            this.writtenAt = writtenAt;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+            this.loader = loader;
+            this.tags = tags;
+            this.tagGenerations = tagGenerations;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != NEVER && now - expiresAt >= 0;
+        }
+
+        boolean isDueForRefresh(long now) {
+            return refreshAt != NEVER && now - refreshAt >= 0;
+        }
+
+        String namespace() {
+            return tags[0];
+        }
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<CacheKey, Entry> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+                    if (size() <= capacity) return false;
+                    NamespaceMetrics evicted = metricsFor(eldest.getValue().namespace());
+                    evicted.evictions.increment();
+                    evicted.size.decrement();
+                    return true;
+                }
+            };
+        }
+
+        synchronized Entry get(CacheKey key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(CacheKey key, Entry entry) {
+            if (entries.put(key, entry) == null)
+                metricsFor(entry.namespace()).size.increment();
+        }
+
+        /**
+         * Store {@code entry} unless the key was written after {@code loadStart}, in which case the
+         * existing value is at least as fresh as what the load read.
+         */
+        synchronized void putUnlessWrittenSince(CacheKey key, Entry entry, long loadStart) {
+            Entry existing = entries.get(key);
+            if (existing != null && existing.writtenAt - loadStart > 0) return;
+            put(key, entry);
+        }
+
+        synchronized void putIfAbsent(CacheKey key, Entry entry) {
+            Entry existing = entries.get(key);
+            if (existing != null && !existing.isExpired(entry.writtenAt) && isCurrent(existing)) return;
+            put(key, entry);
+        }
+
+        synchronized void replace(CacheKey key, Entry expected, Entry replacement) {
+            entries.replace(key, expected, replacement);
+        }
+
+        synchronized Entry remove(CacheKey key) {
+            Entry removed = entries.remove(key);
+            if (removed != null) metricsFor(removed.namespace()).size.decrement();
+            return removed;
+        }
+
+        synchronized boolean remove(CacheKey key, Entry expected) {
+            boolean removed = entries.remove(key, expected);
+            if (removed) metricsFor(expected.namespace()).size.decrement();
+            return removed;
+        }
+
+        synchronized void collectCurrent(String namespace, String kind, long now, List<Object> into) {
+            for (Map.Entry<CacheKey, Entry> e : entries.entrySet()) {
+                CacheKey key = e.getKey();
+                Entry entry = e.getValue();
+                if (key.namespace().equals(namespace) && key.kind().equals(kind)
+                        && !entry.isExpired(now) && isCurrent(entry))
+                    into.add(entry.value);
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
 }
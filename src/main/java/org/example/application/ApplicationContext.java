@@ -1,10 +1,17 @@
 package org.example.application;
 
+import org.example.config.CacheConfig;
 import org.example.config.DataSource;
 import org.example.config.DatabaseConfig;
+import org.example.config.DriverSettings;
+import org.example.config.PoolSettings;
+import org.example.config.ReplicaSettings;
 import org.example.dao.impl.*;
 import org.example.dao.interfaces.*;
+import org.example.service.AutocompleteService;
+import org.example.service.CacheService;
 import org.example.service.CategoryService;
+import org.example.service.ConnectionPoolService;
 import org.example.service.PurchaseService;
 import org.example.service.ProductService;
 import org.example.service.ReviewService;
@@ -13,6 +20,17 @@ import org.example.store.customer.CustomerStore;
 import org.example.store.order.OrderStore;
 import org.example.store.product.ProductStore;
 import org.example.store.review.ReviewStore;
+import org.example.store.suggestion.SuggestionStore;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class ApplicationContext {
 
@@ -21,12 +39,28 @@ public class ApplicationContext {
     private final ProductService productService;
     private final PurchaseService purchaseService;
     private final ReviewService reviewService;
+    private final CacheService cacheService;
+    private final ConnectionPoolService connectionPoolService;
+    private final AutocompleteService autocompleteService;
+    private final DataSource dataSource;
+    private final ApplicationCache cache;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheSnapshot snapshot;
+    private final StartupWarmer warmer;
+    private final SuggestionStore suggestionStore;
 
     private ApplicationContext() {
-        DataSource dataSource = new DataSource(DatabaseConfig.DB_URL,
-                DatabaseConfig.DB_USER, DatabaseConfig.DB_PASSWORD);
+        this.dataSource = new DataSource(DatabaseConfig.DB_URL,
+                DatabaseConfig.DB_USER, DatabaseConfig.DB_PASSWORD,
+                PoolSettings.fromConfig(), DriverSettings.fromConfig(), ReplicaSettings.fromConfig());
 
-        var cache = new ApplicationCache();
+        this.cache = new ApplicationCache(CacheConfig.MAX_ENTRIES, CacheConfig.SEGMENTS,
+                cachePolicies(), CacheConfig.REFRESH_THREADS);
+        this.invalidationBus = new CacheInvalidationBus(cache, new CacheNotificationJdbcDao(),
+                CacheConfig.INVALIDATION_CHANNEL, DatabaseConfig.DB_URL,
+                DatabaseConfig.DB_USER, DatabaseConfig.DB_PASSWORD, CacheConfig.SYNC_ENABLED);
+        invalidationBus.onRemoteChange(dataSource::recordWrite);
+        invalidationBus.start();
 
         CustomerDao customerDao = new CustomerJdbcDao();
         ProductDao productDao = new ProductJdbcDao();
@@ -35,16 +69,100 @@ public class ApplicationContext {
         ReviewDAO reviewDAO = new ReviewJdbcDAO();
 
         OrderStore orderStore = new OrderStore(dataSource,
-                cache, customerDao, productDao, ordersDao);
-        ProductStore productStore = new ProductStore(dataSource, cache, productDao);
-        CategoryStore categoryStore = new CategoryStore(dataSource, cache, categoryDao);
-        CustomerStore customerStore = new CustomerStore(dataSource, cache, customerDao);
-        ReviewStore reviewStore = new ReviewStore(dataSource, cache, reviewDAO);
+                cache, invalidationBus, customerDao, productDao, ordersDao);
+        ProductStore productStore = new ProductStore(dataSource, cache, invalidationBus, productDao);
+        CategoryStore categoryStore = new CategoryStore(dataSource, cache, invalidationBus, categoryDao);
+        CustomerStore customerStore = new CustomerStore(dataSource, cache, invalidationBus, customerDao);
+        ReviewStore reviewStore = new ReviewStore(dataSource, cache, invalidationBus, reviewDAO);
+
+        enableOffHeapTiers(productStore, categoryStore);
+        if (CacheConfig.SEARCH_INDEX_ENABLED) productStore.enableSearchIndex();
+        if (CacheConfig.FACET_INDEX_ENABLED) productStore.enableFacetIndex();
+        this.snapshot = cacheSnapshot(productStore, categoryStore);
+        this.suggestionStore = new SuggestionStore(dataSource, productDao, categoryDao);
+        if (CacheConfig.AUTOCOMPLETE_ENABLED) {
+            productStore.addWriteListener(suggestionStore::productChanged);
+            categoryStore.addWriteListener(suggestionStore::categoryChanged);
+            invalidationBus.subscribe(ProductStore.NAMESPACE, suggestionStore::productChanged);
+            invalidationBus.subscribe(CategoryStore.NAMESPACE, suggestionStore::categoryChanged);
+            suggestionStore.start(Duration.ofSeconds(Math.max(CacheConfig.AUTOCOMPLETE_FALLBACK_REFRESH_SECONDS, 1)));
+        }
 
         this.categoryService = new CategoryService(categoryStore);
         this.productService = new ProductService(productStore);
         this.purchaseService = new PurchaseService(orderStore, productStore, customerStore);
         this.reviewService = new ReviewService(reviewStore,customerStore);
+        this.cacheService = new CacheService(cache);
+        this.connectionPoolService = new ConnectionPoolService(dataSource);
+        this.autocompleteService = new AutocompleteService(suggestionStore);
+        this.warmer = new StartupWarmer(categoryService, productService, purchaseService,
+                dataSource, productDao, categoryDao, warmupSettings());
+    }
+
+    private static StartupWarmer.Settings warmupSettings() {
+        return new StartupWarmer.Settings(
+                Math.max(CacheConfig.WARMUP_THREADS, 1),
+                CacheConfig.WARMUP_PRODUCT_PAGES,
+                Math.max(CacheConfig.WARMUP_PAGE_SIZE, 1),
+                CacheConfig.WARMUP_JIT_ROUNDS,
+                Duration.ofSeconds(Math.max(CacheConfig.WARMUP_TIMEOUT_SECONDS, 1)));
+    }
+
+    private static void enableOffHeapTiers(ProductStore productStore, CategoryStore categoryStore) {
+        Set<String> namespaces = Arrays.stream(CacheConfig.OFF_HEAP_NAMESPACES.split(","))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        long capacityBytes = (long) CacheConfig.OFF_HEAP_CAPACITY_MB * 1024 * 1024;
+        int blockBytes = CacheConfig.OFF_HEAP_BLOCK_KB * 1024;
+        if (namespaces.contains(ProductStore.NAMESPACE)) productStore.enableOffHeapTier(capacityBytes, blockBytes);
+        if (namespaces.contains(CategoryStore.NAMESPACE)) categoryStore.enableOffHeapTier(capacityBytes, blockBytes);
+    }
+
+    private static CacheSnapshot cacheSnapshot(ProductStore productStore, CategoryStore categoryStore) {
+        if (CacheConfig.SNAPSHOT_FILE.isEmpty()) return null;
+        Set<String> namespaces = Arrays.stream(CacheConfig.SNAPSHOT_NAMESPACES.split(","))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+
+        List<CacheSnapshot.Section<?>> sections = new ArrayList<>();
+        if (namespaces.contains(ProductStore.NAMESPACE)) sections.add(productStore.snapshotSection());
+        if (namespaces.contains(CategoryStore.NAMESPACE)) sections.add(categoryStore.snapshotSection());
+        if (sections.isEmpty()) return null;
+
+        CacheSnapshot snapshot = new CacheSnapshot(Path.of(CacheConfig.SNAPSHOT_FILE), sections);
+        snapshot.load();
+        if (CacheConfig.SNAPSHOT_INTERVAL_SECONDS > 0)
+            snapshot.start(Duration.ofSeconds(CacheConfig.SNAPSHOT_INTERVAL_SECONDS));
+        return snapshot;
+    }
+
+    private static Map<String, CachePolicy> cachePolicies() {
+        Set<String> refreshAhead = Arrays.stream(CacheConfig.REFRESH_AHEAD_NAMESPACES.split(","))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+
+        Map<String, CachePolicy> policies = new HashMap<>();
+        policies.put("product", cachePolicy(CacheConfig.PRODUCT_TTL_SECONDS, refreshAhead.contains("product")));
+        policies.put("category", cachePolicy(CacheConfig.CATEGORY_TTL_SECONDS, refreshAhead.contains("category")));
+        policies.put("order", cachePolicy(CacheConfig.ORDER_TTL_SECONDS, refreshAhead.contains("order")));
+        policies.put("review", cachePolicy(CacheConfig.REVIEW_TTL_SECONDS, refreshAhead.contains("review")));
+        policies.put("customer", cachePolicy(CacheConfig.CUSTOMER_TTL_SECONDS, refreshAhead.contains("customer")));
+        return policies;
+    }
+
+    private static CachePolicy cachePolicy(int ttlSeconds, boolean refreshAhead) {
+        CachePolicy policy = positiveCachePolicy(ttlSeconds, refreshAhead);
+        int negativeTtlSeconds = CacheConfig.NEGATIVE_TTL_SECONDS;
+        if (negativeTtlSeconds <= 0) return policy;
+        return policy.withNegativeTimeToLive(Duration.ofSeconds(negativeTtlSeconds));
+    }
+
+    private static CachePolicy positiveCachePolicy(int ttlSeconds, boolean refreshAhead) {
+        if (ttlSeconds <= 0) return CachePolicy.NO_EXPIRY;
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        int percent = CacheConfig.REFRESH_AHEAD_PERCENT;
+        if (!refreshAhead || percent <= 0 || percent >= 100) return CachePolicy.expireAfter(ttl);
+        return new CachePolicy(ttl, ttl.multipliedBy(percent).dividedBy(100));
     }
 
     public static ApplicationContext getInstance() {
@@ -65,4 +183,29 @@ public class ApplicationContext {
     public PurchaseService getPurchaseService() { return purchaseService; }
 
     public ReviewService getReviewService() {return reviewService;}
+
+    public CacheService getCacheService() { return cacheService; }
+
+    public ConnectionPoolService getConnectionPoolService() { return connectionPoolService; }
+
+    public AutocompleteService getAutocompleteService() { return autocompleteService; }
+
+    /**
+     * Preload the caches and warm up the query paths, unless disabled. Called once before the first window is shown.
+     */
+    public void warmUp() {
+        if (CacheConfig.WARMUP_ENABLED) warmer.run();
+    }
+
+    /**
+     * Stop background cache work, save the cache snapshot and close the connection pool. Called once when the
+     * application exits.
+     */
+    public void shutdown() {
+        invalidationBus.stop();
+        suggestionStore.stop();
+        if (snapshot != null) snapshot.stop();
+        cache.shutdown();
+        dataSource.close();
+    }
 }
\ No newline at end of file
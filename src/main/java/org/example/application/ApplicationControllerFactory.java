@@ -1,7 +1,9 @@
 package org.example.application;
 
 import javafx.util.Callback;
+import org.example.controller.cache.AdminCacheController;
 import org.example.controller.order.AdminOrderController;
+import org.example.controller.pool.AdminPoolController;
 import org.example.controller.shell.BuyerShellController;
 import org.example.controller.category.AdminCategoryController;
 import org.example.controller.product.AdminProductController;
@@ -22,12 +24,17 @@ public class ApplicationControllerFactory implements Callback<Class<?>, Object>
             return new AdminProductController(context.getProductService(), context.getCategoryService());
         } else if (cls == AdminOrderController.class) {
             return new AdminOrderController(context.getPurchaseService());
+        } else if (cls == AdminCacheController.class) {
+            return new AdminCacheController(context.getCacheService());
+        } else if (cls == AdminPoolController.class) {
+            return new AdminPoolController(context.getConnectionPoolService());
         } else if (cls == BuyerShellController.class) {
             return new BuyerShellController(
                     context.getProductService(),
                     context.getCategoryService(),
                     context.getPurchaseService(),
-                    context.getReviewService()
+                    context.getReviewService(),
+                    context.getAutocompleteService()
             );
         }
 
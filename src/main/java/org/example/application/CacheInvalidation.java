@@ -0,0 +1,45 @@
+package org.example.application;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Invalidation exchanged between application instances by {@link CacheInvalidationBus}.
+ *
+ * @param origin id of the instance that made the change
+ * @param namespace namespace of the changed entity
+ * @param id id of the changed entity, or {@code null} when only tags are affected
+ * @param tags tags whose entries may include the changed row
+ */
+public record CacheInvalidation(String origin, String namespace, UUID id, List<String> tags) {
+    private static final String SEPARATOR = "|";
+    private static final String TAG_SEPARATOR = ",";
+
+    public CacheInvalidation {
+        tags = List.copyOf(tags);
+    }
+
+    /**
+     * @return the wire form, {@code origin|namespace|id|tag,tag}
+     */
+    public String encode() {
+        return origin + SEPARATOR + namespace + SEPARATOR + (id == null ? "" : id) + SEPARATOR
+                + String.join(TAG_SEPARATOR, tags);
+    }
+
+    /**
+     * @param payload wire form produced by {@link #encode()}
+     * @return the decoded invalidation
+     * @throws IllegalArgumentException when {@code payload} is malformed
+     */
+    public static CacheInvalidation decode(String payload) {
+        String[] fields = payload.split("\\|", -1);
+        if (fields.length != 4)
+            throw new IllegalArgumentException("Malformed cache invalidation: " + payload);
+
+        UUID id = fields[2].isEmpty() ? null : UUID.fromString(fields[2]);
+        List<String> tags = fields[3].isEmpty() ? List.of() : Arrays.asList(fields[3].split(TAG_SEPARATOR));
+        return new CacheInvalidation(fields[0], fields[1], id, tags);
+    }
+}
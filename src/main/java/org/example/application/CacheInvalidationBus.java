@@ -0,0 +1,298 @@
+package org.example.application;
+
+import org.example.dao.interfaces.CacheNotificationDao;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the caches of several application instances sharing one database coherent.
+ *
+ * Stores {@link #publish} the entity and tags a write affects on the write's own transaction, using
+ * PostgreSQL {@code NOTIFY}, so other instances hear about it exactly when it commits. A daemon
+ * thread holding a dedicated connection {@code LISTEN}s on the channel, collects notifications
+ * arriving within a short window into one batch, drops duplicates and this instance's own
+ * messages, and applies the rest to the local {@link ApplicationCache}.
+ *
+ * If the listener connection drops, it reconnects with backoff and then invalidates every
+ * namespace, since notifications sent in the meantime are lost.
+ *
+ * {@link #subscribe Subscribers} are called on a separate thread, one change at a time in arrival
+ * order, so a subscriber reading from the database never holds up the delivery of invalidations.
+ */
+public class CacheInvalidationBus {
+    private static final Logger LOGGER = Logger.getLogger(CacheInvalidationBus.class.getName());
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_MILLIS = 500;
+    private static final long BATCH_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final int MAX_BATCH = 512;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final ApplicationCache cache;
+    private final CacheNotificationDao notificationDao;
+    private final String channel;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Executor subscriberExecutor;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile Runnable remoteChangeListener = () -> {};
+
+    private volatile boolean running;
+    private Thread listener;
+
+    private record Subscription(String namespace, Consumer<UUID> listener) {
+    }
+
+    /**
+     * @param cache local cache to apply remote invalidations to
+     * @param notificationDao DAO used to publish on a write's transaction
+     * @param channel notification channel; lower-case letters, digits and underscores
+     * @param url JDBC url for the dedicated listener connection
+     * @param username database user
+     * @param password database password
+     * @param enabled when {@code false} nothing is published and {@link #start()} does nothing
+     */
+    public CacheInvalidationBus(ApplicationCache cache, CacheNotificationDao notificationDao, String channel,
+                                String url, String username, String password, boolean enabled) {
+        this(cache, notificationDao, channel, url, username, password, enabled,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "cache-invalidation-subscribers");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    /**
+     * @param subscriberExecutor runs the {@link #subscribe subscribers}; must run tasks in submission order
+     * @see #CacheInvalidationBus(ApplicationCache, CacheNotificationDao, String, String, String, String, boolean)
+     */
+    public CacheInvalidationBus(ApplicationCache cache, CacheNotificationDao notificationDao, String channel,
+                                String url, String username, String password, boolean enabled,
+                                Executor subscriberExecutor) {
+        if (!CHANNEL_NAME.matcher(channel).matches())
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        this.cache = cache;
+        this.notificationDao = notificationDao;
+        this.channel = channel;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.enabled = enabled;
+        this.subscriberExecutor = subscriberExecutor;
+    }
+
+    /**
+     * Announce a change to the other instances once {@code conn}'s transaction commits.
+     *
+     * Call before committing; the notification is discarded if the transaction rolls back.
+     *
+     * @param conn connection of the transaction making the change
+     * @param namespace namespace of the changed entity
+     * @param id id of the changed entity, or {@code null} when only tags are affected
+     * @param tags tags whose entries may include the changed row
+     * @throws org.example.dao.exception.DAOException when the notification cannot be queued
+     */
+    public void publish(Connection conn, String namespace, UUID id, String... tags) {
+        if (!enabled) return;
+        CacheInvalidation invalidation = new CacheInvalidation(instanceId, namespace, id, List.of(tags));
+        notificationDao.notify(conn, channel, invalidation.encode());
+    }
+
+    /**
+     * Also tell {@code listener} about other instances' changes to entities of a namespace, after the
+     * local cache has dropped them, for state kept outside the cache.
+     *
+     * The listener runs on the subscriber thread. It receives the id of each changed entity, or
+     * {@code null} when notifications may have been missed and any entity may have changed.
+     *
+     * @param namespace namespace of the entities
+     * @param listener called once per changed id in a batch
+     */
+    public void subscribe(String namespace, Consumer<UUID> listener) {
+        subscriptions.add(new Subscription(namespace, listener));
+    }
+
+    /**
+     * Run {@code listener} on the listener thread whenever another instance's changes are about to be
+     * applied to the local cache, before any entry is dropped, so that the reloads that follow can be
+     * sent to the primary rather than to a replica that may not have the change yet.
+     *
+     * @param listener called once per batch of changes, and when notifications may have been missed
+     */
+    public void onRemoteChange(Runnable listener) {
+        this.remoteChangeListener = listener;
+    }
+
+    /**
+     * Tell the {@link #subscribe subscribers} of a namespace about a change this instance committed to one of
+     * its entities from outside the namespace's own store, such as an order lowering a product's stock.
+     *
+     * The listeners run on the subscriber thread, after those of earlier changes.
+     *
+     * @param namespace namespace of the changed entity
+     * @param id id of the changed entity
+     */
+    public void notifyLocalChange(String namespace, UUID id) {
+        notifySubscribers(namespace, id);
+    }
+
+    /**
+     * Start listening for other instances' invalidations on a background thread.
+     */
+    public synchronized void start() {
+        if (!enabled || running) return;
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * Stop the listener; it closes its connection within one poll interval.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) listener.interrupt();
+    }
+
+    /**
+     * Apply a batch of invalidations to the local cache, each distinct key and tag once, then notify
+     * the {@link #subscribe subscribers} of each changed entity's namespace.
+     *
+     * Invalidations published by this instance are skipped, as they were applied locally on commit.
+     *
+     * @param batch invalidations in arrival order
+     */
+    public void apply(List<CacheInvalidation> batch) {
+        Map<CacheKey, UUID> keys = new LinkedHashMap<>();
+        Set<String> tags = new LinkedHashSet<>();
+        for (CacheInvalidation invalidation : batch) {
+            if (instanceId.equals(invalidation.origin())) continue;
+            if (invalidation.id() != null)
+                keys.put(EntityCache.keyOf(invalidation.namespace(), invalidation.id()), invalidation.id());
+            tags.addAll(invalidation.tags());
+        }
+        if (keys.isEmpty() && tags.isEmpty()) return;
+        remoteChangeListener.run();
+        keys.keySet().forEach(cache::invalidate);
+        tags.forEach(cache::invalidateTag);
+        keys.forEach((key, id) -> notifySubscribers(key.namespace(), id));
+    }
+
+    private void listen() {
+        long backoffMillis = 1_000;
+        boolean missedNotifications = false;
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (missedNotifications) invalidateAll();
+                missedNotifications = false;
+                backoffMillis = 1_000;
+
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (running) {
+                    List<CacheInvalidation> batch = nextBatch(pgConnection);
+                    if (!batch.isEmpty()) apply(batch);
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                missedNotifications = true;
+                LOGGER.log(Level.WARNING, "Cache invalidation listener lost its connection, retrying in "
+                        + backoffMillis + " ms", e);
+                if (!sleep(backoffMillis)) return;
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Wait up to one poll interval for a notification, then keep collecting for the batch window.
+     */
+    private List<CacheInvalidation> nextBatch(PGConnection pgConnection) throws SQLException {
+        PGNotification[] first = pgConnection.getNotifications(POLL_MILLIS);
+        if (first == null || first.length == 0) return Collections.emptyList();
+
+        List<CacheInvalidation> batch = new ArrayList<>();
+        decodeInto(first, batch);
+        long deadline = System.nanoTime() + BATCH_WINDOW_NANOS;
+        while (running && batch.size() < MAX_BATCH) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) break;
+            decodeInto(pgConnection.getNotifications((int) remainingMillis), batch);
+        }
+        return batch;
+    }
+
+    private void decodeInto(PGNotification[] notifications, List<CacheInvalidation> batch) {
+        if (notifications == null) return;
+        for (PGNotification notification : notifications) {
+            try {
+                batch.add(CacheInvalidation.decode(notification.getParameter()));
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Ignoring malformed cache invalidation", e);
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        remoteChangeListener.run();
+        for (CacheStats stats : cache.stats()) {
+            cache.invalidateTag(stats.namespace());
+        }
+        for (Subscription subscription : subscriptions) {
+            notify(subscription, null);
+        }
+    }
+
+    private void notifySubscribers(String namespace, UUID id) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.namespace().equals(namespace)) notify(subscription, id);
+        }
+    }
+
+    private void notify(Subscription subscription, UUID id) {
+        subscriberExecutor.execute(() -> {
+            try {
+                subscription.listener().accept(id);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Cache invalidation subscriber for " + subscription.namespace() + " failed", e);
+            }
+        });
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
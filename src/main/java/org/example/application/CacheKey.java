@@ -0,0 +1,113 @@
+package org.example.application;
+
+import java.util.Objects;
+
+/**
+ * Structured, immutable key for {@link ApplicationCache}.
+ *
+ * A key is a namespace (product, category, ...), a kind naming the query within that namespace
+ * (id, search, count, ...) and the query's parameters. Parameters are compared by value rather
+ * than concatenated into a string, so distinct queries can never share a key, and the hash is
+ * computed once at construction.
+ *
+ * Keys are built on every cache lookup, so there is one factory per parameter shape in use instead of
+ * a varargs one: parameters are held in fields, with limits and offsets as primitive ints, and creating
+ * a key allocates nothing but the key itself. Object parameters must be immutable and implement value
+ * equality.
+ */
+public final class CacheKey {
+    private final String namespace;
+    private final String kind;
+    // Object parameters first, then int parameters; the counts tell keys of different shapes apart
+    private final Object first;
+    private final Object second;
+    private final int firstInt;
+    private final int secondInt;
+    private final byte objectCount;
+    private final byte intCount;
+    private final int hash;
+
+    private CacheKey(String namespace, String kind, int objectCount, Object first, Object second,
+                     int intCount, int firstInt, int secondInt) {
+        this.namespace = Objects.requireNonNull(namespace, "namespace");
+        this.kind = Objects.requireNonNull(kind, "kind");
+        this.objectCount = (byte) objectCount;
+        this.first = first;
+        this.second = second;
+        this.intCount = (byte) intCount;
+        this.firstInt = firstInt;
+        this.secondInt = secondInt;
+        int h = 31 * namespace.hashCode() + kind.hashCode();
+        h = 31 * h + Objects.hashCode(first);
+        h = 31 * h + Objects.hashCode(second);
+        h = 31 * h + firstInt;
+        h = 31 * h + secondInt;
+        this.hash = 31 * h + 3 * objectCount + intCount;
+    }
+
+    /**
+     * @param namespace key namespace; also the cache policy, metrics and implicit tag of the entry
+     * @param kind query kind within the namespace
+     */
+    public static CacheKey of(String namespace, String kind) {
+        return new CacheKey(namespace, kind, 0, null, null, 0, 0, 0);
+    }
+
+    public static CacheKey of(String namespace, String kind, Object part) {
+        return new CacheKey(namespace, kind, 1, part, null, 0, 0, 0);
+    }
+
+    public static CacheKey of(String namespace, String kind, Object part, int limit) {
+        return new CacheKey(namespace, kind, 1, part, null, 1, limit, 0);
+    }
+
+    public static CacheKey of(String namespace, String kind, int limit, int offset) {
+        return new CacheKey(namespace, kind, 0, null, null, 2, limit, offset);
+    }
+
+    public static CacheKey of(String namespace, String kind, Object part, int limit, int offset) {
+        return new CacheKey(namespace, kind, 1, part, null, 2, limit, offset);
+    }
+
+    public static CacheKey of(String namespace, String kind, Object first, Object second, int limit) {
+        return new CacheKey(namespace, kind, 2, first, second, 1, limit, 0);
+    }
+
+    public String namespace() {
+        return namespace;
+    }
+
+    public String kind() {
+        return kind;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheKey other)) return false;
+        return hash == other.hash
+                && objectCount == other.objectCount
+                && intCount == other.intCount
+                && firstInt == other.firstInt
+                && secondInt == other.secondInt
+                && namespace.equals(other.namespace)
+                && kind.equals(other.kind)
+                && Objects.equals(first, other.first)
+                && Objects.equals(second, other.second);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(namespace).append(':').append(kind);
+        if (objectCount > 0) builder.append(':').append(first);
+        if (objectCount > 1) builder.append(':').append(second);
+        if (intCount > 0) builder.append(':').append(firstInt);
+        if (intCount > 1) builder.append(':').append(secondInt);
+        return builder.toString();
+    }
+}
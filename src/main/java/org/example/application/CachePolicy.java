@@ -0,0 +1,52 @@
+package org.example.application;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Expiry settings for one cache key namespace ({@link CacheKey#namespace()}).
+ *
+ * @param timeToLive how long a loaded value may be served, or {@code null} to never expire
+ * @param refreshAfter age after which a hit triggers a background reload, or {@code null} to disable refresh-ahead
+ * @param negativeTimeToLive how long an empty {@link Optional} ("not found") may be served, or {@code null} to
+ *                           treat it like any other value
+ */
+public record CachePolicy(Duration timeToLive, Duration refreshAfter, Duration negativeTimeToLive) {
+
+    public static final CachePolicy NO_EXPIRY = new CachePolicy(null, null);
+
+    public CachePolicy {
+        if (refreshAfter != null && (timeToLive == null || refreshAfter.compareTo(timeToLive) >= 0))
+            throw new IllegalArgumentException("refreshAfter must be shorter than timeToLive");
+        if (negativeTimeToLive != null && (negativeTimeToLive.isNegative() || negativeTimeToLive.isZero()))
+            throw new IllegalArgumentException("negativeTimeToLive must be positive");
+    }
+
+    public CachePolicy(Duration timeToLive, Duration refreshAfter) {
+        this(timeToLive, refreshAfter, null);
+    }
+
+    public static CachePolicy expireAfter(Duration timeToLive) {
+        return new CachePolicy(timeToLive, null);
+    }
+
+    /**
+     * @param negativeTimeToLive how long a "not found" result may be served
+     * @return a copy of this policy that expires empty results after {@code negativeTimeToLive}
+     */
+    public CachePolicy withNegativeTimeToLive(Duration negativeTimeToLive) {
+        return new CachePolicy(timeToLive, refreshAfter, negativeTimeToLive);
+    }
+
+    public boolean expires() {
+        return timeToLive != null;
+    }
+
+    public boolean refreshesAhead() {
+        return refreshAfter != null;
+    }
+
+    public boolean expiresNegatives() {
+        return negativeTimeToLive != null;
+    }
+}
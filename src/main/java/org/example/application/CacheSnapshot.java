@@ -0,0 +1,267 @@
+package org.example.application;
+
+import org.example.model.TableWatermark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binary on-disk snapshot of selected {@link EntityCache}s, so a restarted instance starts warm.
+ *
+ * Each section holds one namespace's cached entities together with the fingerprint of its table
+ * ({@link TableWatermark}) read just before the entities were collected. On startup a section is
+ * restored only if its table's fingerprint is unchanged; otherwise some row changed while the
+ * instance was down and the section is skipped. Sections are written to a temporary file and moved
+ * into place, so a crash mid-write leaves the previous snapshot intact, and read back through a
+ * memory-mapped {@link FileChannel}.
+ *
+ * File layout (big-endian): magic, version, section count, then per section the namespace, the
+ * row count and digest of the table, and a length-prefixed payload of entity count plus {@link Codec}-encoded entities.
+ */
+public class CacheSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(CacheSnapshot.class.getName());
+    private static final int MAGIC = 0x45435331; // "ECS1"
+    private static final int VERSION = 3;
+
+    /**
+     * Binary encoding of one entity type.
+     */
+    public interface Codec<T> {
+        void write(DataOutput out, T value) throws IOException;
+
+        T read(DataInput in) throws IOException;
+    }
+
+    /**
+     * One namespace to snapshot.
+     *
+     * @param namespace name identifying the section in the file
+     * @param entities cache to save from and restore into
+     * @param codec entity encoding
+     * @param watermark reads the current watermark of the entities' table
+     */
+    public record Section<T>(String namespace, EntityCache<T> entities, Codec<T> codec,
+                             Supplier<TableWatermark> watermark) {
+    }
+
+    private final Path file;
+    private final Map<String, Section<?>> sections = new LinkedHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public CacheSnapshot(Path file, List<Section<?>> sections) {
+        this.file = file;
+        for (Section<?> section : sections) {
+            this.sections.put(section.namespace(), section);
+        }
+    }
+
+    /**
+     * Write every section to the snapshot file, replacing the previous snapshot.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sections.size());
+        for (Section<?> section : sections.values()) {
+            writeSection(out, section);
+        }
+        out.flush();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restore every section whose table is unchanged since the snapshot was written.
+     *
+     * A missing, unreadable or outdated snapshot is not an error; the cache simply starts cold.
+     *
+     * @return number of entities restored
+     */
+    public synchronized int load() {
+        if (!Files.isRegularFile(file)) return 0;
+
+        int restored = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                LOGGER.warning("Ignoring cache snapshot " + file + " with unknown format");
+                return 0;
+            }
+            int sectionCount = buffer.getInt();
+            for (int i = 0; i < sectionCount; i++) {
+                restored += readSection(buffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not restore cache snapshot " + file, e);
+        }
+        return restored;
+    }
+
+    /**
+     * Save the snapshot every {@code interval} on a background thread.
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::saveQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop periodic saves and write a final snapshot.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (scheduler != null) scheduler.shutdownNow();
+            scheduler = null;
+        }
+        saveQuietly();
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not write cache snapshot " + file, e);
+        }
+    }
+
+    private static <T> void writeSection(DataOutputStream out, Section<T> section) throws IOException {
+        // Read the watermark first: a write racing the collection below changes it, so the section is discarded
+        TableWatermark watermark = section.watermark().get();
+        List<T> entities = section.entities().cached();
+
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeInt(entities.size());
+        for (T entity : entities) {
+            section.codec().write(payload, entity);
+        }
+        payload.flush();
+
+        byte[] namespace = section.namespace().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(namespace.length);
+        out.write(namespace);
+        out.writeLong(watermark.rowCount());
+        byte[] digest = watermark.digest().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(digest.length);
+        out.write(digest);
+        out.writeInt(payloadBytes.size());
+        payloadBytes.writeTo(out);
+    }
+
+    private int readSection(ByteBuffer buffer) throws IOException {
+        byte[] namespaceBytes = new byte[buffer.getInt()];
+        buffer.get(namespaceBytes);
+        String namespace = new String(namespaceBytes, StandardCharsets.UTF_8);
+        long rowCount = buffer.getLong();
+        byte[] digest = new byte[buffer.getInt()];
+        buffer.get(digest);
+        TableWatermark saved = new TableWatermark(rowCount, new String(digest, StandardCharsets.UTF_8));
+        byte[] payload = new byte[buffer.getInt()];
+        buffer.get(payload);
+
+        Section<?> section = sections.get(namespace);
+        if (section == null) return 0;
+        if (!saved.equals(section.watermark().get())) {
+            LOGGER.info("Skipping outdated cache snapshot section " + namespace);
+            return 0;
+        }
+        return restore(section, new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+
+    private static <T> int restore(Section<T> section, DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<T> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entities.add(section.codec().read(in));
+        }
+        section.entities().restore(entities);
+        return count;
+    }
+
+    public static void writeUuid(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    public static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    public static void writeNullableString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        // Length-prefixed UTF-8 rather than writeUTF, which is limited to 64 KB
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readNullableString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    public static Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.application;
+
+import java.util.List;
+
+/**
+ * Point-in-time counters for one cache key namespace.
+ *
+ * @param namespace key namespace ({@link CacheKey#namespace()})
+ * @param size entries currently held, including expired or invalidated ones not yet removed
+ * @param hits lookups served from the cache
+ * @param misses lookups that had to load or wait for a load
+ * @param negativeHits hits that returned a cached "not found" (empty {@link java.util.Optional})
+ * @param negativeLoads loader runs that returned "not found"
+ * @param loads successful loader runs
+ * @param loadFailures loader runs that threw
+ * @param evictions entries dropped to stay within the size bound
+ * @param expirations entries dropped because their TTL passed
+ * @param invalidations explicit key invalidations plus tag invalidations targeting this namespace
+ * @param totalLoadNanos summed duration of every loader run
+ * @param loadLatencyBuckets loader runs per latency bucket, bounded by {@link #LATENCY_BUCKET_BOUNDS_MILLIS};
+ *                           an immutable copy, so stats compare and print by value
+ */
+public record CacheStats(
+        String namespace,
+        long size,
+        long hits,
+        long misses,
+        long negativeHits,
+        long negativeLoads,
+        long loads,
+        long loadFailures,
+        long evictions,
+        long expirations,
+        long invalidations,
+        long totalLoadNanos,
+        List<Long> loadLatencyBuckets
+) {
+    public CacheStats {
+        loadLatencyBuckets = List.copyOf(loadLatencyBuckets);
+    }
+
+    /** Upper bound, in milliseconds, of each latency bucket; the last bucket is unbounded. */
+    public static final long[] LATENCY_BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    public double averageLoadMillis() {
+        long runs = loads + loadFailures;
+        return runs == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / runs;
+    }
+
+    /**
+     * Estimate a load latency percentile from the histogram.
+     *
+     * @param percentile value between 0 and 1
+     * @return upper bound of the bucket containing the percentile, or -1 when it falls in the unbounded bucket
+     */
+    public long loadLatencyPercentileMillis(double percentile) {
+        long runs = 0;
+        for (long count : loadLatencyBuckets) runs += count;
+        if (runs == 0) return 0;
+
+        long target = (long) Math.ceil(runs * percentile);
+        long seen = 0;
+        for (int i = 0; i < loadLatencyBuckets.size(); i++) {
+            seen += loadLatencyBuckets.get(i);
+            if (seen >= target) return i < LATENCY_BUCKET_BOUNDS_MILLIS.length ? LATENCY_BUCKET_BOUNDS_MILLIS[i] : -1;
+        }
+        return -1;
+    }
+
+    static int bucketFor(long loadNanos) {
+        long millis = loadNanos / 1_000_000;
+        for (int i = 0; i < LATENCY_BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (millis < LATENCY_BUCKET_BOUNDS_MILLIS[i]) return i;
+        }
+        return LATENCY_BUCKET_BOUNDS_MILLIS.length;
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.application;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Normalized view of {@link ApplicationCache} for one entity type.
+ *
+ * Each entity is cached once, as an {@link Optional}, under {@link #keyOf(String, UUID)}. Query
+ * results are meant to be cached as lists of ids and turned back into entities with
+ * {@link #getAll(List)}, which loads every entity missing from the cache in one batch. An update
+ * written through {@link #put(Object)} is then visible on every cached page that lists the entity.
+ *
+ * @param <T> entity type
+ */
+public class EntityCache<T> {
+    private static final String KIND = "id";
+
+    private final ApplicationCache cache;
+    private final String namespace;
+    private final Function<T, UUID> idOf;
+    private final Function<UUID, Optional<T>> loader;
+    private final Function<Set<UUID>, List<T>> batchLoader;
+
+    /**
+     * @param cache backing cache
+     * @param namespace namespace of the entity keys
+     * @param idOf extracts an entity's id
+     * @param loader loads one entity by id; also used for refresh-ahead, so it must not depend on the caller's thread
+     * @param batchLoader loads the entities with the given ids, omitting ids that do not exist
+     */
+    public EntityCache(ApplicationCache cache, String namespace, Function<T, UUID> idOf,
+                       Function<UUID, Optional<T>> loader, Function<Set<UUID>, List<T>> batchLoader) {
+        this.cache = cache;
+        this.namespace = namespace;
+        this.idOf = idOf;
+        this.loader = loader;
+        this.batchLoader = batchLoader;
+    }
+
+    /**
+     * @param namespace entity namespace
+     * @param id entity identifier
+     * @return the key under which the entity is cached
+     */
+    public static CacheKey keyOf(String namespace, UUID id) {
+        return CacheKey.of(namespace, KIND, id);
+    }
+
+    public Optional<T> get(UUID id) {
+        return cache.getOrLoad(keyOf(namespace, id), loaderFor(id));
+    }
+
+    /**
+     * Write an entity through to the cache after the write that produced it committed.
+     */
+    public void put(T entity) {
+        UUID id = idOf.apply(entity);
+        cache.put(keyOf(namespace, id), Optional.of(entity), loaderFor(id));
+    }
+
+    public void invalidate(UUID id) {
+        cache.invalidate(keyOf(namespace, id));
+    }
+
+    /**
+     * Cache entities read by a query and return their ids, to be cached as the query result.
+     *
+     * Entities already cached are left as they are, since they may have been written through after the query ran.
+     *
+     * @param entities query result
+     * @return the entities' ids, in query order
+     */
+    public List<UUID> putAll(List<T> entities) {
+        List<UUID> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            UUID id = idOf.apply(entity);
+            cache.putIfAbsent(keyOf(namespace, id), Optional.of(entity), loaderFor(id));
+            ids.add(id);
+        }
+        return List.copyOf(ids);
+    }
+
+    /**
+     * Resolve ids to entities, loading all that are not cached with a single batch query.
+     *
+     * @param ids entity ids, typically a cached query result
+     * @return the entities in the order of {@code ids}, skipping ids that no longer exist
+     */
+    public List<T> getAll(List<UUID> ids) {
+        Map<UUID, T> resolved = new HashMap<>();
+        Set<UUID> missing = new LinkedHashSet<>();
+        for (UUID id : ids) {
+            Optional<T> cached = cache.getIfPresent(keyOf(namespace, id), loaderFor(id));
+            if (cached == null) missing.add(id);
+            else cached.ifPresent(entity -> resolved.put(id, entity));
+        }
+
+        if (!missing.isEmpty()) {
+            List<T> loaded = cache.timedLoad(namespace, () -> batchLoader.apply(missing));
+            for (T entity : loaded) {
+                UUID id = idOf.apply(entity);
+                resolved.put(id, entity);
+                cache.putIfAbsent(keyOf(namespace, id), Optional.of(entity), loaderFor(id));
+            }
+        }
+
+        List<T> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            T entity = resolved.get(id);
+            if (entity != null) result.add(entity);
+        }
+        return result;
+    }
+
+    /**
+     * Also keep these entities off-heap, below the heap cache; see {@link OffHeapTier}.
+     *
+     * @param codec entity encoding
+     * @param capacityBytes off-heap memory to use
+     * @param blockBytes size of one off-heap block
+     */
+    public void attachOffHeapTier(CacheSnapshot.Codec<T> codec, long capacityBytes, int blockBytes) {
+        cache.attachSecondTier(new OffHeapTier<>(namespace, KIND, codec, capacityBytes, blockBytes));
+    }
+
+    /**
+     * @return the entities currently cached, in no particular order
+     */
+    public List<T> cached() {
+        List<T> entities = new ArrayList<>();
+        for (Object value : cache.currentValues(namespace, KIND)) {
+            if (value instanceof Optional<?> optional && optional.isPresent()) {
+                @SuppressWarnings("unchecked")
+                T entity = (T) optional.get();
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Re-populate the cache with entities known to be current, e.g. from a validated snapshot.
+     * Entities already cached are left as they are.
+     */
+    public void restore(List<T> entities) {
+        putAll(entities);
+    }
+
+    private Supplier<Optional<T>> loaderFor(UUID id) {
+        return () -> loader.apply(id);
+    }
+}
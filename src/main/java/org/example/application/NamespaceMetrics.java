@@ -0,0 +1,48 @@
+package org.example.application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live, contention-friendly counters backing {@link CacheStats} for a single namespace.
+ */
+class NamespaceMetrics {
+    private final String namespace;
+    final LongAdder size = new LongAdder();
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder negativeHits = new LongAdder();
+    final LongAdder negativeLoads = new LongAdder();
+    final LongAdder loads = new LongAdder();
+    final LongAdder loadFailures = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    final LongAdder expirations = new LongAdder();
+    final LongAdder invalidations = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder[] loadLatencyBuckets = new LongAdder[CacheStats.LATENCY_BUCKET_BOUNDS_MILLIS.length + 1];
+
+    NamespaceMetrics(String namespace) {
+        this.namespace = namespace;
+        for (int i = 0; i < loadLatencyBuckets.length; i++) {
+            loadLatencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    void recordLoad(long nanos, boolean succeeded) {
+        if (succeeded) loads.increment();
+        else loadFailures.increment();
+        totalLoadNanos.add(nanos);
+        loadLatencyBuckets[CacheStats.bucketFor(nanos)].increment();
+    }
+
+    CacheStats snapshot() {
+        List<Long> buckets = new ArrayList<>(loadLatencyBuckets.length);
+        for (LongAdder bucket : loadLatencyBuckets) {
+            buckets.add(bucket.sum());
+        }
+        return new CacheStats(namespace, size.sum(), hits.sum(), misses.sum(),
+                negativeHits.sum(), negativeLoads.sum(), loads.sum(), loadFailures.sum(),
+                evictions.sum(), expirations.sum(), invalidations.sum(), totalLoadNanos.sum(), buckets);
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second cache tier holding serialized entities outside the Java heap.
+ *
+ * Entities are encoded with a {@link CacheSnapshot.Codec} and appended to fixed-size blocks
+ * allocated with {@link ByteBuffer#allocateDirect(int)}, so a large catalog adds almost nothing to
+ * the heap the garbage collector has to trace; only a small on-heap index from key to position is
+ * kept. When the last block is full, writing wraps around to the oldest block and every entry still
+ * in it is evicted at once. Overwritten and removed entries leave holes that are reclaimed the same way.
+ *
+ * The tier only stores and evicts; expiry and invalidation are decided by the {@link ApplicationCache}
+ * it is attached to (see {@link ApplicationCache#attachSecondTier(OffHeapTier)}).
+ *
+ * @param <T> entity type
+ */
+public class OffHeapTier<T> {
+
+    /**
+     * A value read back from the tier, with the {@link System#nanoTime()} at which it was stored.
+     */
+    record Hit<T>(T value, long writtenAt) {
+    }
+
+    private record Slot(int block, int offset, int length, long writtenAt) {
+    }
+
+    private final String namespace;
+    private final String kind;
+    private final CacheSnapshot.Codec<T> codec;
+    private final int blockBytes;
+    private final ByteBuffer[] blocks;
+    private final Map<CacheKey, Slot> index = new HashMap<>();
+    private int currentBlock;
+    private int writeOffset;
+    private long liveBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param namespace namespace of the keys stored in this tier
+     * @param kind kind of the keys stored in this tier ({@link CacheKey#kind()})
+     * @param codec entity encoding
+     * @param capacityBytes off-heap memory to use, rounded down to whole blocks
+     * @param blockBytes size of one block; larger entities are not stored
+     */
+    public OffHeapTier(String namespace, String kind, CacheSnapshot.Codec<T> codec, long capacityBytes, int blockBytes) {
+        if (blockBytes <= 0) throw new IllegalArgumentException("blockBytes must be positive");
+        long blockCount = capacityBytes / blockBytes;
+        if (blockCount < 2) throw new IllegalArgumentException("capacity must hold at least two blocks");
+        if (blockCount > Integer.MAX_VALUE) throw new IllegalArgumentException("too many blocks");
+        this.namespace = namespace;
+        this.kind = kind;
+        this.codec = codec;
+        this.blockBytes = blockBytes;
+        this.blocks = new ByteBuffer[(int) blockCount];
+    }
+
+    public String namespace() {
+        return namespace;
+    }
+
+    boolean holds(CacheKey key) {
+        return key.namespace().equals(namespace) && key.kind().equals(kind);
+    }
+
+    /**
+     * @return the stored value, or {@code null} when absent
+     */
+    Hit<T> get(CacheKey key) {
+        byte[] bytes;
+        long writtenAt;
+        synchronized (this) {
+            Slot slot = index.get(key);
+            if (slot == null) {
+                misses.increment();
+                return null;
+            }
+            bytes = new byte[slot.length()];
+            blocks[slot.block()].get(slot.offset(), bytes);
+            writtenAt = slot.writtenAt();
+        }
+        hits.increment();
+        return new Hit<>(decode(bytes), writtenAt);
+    }
+
+    /**
+     * Store {@code value}, replacing any previous value of the key.
+     *
+     * @param writtenAt {@link System#nanoTime()} at which the value was known to be current
+     */
+    void put(CacheKey key, T value, long writtenAt) {
+        byte[] bytes = encode(value);
+        synchronized (this) {
+            if (bytes.length > blockBytes) {
+                remove(key);
+                return;
+            }
+            if (writeOffset + bytes.length > blockBytes || blocks[currentBlock] == null) nextBlock();
+            blocks[currentBlock].put(writeOffset, bytes);
+            Slot previous = index.put(key, new Slot(currentBlock, writeOffset, bytes.length, writtenAt));
+            if (previous != null) liveBytes -= previous.length();
+            liveBytes += bytes.length;
+            writeOffset += bytes.length;
+        }
+    }
+
+    /**
+     * Store {@code value} unless the key was written after {@code loadStart}, in which case the
+     * stored value is at least as fresh as what the load read.
+     */
+    synchronized void putUnlessWrittenSince(CacheKey key, T value, long writtenAt, long loadStart) {
+        Slot existing = index.get(key);
+        if (existing != null && existing.writtenAt() - loadStart > 0) return;
+        put(key, value, writtenAt);
+    }
+
+    /**
+     * Store {@code value} unless the key already holds one, which may be newer.
+     */
+    synchronized void putIfAbsent(CacheKey key, T value, long writtenAt) {
+        if (!index.containsKey(key)) put(key, value, writtenAt);
+    }
+
+    synchronized void remove(CacheKey key) {
+        Slot removed = index.remove(key);
+        if (removed != null) liveBytes -= removed.length();
+    }
+
+    /**
+     * Drop every entry. Allocated blocks are kept for reuse.
+     */
+    synchronized void clear() {
+        index.clear();
+        liveBytes = 0;
+    }
+
+    /**
+     * @return a snapshot of this tier's counters
+     */
+    public synchronized SecondTierStats stats() {
+        long allocatedBytes = 0;
+        for (ByteBuffer block : blocks) {
+            if (block != null) allocatedBytes += block.capacity();
+        }
+        return new SecondTierStats(namespace, index.size(), liveBytes, allocatedBytes,
+                (long) blocks.length * blockBytes, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * Move the write position to the start of the next block, evicting whatever that block still holds.
+     */
+    private void nextBlock() {
+        if (blocks[currentBlock] != null) currentBlock = (currentBlock + 1) % blocks.length;
+        writeOffset = 0;
+        if (blocks[currentBlock] == null) {
+            blocks[currentBlock] = ByteBuffer.allocateDirect(blockBytes);
+            return;
+        }
+        Iterator<Slot> slots = index.values().iterator();
+        while (slots.hasNext()) {
+            Slot slot = slots.next();
+            if (slot.block() != currentBlock) continue;
+            slots.remove();
+            liveBytes -= slot.length();
+            evictions.increment();
+        }
+    }
+
+    private byte[] encode(T value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private T decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.application;
+
+/**
+ * Point-in-time counters for the off-heap tier of one namespace.
+ *
+ * @param namespace key namespace ({@link CacheKey#namespace()})
+ * @param entries entities currently stored
+ * @param usedBytes encoded size of the stored entities
+ * @param allocatedBytes off-heap memory allocated so far
+ * @param capacityBytes off-heap memory the tier may allocate
+ * @param hits lookups that found the entity
+ * @param misses lookups that did not
+ * @param evictions entities dropped when their block was reused
+ */
+public record SecondTierStats(
+        String namespace,
+        long entries,
+        long usedBytes,
+        long allocatedBytes,
+        long capacityBytes,
+        long hits,
+        long misses,
+        long evictions
+) {
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,207 @@
+package org.example.application;
+
+import org.example.config.DataSource;
+import org.example.dao.interfaces.CategoryDao;
+import org.example.dao.interfaces.ProductDao;
+import org.example.dto.PageWithTotalResponse;
+import org.example.dto.category.CategoryResponse;
+import org.example.dto.product.ProductPageResponse;
+import org.example.dto.product.ProductResponse;
+import org.example.model.ProductFilter;
+import org.example.service.CategoryService;
+import org.example.service.ProductService;
+import org.example.service.PurchaseService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Warms the caches and the database read paths before the first window is shown.
+ *
+ * Preloads, in parallel on a small pool of background threads, everything the buyer screen asks for
+ * when it opens: all categories and their count, the first pages of "All Categories" and of every
+ * category with their product counts, and the first page of the order history with the order count.
+ * Then repeatedly runs the uncached product and category queries so their row mapping code is
+ * JIT-compiled before real traffic reaches it.
+ *
+ * Failures are logged and counted, never thrown; warm-up only ever makes startup slower, not broken.
+ */
+public class StartupWarmer {
+    private static final Logger LOGGER = Logger.getLogger(StartupWarmer.class.getName());
+    private static final int CATEGORY_PAGE_SIZE = 100;
+
+    /**
+     * @param threads background threads loading in parallel
+     * @param productPages pages loaded per category, and for "All Categories"
+     * @param pageSize page size; must match the screen's page size for the pages to be cache hits
+     * @param jitRounds times the uncached product and category queries are run after preloading
+     * @param timeout longest time {@link #run()} waits before letting startup continue
+     */
+    public record Settings(int threads, int productPages, int pageSize, int jitRounds, Duration timeout) {
+        public Settings {
+            if (threads <= 0) throw new IllegalArgumentException("threads must be positive");
+            if (pageSize <= 0) throw new IllegalArgumentException("pageSize must be positive");
+        }
+    }
+
+    /**
+     * Outcome of one warm-up.
+     *
+     * @param elapsed wall-clock time spent warming up
+     * @param tasks preload and JIT tasks that ran
+     * @param failures tasks that threw
+     * @param timedOut whether the timeout passed before every task finished
+     */
+    public record Result(Duration elapsed, int tasks, int failures, boolean timedOut) {
+    }
+
+    private final CategoryService categoryService;
+    private final ProductService productService;
+    private final PurchaseService purchaseService;
+    private final DataSource dataSource;
+    private final ProductDao productDao;
+    private final CategoryDao categoryDao;
+    private final Settings settings;
+
+    private final AtomicInteger tasks = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public StartupWarmer(CategoryService categoryService, ProductService productService,
+                         PurchaseService purchaseService, DataSource dataSource,
+                         ProductDao productDao, CategoryDao categoryDao, Settings settings) {
+        this.categoryService = categoryService;
+        this.productService = productService;
+        this.purchaseService = purchaseService;
+        this.dataSource = dataSource;
+        this.productDao = productDao;
+        this.categoryDao = categoryDao;
+        this.settings = settings;
+    }
+
+    /**
+     * Warm up, blocking until every task finished or the timeout passed.
+     *
+     * @return how long warm-up took and how many tasks failed
+     */
+    public Result run() {
+        long start = System.nanoTime();
+        tasks.set(0);
+        failures.set(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads(), runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean timedOut = false;
+        try {
+            CompletableFuture<Void> preload = CompletableFuture.allOf(
+                    CompletableFuture.supplyAsync(this::loadCategories, executor)
+                            .thenCompose(categoryIds -> loadProductPages(categoryIds, executor)),
+                    submit(() -> purchaseService.getPurchaseHistoryWithTotal(settings.pageSize(), 0), executor)
+            );
+            CompletableFuture<Void> warmUp = preload.thenCompose(ignored -> exerciseQueries(executor));
+            warmUp.get(settings.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Startup warm-up failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Result result = new Result(Duration.ofNanos(System.nanoTime() - start), tasks.get(), failures.get(), timedOut);
+        LOGGER.info("Startup warm-up took " + result.elapsed().toMillis() + " ms (" + result.tasks() + " tasks, "
+                + result.failures() + " failed" + (result.timedOut() ? ", timed out" : "") + ")");
+        return result;
+    }
+
+    /**
+     * Load every category the way the buyer screen does, plus the category count.
+     *
+     * @return ids of the loaded categories
+     */
+    private List<UUID> loadCategories() {
+        List<UUID> categoryIds = new ArrayList<>();
+        attempt(() -> {
+            categoryService.getCategoryCount();
+            for (int offset = 0; ; offset += CATEGORY_PAGE_SIZE) {
+                List<CategoryResponse> page = categoryService.getAllCategories(CATEGORY_PAGE_SIZE, offset);
+                page.forEach(category -> categoryIds.add(category.categoryId()));
+                if (page.size() < CATEGORY_PAGE_SIZE) break;
+            }
+        });
+        return categoryIds;
+    }
+
+    private CompletableFuture<Void> loadProductPages(List<UUID> categoryIds, ExecutorService executor) {
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        loads.add(submit(() -> loadProductPages(new ProductFilter(null, null)), executor));
+        for (UUID categoryId : categoryIds) {
+            loads.add(submit(() -> loadProductPages(new ProductFilter(null, categoryId)), executor));
+        }
+        return CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Load the first pages of a listing the way the screens do: the first page with the count, then
+     * each following page by page token.
+     */
+    private void loadProductPages(ProductFilter filter) {
+        int pageSize = settings.pageSize();
+        PageWithTotalResponse<ProductResponse> firstPage = productService.searchProductsWithTotal(filter, pageSize, 0);
+        List<ProductResponse> items = firstPage.items();
+        String pageToken = items.size() == pageSize ? productService.pageTokenAfter(items.get(pageSize - 1)) : null;
+        for (int page = 1; page < settings.productPages() && pageToken != null; page++) {
+            ProductPageResponse result = productService.searchProductsAfter(filter, pageToken, pageSize);
+            pageToken = result.nextPageToken();
+        }
+    }
+
+    /**
+     * Run the uncached product and category queries {@link Settings#jitRounds()} times each.
+     */
+    private CompletableFuture<Void> exerciseQueries(ExecutorService executor) {
+        if (settings.jitRounds() <= 0) return CompletableFuture.completedFuture(null);
+        ProductFilter all = new ProductFilter(null, null);
+        return CompletableFuture.allOf(
+                submit(() -> {
+                    for (int round = 0; round < settings.jitRounds(); round++) {
+                        dataSource.withConnection(conn -> productDao.findFilteredAfter(conn, all, null, CATEGORY_PAGE_SIZE));
+                    }
+                }, executor),
+                submit(() -> {
+                    for (int round = 0; round < settings.jitRounds(); round++) {
+                        dataSource.withConnection(conn -> categoryDao.findAll(conn, CATEGORY_PAGE_SIZE, 0));
+                    }
+                }, executor)
+        );
+    }
+
+    private CompletableFuture<Void> submit(Runnable task, ExecutorService executor) {
+        return CompletableFuture.runAsync(() -> attempt(task), executor);
+    }
+
+    private void attempt(Runnable task) {
+        tasks.incrementAndGet();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            LOGGER.log(Level.FINE, "Startup warm-up task failed", e);
+        }
+    }
+}
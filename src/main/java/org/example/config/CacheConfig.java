@@ -0,0 +1,83 @@
+package org.example.config;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+public class CacheConfig {
+
+    private static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+
+    public static final int MAX_ENTRIES = intOrDefault("CACHE_MAX_ENTRIES", 10_000);
+    public static final int SEGMENTS = intOrDefault("CACHE_SEGMENTS", 16);
+
+    public static final int PRODUCT_TTL_SECONDS = intOrDefault("CACHE_TTL_PRODUCT_SECONDS", 60);
+    public static final int CATEGORY_TTL_SECONDS = intOrDefault("CACHE_TTL_CATEGORY_SECONDS", 600);
+    public static final int ORDER_TTL_SECONDS = intOrDefault("CACHE_TTL_ORDER_SECONDS", 30);
+    public static final int REVIEW_TTL_SECONDS = intOrDefault("CACHE_TTL_REVIEW_SECONDS", 120);
+    public static final int CUSTOMER_TTL_SECONDS = intOrDefault("CACHE_TTL_CUSTOMER_SECONDS", 300);
+
+    /** How long "not found" results are cached in every namespace; 0 uses the namespace TTL. */
+    public static final int NEGATIVE_TTL_SECONDS = intOrDefault("CACHE_NEGATIVE_TTL_SECONDS", 10);
+
+    /** Percentage of a namespace's TTL after which a hit reloads the entry in the background. */
+    public static final int REFRESH_AHEAD_PERCENT = intOrDefault("CACHE_REFRESH_AHEAD_PERCENT", 80);
+    public static final String REFRESH_AHEAD_NAMESPACES = stringOrDefault("CACHE_REFRESH_AHEAD_NAMESPACES", "product");
+    public static final int REFRESH_THREADS = intOrDefault("CACHE_REFRESH_THREADS", 2);
+
+    /** Whether instances sharing the database exchange cache invalidations over LISTEN/NOTIFY. */
+    public static final boolean SYNC_ENABLED = Boolean.parseBoolean(stringOrDefault("CACHE_SYNC_ENABLED", "true"));
+    public static final String INVALIDATION_CHANNEL = stringOrDefault("CACHE_INVALIDATION_CHANNEL", "cache_invalidation");
+
+    /** File the product and category caches are saved to for warm restarts; empty disables snapshots. */
+    public static final String SNAPSHOT_FILE = stringOrDefault("CACHE_SNAPSHOT_FILE", "cache-snapshot.bin");
+    public static final int SNAPSHOT_INTERVAL_SECONDS = intOrDefault("CACHE_SNAPSHOT_INTERVAL_SECONDS", 300);
+    public static final String SNAPSHOT_NAMESPACES = stringOrDefault("CACHE_SNAPSHOT_NAMESPACES", "product,category");
+
+    /** Whether caches and query paths are warmed up in parallel before the first window is shown. */
+    public static final boolean WARMUP_ENABLED = Boolean.parseBoolean(stringOrDefault("CACHE_WARMUP_ENABLED", "true"));
+    public static final int WARMUP_THREADS = intOrDefault("CACHE_WARMUP_THREADS", 4);
+    /** Product pages preloaded per category; the page size matches the buyer screen. */
+    public static final int WARMUP_PRODUCT_PAGES = intOrDefault("CACHE_WARMUP_PRODUCT_PAGES", 3);
+    public static final int WARMUP_PAGE_SIZE = intOrDefault("CACHE_WARMUP_PAGE_SIZE", 5);
+    public static final int WARMUP_JIT_ROUNDS = intOrDefault("CACHE_WARMUP_JIT_ROUNDS", 50);
+    public static final int WARMUP_TIMEOUT_SECONDS = intOrDefault("CACHE_WARMUP_TIMEOUT_SECONDS", 30);
+
+    /** Namespaces (product, category) that also keep entities in off-heap memory; empty disables the tier. */
+    public static final String OFF_HEAP_NAMESPACES = stringOrDefault("CACHE_OFF_HEAP_NAMESPACES", "");
+    public static final int OFF_HEAP_CAPACITY_MB = intOrDefault("CACHE_OFF_HEAP_CAPACITY_MB", 64);
+    public static final int OFF_HEAP_BLOCK_KB = intOrDefault("CACHE_OFF_HEAP_BLOCK_KB", 1024);
+
+    /** Whether product name searches and category listings are answered from an in-memory index built at startup. */
+    public static final boolean SEARCH_INDEX_ENABLED =
+            Boolean.parseBoolean(stringOrDefault("CACHE_SEARCH_INDEX_ENABLED", "true"));
+
+    /** Whether the buyer screen browses products by facets, with counts, from an in-memory index built at startup. */
+    public static final boolean FACET_INDEX_ENABLED =
+            Boolean.parseBoolean(stringOrDefault("CACHE_FACET_INDEX_ENABLED", "true"));
+
+    /** Whether the buyer search field suggests product and category names as the user types. */
+    public static final boolean AUTOCOMPLETE_ENABLED =
+            Boolean.parseBoolean(stringOrDefault("CACHE_AUTOCOMPLETE_ENABLED", "true"));
+    /** How often suggestions are checked for changes that were not announced; announced ones apply at once. */
+    public static final int AUTOCOMPLETE_FALLBACK_REFRESH_SECONDS =
+            intOrDefault("CACHE_AUTOCOMPLETE_FALLBACK_REFRESH_SECONDS", 300);
+    public static final int AUTOCOMPLETE_SUGGESTIONS = intOrDefault("CACHE_AUTOCOMPLETE_SUGGESTIONS", 8);
+
+    private CacheConfig() {}
+
+    private static int intOrDefault(String key, int defaultValue) {
+        String value = dotenv.get(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String stringOrDefault(String key, String defaultValue) {
+        String value = dotenv.get(key);
+        return value == null ? defaultValue : value.trim();
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.config;
+
+/**
+ * Point-in-time state and counters of the connection pool.
+ *
+ * @param active connections currently borrowed
+ * @param idle connections open and waiting in the pool
+ * @param pending threads currently waiting for a connection
+ * @param total connections currently open
+ * @param maximumPoolSize configured pool size
+ * @param acquisitions connections handed out since startup
+ * @param timeouts callers that gave up waiting for a connection
+ * @param totalWaitNanos summed time callers waited for a connection
+ * @param maxWaitNanos longest time a caller waited for a connection
+ * @param waitBuckets acquisitions per wait-time bucket, bounded by {@link #WAIT_BUCKET_BOUNDS_MICROS}
+ * @param longHeld connections returned after being held longer than the leak detection threshold
+ */
+public record ConnectionPoolStats(
+        int active,
+        int idle,
+        int pending,
+        int total,
+        int maximumPoolSize,
+        long acquisitions,
+        long timeouts,
+        long totalWaitNanos,
+        long maxWaitNanos,
+        long[] waitBuckets,
+        long longHeld
+) {
+    /** Upper bound, in microseconds, of each wait bucket; the last bucket is unbounded. */
+    public static final long[] WAIT_BUCKET_BOUNDS_MICROS =
+            {100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 100_000, 1_000_000};
+
+    public double averageWaitMillis() {
+        return acquisitions == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / acquisitions;
+    }
+
+    /**
+     * Estimate a wait-time percentile from the histogram.
+     *
+     * @param percentile value between 0 and 1
+     * @return upper bound of the bucket containing the percentile, or -1 when it falls in the unbounded bucket
+     */
+    public long waitPercentileMicros(double percentile) {
+        long count = 0;
+        for (long bucket : waitBuckets) count += bucket;
+        if (count == 0) return 0;
+
+        long target = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < waitBuckets.length; i++) {
+            seen += waitBuckets[i];
+            if (seen >= target) return i < WAIT_BUCKET_BOUNDS_MICROS.length ? WAIT_BUCKET_BOUNDS_MICROS[i] : -1;
+        }
+        return -1;
+    }
+
+    static int bucketFor(long waitNanos) {
+        long micros = waitNanos / 1_000;
+        for (int i = 0; i < WAIT_BUCKET_BOUNDS_MICROS.length; i++) {
+            if (micros < WAIT_BUCKET_BOUNDS_MICROS[i]) return i;
+        }
+        return WAIT_BUCKET_BOUNDS_MICROS.length;
+    }
+}
@@ -2,20 +2,96 @@ package org.example.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.example.config.exception.DatabaseConnectionException;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class DataSource {
     private final HikariDataSource hikariDataSource;
+    private final PoolMetrics metrics;
+    private final int maximumPoolSize;
+    private final List<HikariDataSource> replicaDataSources = new ArrayList<>();
+    private final List<PoolMetrics> replicaMetrics = new ArrayList<>();
+    private final ReplicaRouter replicaRouter;
+    private final long readYourWritesNanos;
+    private volatile long lastWriteNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    public DataSource(String url, String username, String password, PoolSettings settings) {
+        this(url, username, password, settings, DriverSettings.DRIVER_DEFAULTS, ReplicaSettings.NONE);
+    }
+
+    public DataSource(String url, String username, String password, PoolSettings settings,
+                      DriverSettings driverSettings, ReplicaSettings replicaSettings) {
+        HikariConfig config = poolConfig("ecommerce-pool", url, username, password, settings, driverSettings);
+        this.metrics = new PoolMetrics(settings.leakDetectionThreshold().toMillis());
+        config.setMetricsTrackerFactory(metrics);
+        this.maximumPoolSize = settings.maximumPoolSize();
+        this.hikariDataSource = new HikariDataSource(config);
 
-    public DataSource(String url, String username, String password) {
+        List<ReplicaRouter.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaSettings.urls().size(); i++) {
+            String name = "ecommerce-replica-" + (i + 1);
+            HikariConfig replicaConfig = poolConfig(name, replicaSettings.urls().get(i), username, password,
+                    settings, driverSettings);
+            replicaConfig.setReadOnly(true);
+            replicaConfig.setConnectionTimeout(replicaSettings.connectionTimeout().toMillis());
+            // A replica that is down at startup must not stop the application; reads fall back to the primary
+            replicaConfig.setInitializationFailTimeout(-1);
+            PoolMetrics replicaPoolMetrics = new PoolMetrics(settings.leakDetectionThreshold().toMillis());
+            replicaConfig.setMetricsTrackerFactory(replicaPoolMetrics);
+            replicaMetrics.add(replicaPoolMetrics);
+            HikariDataSource replica = new HikariDataSource(replicaConfig);
+            replicaDataSources.add(replica);
+            replicas.add(replicaOf(name, replica));
+        }
+        this.replicaRouter = new ReplicaRouter(replicas, replicaSettings.strategy(), replicaSettings.retryAfter());
+        this.readYourWritesNanos = replicaSettings.readYourWrites().toNanos();
+    }
+
+    private static HikariConfig poolConfig(String poolName, String url, String username, String password,
+                                           PoolSettings settings, DriverSettings driverSettings) {
         HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
         config.setJdbcUrl(url);
         config.setUsername(username);
         config.setPassword(password);
-        config.setMaximumPoolSize(10);
-        this.hikariDataSource = new HikariDataSource(config);
+        config.setMaximumPoolSize(settings.maximumPoolSize());
+        config.setMinimumIdle(settings.minimumIdle());
+        config.setConnectionTimeout(settings.connectionTimeout().toMillis());
+        config.setIdleTimeout(settings.idleTimeout().toMillis());
+        config.setMaxLifetime(settings.maxLifetime().toMillis());
+        config.setKeepaliveTime(settings.keepaliveTime().toMillis());
+        config.setLeakDetectionThreshold(settings.leakDetectionThreshold().toMillis());
+        driverSettings.applyTo(config);
+        return config;
+    }
+
+    private static ReplicaRouter.Replica replicaOf(String name, HikariDataSource replica) {
+        return new ReplicaRouter.Replica() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return replica.getConnection();
+            }
+
+            @Override
+            public int activeConnections() {
+                HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+                return pool == null ? 0 : pool.getActiveConnections();
+            }
+        };
     }
 
     /**
@@ -24,6 +100,8 @@ public class DataSource {
      * The returned Connection is managed by HikariCP; see the HikariCP documentation for
      * pool tuning and lifecycle details: https://github.com/brettwooldridge/HikariCP
      *
+     * Meant for write transactions; call {@link #recordWrite()} once the transaction has committed.
+     *
      * @return a pooled {@link java.sql.Connection}
      * @throws SQLException if acquiring a connection from the pool fails
      * @see com.zaxxer.hikari.HikariDataSource
@@ -33,7 +111,80 @@ public class DataSource {
     }
 
     /**
-     * Close the underlying HikariDataSource and release pool resources.
+     * Note that a write just committed on the primary, here or on another instance.
+     *
+     * For a short while afterwards {@link #withReadConnection(Function)} reads from the primary too, so
+     * entries and pages reloaded after the write see it despite replica lag.
+     */
+    public void recordWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+
+    /**
+     * Run {@code work} with a pooled connection that is returned to the pool as soon as it completes.
+     *
+     * Lets callers such as cache loaders borrow a connection only when they actually need one.
+     *
+     * @param work callback that receives the borrowed connection
+     * @return the callback's result
+     * @throws DatabaseConnectionException if a connection cannot be obtained or released
+     */
+    public <T> T withConnection(Function<Connection, T> work) {
+        try (Connection conn = hikariDataSource.getConnection()) {
+            return work.apply(conn);
+        } catch (SQLException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Run a read-only {@code work} on a read replica, or on the primary when there is no healthy replica.
+     *
+     * Replicas may lag slightly behind the primary, so use this only for reads that tolerate that,
+     * such as listing and search pages; reads that must see the caller's own writes, and anything that
+     * writes, go through {@link #withConnection(Function)}.
+     *
+     * @param work callback that receives the borrowed connection
+     * @return the callback's result
+     * @throws DatabaseConnectionException if neither a replica nor the primary can provide a connection
+     */
+    public <T> T withReadConnection(Function<Connection, T> work) {
+        if (!replicaRouter.hasReplicas() || System.nanoTime() - lastWriteNanos < readYourWritesNanos)
+            return withConnection(work);
+        try (Connection conn = replicaRouter.getConnection(hikariDataSource::getConnection)) {
+            return work.apply(conn);
+        } catch (SQLException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Report the pool's current connections and the wait times and leak warnings recorded since startup.
+     *
+     * @return a snapshot of the pool state
+     * @see com.zaxxer.hikari.HikariPoolMXBean
+     */
+    public ConnectionPoolStats poolStats() {
+        return metrics.snapshot(hikariDataSource.getHikariPoolMXBean(), maximumPoolSize);
+    }
+
+    /**
+     * Report each read replica pool's current connections, wait times and leak warnings, like {@link #poolStats()}.
+     *
+     * @return a snapshot per replica pool, by pool name, in configuration order
+     */
+    public Map<String, ConnectionPoolStats> replicaPoolStats() {
+        Map<String, ConnectionPoolStats> stats = new LinkedHashMap<>();
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            HikariDataSource replica = replicaDataSources.get(i);
+            stats.put(replica.getPoolName(),
+                    replicaMetrics.get(i).snapshot(replica.getHikariPoolMXBean(), maximumPoolSize));
+        }
+        return stats;
+    }
+
+    /**
+     * Close the primary and replica HikariDataSources and release pool resources.
      *
      * After calling this method the pool is shutdown and subsequent calls to {@link #getConnection()}
      * will fail.
@@ -41,6 +192,7 @@ public class DataSource {
      * @see com.zaxxer.hikari.HikariDataSource#close()
      */
     public void close() {
+        replicaDataSources.forEach(HikariDataSource::close);
         hikariDataSource.close();
     }
 }
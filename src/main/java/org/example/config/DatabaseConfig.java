@@ -19,5 +19,68 @@ public class DatabaseConfig {
 
     public static final String DB_DRIVER = "org.postgresql.Driver";
 
+    public static final int POOL_MAX_SIZE = intOrDefault("DB_POOL_MAX_SIZE", 10);
+    public static final int POOL_MIN_IDLE = intOrDefault("DB_POOL_MIN_IDLE", 2);
+    public static final long POOL_CONNECTION_TIMEOUT_MS = longOrDefault("DB_POOL_CONNECTION_TIMEOUT_MS", 30_000);
+    public static final long POOL_IDLE_TIMEOUT_MS = longOrDefault("DB_POOL_IDLE_TIMEOUT_MS", 600_000);
+    public static final long POOL_MAX_LIFETIME_MS = longOrDefault("DB_POOL_MAX_LIFETIME_MS", 1_800_000);
+    public static final long POOL_KEEPALIVE_MS = longOrDefault("DB_POOL_KEEPALIVE_MS", 120_000);
+    /** Connections held longer than this are reported as possible leaks; 0 disables leak detection. */
+    public static final long POOL_LEAK_DETECTION_MS = longOrDefault("DB_POOL_LEAK_DETECTION_MS", 20_000);
+
+    /** Executions of a statement before pgjdbc prepares it server-side; 1 prepares on first use. */
+    public static final int DRIVER_PREPARE_THRESHOLD = intOrDefault("DB_DRIVER_PREPARE_THRESHOLD", 1);
+    public static final int DRIVER_STATEMENT_CACHE_QUERIES = intOrDefault("DB_DRIVER_STATEMENT_CACHE_QUERIES", 256);
+    public static final int DRIVER_STATEMENT_CACHE_MIB = intOrDefault("DB_DRIVER_STATEMENT_CACHE_MIB", 5);
+    public static final boolean DRIVER_BINARY_TRANSFER =
+            Boolean.parseBoolean(stringOrDefault("DB_DRIVER_BINARY_TRANSFER", "true"));
+    /** Types transferred in binary form in addition to pgjdbc's defaults, by name or OID. */
+    public static final String DRIVER_BINARY_TRANSFER_TYPES =
+            stringOrDefault("DB_DRIVER_BINARY_TRANSFER_TYPES", "uuid,timestamp,timestamptz");
+    public static final boolean DRIVER_REWRITE_BATCHED_INSERTS =
+            Boolean.parseBoolean(stringOrDefault("DB_DRIVER_REWRITE_BATCHED_INSERTS", "true"));
+    public static final int DRIVER_FETCH_SIZE = intOrDefault("DB_DRIVER_FETCH_SIZE", 100);
+
+    /** Comma-separated JDBC urls of read replicas for read-only queries; empty sends every query to the primary. */
+    public static final String REPLICA_URLS = stringOrDefault("DB_REPLICA_URLS", "");
+    /** {@code least_loaded} or {@code round_robin}. */
+    public static final String REPLICA_SELECTION = stringOrDefault("DB_REPLICA_SELECTION", "least_loaded");
+    public static final long REPLICA_CONNECTION_TIMEOUT_MS = longOrDefault("DB_REPLICA_CONNECTION_TIMEOUT_MS", 2_000);
+    public static final int REPLICA_RETRY_SECONDS = intOrDefault("DB_REPLICA_RETRY_SECONDS", 30);
+    /** How long after a write reads stay on the primary; should exceed the usual replica lag. */
+    public static final long REPLICA_READ_YOUR_WRITES_MS = longOrDefault("DB_REPLICA_READ_YOUR_WRITES_MS", 2_000);
+
+    /** Trigram similarity (0 to 1) a product name needs to match a {@code SIMILAR} search; pg_trgm's default is 0.3. */
+    public static final double SEARCH_SIMILARITY_THRESHOLD = doubleOrDefault("DB_SEARCH_SIMILARITY_THRESHOLD", 0.3);
+
     private DatabaseConfig() {}
+
+    private static String stringOrDefault(String key, String defaultValue) {
+        String value = dotenv.get(key);
+        return value == null ? defaultValue : value.trim();
+    }
+
+    private static int intOrDefault(String key, int defaultValue) {
+        return (int) longOrDefault(key, defaultValue);
+    }
+
+    private static long longOrDefault(String key, long defaultValue) {
+        String value = dotenv.get(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static double doubleOrDefault(String key, double defaultValue) {
+        String value = dotenv.get(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PostgreSQL JDBC driver tuning applied to every pooled connection.
+ *
+ * pgjdbc caches prepared statements per physical connection, keyed by SQL text, so the constant
+ * SQL of the DAOs is parsed and planned by the server once per pooled connection rather than on every
+ * call, even though each call prepares its statement again on a freshly borrowed connection.
+ *
+ * @param prepareThreshold executions of the same SQL after which the driver switches to a named
+ *                         server-side prepared statement; 0 never does, 1 does immediately
+ * @param preparedStatementCacheQueries prepared statements cached per connection
+ * @param preparedStatementCacheSizeMiB memory the per-connection statement cache may use
+ * @param binaryTransfer whether values are exchanged in binary rather than text form where supported
+ * @param binaryTransferEnable extra types, by name or OID, to transfer in binary form
+ * @param reWriteBatchedInserts whether batched {@code INSERT}s are rewritten into multi-row inserts
+ * @param defaultRowFetchSize rows fetched per round trip when a query runs inside a transaction;
+ *                            0 fetches the whole result at once
+ * @param similarityThreshold session value of {@code pg_trgm.similarity_threshold}, the trigram similarity
+ *                            a name needs to match the {@code %} operator
+ */
+public record DriverSettings(
+        int prepareThreshold,
+        int preparedStatementCacheQueries,
+        int preparedStatementCacheSizeMiB,
+        boolean binaryTransfer,
+        String binaryTransferEnable,
+        boolean reWriteBatchedInserts,
+        int defaultRowFetchSize,
+        double similarityThreshold
+) {
+    private static final double PG_TRGM_DEFAULT_SIMILARITY_THRESHOLD = 0.3;
+
+    /** pgjdbc's own defaults. */
+    public static final DriverSettings DRIVER_DEFAULTS =
+            new DriverSettings(5, 256, 5, true, "", false, 0, PG_TRGM_DEFAULT_SIMILARITY_THRESHOLD);
+
+    public DriverSettings {
+        if (similarityThreshold < 0 || similarityThreshold > 1)
+            throw new IllegalArgumentException("similarityThreshold must be between 0 and 1");
+    }
+
+    /**
+     * @return the settings configured through {@link DatabaseConfig}
+     */
+    public static DriverSettings fromConfig() {
+        return new DriverSettings(
+                Math.max(DatabaseConfig.DRIVER_PREPARE_THRESHOLD, 0),
+                Math.max(DatabaseConfig.DRIVER_STATEMENT_CACHE_QUERIES, 0),
+                Math.max(DatabaseConfig.DRIVER_STATEMENT_CACHE_MIB, 0),
+                DatabaseConfig.DRIVER_BINARY_TRANSFER,
+                DatabaseConfig.DRIVER_BINARY_TRANSFER_TYPES,
+                DatabaseConfig.DRIVER_REWRITE_BATCHED_INSERTS,
+                Math.max(DatabaseConfig.DRIVER_FETCH_SIZE, 0),
+                Math.min(Math.max(DatabaseConfig.SEARCH_SIMILARITY_THRESHOLD, 0), 1));
+    }
+
+    void applyTo(HikariConfig config) {
+        config.addDataSourceProperty("prepareThreshold", Integer.toString(prepareThreshold));
+        config.addDataSourceProperty("preparedStatementCacheQueries", Integer.toString(preparedStatementCacheQueries));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", Integer.toString(preparedStatementCacheSizeMiB));
+        config.addDataSourceProperty("binaryTransfer", Boolean.toString(binaryTransfer));
+        if (!binaryTransferEnable.isBlank())
+            config.addDataSourceProperty("binaryTransferEnable", binaryTransferEnable);
+        config.addDataSourceProperty("reWriteBatchedInserts", Boolean.toString(reWriteBatchedInserts));
+        config.addDataSourceProperty("defaultRowFetchSize", Integer.toString(defaultRowFetchSize));
+        // Sent at connection startup, so no pooled connection ever runs with a different threshold
+        if (similarityThreshold != PG_TRGM_DEFAULT_SIMILARITY_THRESHOLD) appendOptions(config,
+                "-c pg_trgm.similarity_threshold="
+                        + BigDecimal.valueOf(similarityThreshold).stripTrailingZeros().toPlainString());
+    }
+
+    /**
+     * Add startup options after those a deployment already sets, such as a {@code search_path}, whether in the
+     * data source properties or in the JDBC url. The driver lets url parameters override properties, so the
+     * url's {@code options} are moved into the properties together with the new ones.
+     */
+    private static void appendOptions(HikariConfig config, String options) {
+        List<String> all = new ArrayList<>();
+        String fromProperties = config.getDataSourceProperties().getProperty("options");
+        if (fromProperties != null && !fromProperties.isBlank()) all.add(fromProperties.trim());
+
+        String url = config.getJdbcUrl();
+        int query = url == null ? -1 : url.indexOf('?');
+        if (query >= 0) {
+            List<String> parameters = new ArrayList<>();
+            for (String parameter : url.substring(query + 1).split("&")) {
+                if (parameter.startsWith("options=")) {
+                    String fromUrl = URLDecoder.decode(parameter.substring("options=".length()), StandardCharsets.UTF_8);
+                    if (!fromUrl.isBlank()) all.add(fromUrl.trim());
+                } else if (!parameter.isEmpty()) {
+                    parameters.add(parameter);
+                }
+            }
+            String base = url.substring(0, query);
+            config.setJdbcUrl(parameters.isEmpty() ? base : base + "?" + String.join("&", parameters));
+        }
+
+        all.add(options);
+        config.addDataSourceProperty("options", String.join(" ", all));
+    }
+}
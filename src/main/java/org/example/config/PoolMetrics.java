@@ -0,0 +1,88 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool counters fed by HikariCP's metrics hooks.
+ *
+ * Records how long each caller waited for a connection into a histogram, counts acquisition
+ * timeouts, and counts connections returned after being held longer than the leak detection
+ * threshold. Reporting a connection that is still held is left to HikariCP's leak detector, which
+ * logs the borrower's stack trace through SLF4J (bound to java.util.logging) once the threshold passes.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final long leakThresholdMillis;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder longHeld = new LongAdder();
+    private final LongAdder[] waitBuckets = new LongAdder[ConnectionPoolStats.WAIT_BUCKET_BOUNDS_MICROS.length + 1];
+
+    /**
+     * @param leakThresholdMillis hold time after which a returned connection is reported, or 0 to disable
+     */
+    public PoolMetrics(long leakThresholdMillis) {
+        this.leakThresholdMillis = leakThresholdMillis;
+        for (int i = 0; i < waitBuckets.length; i++) {
+            waitBuckets[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                recordWait(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                recordUsage(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    void recordWait(long nanos) {
+        acquisitions.increment();
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        waitBuckets[ConnectionPoolStats.bucketFor(nanos)].increment();
+    }
+
+    void recordUsage(long millis) {
+        // HikariCP has already logged the connection as a possible leak, and logs again when it comes back
+        if (leakThresholdMillis > 0 && millis >= leakThresholdMillis) longHeld.increment();
+    }
+
+    /**
+     * @param pool live pool state, or {@code null} before the pool started
+     * @return the pool's current state together with the counters recorded so far
+     */
+    public ConnectionPoolStats snapshot(HikariPoolMXBean pool, int maximumPoolSize) {
+        long[] buckets = new long[waitBuckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = waitBuckets[i].sum();
+        }
+        return new ConnectionPoolStats(
+                pool == null ? 0 : pool.getActiveConnections(),
+                pool == null ? 0 : pool.getIdleConnections(),
+                pool == null ? 0 : pool.getThreadsAwaitingConnection(),
+                pool == null ? 0 : pool.getTotalConnections(),
+                maximumPoolSize,
+                acquisitions.sum(), timeouts.sum(), totalWaitNanos.sum(), maxWaitNanos.get(),
+                buckets, longHeld.sum());
+    }
+}
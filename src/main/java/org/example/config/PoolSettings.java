@@ -0,0 +1,50 @@
+package org.example.config;
+
+import java.time.Duration;
+
+/**
+ * HikariCP pool sizing and timeouts.
+ *
+ * @param maximumPoolSize most connections the pool opens
+ * @param minimumIdle idle connections the pool tries to keep open
+ * @param connectionTimeout longest a caller waits for a connection before failing
+ * @param idleTimeout how long a connection above {@code minimumIdle} may sit idle before it is closed
+ * @param maxLifetime age after which an idle connection is replaced
+ * @param keepaliveTime how often idle connections are tested, or {@link Duration#ZERO} to disable
+ * @param leakDetectionThreshold how long a connection may be held before it is reported as a possible
+ *                               leak, or {@link Duration#ZERO} to disable
+ */
+public record PoolSettings(
+        int maximumPoolSize,
+        int minimumIdle,
+        Duration connectionTimeout,
+        Duration idleTimeout,
+        Duration maxLifetime,
+        Duration keepaliveTime,
+        Duration leakDetectionThreshold
+) {
+    public PoolSettings {
+        if (maximumPoolSize <= 0) throw new IllegalArgumentException("maximumPoolSize must be positive");
+        if (minimumIdle < 0 || minimumIdle > maximumPoolSize)
+            throw new IllegalArgumentException("minimumIdle must be between 0 and maximumPoolSize");
+    }
+
+    /**
+     * @return the settings configured through {@link DatabaseConfig}
+     */
+    public static PoolSettings fromConfig() {
+        int maximumPoolSize = Math.max(DatabaseConfig.POOL_MAX_SIZE, 1);
+        return new PoolSettings(
+                maximumPoolSize,
+                Math.min(Math.max(DatabaseConfig.POOL_MIN_IDLE, 0), maximumPoolSize),
+                Duration.ofMillis(DatabaseConfig.POOL_CONNECTION_TIMEOUT_MS),
+                Duration.ofMillis(DatabaseConfig.POOL_IDLE_TIMEOUT_MS),
+                Duration.ofMillis(DatabaseConfig.POOL_MAX_LIFETIME_MS),
+                Duration.ofMillis(Math.max(DatabaseConfig.POOL_KEEPALIVE_MS, 0)),
+                Duration.ofMillis(Math.max(DatabaseConfig.POOL_LEAK_DETECTION_MS, 0)));
+    }
+
+    public boolean detectsLeaks() {
+        return !leakDetectionThreshold.isZero();
+    }
+}
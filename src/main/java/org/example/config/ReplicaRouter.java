@@ -0,0 +1,134 @@
+package org.example.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Chooses the read replica a read-only query runs on.
+ *
+ * Healthy replicas are tried in the order given by the {@link Strategy}. A replica that fails to hand
+ * out a connection is marked down and skipped until its retry delay passes; when no replica can serve
+ * the read, it falls back to the primary.
+ */
+public class ReplicaRouter {
+    private static final Logger LOGGER = Logger.getLogger(ReplicaRouter.class.getName());
+
+    public enum Strategy {
+        /** Take turns across replicas. */
+        ROUND_ROBIN,
+        /** Prefer the replica with the fewest borrowed connections. */
+        LEAST_LOADED
+    }
+
+    /**
+     * One replica's connection pool.
+     */
+    public interface Replica {
+        String name();
+
+        Connection getConnection() throws SQLException;
+
+        /**
+         * @return connections currently borrowed from this replica
+         */
+        int activeConnections();
+    }
+
+    /**
+     * Source of primary connections, used when no replica can serve a read.
+     */
+    @FunctionalInterface
+    public interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    private final List<Replica> replicas;
+    private final long[] downUntil;
+    private final Strategy strategy;
+    private final long retryNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRouter(List<Replica> replicas, Strategy strategy, Duration retryAfter) {
+        this(replicas, strategy, retryAfter, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanosecond clock used for retry delays
+     */
+    public ReplicaRouter(List<Replica> replicas, Strategy strategy, Duration retryAfter, LongSupplier clock) {
+        this.replicas = List.copyOf(replicas);
+        this.downUntil = new long[replicas.size()];
+        this.strategy = strategy;
+        this.retryNanos = retryAfter.toNanos();
+        this.clock = clock;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Borrow a connection for a read-only query.
+     *
+     * @param primary fallback when no replica is healthy
+     * @return a replica connection, or a primary connection when no replica could provide one
+     * @throws SQLException when the fallback to the primary fails
+     */
+    public Connection getConnection(ConnectionSupplier primary) throws SQLException {
+        for (int index : candidates()) {
+            Replica replica = replicas.get(index);
+            try {
+                Connection connection = replica.getConnection();
+                markUp(index);
+                return connection;
+            } catch (SQLException e) {
+                markDown(index);
+                LOGGER.log(Level.WARNING, "Read replica " + replica.name() + " unavailable, retrying in "
+                        + Duration.ofNanos(retryNanos).toSeconds() + " s", e);
+            }
+        }
+        return primary.get();
+    }
+
+    /**
+     * @return how many replicas are currently considered healthy
+     */
+    public int healthyReplicas() {
+        return candidates().size();
+    }
+
+    private List<Integer> candidates() {
+        long now = clock.getAsLong();
+        List<Integer> healthy = new ArrayList<>(replicas.size());
+        int start = replicas.isEmpty() ? 0 : Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            if (isUp(index, now)) healthy.add(index);
+        }
+        if (strategy == Strategy.LEAST_LOADED)
+            // Stable sort, so equally loaded replicas keep the round-robin order
+            healthy.sort(Comparator.comparingInt(index -> replicas.get(index).activeConnections()));
+        return healthy;
+    }
+
+    private synchronized boolean isUp(int index, long now) {
+        return downUntil[index] == 0 || now - downUntil[index] >= 0;
+    }
+
+    private synchronized void markDown(int index) {
+        downUntil[index] = clock.getAsLong() + retryNanos;
+    }
+
+    private synchronized void markUp(int index) {
+        downUntil[index] = 0;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.config;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read replicas that read-only queries may be routed to.
+ *
+ * @param urls JDBC urls of the replicas; they share the primary's credentials and pool settings
+ * @param strategy how a replica is picked for each read
+ * @param connectionTimeout how long a read waits for a replica connection before trying the next one
+ * @param retryAfter how long a replica that failed is skipped
+ * @param readYourWrites how long reads stay on the primary after a write commits, to cover replica lag
+ */
+public record ReplicaSettings(
+        List<String> urls,
+        ReplicaRouter.Strategy strategy,
+        Duration connectionTimeout,
+        Duration retryAfter,
+        Duration readYourWrites
+) {
+    public static final ReplicaSettings NONE = new ReplicaSettings(
+            List.of(), ReplicaRouter.Strategy.LEAST_LOADED, Duration.ofSeconds(2), Duration.ofSeconds(30),
+            Duration.ofSeconds(2));
+
+    public ReplicaSettings {
+        urls = List.copyOf(urls);
+    }
+
+    /**
+     * @return the replicas configured through {@link DatabaseConfig}
+     */
+    public static ReplicaSettings fromConfig() {
+        List<String> urls = Arrays.stream(DatabaseConfig.REPLICA_URLS.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        ReplicaRouter.Strategy strategy = "round_robin".equalsIgnoreCase(DatabaseConfig.REPLICA_SELECTION)
+                ? ReplicaRouter.Strategy.ROUND_ROBIN
+                : ReplicaRouter.Strategy.LEAST_LOADED;
+        return new ReplicaSettings(urls, strategy,
+                Duration.ofMillis(Math.max(DatabaseConfig.REPLICA_CONNECTION_TIMEOUT_MS, 250)),
+                Duration.ofSeconds(Math.max(DatabaseConfig.REPLICA_RETRY_SECONDS, 1)),
+                Duration.ofMillis(Math.max(DatabaseConfig.REPLICA_READ_YOUR_WRITES_MS, 0)));
+    }
+}
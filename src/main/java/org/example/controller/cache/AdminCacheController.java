@@ -0,0 +1,154 @@
+package org.example.controller.cache;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Duration;
+import org.example.dto.cache.CacheStatsResponse;
+import org.example.dto.cache.SecondTierStatsResponse;
+import org.example.service.CacheService;
+import org.example.util.DialogUtil;
+import org.example.util.FormatUtil;
+
+import java.util.List;
+
+public class AdminCacheController {
+
+    @FXML
+    private TableView<CacheStatsResponse> cacheTable;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> namespaceColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> sizeColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> hitsColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> missesColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> hitRateColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> negativeColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> loadsColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> loadTimeColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> evictionsColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> expirationsColumn;
+    @FXML
+    private TableColumn<CacheStatsResponse, String> invalidationsColumn;
+    @FXML
+    private Label summaryLabel;
+    @FXML
+    private TableView<SecondTierStatsResponse> offHeapTable;
+    @FXML
+    private TableColumn<SecondTierStatsResponse, String> offHeapNamespaceColumn;
+    @FXML
+    private TableColumn<SecondTierStatsResponse, String> offHeapEntriesColumn;
+    @FXML
+    private TableColumn<SecondTierStatsResponse, String> offHeapMemoryColumn;
+    @FXML
+    private TableColumn<SecondTierStatsResponse, String> offHeapHitsColumn;
+    @FXML
+    private TableColumn<SecondTierStatsResponse, String> offHeapHitRateColumn;
+    @FXML
+    private TableColumn<SecondTierStatsResponse, String> offHeapEvictionsColumn;
+
+    private final CacheService cacheService;
+    private final ObservableList<CacheStatsResponse> stats = FXCollections.observableArrayList();
+    private final ObservableList<SecondTierStatsResponse> offHeapStats = FXCollections.observableArrayList();
+    private final Timeline autoRefresh = new Timeline(new KeyFrame(Duration.seconds(2), e -> loadStats()));
+
+    public AdminCacheController(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @FXML
+    private void initialize() {
+        setupColumns();
+        cacheTable.setItems(stats);
+        offHeapTable.setItems(offHeapStats);
+        loadStats();
+
+        autoRefresh.setCycleCount(Timeline.INDEFINITE);
+        autoRefresh.play();
+        // Stop polling once the admin navigates to another screen
+        cacheTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) autoRefresh.stop();
+        });
+    }
+
+    private void setupColumns() {
+        namespaceColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(c.getValue().namespace()));
+        sizeColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(Long.toString(c.getValue().size())));
+        hitsColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(Long.toString(c.getValue().hits())));
+        missesColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(Long.toString(c.getValue().misses())));
+        hitRateColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(FormatUtil.percent(c.getValue().hitRate())));
+        negativeColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(c.getValue().negativeHits() + " hits / " + c.getValue().negativeLoads() + " loads"));
+        loadsColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(c.getValue().loads() + " / " + c.getValue().loadFailures() + " failed"));
+        loadTimeColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(String.format("%.1f ms avg, p95 %s",
+                        c.getValue().averageLoadMillis(), formatBucket(c.getValue().p95LoadMillis()))));
+        evictionsColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(Long.toString(c.getValue().evictions())));
+        expirationsColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(Long.toString(c.getValue().expirations())));
+        invalidationsColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(Long.toString(c.getValue().invalidations())));
+
+        offHeapNamespaceColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(c.getValue().namespace()));
+        offHeapEntriesColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(Long.toString(c.getValue().entries())));
+        offHeapMemoryColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(FormatUtil.bytes(c.getValue().usedBytes()) + " used / "
+                        + FormatUtil.bytes(c.getValue().allocatedBytes()) + " of "
+                        + FormatUtil.bytes(c.getValue().capacityBytes())));
+        offHeapHitsColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(c.getValue().hits() + " / " + c.getValue().misses()));
+        offHeapHitRateColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(FormatUtil.percent(c.getValue().hitRate())));
+        offHeapEvictionsColumn.setCellValueFactory(c ->
+                new SimpleStringProperty(Long.toString(c.getValue().evictions())));
+    }
+
+    private String formatBucket(long upperBoundMillis) {
+        return upperBoundMillis < 0 ? "> 1000 ms" : "< " + upperBoundMillis + " ms";
+    }
+
+    private void loadStats() {
+        try {
+            List<CacheStatsResponse> result = cacheService.getCacheStats();
+            stats.setAll(result);
+            offHeapStats.setAll(cacheService.getSecondTierStats());
+
+            long hits = result.stream().mapToLong(CacheStatsResponse::hits).sum();
+            long misses = result.stream().mapToLong(CacheStatsResponse::misses).sum();
+            long size = result.stream().mapToLong(CacheStatsResponse::size).sum();
+            double hitRate = hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+            summaryLabel.setText(size + " entries, overall hit rate " + FormatUtil.percent(hitRate));
+        } catch (Exception e) {
+            autoRefresh.stop();
+            DialogUtil.showError("Failed to load cache statistics", e.getMessage());
+        }
+    }
+
+    @FXML
+    private void handleRefresh() {
+        loadStats();
+    }
+}
@@ -9,6 +9,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import org.example.dto.PageWithTotalResponse;
 import org.example.dto.category.CategoryResponse;
 import org.example.service.CategoryService;
 import org.example.util.DialogUtil;
@@ -87,16 +88,16 @@ public class AdminCategoryController {
     }
 
     private void setupPagination() {
-        int totalItems = this.currentSearchQuery.isBlank()
-                ? categoryService.getCategoryCount()
-                : categoryService.countCategoriesByName(currentSearchQuery);
+        // The first page and the number of categories come from one query
+        PageWithTotalResponse<CategoryResponse> firstPage = this.currentSearchQuery.isBlank()
+                ? categoryService.getAllCategoriesWithTotal(PAGE_SIZE, 0)
+                : categoryService.searchCategoriesWithTotal(currentSearchQuery, PAGE_SIZE, 0);
 
-        int totalPages = (int) Math.ceil((double) totalItems / PAGE_SIZE);
-
-        pagination.setPageCount(Math.max(totalPages, 1));
+        pagination.setPageCount(firstPage.pageCount(PAGE_SIZE));
         pagination.setCurrentPageIndex(0);
 
-        loadCategories(PAGE_SIZE, 0);
+        categories.setAll(firstPage.items());
+        categoryTable.setItems(categories);
 
         // Listen for page changes
         pagination.currentPageIndexProperty().addListener(
@@ -8,8 +8,11 @@ import javafx.scene.control.Pagination;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import org.example.dto.PageWithTotalResponse;
+import org.example.dto.order.OrderPageResponse;
 import org.example.dto.order.OrderResponse;
 import org.example.service.PurchaseService;
+import org.example.ui.PageTokens;
 import org.example.util.DialogUtil;
 import org.example.util.FormatUtil;
 
@@ -63,26 +66,43 @@ public class AdminOrderController implements Initializable {
     }
 
     private void setupPagination() {
-        int totalItems = Math.max(1, purchaseService.countPurchases());
-        int totalPages = (int) Math.ceil((double) totalItems / PAGE_SIZE);
+        PageTokens pageTokens = new PageTokens();
+        // The first page and the number of orders come from one query
+        PageWithTotalResponse<OrderResponse> firstPage = purchaseService.getPurchaseHistoryWithTotal(PAGE_SIZE, 0);
 
-        pagination.setPageCount(Math.max(totalPages, 1));
+        pagination.setPageCount(firstPage.pageCount(PAGE_SIZE));
         pagination.setCurrentPageIndex(0);
 
-        loadOrders(0);
+        showOrders(pageTokens, 0, firstPage.items());
 
         pagination.currentPageIndexProperty().addListener((obs, oldIndex, newIndex) ->
-                loadOrders(newIndex.intValue() * PAGE_SIZE));
+                loadOrders(pageTokens, newIndex.intValue()));
     }
 
-    private void loadOrders(int offset) {
+    private void loadOrders(PageTokens pageTokens, int pageIndex) {
         try {
-            orders.clear();
-            List<OrderResponse> result = purchaseService.getPurchaseHistory(PAGE_SIZE, offset);
-            orders.addAll(result);
-            orderTable.setItems(orders);
+            List<OrderResponse> result;
+            if (pageTokens.has(pageIndex)) {
+                OrderPageResponse page = purchaseService.getPurchaseHistoryAfter(pageTokens.get(pageIndex), PAGE_SIZE);
+                pageTokens.put(pageIndex + 1, page.nextPageToken());
+                result = page.orders();
+            } else {
+                // Jumped past the pages seen so far: skip by offset once, then continue by token
+                result = purchaseService.getPurchaseHistory(PAGE_SIZE, pageIndex * PAGE_SIZE);
+            }
+            showOrders(pageTokens, pageIndex, result);
         } catch (Exception e) {
             DialogUtil.showError("Failed to load orders", e.getMessage());
         }
     }
+
+    private void showOrders(PageTokens pageTokens, int pageIndex, List<OrderResponse> result) {
+        // A full page read by offset ends where the next page starts
+        if (!pageTokens.has(pageIndex + 1) && result.size() == PAGE_SIZE)
+            pageTokens.put(pageIndex + 1, purchaseService.pageTokenAfter(result.get(PAGE_SIZE - 1)));
+
+        orders.clear();
+        orders.addAll(result);
+        orderTable.setItems(orders);
+    }
 }
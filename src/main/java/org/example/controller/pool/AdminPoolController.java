@@ -0,0 +1,124 @@
+package org.example.controller.pool;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Duration;
+import org.example.config.ConnectionPoolStats;
+import org.example.dto.pool.ConnectionPoolStatsResponse;
+import org.example.service.ConnectionPoolService;
+import org.example.util.DialogUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class AdminPoolController {
+
+    /** One row of the wait-time histogram. */
+    public record WaitBucket(String range, long count, double share) {}
+
+    @FXML
+    private Label connectionsLabel;
+    @FXML
+    private Label waitLabel;
+    @FXML
+    private Label problemsLabel;
+    @FXML
+    private Label replicasLabel;
+    @FXML
+    private TableView<WaitBucket> waitTable;
+    @FXML
+    private TableColumn<WaitBucket, String> rangeColumn;
+    @FXML
+    private TableColumn<WaitBucket, String> countColumn;
+    @FXML
+    private TableColumn<WaitBucket, String> shareColumn;
+
+    private final ConnectionPoolService connectionPoolService;
+    private final ObservableList<WaitBucket> buckets = FXCollections.observableArrayList();
+    private final Timeline autoRefresh = new Timeline(new KeyFrame(Duration.seconds(2), e -> loadStats()));
+
+    public AdminPoolController(ConnectionPoolService connectionPoolService) {
+        this.connectionPoolService = connectionPoolService;
+    }
+
+    @FXML
+    private void initialize() {
+        rangeColumn.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().range()));
+        countColumn.setCellValueFactory(c -> new SimpleStringProperty(Long.toString(c.getValue().count())));
+        shareColumn.setCellValueFactory(c -> new SimpleStringProperty(String.format("%.1f%%", c.getValue().share() * 100)));
+        waitTable.setItems(buckets);
+        loadStats();
+
+        autoRefresh.setCycleCount(Timeline.INDEFINITE);
+        autoRefresh.play();
+        // Stop polling once the admin navigates to another screen
+        waitTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) autoRefresh.stop();
+        });
+    }
+
+    private void loadStats() {
+        try {
+            ConnectionPoolStatsResponse stats = connectionPoolService.getPoolStats();
+            connectionsLabel.setText(stats.active() + " active, " + stats.idle() + " idle, "
+                    + stats.pending() + " waiting (" + stats.total() + " of " + stats.maximumPoolSize() + " open)");
+            waitLabel.setText(String.format("%d acquisitions, %.2f ms avg wait, p50 %s, p95 %s, p99 %s, max %.1f ms",
+                    stats.acquisitions(), stats.averageWaitMillis(), formatBucket(stats.p50WaitMicros()),
+                    formatBucket(stats.p95WaitMicros()), formatBucket(stats.p99WaitMicros()), stats.maxWaitMillis()));
+            problemsLabel.setText(stats.timeouts() + " acquisition timeouts, "
+                    + stats.longHeld() + " connections held past the leak threshold");
+            buckets.setAll(toBuckets(stats.waitBuckets()));
+            showReplicas(connectionPoolService.getReplicaPoolStats());
+        } catch (Exception e) {
+            autoRefresh.stop();
+            DialogUtil.showError("Failed to load connection pool statistics", e.getMessage());
+        }
+    }
+
+    private void showReplicas(Map<String, ConnectionPoolStatsResponse> replicas) {
+        List<String> lines = new ArrayList<>(replicas.size());
+        replicas.forEach((name, stats) -> lines.add(String.format(
+                "%s: %d active, %d idle, %d waiting, p95 wait %s, %d timeouts, %d held past the leak threshold",
+                name, stats.active(), stats.idle(), stats.pending(), formatBucket(stats.p95WaitMicros()),
+                stats.timeouts(), stats.longHeld())));
+        replicasLabel.setText(String.join("\n", lines));
+        replicasLabel.setVisible(!lines.isEmpty());
+        replicasLabel.setManaged(!lines.isEmpty());
+    }
+
+    private List<WaitBucket> toBuckets(long[] counts) {
+        long total = 0;
+        for (long count : counts) total += count;
+
+        long[] bounds = ConnectionPoolStats.WAIT_BUCKET_BOUNDS_MICROS;
+        List<WaitBucket> result = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            String range = i < bounds.length ? "< " + formatMicros(bounds[i]) : ">= " + formatMicros(bounds[bounds.length - 1]);
+            result.add(new WaitBucket(range, counts[i], total == 0 ? 0.0 : (double) counts[i] / total));
+        }
+        return result;
+    }
+
+    private String formatBucket(long upperBoundMicros) {
+        return upperBoundMicros < 0
+                ? "> " + formatMicros(ConnectionPoolStats.WAIT_BUCKET_BOUNDS_MICROS[ConnectionPoolStats.WAIT_BUCKET_BOUNDS_MICROS.length - 1])
+                : "< " + formatMicros(upperBoundMicros);
+    }
+
+    private static String formatMicros(long micros) {
+        return micros < 1_000 ? micros + " µs" : micros / 1_000.0 + " ms";
+    }
+
+    @FXML
+    private void handleRefresh() {
+        loadStats();
+    }
+}
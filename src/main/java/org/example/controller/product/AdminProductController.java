@@ -9,12 +9,15 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import org.example.dto.PageWithTotalResponse;
+import org.example.dto.product.ProductPageResponse;
 import org.example.dto.product.ProductResponse;
 import org.example.model.ProductFilter;
 import org.example.service.CategoryService;
 import org.example.service.ProductService;
 import org.example.ui.ActionCell;
 import org.example.ui.ActionDefinition;
+import org.example.ui.PageTokens;
 import org.example.util.DialogUtil;
 import org.example.util.FormatUtil;
 
@@ -134,19 +137,21 @@ public class AdminProductController {
 
     private void setupPagination() {
         ProductFilter filter = buildFilter();
+        PageTokens pageTokens = new PageTokens();
 
-        int totalItems = this.productService.countProductsByFilter(filter);
-        int totalPages = (int) Math.ceil((double) totalItems / PAGE_SIZE);
+        // The first page and the number of matches come from one query
+        PageWithTotalResponse<ProductResponse> firstPage =
+                this.productService.searchProductsWithTotal(filter, PAGE_SIZE, 0);
 
-        pagination.setPageCount(Math.max(totalPages, 1));
+        pagination.setPageCount(firstPage.pageCount(PAGE_SIZE));
         pagination.setCurrentPageIndex(0);
 
-        loadProducts(filter, 0);
+        showProducts(pageTokens, 0, firstPage.items());
 
         // Listen for page changes
         pagination.currentPageIndexProperty().addListener(
                 (obs, oldIndex, newIndex) -> {
-                    loadProducts(filter, newIndex.intValue() * PAGE_SIZE);
+                    loadProducts(filter, pageTokens, newIndex.intValue());
                 }
         );
     }
@@ -160,19 +165,35 @@ public class AdminProductController {
         );
     }
 
-    private void loadProducts(ProductFilter filter, int offset) {
+    private void loadProducts(ProductFilter filter, PageTokens pageTokens, int pageIndex) {
         try {
-            products.clear();
-
-            List<ProductResponse> result = this.productService.searchProducts(filter, PAGE_SIZE, offset);
-
-            products.addAll(result);
-            productTable.setItems(products);
+            List<ProductResponse> result;
+            if (pageTokens.has(pageIndex)) {
+                ProductPageResponse page = this.productService.searchProductsAfter(
+                        filter, pageTokens.get(pageIndex), PAGE_SIZE);
+                pageTokens.put(pageIndex + 1, page.nextPageToken());
+                result = page.products();
+            } else {
+                // Jumped past the pages seen so far: skip by offset once, then continue by token
+                result = this.productService.searchProducts(filter, PAGE_SIZE, pageIndex * PAGE_SIZE);
+            }
+
+            showProducts(pageTokens, pageIndex, result);
         } catch (Exception e) {
             DialogUtil.showError("Error", "Failed to load products");
         }
     }
 
+    private void showProducts(PageTokens pageTokens, int pageIndex, List<ProductResponse> result) {
+        // A full page read by offset ends where the next page starts
+        if (!pageTokens.has(pageIndex + 1) && result.size() == PAGE_SIZE)
+            pageTokens.put(pageIndex + 1, this.productService.pageTokenAfter(result.get(PAGE_SIZE - 1)));
+
+        products.clear();
+        products.addAll(result);
+        productTable.setItems(products);
+    }
+
     @FXML
     protected void handleAddProduct() {
         openProductModal("Add Product", null);
@@ -6,6 +6,7 @@ import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
+import org.example.dto.PageWithTotalResponse;
 import org.example.dto.review.CreateReviewRequest;
 import org.example.dto.review.ReviewResponse;
 import org.example.service.ReviewService;
@@ -65,13 +66,15 @@ public class ReviewModalController {
     }
 
     private void setupPagination() {
-        int totalItems = reviewService.countProductReviews(productId);
-        int totalPages = (int) Math.ceil((double) totalItems / PAGE_SIZE);
+        // The first page and the number of reviews come from one query
+        PageWithTotalResponse<ReviewResponse> firstPage =
+                reviewService.getProductReviewsWithTotal(productId, PAGE_SIZE, 0);
 
-        pagination.setPageCount(Math.max(totalPages, 1));
+        pagination.setPageCount(firstPage.pageCount(PAGE_SIZE));
         pagination.setCurrentPageIndex(0);
 
-        loadReviews(0);
+        reviews.setAll(firstPage.items());
+        reviewTable.setItems(reviews);
 
         pagination.currentPageIndexProperty().addListener(
             (obs, oldIndex, newIndex) -> loadReviews(newIndex.intValue() * PAGE_SIZE)
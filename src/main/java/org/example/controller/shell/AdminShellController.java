@@ -37,6 +37,20 @@ public class AdminShellController {
         );
     }
 
+    @FXML
+    private void goCache() {
+        contentArea.getChildren().setAll(
+                Router.loadAdminContent("admin-cache.fxml")
+        );
+    }
+
+    @FXML
+    private void goDatabase() {
+        contentArea.getChildren().setAll(
+                Router.loadAdminContent("admin-pool.fxml")
+        );
+    }
+
     @FXML
     private void goBuyer() {
         Router.goToBuyer();
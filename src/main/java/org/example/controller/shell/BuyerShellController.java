@@ -1,30 +1,45 @@
 package org.example.controller.shell;
 
 import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import org.example.config.CacheConfig;
 import org.example.controller.order.OrderModalController;
 import org.example.dto.category.CategoryResponse;
+import org.example.dto.PageWithTotalResponse;
+import org.example.dto.product.ProductFacetPageResponse;
+import org.example.dto.product.ProductPageResponse;
 import org.example.dto.product.ProductResponse;
+import org.example.model.PriceRange;
+import org.example.model.ProductFacetCounts;
+import org.example.model.ProductFacetQuery;
 import org.example.model.ProductFilter;
+import org.example.model.SearchMode;
+import org.example.service.AutocompleteService;
 import org.example.service.CategoryService;
 import org.example.service.PurchaseService;
 import org.example.service.ProductService;
 import org.example.service.ReviewService;
+import org.example.store.suggestion.Suggestions;
 import org.example.ui.ActionCell;
 import org.example.ui.ActionDefinition;
+import org.example.ui.PageTokens;
 import org.example.ui.Router;
 import org.example.util.DialogUtil;
 import org.example.util.FormatUtil;
 import org.example.controller.product.ReviewModalController;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 public class BuyerShellController {
 
@@ -33,6 +48,14 @@ public class BuyerShellController {
     @FXML
     private ComboBox<CategoryResponse> categoryFilter;
     @FXML
+    private ComboBox<PriceRange> priceFilter;
+    @FXML
+    private ComboBox<Integer> ratingFilter;
+    @FXML
+    private CheckBox inStockFilter;
+    @FXML
+    private Label searchHint;
+    @FXML
     private TableView<ProductResponse> productTable;
     @FXML
     private TableColumn<ProductResponse, String> nameColumn;
@@ -50,8 +73,14 @@ public class BuyerShellController {
     private final CategoryService categoryService;
     private final PurchaseService purchaseService;
     private final ReviewService reviewService;
+    private final AutocompleteService autocompleteService;
+    private final Suggestions suggestions = new Suggestions(Math.max(CacheConfig.AUTOCOMPLETE_SUGGESTIONS, 1));
+    private final ContextMenu suggestionMenu = new ContextMenu();
     private final ObservableList<ProductResponse> products = FXCollections.observableArrayList();
     private final ObservableList<CategoryResponse> categories = FXCollections.observableArrayList();
+    // Counts of the facet values for the products listed, or null while showing search results
+    private ProductFacetCounts facetCounts;
+    private ChangeListener<Number> pageListener;
 
     private final int PAGE_SIZE = 5;
 
@@ -59,12 +88,14 @@ public class BuyerShellController {
             ProductService productService,
             CategoryService categoryService,
             PurchaseService purchaseService,
-            ReviewService reviewService
+            ReviewService reviewService,
+            AutocompleteService autocompleteService
     ) {
         this.productService = productService;
         this.categoryService = categoryService;
         this.purchaseService = purchaseService;
         this.reviewService = reviewService;
+        this.autocompleteService = autocompleteService;
 
     }
 
@@ -73,6 +104,8 @@ public class BuyerShellController {
         setupColumns();
         setupActionsColumn();
         setupCategoryFilter();
+        setupFacetFilters();
+        setupSuggestions();
         setupPagination();
     }
 
@@ -135,7 +168,7 @@ public class BuyerShellController {
                 super.updateItem(item, empty);
                 setText(empty
                         ? ""
-                        : item == null ? "All Categories" : item.name());
+                        : item == null ? "All Categories" : withCount(item.name(), categoryCount(item)));
             }
         });
     }
@@ -147,48 +180,272 @@ public class BuyerShellController {
         });
     }
 
+    private void setupFacetFilters() {
+        ObservableList<PriceRange> prices = FXCollections.observableArrayList();
+        prices.add(null);
+        prices.addAll(PriceRange.values());
+        priceFilter.setItems(prices);
+        priceFilter.setCellFactory(cb -> new ListCell<>() {
+            @Override
+            protected void updateItem(PriceRange item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty
+                        ? ""
+                        : item == null ? "Any Price" : withCount(item.label(), priceCount(item)));
+            }
+        });
+        priceFilter.setButtonCell(priceFilter.getCellFactory().call(null));
+
+        // 0 stands for any rating, including none
+        ratingFilter.setItems(FXCollections.observableArrayList(0, 4, 3, 2, 1));
+        ratingFilter.setCellFactory(cb -> new ListCell<>() {
+            @Override
+            protected void updateItem(Integer item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty
+                        ? ""
+                        : item == 0 ? "Any Rating" : withCount(item + "+ stars", ratingCount(item)));
+            }
+        });
+        ratingFilter.setButtonCell(ratingFilter.getCellFactory().call(null));
+
+        priceFilter.valueProperty().addListener((obs, oldVal, newVal) -> handleSearchAction());
+        ratingFilter.valueProperty().addListener((obs, oldVal, newVal) -> handleSearchAction());
+        inStockFilter.selectedProperty().addListener((obs, oldVal, newVal) -> handleSearchAction());
+    }
+
+    private Integer categoryCount(CategoryResponse category) {
+        return facetCounts == null ? null : facetCounts.categories().getOrDefault(category.categoryId(), 0);
+    }
+
+    private Integer priceCount(PriceRange range) {
+        return facetCounts == null ? null : facetCounts.priceRanges().get(range);
+    }
+
+    private Integer ratingCount(int minRating) {
+        return facetCounts == null ? null : facetCounts.minRatings().get(minRating);
+    }
+
+    private static String withCount(String text, Integer count) {
+        return count == null ? text : text + " (" + count + ")";
+    }
+
+    /**
+     * Show the new counts next to every facet value. Cells only redraw when their item changes, so the lists
+     * get fresh cells.
+     */
+    private void showFacetCounts(ProductFacetCounts counts) {
+        facetCounts = counts;
+        inStockFilter.setText(withCount("In stock only", counts == null ? null : counts.inStock()));
+        redrawCells(categoryFilter);
+        redrawCells(priceFilter);
+        redrawCells(ratingFilter);
+    }
+
+    private static <T> void redrawCells(ComboBox<T> comboBox) {
+        var cellFactory = comboBox.getCellFactory();
+        comboBox.setCellFactory(null);
+        comboBox.setCellFactory(cellFactory);
+    }
+
+    private void setupSuggestions() {
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> showSuggestions(newVal));
+        searchField.focusedProperty().addListener((obs, oldVal, focused) -> {
+            if (!focused) suggestionMenu.hide();
+        });
+    }
+
+    /**
+     * Offer the most popular product and category names matching the typed text. The lookup runs in memory,
+     * so it is done on every keystroke.
+     */
+    private void showSuggestions(String text) {
+        int count = autocompleteService.suggest(text, suggestions);
+        if (count == 0 || !searchField.isFocused()) {
+            suggestionMenu.hide();
+            return;
+        }
+
+        String typed = text.strip();
+        List<MenuItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = suggestions.text(i);
+            UUID categoryId = suggestions.categoryId(i);
+            // Picking the exact text already typed would change nothing
+            if (categoryId == null && name.equalsIgnoreCase(typed)) continue;
+            MenuItem item = new MenuItem(categoryId == null ? name : name + " (category)");
+            item.setOnAction(e -> applySuggestion(name, categoryId));
+            items.add(item);
+        }
+        if (items.isEmpty()) {
+            suggestionMenu.hide();
+            return;
+        }
+        suggestionMenu.getItems().setAll(items);
+        if (!suggestionMenu.isShowing()) suggestionMenu.show(searchField, Side.BOTTOM, 0, 0);
+    }
+
+    private void applySuggestion(String name, UUID categoryId) {
+        suggestionMenu.hide();
+        if (categoryId == null) {
+            searchField.setText(name);
+            searchField.positionCaret(name.length());
+            // Setting the text offers suggestions for it again
+            suggestionMenu.hide();
+            handleSearchAction();
+            return;
+        }
+        CategoryResponse category = categories.stream()
+                .filter(c -> c != null && c.categoryId().equals(categoryId))
+                .findFirst()
+                .orElse(null);
+        if (category == null) return;
+        searchField.clear();
+        // The category listener reloads the products
+        categoryFilter.setValue(category);
+    }
+
     private void setupPagination() {
-        ProductFilter filter = buildFilter();
+        // Without search words the listing is browsed by facets, answered in memory with counts per choice
+        boolean browsing = searchField.getText().isBlank() && this.productService.canBrowseProducts();
+        if (browsing) {
+            try {
+                setFacetFiltersDisabled(false);
+                setupFacetPagination();
+                return;
+            } catch (RuntimeException e) {
+                // The facets could not be loaded; list the products without them
+            }
+        }
+        setFacetFiltersDisabled(true);
+        showFacetCounts(null);
+
+        ProductFilter searched = buildFilter();
+        PageTokens pageTokens = new PageTokens();
 
-        int totalItems = this.productService.countProductsByFilter(filter);
-        int totalPages = (int) Math.ceil((double) totalItems / PAGE_SIZE);
+        // The first page and the number of matches come from one query
+        PageWithTotalResponse<ProductResponse> firstPage =
+                this.productService.searchProductsWithTotal(searched, PAGE_SIZE, 0);
 
-        pagination.setPageCount(Math.max(totalPages, 1));
+        // Nothing matched the words as typed: list the products with similar names, in case of a typo
+        ProductFilter filter = searched;
+        if (firstPage.total() == 0 && searched.hasName()) {
+            filter = searched.withSearchMode(SearchMode.SIMILAR);
+            firstPage = this.productService.searchProductsWithTotal(filter, PAGE_SIZE, 0);
+        }
+        showSearchHint(searched, filter, firstPage.items());
+
+        pagination.setPageCount(firstPage.pageCount(PAGE_SIZE));
         pagination.setCurrentPageIndex(0);
 
-        loadProducts(filter, 0);
+        showProducts(filter, pageTokens, 0, firstPage.items());
 
         // Listen for page changes
-        pagination.currentPageIndexProperty().addListener(
-                (obs, oldIndex, newIndex) -> {
-                    loadProducts(filter, newIndex.intValue() * PAGE_SIZE);
-                }
+        ProductFilter shown = filter;
+        setPageListener((obs, oldIndex, newIndex) -> {
+            loadProducts(shown, pageTokens, newIndex.intValue());
+        });
+    }
+
+    private void setupFacetPagination() {
+        ProductFacetQuery query = buildFacetQuery();
+        ProductFacetPageResponse firstPage = this.productService.browseProducts(query, PAGE_SIZE, 0);
+        searchHint.setVisible(false);
+        searchHint.setManaged(false);
+        showFacetCounts(firstPage.counts());
+
+        pagination.setPageCount(firstPage.pageCount(PAGE_SIZE));
+        pagination.setCurrentPageIndex(0);
+        showProducts(firstPage.products());
+
+        setPageListener((obs, oldIndex, newIndex) -> {
+            try {
+                showProducts(this.productService.browseProducts(query, PAGE_SIZE, newIndex.intValue() * PAGE_SIZE)
+                        .products());
+            } catch (Exception e) {
+                DialogUtil.showError("Error", e.getMessage());
+            }
+        });
+    }
+
+    private void setFacetFiltersDisabled(boolean disabled) {
+        priceFilter.setDisable(disabled);
+        ratingFilter.setDisable(disabled);
+        inStockFilter.setDisable(disabled);
+    }
+
+    /**
+     * Replace the listener of the previous listing, so a page change loads only the current one.
+     */
+    private void setPageListener(ChangeListener<Number> listener) {
+        if (pageListener != null) pagination.currentPageIndexProperty().removeListener(pageListener);
+        pageListener = listener;
+        pagination.currentPageIndexProperty().addListener(listener);
+    }
+
+    private ProductFacetQuery buildFacetQuery() {
+        CategoryResponse selectedCategory = categoryFilter.getValue();
+        Integer minRating = ratingFilter.getValue();
+        return new ProductFacetQuery(
+                selectedCategory == null ? null : selectedCategory.categoryId(),
+                priceFilter.getValue(),
+                inStockFilter.isSelected(),
+                minRating == null ? 0 : minRating
         );
     }
 
+    private void showSearchHint(ProductFilter searched, ProductFilter shown, List<ProductResponse> firstPage) {
+        boolean similar = shown != searched && !firstPage.isEmpty();
+        if (similar)
+            searchHint.setText("No matches for \"" + searched.name() + "\". Did you mean \"" + firstPage.get(0).name() + "\"?");
+        searchHint.setVisible(similar);
+        searchHint.setManaged(similar);
+    }
+
     private ProductFilter buildFilter() {
         String search = searchField.getText().trim();
         CategoryResponse selectedCategory = categoryFilter.getValue();
 
-        return new ProductFilter(
+        return this.productService.buyerSearchFilter(
                 search.isBlank() ? null : search,
                 selectedCategory == null ? null : selectedCategory.categoryId()
         );
     }
 
-    private void loadProducts(ProductFilter filter, int offset) {
+    private void loadProducts(ProductFilter filter, PageTokens pageTokens, int pageIndex) {
         try{
-            products.clear();
-
-            List<ProductResponse> result = this.productService.searchProducts(filter, PAGE_SIZE, offset);
+            List<ProductResponse> result;
+            // Tokens hold a position in name order, so results ranked by relevance are paged by offset
+            if (!filter.isRanked() && pageTokens.has(pageIndex)) {
+                ProductPageResponse page = this.productService.searchProductsAfter(
+                        filter, pageTokens.get(pageIndex), PAGE_SIZE);
+                pageTokens.put(pageIndex + 1, page.nextPageToken());
+                result = page.products();
+            } else {
+                // Jumped past the pages seen so far: skip by offset once, then continue by token
+                result = this.productService.searchProducts(filter, PAGE_SIZE, pageIndex * PAGE_SIZE);
+            }
 
-            products.addAll(result);
-            productTable.setItems(products);
+            showProducts(filter, pageTokens, pageIndex, result);
         } catch (Exception e) {
             DialogUtil.showError("Error", e.getMessage());
         }
     }
 
+    private void showProducts(ProductFilter filter, PageTokens pageTokens, int pageIndex, List<ProductResponse> result) {
+        // A full page read by offset ends where the next page starts
+        if (!filter.isRanked() && !pageTokens.has(pageIndex + 1) && result.size() == PAGE_SIZE)
+            pageTokens.put(pageIndex + 1, this.productService.pageTokenAfter(result.get(PAGE_SIZE - 1)));
+
+        showProducts(result);
+    }
+
+    private void showProducts(List<ProductResponse> result) {
+        products.clear();
+        products.addAll(result);
+        productTable.setItems(products);
+    }
+
     @FXML
     private void handleSearchAction() {
         pagination.setCurrentPageIndex(0);
@@ -0,0 +1,27 @@
+package org.example.dao.impl;
+
+import org.example.dao.exception.DAOException;
+import org.example.dao.interfaces.CacheNotificationDao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class CacheNotificationJdbcDao implements CacheNotificationDao {
+
+    private static final String NOTIFY = """
+            SELECT pg_notify(?, ?)
+            """;
+
+    @Override
+    public void notify(Connection conn, String channel, String payload) throws DAOException {
+        try (PreparedStatement ps = conn.prepareStatement(NOTIFY)) {
+            ps.setString(1, channel);
+            ps.setString(2, payload);
+            // pg_notify returns void; the statement only needs to run
+            ps.execute();
+        } catch (SQLException e) {
+            throw new DAOException("Failed to publish cache invalidation on " + channel, e);
+        }
+    }
+}
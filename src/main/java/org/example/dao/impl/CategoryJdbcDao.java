@@ -4,11 +4,15 @@ import org.example.dao.interfaces.CategoryDao;
 import org.example.dao.interfaces.StatementPreparer;
 import org.example.dao.exception.DAOException;
 import org.example.model.Category;
+import org.example.model.PageWithTotal;
+import org.example.model.TableWatermark;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public class CategoryJdbcDao implements CategoryDao {
@@ -25,10 +29,26 @@ public class CategoryJdbcDao implements CategoryDao {
             WHERE name = ?
             """;
 
+    private static final String FIND_BY_MULTIPLE_IDS = """
+            SELECT category_id, name, description, created_at, updated_at
+            FROM category
+            WHERE category_id IN
+            """;
+
+    // ILIKE on the bare column, unlike LOWER(name) LIKE, can use index_category_name_trgm
     private static final String SEARCH_BY_NAME = """
             SELECT category_id, name, description, created_at, updated_at
             FROM category
-            WHERE LOWER(name) LIKE LOWER(?)
+            WHERE name ILIKE ?
+            ORDER BY name ASC
+            LIMIT ? OFFSET ?
+            """;
+
+    private static final String SEARCH_BY_NAME_WITH_TOTAL = """
+            SELECT category_id, name, description, created_at, updated_at,
+                   COUNT(*) OVER() AS total_count
+            FROM category
+            WHERE name ILIKE ?
             ORDER BY name ASC
             LIMIT ? OFFSET ?
             """;
@@ -36,7 +56,7 @@ public class CategoryJdbcDao implements CategoryDao {
     private static final String COUNT_BY_NAME = """
         SELECT COUNT(*)
         FROM category
-        WHERE LOWER(name) LIKE LOWER(?)
+        WHERE name ILIKE ?
         """;
 
     private static final String FIND_ALL = """
@@ -46,6 +66,14 @@ public class CategoryJdbcDao implements CategoryDao {
             LIMIT ? OFFSET ?
             """;
 
+    private static final String FIND_ALL_WITH_TOTAL = """
+            SELECT category_id, name, description, created_at, updated_at,
+                   COUNT(*) OVER() AS total_count
+            FROM category
+            ORDER BY name ASC
+            LIMIT ? OFFSET ?
+            """;
+
     private static final String SAVE = """
             INSERT INTO category (
             category_id, name, description, created_at, updated_at)
@@ -62,6 +90,11 @@ public class CategoryJdbcDao implements CategoryDao {
             SELECT COUNT(*) FROM category
             """;
 
+    private static final String WATERMARK = """
+            SELECT COUNT(*), COALESCE(md5(string_agg(change_seq::text, ',' ORDER BY change_seq)), '')
+            FROM category
+            """;
+
     @Override
     public Optional<Category> findById(Connection conn, UUID categoryId) throws DAOException {
         try (PreparedStatement ps = conn.prepareStatement(FIND_BY_ID)) {
@@ -98,6 +131,27 @@ public class CategoryJdbcDao implements CategoryDao {
         return Optional.empty();
     }
 
+    @Override
+    public List<Category> findByIds(Connection conn, Set<UUID> categoryIds) throws DAOException {
+        if (categoryIds.isEmpty()) return List.of();
+
+        List<Category> categories = new ArrayList<>();
+        String placeholders = String.join(", ", Collections.nCopies(categoryIds.size(), "?"));
+        try (PreparedStatement ps = conn.prepareStatement(FIND_BY_MULTIPLE_IDS + "(" + placeholders + ")")) {
+            int index = 1;
+            for (UUID id : categoryIds)
+                ps.setObject(index++, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    categories.add(map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to fetch categories by IDs", e);
+        }
+        return categories;
+    }
+
     @Override
     public List<Category> searchByName(Connection conn, String query, int limit, int offset) throws DAOException {
         List<Category> categories = new ArrayList<>();
@@ -116,6 +170,29 @@ public class CategoryJdbcDao implements CategoryDao {
         return categories;
     }
 
+    @Override
+    public PageWithTotal<Category> searchByNameWithTotal(Connection conn, String query, int limit, int offset)
+            throws DAOException {
+        List<Category> categories = new ArrayList<>();
+        int total = 0;
+        try (PreparedStatement ps = conn.prepareStatement(SEARCH_BY_NAME_WITH_TOTAL)) {
+            ps.setString(1, "%" + query + "%");
+            ps.setInt(2, limit);
+            ps.setInt(3, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    total = rs.getInt("total_count");
+                    categories.add(map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to search categories by name", e);
+        }
+        // A page past the end has no row to carry the total
+        if (categories.isEmpty() && offset > 0) total = countByName(conn, query);
+        return new PageWithTotal<>(categories, total);
+    }
+
     @Override
     public int countByName(Connection conn, String query) throws DAOException {
         try (PreparedStatement ps = conn.prepareStatement(COUNT_BY_NAME)) {
@@ -148,6 +225,27 @@ public class CategoryJdbcDao implements CategoryDao {
         return categories;
     }
 
+    @Override
+    public PageWithTotal<Category> findAllWithTotal(Connection conn, int limit, int offset) throws DAOException {
+        List<Category> categories = new ArrayList<>();
+        int total = 0;
+        try (PreparedStatement ps = conn.prepareStatement(FIND_ALL_WITH_TOTAL)) {
+            ps.setInt(1, limit);
+            ps.setInt(2, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    total = rs.getInt("total_count");
+                    categories.add(map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to fetch all categories", e);
+        }
+        // A page past the end has no row to carry the total
+        if (categories.isEmpty() && offset > 0) total = count(conn);
+        return new PageWithTotal<>(categories, total);
+    }
+
     @Override
     public void save(Connection conn, Category category) throws DAOException {
         try {
@@ -184,6 +282,18 @@ public class CategoryJdbcDao implements CategoryDao {
         }
     }
 
+    @Override
+    public TableWatermark watermark(Connection conn) throws DAOException {
+        try (PreparedStatement ps = conn.prepareStatement(WATERMARK)) {
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return new TableWatermark(rs.getLong(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read category watermark", e);
+        }
+    }
+
     @Override
     public int count(Connection conn) throws DAOException {
         try (PreparedStatement ps = conn.prepareStatement(COUNT)) {
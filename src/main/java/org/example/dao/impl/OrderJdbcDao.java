@@ -2,7 +2,9 @@ package org.example.dao.impl;
 
 import org.example.dao.interfaces.OrdersDao;
 import org.example.dao.exception.DAOException;
+import org.example.model.OrderCursor;
 import org.example.model.Orders;
+import org.example.model.PageWithTotal;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -26,10 +28,37 @@ public class OrderJdbcDao implements OrdersDao {
         SELECT order_id, customer_id, order_date, total_amount,
                shipping_country, shipping_city, shipping_postal_code
         FROM orders
-        ORDER BY order_date DESC
+        ORDER BY order_date DESC, order_id DESC
+        LIMIT ? OFFSET ?
+        """;
+
+    private static final String ALL_ORDERS_WITH_TOTAL = """
+        SELECT order_id, customer_id, order_date, total_amount,
+               shipping_country, shipping_city, shipping_postal_code,
+               COUNT(*) OVER() AS total_count
+        FROM orders
+        ORDER BY order_date DESC, order_id DESC
         LIMIT ? OFFSET ?
         """;
 
+    // Both seek queries walk index_order_date_id (order_date DESC, order_id DESC) from the cursor on
+    private static final String FIRST_ORDERS = """
+        SELECT order_id, customer_id, order_date, total_amount,
+               shipping_country, shipping_city, shipping_postal_code
+        FROM orders
+        ORDER BY order_date DESC, order_id DESC
+        LIMIT ?
+        """;
+
+    private static final String ORDERS_AFTER = """
+        SELECT order_id, customer_id, order_date, total_amount,
+               shipping_country, shipping_city, shipping_postal_code
+        FROM orders
+        WHERE (order_date, order_id) < (?, ?)
+        ORDER BY order_date DESC, order_id DESC
+        LIMIT ?
+        """;
+
     private static final String COUNT = """
         SELECT COUNT(*) FROM orders
         """;
@@ -96,6 +125,49 @@ public class OrderJdbcDao implements OrdersDao {
         return orders;
     }
 
+    @Override
+    public PageWithTotal<Orders> getAllOrdersWithTotal(Connection connection, int limit, int offset) throws DAOException {
+        List<Orders> orders = new ArrayList<>();
+        int total = 0;
+        try(PreparedStatement ps = connection.prepareStatement(ALL_ORDERS_WITH_TOTAL)) {
+            ps.setInt(1, limit);
+            ps.setInt(2, offset);
+            try(ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    total = resultSet.getInt("total_count");
+                    orders.add(map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to load orders page", e);
+        }
+        // A page past the end has no row to carry the total
+        if (orders.isEmpty() && offset > 0) total = countAll(connection);
+        return new PageWithTotal<>(orders, total);
+    }
+
+    @Override
+    public List<Orders> getAllOrdersAfter(Connection connection, OrderCursor after, int limit) throws DAOException {
+        List<Orders> orders = new ArrayList<>();
+        try(PreparedStatement ps = connection.prepareStatement(after == null ? FIRST_ORDERS : ORDERS_AFTER)) {
+            int index = 1;
+            if (after != null) {
+                ps.setTimestamp(index++, Timestamp.from(after.orderDate()));
+                ps.setObject(index++, after.orderId());
+            }
+            ps.setInt(index, limit);
+            try(ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    orders.add(map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to load orders page", e);
+        }
+
+        return orders;
+    }
+
     @Override
     public int countAll(Connection conn) throws DAOException {
         try (PreparedStatement ps = conn.prepareStatement(COUNT)) {
@@ -3,18 +3,31 @@ package org.example.dao.impl;
 import org.example.dao.exception.DAOException;
 import org.example.dao.exception.InsufficientStockException;
 import org.example.dao.interfaces.ProductDao;
+import org.example.model.ListingNeighbours;
+import org.example.model.PageWithTotal;
 import org.example.model.Product;
+import org.example.model.PriceRange;
+import org.example.model.ProductCursor;
+import org.example.model.ProductFacetQuery;
+import org.example.model.ProductFacets;
 import org.example.model.ProductFilter;
+import org.example.model.ProductPopularity;
+import org.example.model.SearchMode;
+import org.example.model.TableWatermark;
+import org.example.util.SearchTermUtil;
 import org.example.util.SqlAndParams;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public class ProductJdbcDao implements ProductDao {
@@ -25,6 +38,12 @@ public class ProductJdbcDao implements ProductDao {
             FROM product WHERE product_id = ?
             """;
 
+    private static final String FIND_BY_MULTIPLE_IDS = """
+            SELECT product_id, name, description, price, stock_quantity,
+                   category_id, created_at, updated_at
+            FROM product WHERE product_id IN
+            """;
+
     private static final String FIND_ALL = """
             SELECT product_id, name, description, price,
                    stock_quantity, category_id, created_at, updated_at
@@ -37,6 +56,11 @@ public class ProductJdbcDao implements ProductDao {
             SELECT COUNT(*) FROM product
             """;
 
+    private static final String WATERMARK = """
+            SELECT COUNT(*), COALESCE(md5(string_agg(change_seq::text, ',' ORDER BY change_seq)), '')
+            FROM product
+            """;
+
     private static final String FILTER = """
             SELECT p.product_id, p.name, p.description, p.price,
                    p.stock_quantity, p.category_id, p.created_at, p.updated_at
@@ -44,12 +68,83 @@ public class ProductJdbcDao implements ProductDao {
             JOIN category c ON c.category_id = p.category_id
             """;
 
+    // COUNT(*) OVER() is computed over every matching row before LIMIT applies, so it is the total
+    private static final String FILTER_WITH_TOTAL = """
+            SELECT p.product_id, p.name, p.description, p.price,
+                   p.stock_quantity, p.category_id, p.created_at, p.updated_at,
+                   COUNT(*) OVER() AS total_count
+            FROM product p
+            JOIN category c ON c.category_id = p.category_id
+            """;
+
+    // Matches index_product_name_id and index_product_category_name_id; the id makes the order total
+    private static final String LISTING_ORDER = " ORDER BY p.name ASC, p.product_id ASC";
+
+    // Most relevant first; ties fall back to the listing order
+    private static final String RANKED_ORDER =
+            " ORDER BY ts_rank(p.search_vector, websearch_to_tsquery('english', ?)) DESC, p.name ASC, p.product_id ASC";
+
+    // Most similar name first; ties fall back to the listing order
+    private static final String SIMILARITY_ORDER =
+            " ORDER BY similarity(p.name, ?) DESC, p.name ASC, p.product_id ASC";
+
     private static final String FILTER_COUNT = """
             SELECT COUNT(*)
             FROM product p
             JOIN category c ON c.category_id = p.category_id
             """;
 
+    private static final String POPULARITY = """
+            SELECT p.product_id, p.name, p.category_id, p.change_seq, COALESCE(SUM(oi.quantity), 0) AS units_sold
+            FROM product p
+            LEFT JOIN order_item oi ON oi.product_id = p.product_id
+            """;
+
+    private static final String POPULARITY_GROUP = " GROUP BY p.product_id";
+
+    // An index-only scan of index_product_name_id
+    private static final String IDS_IN_LISTING_ORDER = "SELECT p.product_id FROM product p" + LISTING_ORDER;
+
+    // Each neighbour is one step of index_product_name_id from the product's own (name, product_id)
+    private static final String LISTING_NEIGHBOURS = """
+            SELECT (SELECT q.product_id FROM product q
+                    WHERE (q.name, q.product_id) < (p.name, p.product_id)
+                    ORDER BY q.name DESC, q.product_id DESC LIMIT 1) AS previous_id,
+                   (SELECT q.product_id FROM product q
+                    WHERE (q.name, q.product_id) > (p.name, p.product_id)
+                    ORDER BY q.name ASC, q.product_id ASC LIMIT 1) AS next_id
+            FROM product p
+            WHERE p.product_id = ?
+            """;
+
+    // Averaging every product's reviews at once beats one index lookup per product
+    private static final String ALL_FACETS = """
+            SELECT p.product_id, p.name, p.category_id, p.price, p.stock_quantity, r.average_rating
+            FROM product p
+            LEFT JOIN (
+                SELECT product_id, AVG(rating) AS average_rating FROM review GROUP BY product_id
+            ) r ON r.product_id = p.product_id
+            """;
+
+    // Facet browsing while the in-memory facet index is not ready; no join, as no category column is read
+    private static final String BY_FACETS_WITH_TOTAL = """
+            SELECT p.product_id, p.name, p.description, p.price,
+                   p.stock_quantity, p.category_id, p.created_at, p.updated_at,
+                   COUNT(*) OVER() AS total_count
+            FROM product p
+            """;
+
+    private static final String COUNT_BY_FACETS = """
+            SELECT COUNT(*) FROM product p
+            """;
+
+    private static final String FACETS_BY_ID = """
+            SELECT p.product_id, p.name, p.category_id, p.price, p.stock_quantity,
+                   (SELECT AVG(rating) FROM review r WHERE r.product_id = p.product_id) AS average_rating
+            FROM product p
+            WHERE p.product_id = ?
+            """;
+
     private static final String SAVE = """
             INSERT INTO product (
                 product_id, name, description, price,
@@ -67,13 +162,13 @@ public class ProductJdbcDao implements ProductDao {
 
     private static final String REDUCE_STOCK = """
             UPDATE product
-            SET stock_quantity = stock_quantity - ?
+            SET stock_quantity = stock_quantity - ?, updated_at = now()
             WHERE product_id = ? AND stock_quantity >= ?
             """;
 
     private static final String INCREASE_STOCK = """
             UPDATE product
-            SET stock_quantity = stock_quantity + ?
+            SET stock_quantity = stock_quantity + ?, updated_at = now()
             WHERE product_id = ? AND stock_quantity >= ?
             """;
 
@@ -97,6 +192,19 @@ public class ProductJdbcDao implements ProductDao {
         return Optional.empty();
     }
 
+    @Override
+    public List<Product> findByIds(Connection conn, Set<UUID> productIds) throws DAOException {
+        if (productIds.isEmpty()) return List.of();
+
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        try (PreparedStatement ps = conn.prepareStatement(FIND_BY_MULTIPLE_IDS + "(" + placeholders + ")")) {
+            setParameters(ps, new ArrayList<>(productIds));
+            return executeQueryForList(ps);
+        } catch (SQLException e) {
+            throw new DAOException("Failed to find products by IDs", e);
+        }
+    }
+
     @Override
     public List<Product> findAll(Connection conn, int limit, int offset) throws DAOException {
         try (PreparedStatement preparedStatement = conn.prepareStatement(FIND_ALL)) {
@@ -128,16 +236,83 @@ public class ProductJdbcDao implements ProductDao {
         }
     }
 
+    @Override
+    public TableWatermark watermark(Connection conn) throws DAOException {
+        try (PreparedStatement ps = conn.prepareStatement(WATERMARK)) {
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return new TableWatermark(rs.getLong(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read product watermark", e);
+        }
+    }
+
     @Override
     public List<Product> findFiltered(Connection conn, ProductFilter filter, int limit, int offset) throws DAOException {
         SqlAndParams where = buildWhereClause(filter);
-        String finalSql = FILTER + where.sql() + " ORDER BY p.name ASC LIMIT ? OFFSET ?";
+        SqlAndParams order = buildOrderClause(filter);
+        String finalSql = FILTER + where.sql() + order.sql() + " LIMIT ? OFFSET ?";
+
+        try (PreparedStatement ps = conn.prepareStatement(finalSql)) {
+            int nextIndex = setParameters(ps, where.params());
+            nextIndex = setParameters(ps, order.params(), nextIndex);
+            ps.setInt(nextIndex++, limit);
+            ps.setInt(nextIndex, offset);
+
+            return executeQueryForList(ps);
+        } catch (SQLException e) {
+            throw new DAOException("Failed to fetch filtered products", e);
+        }
+    }
+
+    @Override
+    public PageWithTotal<Product> findFilteredWithTotal(Connection conn, ProductFilter filter, int limit, int offset)
+            throws DAOException {
+        SqlAndParams where = buildWhereClause(filter);
+        SqlAndParams order = buildOrderClause(filter);
+        String finalSql = FILTER_WITH_TOTAL + where.sql() + order.sql() + " LIMIT ? OFFSET ?";
 
+        List<Product> products = new ArrayList<>();
+        long total = 0;
         try (PreparedStatement ps = conn.prepareStatement(finalSql)) {
             int nextIndex = setParameters(ps, where.params());
+            nextIndex = setParameters(ps, order.params(), nextIndex);
             ps.setInt(nextIndex++, limit);
             ps.setInt(nextIndex, offset);
 
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    total = rs.getLong("total_count");
+                    products.add(mapRowToProduct(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to fetch filtered products", e);
+        }
+        // A page past the end has no row to carry the total
+        if (products.isEmpty() && offset > 0) return new PageWithTotal<>(products, countFiltered(conn, filter));
+        if (total > Integer.MAX_VALUE) throw new DAOException("Product count exceeds integer range:" + total, null);
+        return new PageWithTotal<>(products, (int) total);
+    }
+
+    @Override
+    public List<Product> findFilteredAfter(Connection conn, ProductFilter filter, ProductCursor after, int limit)
+            throws DAOException {
+        SqlAndParams where = buildWhereClause(filter);
+        StringBuilder finalSql = new StringBuilder(FILTER).append(where.sql());
+        List<Object> params = new ArrayList<>(where.params());
+        if (after != null) {
+            finalSql.append(" AND (p.name, p.product_id) > (?, ?)");
+            params.add(after.name());
+            params.add(after.productId());
+        }
+        finalSql.append(LISTING_ORDER).append(" LIMIT ?");
+
+        try (PreparedStatement ps = conn.prepareStatement(finalSql.toString())) {
+            int nextIndex = setParameters(ps, params);
+            ps.setInt(nextIndex, limit);
+
             return executeQueryForList(ps);
         } catch (SQLException e) {
             throw new DAOException("Failed to fetch filtered products", e);
@@ -168,6 +343,137 @@ public class ProductJdbcDao implements ProductDao {
         }
     }
 
+    @Override
+    public List<ProductPopularity> findPopularity(Connection conn, UUID productId) throws DAOException {
+        if (productId == null) return findPopularity(conn, "", List.of());
+        return findPopularity(conn, " WHERE p.product_id = ?", List.of(productId));
+    }
+
+    @Override
+    public List<ProductPopularity> findPopularityChangedAfter(Connection conn, long changeSeq) throws DAOException {
+        // A sequential scan: change_seq is not indexed, so that stock updates stay HOT updates
+        return findPopularity(conn, " WHERE p.change_seq > ?", List.of(changeSeq));
+    }
+
+    private List<ProductPopularity> findPopularity(Connection conn, String where, List<Object> params)
+            throws DAOException {
+        String finalSql = POPULARITY + where + POPULARITY_GROUP;
+
+        List<ProductPopularity> results = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(finalSql)) {
+            setParameters(ps, params);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new ProductPopularity(
+                            rs.getObject("product_id", UUID.class),
+                            rs.getString("name"),
+                            rs.getObject("category_id", UUID.class),
+                            rs.getLong("units_sold"),
+                            rs.getLong("change_seq")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read product popularity", e);
+        }
+        return results;
+    }
+
+    @Override
+    public List<UUID> findIdsInListingOrder(Connection conn) throws DAOException {
+        List<UUID> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(IDS_IN_LISTING_ORDER);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getObject(1, UUID.class));
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read the product listing order", e);
+        }
+        return ids;
+    }
+
+    @Override
+    public Optional<ListingNeighbours> findListingNeighbours(Connection conn, UUID productId) throws DAOException {
+        try (PreparedStatement ps = conn.prepareStatement(LISTING_NEIGHBOURS)) {
+            ps.setObject(1, productId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return Optional.of(new ListingNeighbours(
+                        rs.getObject("previous_id", UUID.class), rs.getObject("next_id", UUID.class)));
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read the listing neighbours of product " + productId, e);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<ProductFacets> findAllFacets(Connection conn) throws DAOException {
+        List<ProductFacets> results = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(ALL_FACETS);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                results.add(mapRowToFacets(rs));
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read product facets", e);
+        }
+        return results;
+    }
+
+    @Override
+    public Optional<ProductFacets> findFacets(Connection conn, UUID productId) throws DAOException {
+        try (PreparedStatement ps = conn.prepareStatement(FACETS_BY_ID)) {
+            ps.setObject(1, productId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return Optional.of(mapRowToFacets(rs));
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read facets of product " + productId, e);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public PageWithTotal<Product> findByFacets(Connection conn, ProductFacetQuery query, int limit, int offset)
+            throws DAOException {
+        SqlAndParams where = buildFacetWhereClause(query);
+        String finalSql = BY_FACETS_WITH_TOTAL + where.sql() + LISTING_ORDER + " LIMIT ? OFFSET ?";
+
+        List<Product> products = new ArrayList<>();
+        long total = 0;
+        try (PreparedStatement ps = conn.prepareStatement(finalSql)) {
+            int nextIndex = setParameters(ps, where.params());
+            ps.setInt(nextIndex++, limit);
+            ps.setInt(nextIndex, offset);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    total = rs.getLong("total_count");
+                    products.add(mapRowToProduct(rs));
+                }
+            }
+            // A page past the end has no row to carry the total
+            if (products.isEmpty() && offset > 0) total = countByFacets(conn, where);
+        } catch (SQLException e) {
+            throw new DAOException("Failed to browse products by facets", e);
+        }
+        if (total > Integer.MAX_VALUE) throw new DAOException("Product count exceeds integer range:" + total, null);
+        return new PageWithTotal<>(products, (int) total);
+    }
+
+    private long countByFacets(Connection conn, SqlAndParams where) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(COUNT_BY_FACETS + where.sql())) {
+            setParameters(ps, where.params());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
     @Override
     public void save(Connection conn, Product product) throws DAOException {
         try (PreparedStatement ps = conn.prepareStatement(SAVE)) {
@@ -260,6 +566,17 @@ public class ProductJdbcDao implements ProductDao {
         );
     }
 
+    private ProductFacets mapRowToFacets(ResultSet rs) throws SQLException {
+        double averageRating = rs.getDouble("average_rating");
+        return new ProductFacets(
+                rs.getObject("product_id", UUID.class),
+                rs.getString("name"),
+                rs.getObject("category_id", UUID.class),
+                rs.getDouble("price"),
+                rs.getInt("stock_quantity"),
+                rs.wasNull() ? null : averageRating);
+    }
+
     private List<Product> executeQueryForList(PreparedStatement ps) throws SQLException {
         List<Product> results = new ArrayList<>();
         try (ResultSet rs = ps.executeQuery()) {
@@ -271,7 +588,11 @@ public class ProductJdbcDao implements ProductDao {
     }
 
     private int setParameters(PreparedStatement ps, List<Object> params) throws SQLException {
-        int index = 1;
+        return setParameters(ps, params, 1);
+    }
+
+    private int setParameters(PreparedStatement ps, List<Object> params, int firstIndex) throws SQLException {
+        int index = firstIndex;
         for (Object param : params) {
             ps.setObject(index++, param);
         }
@@ -282,9 +603,23 @@ public class ProductJdbcDao implements ProductDao {
         StringBuilder sql = new StringBuilder(" WHERE 1=1");
         List<Object> params = new ArrayList<>();
 
-        if (filter.hasName() && !filter.name().isBlank()) {
-            sql.append(" AND p.name ILIKE ? ");
-            params.add("%" + filter.name() + "%");
+        if (filter.hasName() && filter.searchMode() == SearchMode.WORDS) {
+            // \m anchors the pattern at the start of a word; words hold only letters, digits and underscores,
+            // none of which a regular expression reads as syntax. Not indexed: the in-memory index answers these
+            for (String word : SearchTermUtil.words(filter.name())) {
+                sql.append(" AND (p.name ~* ? OR p.description ~* ?)");
+                params.add("\\m" + word);
+                params.add("\\m" + word);
+            }
+        } else if (filter.hasName() && !filter.name().isBlank()) {
+            switch (filter.searchMode()) {
+                // Served by index_product_search_vector
+                case FULL_TEXT -> sql.append(" AND p.search_vector @@ websearch_to_tsquery('english', ?)");
+                // Both served by index_product_name_trgm; % compares against pg_trgm.similarity_threshold
+                case SIMILAR -> sql.append(" AND p.name % ?");
+                case CONTAINS -> sql.append(" AND p.name ILIKE ? ");
+            }
+            params.add(filter.searchMode() == SearchMode.CONTAINS ? "%" + filter.name() + "%" : filter.name());
         }
 
         if (filter.hasCategoryId()) {
@@ -294,4 +629,41 @@ public class ProductJdbcDao implements ProductDao {
 
         return new SqlAndParams(sql.toString(), params);
     }
+
+    /**
+     * The conditions {@link org.example.store.product.ProductFacetIndex} applies: price buckets include their
+     * lower bound only, and the whole stars of the average rating reach the minimum exactly when the
+     * average does, ratings being at least 1.
+     */
+    private SqlAndParams buildFacetWhereClause(ProductFacetQuery query) {
+        StringBuilder sql = new StringBuilder(" WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+
+        if (query.categoryId() != null) {
+            sql.append(" AND p.category_id = ?");
+            params.add(query.categoryId());
+        }
+        PriceRange range = query.priceRange();
+        if (range != null) {
+            sql.append(" AND p.price >= ?");
+            params.add(BigDecimal.valueOf(range.min()));
+            if (!Double.isInfinite(range.max())) {
+                sql.append(" AND p.price < ?");
+                params.add(BigDecimal.valueOf(range.max()));
+            }
+        }
+        if (query.inStockOnly()) sql.append(" AND p.stock_quantity > 0");
+        if (query.minRating() > 0) {
+            sql.append(" AND (SELECT AVG(r.rating) FROM review r WHERE r.product_id = p.product_id) >= ?");
+            params.add(query.minRating());
+        }
+
+        return new SqlAndParams(sql.toString(), params);
+    }
+
+    private SqlAndParams buildOrderClause(ProductFilter filter) {
+        if (!filter.isRanked()) return new SqlAndParams(LISTING_ORDER, List.of());
+        String order = filter.searchMode() == SearchMode.SIMILAR ? SIMILARITY_ORDER : RANKED_ORDER;
+        return new SqlAndParams(order, List.of(filter.name()));
+    }
 }
@@ -3,11 +3,14 @@ package org.example.dao.impl;
 import org.example.dao.interfaces.ReviewDAO;
 import org.example.dao.interfaces.StatementPreparer;
 import org.example.dao.exception.DAOException;
+import org.example.model.PageWithTotal;
 import org.example.model.Review;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public class ReviewJdbcDAO implements ReviewDAO {
@@ -20,6 +23,21 @@ public class ReviewJdbcDAO implements ReviewDAO {
         LIMIT ? OFFSET ?
         """;
 
+    private static final String FIND_BY_PRODUCT_WITH_TOTAL = """
+        SELECT review_id, product_id, customer_id, rating, comment, created_at,
+               COUNT(*) OVER() AS total_count
+        FROM review
+        WHERE product_id = ?
+        ORDER BY created_at DESC
+        LIMIT ? OFFSET ?
+        """;
+
+    private static final String FIND_BY_MULTIPLE_IDS = """
+        SELECT review_id, product_id, customer_id, rating, comment, created_at
+        FROM review
+        WHERE review_id IN
+        """;
+
     private static final String COUNT_BY_PRODUCT = """
         SELECT COUNT(*) FROM review
         WHERE product_id = ?
@@ -61,6 +79,54 @@ public class ReviewJdbcDAO implements ReviewDAO {
         return reviews;
     }
 
+    @Override
+    public PageWithTotal<Review> findByProductWithTotal(Connection conn, UUID productId, int limit, int offset)
+            throws DAOException {
+
+        List<Review> reviews = new ArrayList<>();
+        int total = 0;
+
+        try (PreparedStatement ps = conn.prepareStatement(FIND_BY_PRODUCT_WITH_TOTAL)) {
+
+            ps.setObject(1, productId);
+            ps.setInt(2, limit);
+            ps.setInt(3, offset);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    total = rs.getInt("total_count");
+                    reviews.add(map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to fetch reviews for product " + productId, e);
+        }
+        // A page past the end has no row to carry the total
+        if (reviews.isEmpty() && offset > 0) total = countByProduct(conn, productId);
+        return new PageWithTotal<>(reviews, total);
+    }
+
+    @Override
+    public List<Review> findByIds(Connection conn, Set<UUID> reviewIds) throws DAOException {
+        if (reviewIds.isEmpty()) return List.of();
+
+        List<Review> reviews = new ArrayList<>();
+        String placeholders = String.join(", ", Collections.nCopies(reviewIds.size(), "?"));
+        try (PreparedStatement ps = conn.prepareStatement(FIND_BY_MULTIPLE_IDS + "(" + placeholders + ")")) {
+            int index = 1;
+            for (UUID id : reviewIds)
+                ps.setObject(index++, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    reviews.add(map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to fetch reviews by IDs", e);
+        }
+        return reviews;
+    }
+
     @Override
     public void save(Connection conn, Review review) throws DAOException {
         try {
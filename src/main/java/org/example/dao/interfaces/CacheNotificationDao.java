@@ -0,0 +1,21 @@
+package org.example.dao.interfaces;
+
+import org.example.dao.exception.DAOException;
+
+import java.sql.Connection;
+
+public interface CacheNotificationDao {
+
+    /**
+     * Queue a notification on a PostgreSQL channel.
+     *
+     * The notification is delivered to listeners when the surrounding transaction commits,
+     * and discarded if it rolls back.
+     *
+     * @param connection the {@link java.sql.Connection} of the transaction to attach it to
+     * @param channel channel listeners subscribed to with {@code LISTEN}
+     * @param payload notification payload
+     * @throws DAOException on DAO errors
+     */
+    void notify(Connection connection, String channel, String payload) throws DAOException;
+}
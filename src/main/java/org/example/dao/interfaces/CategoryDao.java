@@ -2,10 +2,13 @@ package org.example.dao.interfaces;
 
 import org.example.dao.exception.DAOException;
 import org.example.model.Category;
+import org.example.model.PageWithTotal;
+import org.example.model.TableWatermark;
 
 import java.sql.Connection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface CategoryDao {
@@ -30,6 +33,16 @@ public interface CategoryDao {
      */
     Optional<Category> findByName(Connection connection, String name) throws DAOException;
 
+    /**
+     * Find multiple categories by a set of ids.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param categoryIds set of category identifiers
+     * @return list of found categories, in no particular order
+     * @throws DAOException on DAO errors
+     */
+    List<Category> findByIds(Connection connection, Set<UUID> categoryIds) throws DAOException;
+
     /**
      * Search categories by name with paging.
      *
@@ -42,6 +55,19 @@ public interface CategoryDao {
      */
     List<Category> searchByName(Connection connection, String query, int limit, int offset) throws DAOException;
 
+    /**
+     * Search categories by name and, in the same statement, count the matching categories.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param query substring to search for
+     * @param limit maximum results
+     * @param offset zero-based offset
+     * @return the page and the total
+     * @throws DAOException on DAO errors
+     */
+    PageWithTotal<Category> searchByNameWithTotal(Connection connection, String query, int limit, int offset)
+            throws DAOException;
+
     /**
      * Count categories matching a name query.
      *
@@ -63,6 +89,17 @@ public interface CategoryDao {
      */
     List<Category> findAll(Connection connection, int limit, int offset) throws DAOException;
 
+    /**
+     * Retrieve a page of all categories and, in the same statement, count the categories.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param limit maximum results
+     * @param offset zero-based offset
+     * @return the page and the total
+     * @throws DAOException on DAO errors
+     */
+    PageWithTotal<Category> findAllWithTotal(Connection connection, int limit, int offset) throws DAOException;
+
     /**
      * Persist a new {@link Category}.
      *
@@ -90,4 +127,13 @@ public interface CategoryDao {
      */
     int count(Connection connection) throws DAOException;
 
+    /**
+     * Read the watermark of the category table, used to check whether a cache snapshot is still current.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @return the table's row count and the digest of its change stamps
+     * @throws DAOException on DAO errors
+     */
+    TableWatermark watermark(Connection connection) throws DAOException;
+
 }
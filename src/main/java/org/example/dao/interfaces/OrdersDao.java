@@ -1,7 +1,9 @@
 package org.example.dao.interfaces;
 
 import org.example.dao.exception.DAOException;
+import org.example.model.OrderCursor;
 import org.example.model.Orders;
+import org.example.model.PageWithTotal;
 
 import java.sql.Connection;
 import java.util.List;
@@ -31,6 +33,28 @@ public interface OrdersDao {
      */
     List<Orders> getAllOrders(Connection connection, int limit, int offset) throws DAOException;
 
+    /**
+     * Retrieve a page of orders and, in the same statement, count the orders.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param limit maximum results
+     * @param offset zero-based offset
+     * @return the page and the total
+     * @throws DAOException on DAO errors
+     */
+    PageWithTotal<Orders> getAllOrdersWithTotal(Connection connection, int limit, int offset) throws DAOException;
+
+    /**
+     * Retrieve the orders that come after a cursor in history order (newest first, then by id descending).
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param after cursor to seek past, or {@code null} for the first page
+     * @param limit maximum results
+     * @return list of orders
+     * @throws DAOException on DAO errors
+     */
+    List<Orders> getAllOrdersAfter(Connection connection, OrderCursor after, int limit) throws DAOException;
+
     /**
      * Persist a new {@link Orders}.
      *
@@ -1,12 +1,20 @@
 package org.example.dao.interfaces;
 
 import org.example.dao.exception.DAOException;
+import org.example.model.ListingNeighbours;
+import org.example.model.PageWithTotal;
 import org.example.model.Product;
+import org.example.model.ProductCursor;
+import org.example.model.ProductFacetQuery;
+import org.example.model.ProductFacets;
 import org.example.model.ProductFilter;
+import org.example.model.ProductPopularity;
+import org.example.model.TableWatermark;
 
 import java.sql.Connection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface ProductDao {
@@ -21,6 +29,16 @@ public interface ProductDao {
      */
     Optional<Product> findById(Connection connection, UUID productId) throws DAOException;
 
+    /**
+     * Find multiple products by a set of ids.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param productIds set of product identifiers
+     * @return list of found products, in no particular order
+     * @throws DAOException on DAO errors
+     */
+    List<Product> findByIds(Connection connection, Set<UUID> productIds) throws DAOException;
+
     /**
      * Find all products with paging.
      *
@@ -42,7 +60,91 @@ public interface ProductDao {
     int countAll(Connection connection) throws DAOException;
 
     /**
-     * Find products matching a {@link ProductFilter}.
+     * Read the watermark of the product table, used to check whether a cache snapshot is still current.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @return the table's row count and the digest of its change stamps
+     * @throws DAOException on DAO errors
+     */
+    TableWatermark watermark(Connection connection) throws DAOException;
+
+    /**
+     * Read the name, category and total quantity ordered of products.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param productId only this product, or {@code null} for all
+     * @return one entry per product
+     * @throws DAOException on DAO errors
+     */
+    List<ProductPopularity> findPopularity(Connection connection, UUID productId) throws DAOException;
+
+    /**
+     * Read the name, category and total quantity ordered of the products inserted or updated since a change stamp
+     * was taken, stock updates of orders included.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param changeSeq a {@link ProductPopularity#changeSeq()} read earlier, or 0 for all products
+     * @return one entry per product whose {@code change_seq} is greater than {@code changeSeq}
+     * @throws DAOException on DAO errors
+     */
+    List<ProductPopularity> findPopularityChangedAfter(Connection connection, long changeSeq) throws DAOException;
+
+    /**
+     * Read the id of every product in listing order, (name, product id) as the database sorts them.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @return every product id, in listing order
+     * @throws DAOException on DAO errors
+     */
+    List<UUID> findIdsInListingOrder(Connection connection) throws DAOException;
+
+    /**
+     * Read the products right before and after a product in listing order, to place it there without reading
+     * {@link #findIdsInListingOrder(Connection) every id}.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param productId product identifier
+     * @return an {@link Optional} with the neighbours, or empty when the product does not exist
+     * @throws DAOException on DAO errors
+     */
+    Optional<ListingNeighbours> findListingNeighbours(Connection connection, UUID productId) throws DAOException;
+
+    /**
+     * Read the category, price, stock and average review rating of every product.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @return one entry per product
+     * @throws DAOException on DAO errors
+     */
+    List<ProductFacets> findAllFacets(Connection connection) throws DAOException;
+
+    /**
+     * Read the category, price, stock and average review rating of one product.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param productId product identifier
+     * @return an {@link Optional} with the product's facets, or empty when it does not exist
+     * @throws DAOException on DAO errors
+     */
+    Optional<ProductFacets> findFacets(Connection connection, UUID productId) throws DAOException;
+
+    /**
+     * Find products matching a combination of facet values, in listing order (by name, then by id), and, in
+     * the same statement, count the matching products.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param query facet values to match
+     * @param limit maximum results
+     * @param offset zero-based offset
+     * @return the page and the total
+     * @throws DAOException on DAO errors
+     */
+    PageWithTotal<Product> findByFacets(Connection connection, ProductFacetQuery query, int limit, int offset)
+            throws DAOException;
+
+    /**
+     * Find products matching a {@link ProductFilter}, in listing order (by name, then by id), or most
+     * relevant first when the filter is {@link ProductFilter#isRanked() ranked}.
      *
      * @param connection the {@link java.sql.Connection} to use
      * @param filter filtering criteria
@@ -53,6 +155,35 @@ public interface ProductDao {
      */
     List<Product> findFiltered(Connection connection, ProductFilter filter, int limit, int offset) throws DAOException;
 
+    /**
+     * Find products matching a {@link ProductFilter}, in the order of
+     * {@link #findFiltered(Connection, ProductFilter, int, int)}, and, in the same statement, count the
+     * matching products.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param filter filtering criteria
+     * @param limit maximum results
+     * @param offset zero-based offset
+     * @return the page and the total
+     * @throws DAOException on DAO errors
+     */
+    PageWithTotal<Product> findFilteredWithTotal(Connection connection, ProductFilter filter, int limit, int offset)
+            throws DAOException;
+
+    /**
+     * Find products matching a {@link ProductFilter} that come after a cursor in listing order
+     * (by name, then by id). Ranked filters are also returned in listing order here.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param filter filtering criteria
+     * @param after cursor to seek past, or {@code null} for the first page
+     * @param limit maximum results
+     * @return list of matching products
+     * @throws DAOException on DAO errors
+     */
+    List<Product> findFilteredAfter(Connection connection, ProductFilter filter, ProductCursor after, int limit)
+            throws DAOException;
+
     /**
      * Count products matching a {@link ProductFilter}.
      *
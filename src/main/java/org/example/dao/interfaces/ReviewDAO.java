@@ -1,10 +1,12 @@
 package org.example.dao.interfaces;
 
 import org.example.dao.exception.DAOException;
+import org.example.model.PageWithTotal;
 import org.example.model.Review;
 
 import java.sql.Connection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface ReviewDAO {
@@ -21,6 +23,29 @@ public interface ReviewDAO {
      */
     List<Review> findByProduct(Connection connection, UUID productId, int limit, int offset) throws DAOException;
 
+    /**
+     * Find a page of reviews of a product and, in the same statement, count the reviews of the product.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param productId product identifier
+     * @param limit maximum results
+     * @param offset zero-based offset
+     * @return the page and the total
+     * @throws DAOException on DAO errors
+     */
+    PageWithTotal<Review> findByProductWithTotal(Connection connection, UUID productId, int limit, int offset)
+            throws DAOException;
+
+    /**
+     * Find multiple reviews by a set of ids.
+     *
+     * @param connection the {@link java.sql.Connection} to use
+     * @param reviewIds set of review identifiers
+     * @return list of found reviews, in no particular order
+     * @throws DAOException on DAO errors
+     */
+    List<Review> findByIds(Connection connection, Set<UUID> reviewIds) throws DAOException;
+
     /**
      * Count reviews for a product.
      *
@@ -0,0 +1,19 @@
+package org.example.dto;
+
+import java.util.List;
+
+/**
+ * @param items results on the page
+ * @param total number of results on all pages
+ */
+public record PageWithTotalResponse<T>(
+        List<T> items,
+        int total
+) {
+    /**
+     * @return number of pages of {@code pageSize} needed to show every result, at least one
+     */
+    public int pageCount(int pageSize) {
+        return Math.max((int) Math.ceil((double) total / pageSize), 1);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.dto.cache;
+
+import org.example.application.CacheStats;
+
+public record CacheStatsResponse(
+        String namespace,
+        long size,
+        long hits,
+        long misses,
+        double hitRate,
+        long negativeHits,
+        long negativeLoads,
+        long loads,
+        long loadFailures,
+        double averageLoadMillis,
+        long p95LoadMillis,
+        long evictions,
+        long expirations,
+        long invalidations
+) {
+    public CacheStatsResponse(CacheStats stats) {
+        this(
+                stats.namespace(),
+                stats.size(),
+                stats.hits(),
+                stats.misses(),
+                stats.hitRate(),
+                stats.negativeHits(),
+                stats.negativeLoads(),
+                stats.loads(),
+                stats.loadFailures(),
+                stats.averageLoadMillis(),
+                stats.loadLatencyPercentileMillis(0.95),
+                stats.evictions(),
+                stats.expirations(),
+                stats.invalidations()
+        );
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.dto.cache;
+
+import org.example.application.SecondTierStats;
+
+public record SecondTierStatsResponse(
+        String namespace,
+        long entries,
+        long usedBytes,
+        long allocatedBytes,
+        long capacityBytes,
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions
+) {
+    public SecondTierStatsResponse(SecondTierStats stats) {
+        this(
+                stats.namespace(),
+                stats.entries(),
+                stats.usedBytes(),
+                stats.allocatedBytes(),
+                stats.capacityBytes(),
+                stats.hits(),
+                stats.misses(),
+                stats.hitRate(),
+                stats.evictions()
+        );
+    }
+}
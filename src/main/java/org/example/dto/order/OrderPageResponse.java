@@ -0,0 +1,16 @@
+package org.example.dto.order;
+
+import java.util.List;
+
+/**
+ * @param orders orders on the page
+ * @param nextPageToken opaque token for the following page, or {@code null} when this is the last page
+ */
+public record OrderPageResponse(
+        List<OrderResponse> orders,
+        String nextPageToken
+) {
+    public boolean hasNext() {
+        return this.nextPageToken != null;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.dto.pool;
+
+import org.example.config.ConnectionPoolStats;
+
+public record ConnectionPoolStatsResponse(
+        int active,
+        int idle,
+        int pending,
+        int total,
+        int maximumPoolSize,
+        long acquisitions,
+        long timeouts,
+        double averageWaitMillis,
+        double maxWaitMillis,
+        long p50WaitMicros,
+        long p95WaitMicros,
+        long p99WaitMicros,
+        long[] waitBuckets,
+        long longHeld
+) {
+    public ConnectionPoolStatsResponse(ConnectionPoolStats stats) {
+        this(
+                stats.active(),
+                stats.idle(),
+                stats.pending(),
+                stats.total(),
+                stats.maximumPoolSize(),
+                stats.acquisitions(),
+                stats.timeouts(),
+                stats.averageWaitMillis(),
+                stats.maxWaitNanos() / 1_000_000.0,
+                stats.waitPercentileMicros(0.50),
+                stats.waitPercentileMicros(0.95),
+                stats.waitPercentileMicros(0.99),
+                stats.waitBuckets(),
+                stats.longHeld()
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.dto.product;
+
+import org.example.model.ProductFacetCounts;
+
+import java.util.List;
+
+/**
+ * @param products products on the page
+ * @param total number of matching products on all pages
+ * @param counts number of products each facet value would show, or {@code null} when not known yet
+ */
+public record ProductFacetPageResponse(
+        List<ProductResponse> products,
+        int total,
+        ProductFacetCounts counts
+) {
+    /**
+     * @return number of pages of {@code pageSize} needed to show every result, at least one
+     */
+    public int pageCount(int pageSize) {
+        return Math.max((int) Math.ceil((double) total / pageSize), 1);
+    }
+}
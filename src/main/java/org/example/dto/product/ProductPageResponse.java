@@ -0,0 +1,16 @@
+package org.example.dto.product;
+
+import java.util.List;
+
+/**
+ * @param products products on the page
+ * @param nextPageToken opaque token for the following page, or {@code null} when this is the last page
+ */
+public record ProductPageResponse(
+        List<ProductResponse> products,
+        String nextPageToken
+) {
+    public boolean hasNext() {
+        return this.nextPageToken != null;
+    }
+}
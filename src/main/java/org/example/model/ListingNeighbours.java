@@ -0,0 +1,13 @@
+package org.example.model;
+
+import java.util.UUID;
+
+/**
+ * The products right before and right after a product in listing order (by name, then by id), as the
+ * database sorts them.
+ *
+ * @param previousId id of the product before, or {@code null} when the product is first
+ * @param nextId id of the product after, or {@code null} when the product is last
+ */
+public record ListingNeighbours(UUID previousId, UUID nextId) {
+}
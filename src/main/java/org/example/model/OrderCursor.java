@@ -0,0 +1,25 @@
+package org.example.model;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position in the order history (newest first, then by id descending) after which the next page starts.
+ *
+ * @param orderDate date of the last order on the previous page
+ * @param orderId id of the last order on the previous page, breaking ties between equal dates
+ */
+public record OrderCursor(Instant orderDate, UUID orderId) {
+    public OrderCursor {
+        Objects.requireNonNull(orderDate, "orderDate");
+        Objects.requireNonNull(orderId, "orderId");
+    }
+
+    /**
+     * @return the cursor positioned right after {@code order}
+     */
+    public static OrderCursor after(Orders order) {
+        return new OrderCursor(order.getOrderDate(), order.getOrderId());
+    }
+}
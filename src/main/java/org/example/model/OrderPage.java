@@ -0,0 +1,15 @@
+package org.example.model;
+
+import java.util.List;
+
+/**
+ * One page of the order history, newest first.
+ *
+ * @param orders orders on the page
+ * @param next cursor to pass for the following page, or {@code null} when this is the last page
+ */
+public record OrderPage(List<Orders> orders, OrderCursor next) {
+    public boolean hasNext() {
+        return this.next != null;
+    }
+}
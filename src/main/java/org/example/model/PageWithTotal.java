@@ -0,0 +1,12 @@
+package org.example.model;
+
+import java.util.List;
+
+/**
+ * One page of results together with the number of results on all pages.
+ *
+ * @param items results on the page
+ * @param total number of results on all pages
+ */
+public record PageWithTotal<T>(List<T> items, int total) {
+}
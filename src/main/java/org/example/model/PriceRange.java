@@ -0,0 +1,44 @@
+package org.example.model;
+
+/**
+ * Price buckets products are browsed by; every price falls in exactly one.
+ */
+public enum PriceRange {
+    UNDER_25(0, 25, "Under $25"),
+    FROM_25_TO_50(25, 50, "$25 to $50"),
+    FROM_50_TO_100(50, 100, "$50 to $100"),
+    FROM_100_TO_250(100, 250, "$100 to $250"),
+    FROM_250(250, Double.POSITIVE_INFINITY, "$250 and up");
+
+    private final double min;
+    private final double max;
+    private final String label;
+
+    PriceRange(double min, double max, String label) {
+        this.min = min;
+        this.max = max;
+        this.label = label;
+    }
+
+    /**
+     * @return the bucket holding {@code price}; lower bounds are inclusive, upper bounds exclusive
+     */
+    public static PriceRange of(double price) {
+        for (PriceRange range : values()) {
+            if (price < range.max) return range;
+        }
+        return FROM_250;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public String label() {
+        return label;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.model;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position in the product listing order (by name, then by id) after which the next page starts.
+ *
+ * Seeking past a cursor lets the database start reading at the page instead of reading and
+ * discarding every row before it, as an offset does.
+ *
+ * @param name name of the last product on the previous page
+ * @param productId id of the last product on the previous page, breaking ties between equal names
+ */
+public record ProductCursor(String name, UUID productId) {
+    public ProductCursor {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(productId, "productId");
+    }
+
+    /**
+     * @return the cursor positioned right after {@code product}
+     */
+    public static ProductCursor after(Product product) {
+        return new ProductCursor(product.getName(), product.getProductId());
+    }
+}
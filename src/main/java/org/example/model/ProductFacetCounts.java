@@ -0,0 +1,19 @@
+package org.example.model;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * How many products each facet value would show, given the values selected on the other facets.
+ *
+ * Counts for a facet ignore that facet's own selection, so choosing a different value of it shows
+ * exactly the count listed next to that value.
+ *
+ * @param categories products per category; categories without products are absent
+ * @param priceRanges products per price bucket, for every bucket
+ * @param inStock products with stock left
+ * @param minRatings products averaging at least {@code n} stars, for {@code n} from 1 to 5
+ */
+public record ProductFacetCounts(Map<UUID, Integer> categories, Map<PriceRange, Integer> priceRanges,
+                                 int inStock, Map<Integer, Integer> minRatings) {
+}
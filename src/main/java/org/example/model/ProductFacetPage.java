@@ -0,0 +1,14 @@
+package org.example.model;
+
+import java.util.List;
+
+/**
+ * One page of products browsed by facets, in listing order.
+ *
+ * @param products products on the page
+ * @param total number of products matching the query on all pages
+ * @param counts counts of every facet value for the query, or {@code null} when the page was read from the
+ *               database because the facet index was not ready
+ */
+public record ProductFacetPage(List<Product> products, int total, ProductFacetCounts counts) {
+}
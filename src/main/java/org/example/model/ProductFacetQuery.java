@@ -0,0 +1,20 @@
+package org.example.model;
+
+import java.util.UUID;
+
+/**
+ * A combination of facet values to browse products by. Every facet left unset matches all products.
+ *
+ * @param categoryId only products of this category, or {@code null} for every category
+ * @param priceRange only products priced in this bucket, or {@code null} for any price
+ * @param inStockOnly only products with stock left
+ * @param minRating only products averaging at least this many stars (1 to 5), or 0 for any rating,
+ *                  including none
+ */
+public record ProductFacetQuery(UUID categoryId, PriceRange priceRange, boolean inStockOnly, int minRating) {
+    public static final ProductFacetQuery ALL = new ProductFacetQuery(null, null, false, 0);
+
+    public ProductFacetQuery {
+        if (minRating < 0 || minRating > 5) throw new IllegalArgumentException("minRating must be between 0 and 5");
+    }
+}
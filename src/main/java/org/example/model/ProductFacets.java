@@ -0,0 +1,28 @@
+package org.example.model;
+
+import java.util.UUID;
+
+/**
+ * The values a product is browsed by, read in one row together with its average rating.
+ *
+ * @param productId product identifier
+ * @param name product name, giving the listing order
+ * @param categoryId category of the product
+ * @param price current price
+ * @param stockQuantity units in stock
+ * @param averageRating average review rating, or {@code null} when the product has no reviews
+ */
+public record ProductFacets(UUID productId, String name, UUID categoryId, double price, int stockQuantity,
+                            Double averageRating) {
+
+    public boolean inStock() {
+        return stockQuantity > 0;
+    }
+
+    /**
+     * @return the whole stars of the average rating (1 to 5), or 0 when unrated
+     */
+    public int ratingStars() {
+        return averageRating == null ? 0 : Math.max(1, Math.min(5, (int) Math.floor(averageRating)));
+    }
+}
@@ -1,11 +1,26 @@
 package org.example.model;
 
+import org.example.util.SearchTermUtil;
+
+import java.util.Objects;
 import java.util.UUID;
 
 public record ProductFilter(
         String name,
-        UUID categoryId
+        UUID categoryId,
+        SearchMode searchMode
 ) {
+    public ProductFilter {
+        Objects.requireNonNull(searchMode, "searchMode");
+    }
+
+    /**
+     * Filter matching the name with {@link SearchMode#CONTAINS}.
+     */
+    public ProductFilter(String name, UUID categoryId) {
+        this(name, categoryId, SearchMode.CONTAINS);
+    }
+
     public boolean hasName() {
         return this.name != null;
     }
@@ -13,4 +28,44 @@ public record ProductFilter(
     public boolean hasCategoryId() {
         return this.categoryId != null;
     }
+
+    /**
+     * @return whether matches are ordered by relevance rather than in listing order
+     */
+    public boolean isRanked() {
+        return hasName() && !name.isBlank()
+                && (searchMode == SearchMode.FULL_TEXT || searchMode == SearchMode.SIMILAR);
+    }
+
+    /**
+     * @return this filter with its name matched by {@code searchMode}
+     */
+    public ProductFilter withSearchMode(SearchMode searchMode) {
+        return searchMode == this.searchMode ? this : new ProductFilter(name, categoryId, searchMode);
+    }
+
+    /**
+     * Return an equivalent filter in canonical form, so filters selecting the same products are equal.
+     *
+     * Name matching is case-insensitive, so the name is lower-cased and trimmed. Full-text names are split
+     * into words, so they also have runs of whitespace collapsed ({@link SearchTermUtil#normalize(String)});
+     * word-prefix names are reduced to their words ({@link SearchTermUtil#normalizeWords(String)}); the
+     * other modes match the whitespace as typed ({@link SearchTermUtil#normalizeSubstring(String)}).
+     * A blank name, or a word-prefix name without words, becomes {@code null}. Without a name the search mode has no
+     * effect and becomes {@link SearchMode#CONTAINS}.
+     *
+     * @return this filter when already canonical, otherwise a normalized copy
+     */
+    public ProductFilter normalized() {
+        String normalizedName = switch (searchMode) {
+            case FULL_TEXT -> SearchTermUtil.normalize(name);
+            case WORDS -> SearchTermUtil.normalizeWords(name);
+            case CONTAINS, SIMILAR -> SearchTermUtil.normalizeSubstring(name);
+        };
+        if (normalizedName != null && normalizedName.isEmpty()) normalizedName = null;
+        SearchMode normalizedMode = normalizedName == null ? SearchMode.CONTAINS : searchMode;
+        return Objects.equals(normalizedName, name) && normalizedMode == searchMode
+                ? this
+                : new ProductFilter(normalizedName, categoryId, normalizedMode);
+    }
 }
@@ -0,0 +1,15 @@
+package org.example.model;
+
+import java.util.List;
+
+/**
+ * One page of products in listing order.
+ *
+ * @param products products on the page
+ * @param next cursor to pass for the following page, or {@code null} when this is the last page
+ */
+public record ProductPage(List<Product> products, ProductCursor next) {
+    public boolean hasNext() {
+        return this.next != null;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.model;
+
+import java.util.UUID;
+
+/**
+ * A product's name together with how much of it has been ordered.
+ *
+ * @param productId product identifier
+ * @param name product name
+ * @param categoryId category of the product
+ * @param unitsSold total quantity over all orders
+ * @param changeSeq the product row's change stamp, taken from a sequence on every insert and update
+ */
+public record ProductPopularity(UUID productId, String name, UUID categoryId, long unitsSold, long changeSeq) {
+}
@@ -0,0 +1,29 @@
+package org.example.model;
+
+/**
+ * How the name of a {@link ProductFilter} is matched against products.
+ */
+public enum SearchMode {
+    /**
+     * Products whose name contains the term, case-insensitively, in listing order.
+     */
+    CONTAINS,
+
+    /**
+     * Products whose name or description has, for every word of the term, a word starting with it,
+     * case-insensitively, in listing order. Answered by the in-memory search index once it is built.
+     */
+    WORDS,
+
+    /**
+     * Products whose name or description match the term as a web-style full-text query
+     * (words, {@code "quoted phrases"}, {@code or}, {@code -excluded}), most relevant first.
+     */
+    FULL_TEXT,
+
+    /**
+     * Products whose name is similar to the term by trigram similarity, so misspelled terms still
+     * match, most similar first.
+     */
+    SIMILAR
+}
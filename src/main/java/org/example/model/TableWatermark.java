@@ -0,0 +1,13 @@
+package org.example.model;
+
+/**
+ * Fingerprint of a table's committed rows, read from the database: every inserted or updated row takes a
+ * fresh {@code change_seq} stamp from one sequence, so any committed insert, update or delete changes the
+ * set of stamps, and with it the digest. Unlike {@code MAX(updated_at)}, which each writer sets from its own
+ * clock, the digest also moves for a change that commits after a later one was read.
+ *
+ * @param rowCount number of rows
+ * @param digest MD5 of the table's stamps in order, or empty when the table is empty
+ */
+public record TableWatermark(long rowCount, String digest) {
+}
@@ -0,0 +1,27 @@
+package org.example.service;
+
+import org.example.store.suggestion.SuggestionStore;
+import org.example.store.suggestion.Suggestions;
+
+public class AutocompleteService {
+
+    private final SuggestionStore suggestionStore;
+
+    public AutocompleteService(SuggestionStore suggestionStore) {
+        this.suggestionStore = suggestionStore;
+    }
+
+    /**
+     * Suggest product and category names for partially typed search text.
+     *
+     * Matches any word of a name, ignoring case, and lists the best selling names first. Runs on the
+     * caller's thread without touching the database, so it can be called on every keystroke.
+     *
+     * @param prefix the text typed so far; leading and trailing spaces are ignored
+     * @param out buffer receiving the suggestions, reused across calls
+     * @return number of suggestions placed in {@code out}
+     */
+    public int suggest(String prefix, Suggestions out) {
+        return suggestionStore.suggest(prefix == null ? "" : prefix.strip(), out);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.service;
+
+import org.example.application.ApplicationCache;
+import org.example.dto.cache.CacheStatsResponse;
+import org.example.dto.cache.SecondTierStatsResponse;
+
+import java.util.List;
+
+public class CacheService {
+
+    private final ApplicationCache cache;
+
+    public CacheService(ApplicationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Retrieve live cache counters for every key namespace.
+     *
+     * Delegates to {@link ApplicationCache#stats()}.
+     *
+     * @return one {@link CacheStatsResponse} per namespace, ordered by namespace
+     */
+    public List<CacheStatsResponse> getCacheStats() {
+        return cache.stats().stream().map(CacheStatsResponse::new).toList();
+    }
+
+    /**
+     * Retrieve live counters for every off-heap cache tier.
+     *
+     * Delegates to {@link ApplicationCache#secondTierStats()}.
+     *
+     * @return one {@link SecondTierStatsResponse} per namespace with an off-heap tier, ordered by namespace
+     */
+    public List<SecondTierStatsResponse> getSecondTierStats() {
+        return cache.secondTierStats().stream().map(SecondTierStatsResponse::new).toList();
+    }
+}
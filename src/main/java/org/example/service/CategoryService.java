@@ -1,9 +1,11 @@
 package org.example.service;
 
+import org.example.dto.PageWithTotalResponse;
 import org.example.dto.category.CreateCategoryRequest;
 import org.example.dto.category.CategoryResponse;
 import org.example.dto.category.UpdateCategoryRequest;
 import org.example.model.Category;
+import org.example.model.PageWithTotal;
 import org.example.store.category.CategoryStore;
 import org.example.service.exception.CategoryNotFoundException;
 import org.example.service.exception.DuplicateCategoryException;
@@ -132,6 +134,29 @@ public class CategoryService {
         return categories.stream().map(CategoryResponse::new).toList();
     }
 
+    /**
+     * Retrieve all categories with paging, and count them, with one query.
+     *
+     * @param limit  maximum results
+     * @param offset zero-based offset
+     * @return the page of {@link CategoryResponse} and the number of categories
+     */
+    public PageWithTotalResponse<CategoryResponse> getAllCategoriesWithTotal(int limit, int offset) {
+        return toResponse(categoryStore.findAllWithTotal(limit, offset));
+    }
+
+    /**
+     * Search categories by name with paging, and count all matches, with one query.
+     *
+     * @param query  substring to search for
+     * @param limit  maximum results
+     * @param offset zero-based offset
+     * @return the page of {@link CategoryResponse} and the number of matching categories
+     */
+    public PageWithTotalResponse<CategoryResponse> searchCategoriesWithTotal(String query, int limit, int offset) {
+        return toResponse(categoryStore.searchByNameWithTotal(query, limit, offset));
+    }
+
     public int getCategoryCount() {
         return categoryStore.count();
     }
@@ -160,4 +185,8 @@ public class CategoryService {
     public int countCategoriesByName(String query) {
         return categoryStore.countByName(query);
     }
+
+    private static PageWithTotalResponse<CategoryResponse> toResponse(PageWithTotal<Category> page) {
+        return new PageWithTotalResponse<>(page.items().stream().map(CategoryResponse::new).toList(), page.total());
+    }
 }
@@ -0,0 +1,40 @@
+package org.example.service;
+
+import org.example.config.DataSource;
+import org.example.dto.pool.ConnectionPoolStatsResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ConnectionPoolService {
+
+    private final DataSource dataSource;
+
+    public ConnectionPoolService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Retrieve the connection pool's live state and wait-time statistics.
+     *
+     * Delegates to {@link DataSource#poolStats()}.
+     *
+     * @return the current {@link ConnectionPoolStatsResponse}
+     */
+    public ConnectionPoolStatsResponse getPoolStats() {
+        return new ConnectionPoolStatsResponse(dataSource.poolStats());
+    }
+
+    /**
+     * Retrieve each read replica pool's live state and wait-time statistics.
+     *
+     * Delegates to {@link DataSource#replicaPoolStats()}.
+     *
+     * @return a {@link ConnectionPoolStatsResponse} per replica pool name; empty without replicas
+     */
+    public Map<String, ConnectionPoolStatsResponse> getReplicaPoolStats() {
+        Map<String, ConnectionPoolStatsResponse> responses = new LinkedHashMap<>();
+        dataSource.replicaPoolStats().forEach((name, stats) -> responses.put(name, new ConnectionPoolStatsResponse(stats)));
+        return responses;
+    }
+}
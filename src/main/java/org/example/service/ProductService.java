@@ -1,19 +1,34 @@
 package org.example.service;
 
+import org.example.dto.PageWithTotalResponse;
 import org.example.dto.product.CreateProductRequest;
 import org.example.dto.product.CreateProductResponse;
+import org.example.dto.product.ProductFacetPageResponse;
+import org.example.dto.product.ProductPageResponse;
 import org.example.dto.product.ProductResponse;
 import org.example.dto.product.UpdateProductRequest;
+import org.example.model.PageWithTotal;
 import org.example.model.Product;
+import org.example.model.ProductCursor;
+import org.example.model.ProductFacetPage;
+import org.example.model.ProductFacetQuery;
 import org.example.model.ProductFilter;
+import org.example.model.ProductPage;
+import org.example.model.SearchMode;
+import org.example.service.exception.InvalidPageTokenException;
 import org.example.service.exception.ProductNotFoundException;
 import org.example.store.product.ProductStore;
+import org.example.util.SearchTermUtil;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 
 public class ProductService {
+    private static final byte PAGE_TOKEN_VERSION = 1;
 
     private final ProductStore productStore;
 
@@ -87,7 +102,8 @@ public class ProductService {
     /**
      * Search for products using a filter with paging.
      *
-     * Delegates to {@link ProductStore#searchProducts(ProductFilter, int, int)}.
+     * Delegates to {@link ProductStore#searchProducts(ProductFilter, int, int)}. Products are listed by name,
+     * or most relevant first for a {@link ProductFilter#isRanked() ranked} search.
      *
      * @param filter the {@link ProductFilter} to apply
      * @param limit  maximum number of results
@@ -99,6 +115,104 @@ public class ProductService {
         return products.stream().map(ProductResponse::new).toList();
     }
 
+    /**
+     * Search for products using a filter with paging, and count all matching products.
+     *
+     * Delegates to {@link ProductStore#searchProductsWithTotal(ProductFilter, int, int)}, which reads both
+     * with one query, instead of calling {@link #countProductsByFilter(ProductFilter)} and
+     * {@link #searchProducts(ProductFilter, int, int)} one after the other.
+     *
+     * @param filter the {@link ProductFilter} to apply
+     * @param limit  maximum number of results
+     * @param offset zero-based offset for paging
+     * @return the page of {@link ProductResponse} and the number of matching products
+     */
+    public PageWithTotalResponse<ProductResponse> searchProductsWithTotal(ProductFilter filter, int limit, int offset) {
+        PageWithTotal<Product> page = this.productStore.searchProductsWithTotal(filter, limit, offset);
+        return new PageWithTotalResponse<>(page.items().stream().map(ProductResponse::new).toList(), page.total());
+    }
+
+    /**
+     * Browse products by category, price range, stock and rating, with the number of products each
+     * facet value would show.
+     *
+     * Delegates to {@link ProductStore#browseProducts(ProductFacetQuery, int, int)}, which answers from memory
+     * and reads only the products on the page, or reads the page from the database, without counts, while
+     * its index is not ready.
+     *
+     * @param query  the {@link ProductFacetQuery} to apply
+     * @param limit  maximum number of results
+     * @param offset zero-based offset for paging
+     * @return the page of {@link ProductResponse} in listing order, the number of matches and the facet counts,
+     *         if known
+     */
+    public ProductFacetPageResponse browseProducts(ProductFacetQuery query, int limit, int offset) {
+        ProductFacetPage page = this.productStore.browseProducts(query, limit, offset);
+        return new ProductFacetPageResponse(page.products().stream().map(ProductResponse::new).toList(),
+                page.total(), page.counts());
+    }
+
+    /**
+     * @return whether {@link #browseProducts(ProductFacetQuery, int, int)} is available; it is not when the
+     *         facet index is disabled
+     */
+    public boolean canBrowseProducts() {
+        return this.productStore.isFacetIndexEnabled();
+    }
+
+    /**
+     * Filter for a search typed by a buyer.
+     *
+     * Plain words are matched as word prefixes ({@link SearchMode#WORDS}) once the product store's search
+     * index is built, which answers them from memory. A term using web search syntax, or any term before
+     * then, is matched with {@link SearchMode#FULL_TEXT} by the database.
+     *
+     * @param term       the search term as typed, or {@code null} for none
+     * @param categoryId the selected category, or {@code null} for all
+     * @return the filter to search with
+     */
+    public ProductFilter buyerSearchFilter(String term, UUID categoryId) {
+        boolean inMemory = term != null && !SearchTermUtil.hasWebSearchSyntax(term)
+                && this.productStore.isSearchIndexBuilt();
+        return new ProductFilter(term, categoryId, inMemory ? SearchMode.WORDS : SearchMode.FULL_TEXT);
+    }
+
+    /**
+     * Search for products using a filter, one page after another.
+     *
+     * Delegates to {@link ProductStore#searchProductsAfter(ProductFilter, ProductCursor, int)}. Unlike an
+     * offset, the returned token pins the position after the last product shown, so the next page costs
+     * as much as the first however deep the listing goes.
+     *
+     * @param filter    the {@link ProductFilter} to apply
+     * @param pageToken token returned with the previous page, or {@code null} for the first page
+     * @param limit     maximum number of results
+     * @return the page and the token of the next page
+     * @throws InvalidPageTokenException if the token was not issued by this service
+     * @throws IllegalArgumentException if the filter is {@link ProductFilter#isRanked() ranked}; tokens hold a
+     *         position in listing order, so relevance-ordered results are paged with
+     *         {@link #searchProducts(ProductFilter, int, int)}
+     */
+    public ProductPageResponse searchProductsAfter(ProductFilter filter, String pageToken, int limit) {
+        if (filter.isRanked()) throw new IllegalArgumentException("Ranked searches are paged by offset");
+        ProductPage page = this.productStore.searchProductsAfter(filter, decodePageToken(pageToken), limit);
+        return new ProductPageResponse(
+                page.products().stream().map(ProductResponse::new).toList(),
+                page.hasNext() ? encodePageToken(page.next()) : null
+        );
+    }
+
+    /**
+     * Token of the page that starts right after {@code product}, for continuing with
+     * {@link #searchProductsAfter(ProductFilter, String, int)} from a page loaded by offset.
+     *
+     * @param product the last product of a page
+     * @return the token of the following page
+     */
+    public String pageTokenAfter(ProductResponse product) {
+        return encodePageToken(new ProductCursor(product.name(), product.productId()));
+    }
+
     /**
      * Update an existing product.
      *
@@ -126,4 +240,28 @@ public class ProductService {
 
         this.productStore.updateProduct(updated);
     }
+
+    private static String encodePageToken(ProductCursor cursor) {
+        byte[] name = cursor.name().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 16 + name.length)
+                .put(PAGE_TOKEN_VERSION)
+                .putLong(cursor.productId().getMostSignificantBits())
+                .putLong(cursor.productId().getLeastSignificantBits())
+                .put(name);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    private static ProductCursor decodePageToken(String token) {
+        if (token == null) return null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() < 17 || buffer.get() != PAGE_TOKEN_VERSION) throw new InvalidPageTokenException(token);
+            UUID productId = new UUID(buffer.getLong(), buffer.getLong());
+            byte[] name = new byte[buffer.remaining()];
+            buffer.get(name);
+            return new ProductCursor(new String(name, StandardCharsets.UTF_8), productId);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageTokenException(token);
+        }
+    }
 }
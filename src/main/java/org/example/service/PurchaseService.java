@@ -1,23 +1,33 @@
 package org.example.service;
 
+import org.example.dto.PageWithTotalResponse;
 import org.example.dto.order.CustomerDetails;
+import org.example.dto.order.OrderPageResponse;
 import org.example.dto.order.OrderRequest;
 import org.example.dto.order.OrderResponse;
 import org.example.model.Customer;
+import org.example.model.OrderCursor;
+import org.example.model.OrderPage;
 import org.example.model.Orders;
+import org.example.model.PageWithTotal;
 import org.example.model.Product;
 import org.example.service.exception.InsufficientProductStock;
+import org.example.service.exception.InvalidPageTokenException;
 import org.example.service.exception.ProductNotFoundException;
 import org.example.store.customer.CustomerStore;
 import org.example.store.order.OrderStore;
 import org.example.store.product.ProductStore;
 
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class PurchaseService {
+    private static final byte PAGE_TOKEN_VERSION = 1;
+
     private final OrderStore orderStore;
     private final ProductStore productStore;
     private final CustomerStore customerStore;
@@ -108,7 +118,59 @@ public class PurchaseService {
      * @return list of {@link OrderResponse}
      */
     public List<OrderResponse> getPurchaseHistory(int limit, int offset) {
-        List<Orders> orders = this.orderStore.getAllOrders(limit, offset);
+        return toResponses(this.orderStore.getAllOrders(limit, offset));
+    }
+
+    /**
+     * Retrieve paged purchase history and the number of orders, with one query.
+     *
+     * Fetches orders from {@link OrderStore#getAllOrdersWithTotal(int, int)} instead of calling
+     * {@link #countPurchases()} and {@link #getPurchaseHistory(int, int)} one after the other.
+     *
+     * @param limit  maximum number of orders to return
+     * @param offset zero-based offset for paging
+     * @return the page of {@link OrderResponse} and the number of orders
+     */
+    public PageWithTotalResponse<OrderResponse> getPurchaseHistoryWithTotal(int limit, int offset) {
+        PageWithTotal<Orders> page = this.orderStore.getAllOrdersWithTotal(limit, offset);
+        return new PageWithTotalResponse<>(toResponses(page.items()), page.total());
+    }
+
+    /**
+     * Retrieve purchase history one page after another, newest first.
+     *
+     * Fetches orders from {@link OrderStore#getAllOrdersAfter(OrderCursor, int)}, which seeks past the
+     * previous page instead of skipping rows, so deep pages cost as much as the first.
+     *
+     * @param pageToken token returned with the previous page, or {@code null} for the first page
+     * @param limit     maximum number of orders to return
+     * @return the page and the token of the next page
+     * @throws InvalidPageTokenException if the token was not issued by this service
+     */
+    public OrderPageResponse getPurchaseHistoryAfter(String pageToken, int limit) {
+        OrderPage page = this.orderStore.getAllOrdersAfter(decodePageToken(pageToken), limit);
+        return new OrderPageResponse(
+                toResponses(page.orders()),
+                page.hasNext() ? encodePageToken(page.next()) : null
+        );
+    }
+
+    /**
+     * Token of the page that starts right after {@code order}, for continuing with
+     * {@link #getPurchaseHistoryAfter(String, int)} from a page loaded by offset.
+     *
+     * @param order the last order of a page
+     * @return the token of the following page
+     */
+    public String pageTokenAfter(OrderResponse order) {
+        return encodePageToken(new OrderCursor(order.orderDate(), order.orderId()));
+    }
+
+    public int countPurchases() {
+        return this.orderStore.countAll();
+    }
+
+    private List<OrderResponse> toResponses(List<Orders> orders) {
         Set<UUID> customerIds = orders.stream()
                 .map(Orders::getCustomerId)
                 .collect(Collectors.toSet());
@@ -125,8 +187,25 @@ public class PurchaseService {
                 }).toList();
     }
 
-    public int countPurchases() {
-        return this.orderStore.countAll();
+    private static String encodePageToken(OrderCursor cursor) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 12 + 16)
+                .put(PAGE_TOKEN_VERSION)
+                .putLong(cursor.orderDate().getEpochSecond())
+                .putInt(cursor.orderDate().getNano())
+                .putLong(cursor.orderId().getMostSignificantBits())
+                .putLong(cursor.orderId().getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
     }
 
+    private static OrderCursor decodePageToken(String token) {
+        if (token == null) return null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != 29 || buffer.get() != PAGE_TOKEN_VERSION) throw new InvalidPageTokenException(token);
+            Instant orderDate = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new OrderCursor(orderDate, new UUID(buffer.getLong(), buffer.getLong()));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidPageTokenException(token);
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package org.example.service;
 
+import org.example.dto.PageWithTotalResponse;
 import org.example.dto.review.CreateReviewRequest;
 import org.example.dto.review.ReviewResponse;
+import org.example.model.PageWithTotal;
 import org.example.model.Review;
 import org.example.service.exception.CustomerNotFoundException;
 import org.example.store.customer.CustomerStore;
@@ -65,6 +67,21 @@ public class ReviewService {
                 .toList();
     }
 
+    /**
+     * Retrieve reviews for a product page and the number of reviews of the product, with one query.
+     *
+     * Delegates to {@link ReviewStore#getReviewsByProductWithTotal(java.util.UUID, int, int)}.
+     *
+     * @param productId the product identifier
+     * @param limit     maximum number of reviews to return
+     * @param offset    zero-based offset for paging
+     * @return the page of {@link ReviewResponse} and the number of reviews
+     */
+    public PageWithTotalResponse<ReviewResponse> getProductReviewsWithTotal(UUID productId, int limit, int offset) {
+        PageWithTotal<Review> page = this.reviewStore.getReviewsByProductWithTotal(productId, limit, offset);
+        return new PageWithTotalResponse<>(page.items().stream().map(ReviewResponse::new).toList(), page.total());
+    }
+
     public int countProductReviews(UUID productId) {
         return this.reviewStore.countReviewsByProduct(productId);
     }
@@ -0,0 +1,7 @@
+package org.example.service.exception;
+
+public class InvalidPageTokenException extends RuntimeException {
+    public InvalidPageTokenException(String token) {
+        super("Page token '" + token + "' is not valid.");
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.store.category;
+
+import org.example.application.CacheSnapshot;
+import org.example.model.Category;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static org.example.application.CacheSnapshot.*;
+
+class CategorySnapshotCodec implements CacheSnapshot.Codec<Category> {
+
+    @Override
+    public void write(DataOutput out, Category category) throws IOException {
+        writeUuid(out, category.getCategoryId());
+        writeNullableString(out, category.getName());
+        writeNullableString(out, category.getDescription());
+        writeInstant(out, category.getCreatedAt());
+        writeInstant(out, category.getUpdatedAt());
+    }
+
+    @Override
+    public Category read(DataInput in) throws IOException {
+        return new Category(
+                readUuid(in),
+                readNullableString(in),
+                readNullableString(in),
+                readInstant(in),
+                readInstant(in)
+        );
+    }
+}
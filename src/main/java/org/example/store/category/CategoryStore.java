@@ -1,38 +1,61 @@
 package org.example.store.category;
 
 import org.example.application.ApplicationCache;
+import org.example.application.CacheInvalidationBus;
+import org.example.application.CacheKey;
+import org.example.application.CacheSnapshot;
+import org.example.application.EntityCache;
 import org.example.config.DataSource;
 import org.example.config.exception.DatabaseConnectionException;
 import org.example.dao.exception.DAOException;
 import org.example.dao.interfaces.CategoryDao;
 import org.example.model.Category;
+import org.example.model.PageWithTotal;
 import org.example.store.category.exception.CategoryCreationException;
 import org.example.store.category.exception.CategoryRetrievalException;
 import org.example.store.category.exception.CategorySearchException;
 import org.example.store.category.exception.CategoryUpdateException;
+import org.example.util.SearchTermUtil;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class CategoryStore {
+    public static final String NAMESPACE = "category";
+    private static final String LIST_TAG = "category:list";
+    private static final String NAME_TAG = "category:name";
+    private static final CacheKey COUNT_KEY = CacheKey.of(NAMESPACE, "count");
+
     private final DataSource dataSource;
     private final ApplicationCache cache;
+    private final CacheInvalidationBus invalidationBus;
     private final CategoryDao categoryDao;
+    private final EntityCache<Category> categories;
+    private final List<Consumer<UUID>> writeListeners = new CopyOnWriteArrayList<>();
 
-    public CategoryStore(DataSource dataSource, ApplicationCache cache, CategoryDao categoryDao) {
+    public CategoryStore(DataSource dataSource, ApplicationCache cache, CacheInvalidationBus invalidationBus,
+                         CategoryDao categoryDao) {
         this.dataSource = dataSource;
         this.cache = cache;
+        this.invalidationBus = invalidationBus;
         this.categoryDao = categoryDao;
+        this.categories = new EntityCache<>(cache, NAMESPACE, Category::getCategoryId,
+                id -> dataSource.withConnection(conn -> categoryDao.findById(conn, id)),
+                ids -> dataSource.withConnection(conn -> categoryDao.findByIds(conn, ids)));
     }
 
     /**
      * Persist a new {@link org.example.model.Category} within a transaction.
      *
      * Delegates to {@link org.example.dao.interfaces.CategoryDao#save(java.sql.Connection, org.example.model.Category)}
-     * and invalidates category-related cache prefixes on success.
+     * and on success caches the category by id and name and invalidates cached listings and counts.
      *
      * @param category the category to create
      * @return the persisted {@link Category}
@@ -44,8 +67,13 @@ public class CategoryStore {
             conn.setAutoCommit(false);
             try {
                 categoryDao.save(conn, category);
+                // Other instances may hold a "not found" for the new name
+                invalidationBus.publish(conn, NAMESPACE, category.getCategoryId(), NAME_TAG, LIST_TAG);
                 conn.commit();
-                cache.invalidateByPrefix("category:");
+                dataSource.recordWrite();
+                writeThrough(category);
+                cache.invalidateTag(LIST_TAG);
+                notifyWriteListeners(category.getCategoryId());
                 return category;
             } catch (DAOException e) {
                 conn.rollback();
@@ -60,7 +88,7 @@ public class CategoryStore {
      * Update an existing {@link org.example.model.Category} inside a transaction.
      *
      * Delegates to {@link org.example.dao.interfaces.CategoryDao#update(java.sql.Connection, org.example.model.Category)}
-     * and invalidates category cache on success.
+     * and on success caches the updated category and invalidates cached name lookups, listings and counts.
      *
      * @param category the category with updated fields
      * @return the updated {@link Category}
@@ -72,8 +100,14 @@ public class CategoryStore {
             conn.setAutoCommit(false);
             try {
                 categoryDao.update(conn, category);
+                invalidationBus.publish(conn, NAMESPACE, category.getCategoryId(), NAME_TAG, LIST_TAG);
                 conn.commit();
-                cache.invalidateByPrefix("category:");
+                dataSource.recordWrite();
+                // The previous name no longer resolves to this category
+                cache.invalidateTag(NAME_TAG);
+                writeThrough(category);
+                cache.invalidateTag(LIST_TAG);
+                notifyWriteListeners(category.getCategoryId());
                 return category;
             } catch (DAOException e) {
                 conn.rollback();
@@ -84,6 +118,23 @@ public class CategoryStore {
         }
     }
 
+    /**
+     * Call {@code listener} with the id of every category this store creates or updates, once the write has
+     * committed.
+     *
+     * The listener runs on the writing thread, so it should only hand the id on. Other instances' changes are
+     * announced through {@link CacheInvalidationBus#subscribe} instead.
+     */
+    public void addWriteListener(Consumer<UUID> listener) {
+        writeListeners.add(listener);
+    }
+
+    private void notifyWriteListeners(UUID categoryId) {
+        for (Consumer<UUID> listener : writeListeners) {
+            listener.accept(categoryId);
+        }
+    }
+
     /**
      * Load a category by id.
      *
@@ -96,13 +147,10 @@ public class CategoryStore {
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
      */
     public Optional<Category> getCategory(UUID id) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "category:" + id;
-            return cache.getOrLoad(key, () -> categoryDao.findById(conn, id));
+        try {
+            return categories.get(id);
         } catch (DAOException e) {
             throw new CategoryRetrievalException(id.toString());
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
@@ -118,13 +166,10 @@ public class CategoryStore {
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
      */
     public Optional<Category> getCategoryByName(String name) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "category:name:" + name;
-            return cache.getOrLoad(key, () -> categoryDao.findByName(conn, name));
+        try {
+            return cache.getOrLoad(nameKey(name), nameLoader(name), NAME_TAG);
         } catch (DAOException e) {
             throw new CategoryRetrievalException(name);
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
@@ -132,7 +177,7 @@ public class CategoryStore {
      * Search categories by name with simple paging.
      *
      * Delegates to {@link org.example.dao.interfaces.CategoryDao#searchByName(java.sql.Connection, String, int, int)}
-     * and caches the result.
+     * and caches the result under the normalized query, as matching is case-insensitive.
      *
      * @param query substring to search for
      * @param limit maximum results
@@ -142,13 +187,14 @@ public class CategoryStore {
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
      */
     public List<Category> searchByName(String query, int limit, int offset) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "category:search:" + query + ":" + limit + ":" + offset;
-            return cache.getOrLoad(key, () -> categoryDao.searchByName(conn, query, limit, offset));
+        try {
+            String normalized = SearchTermUtil.normalizeSubstring(query);
+            CacheKey key = CacheKey.of(NAMESPACE, "search", normalized, limit, offset);
+            List<UUID> ids = cache.getOrLoad(key, () -> categories.putAll(dataSource.withConnection(
+                    conn -> categoryDao.searchByName(conn, normalized, limit, offset))), LIST_TAG);
+            return categories.getAll(ids);
         } catch (DAOException e) {
             throw new CategorySearchException("Failed to search categories");
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
@@ -156,7 +202,8 @@ public class CategoryStore {
      * Retrieve a page of all categories.
      *
      * Results are loaded via {@link org.example.dao.interfaces.CategoryDao#findAll(java.sql.Connection, int, int)}
-     * and cached through {@link org.example.application.ApplicationCache#getOrLoad}.
+     * and cached through {@link org.example.application.ApplicationCache#getOrLoad} as a list of ids,
+     * resolved against the categories cached by id.
      *
      * @param limit  maximum number of categories to return
      * @param offset zero-based offset for paging
@@ -165,35 +212,147 @@ public class CategoryStore {
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
      */
     public List<Category> findAll(int limit, int offset) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "category:all:" + limit + ":" + offset;
-            return cache.getOrLoad(key, () -> categoryDao.findAll(conn, limit, offset));
+        try {
+            CacheKey key = CacheKey.of(NAMESPACE, "all", limit, offset);
+            List<UUID> ids = cache.getOrLoad(key, () -> categories.putAll(dataSource.withConnection(
+                    conn -> categoryDao.findAll(conn, limit, offset))), LIST_TAG);
+            return categories.getAll(ids);
+        } catch (DAOException e) {
+            throw new CategoryRetrievalException("all");
+        }
+    }
+
+    /**
+     * Search categories by name with paging, and count all matches.
+     *
+     * When the page is not cached, it is read together with the count in one statement via
+     * {@link org.example.dao.interfaces.CategoryDao#searchByNameWithTotal(java.sql.Connection, String, int, int)};
+     * the count is then cached as if loaded by {@link #countByName(String)}.
+     *
+     * @param query substring to search for
+     * @param limit maximum results
+     * @param offset zero-based offset
+     * @return the matching {@link Category}s on the page and the number of matches
+     * @throws org.example.store.category.exception.CategorySearchException when DAO search fails
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public PageWithTotal<Category> searchByNameWithTotal(String query, int limit, int offset) {
+        try {
+            String normalized = SearchTermUtil.normalizeSubstring(query);
+            CacheKey key = CacheKey.of(NAMESPACE, "search", normalized, limit, offset);
+            AtomicReference<Integer> loadedTotal = new AtomicReference<>();
+            List<UUID> ids = cache.getOrLoad(key, () -> {
+                PageWithTotal<Category> page = dataSource.withConnection(
+                        conn -> categoryDao.searchByNameWithTotal(conn, normalized, limit, offset));
+                loadedTotal.set(page.total());
+                return categories.putAll(page.items());
+            }, LIST_TAG);
+
+            Integer total = loadedTotal.get();
+            if (total == null)
+                total = countByName(normalized);
+            else
+                cache.putIfAbsent(countByNameKey(normalized), total, countByNameLoader(normalized), LIST_TAG);
+            return new PageWithTotal<>(categories.getAll(ids), total);
+        } catch (DAOException e) {
+            throw new CategorySearchException("Failed to search categories");
+        }
+    }
+
+    /**
+     * Retrieve a page of all categories and the number of categories.
+     *
+     * When the page is not cached, it is read together with the count in one statement via
+     * {@link org.example.dao.interfaces.CategoryDao#findAllWithTotal(java.sql.Connection, int, int)};
+     * the count is then cached as if loaded by {@link #count()}.
+     *
+     * @param limit  maximum number of categories to return
+     * @param offset zero-based offset for paging
+     * @return the {@link Category}s on the page and the number of categories
+     * @throws org.example.store.category.exception.CategoryRetrievalException when DAO retrieval fails
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public PageWithTotal<Category> findAllWithTotal(int limit, int offset) {
+        try {
+            CacheKey key = CacheKey.of(NAMESPACE, "all", limit, offset);
+            AtomicReference<Integer> loadedTotal = new AtomicReference<>();
+            List<UUID> ids = cache.getOrLoad(key, () -> {
+                PageWithTotal<Category> page = dataSource.withConnection(
+                        conn -> categoryDao.findAllWithTotal(conn, limit, offset));
+                loadedTotal.set(page.total());
+                return categories.putAll(page.items());
+            }, LIST_TAG);
+
+            Integer total = loadedTotal.get();
+            if (total == null)
+                total = count();
+            else
+                cache.putIfAbsent(COUNT_KEY, total, countLoader(), LIST_TAG);
+            return new PageWithTotal<>(categories.getAll(ids), total);
         } catch (DAOException e) {
             throw new CategoryRetrievalException("all");
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
     public int count() {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "category:count";
-            return cache.getOrLoad(key, () -> categoryDao.count(conn));
+        try {
+            return cache.getOrLoad(COUNT_KEY, countLoader(), LIST_TAG);
         } catch (DAOException e) {
             throw new CategorySearchException("Failed to count categories");
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
     public int countByName(String query) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "category:count:" + query;
-            return cache.getOrLoad(key, () -> categoryDao.countByName(conn, query));
+        try {
+            String normalized = SearchTermUtil.normalizeSubstring(query);
+            return cache.getOrLoad(countByNameKey(normalized), countByNameLoader(normalized), LIST_TAG);
         } catch (DAOException e) {
             throw new CategorySearchException("Failed to count categories by name");
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
+
+    private Supplier<Integer> countLoader() {
+        return () -> dataSource.withConnection(conn -> categoryDao.count(conn));
+    }
+
+    private static CacheKey countByNameKey(String normalized) {
+        return CacheKey.of(NAMESPACE, "count", normalized);
+    }
+
+    private Supplier<Integer> countByNameLoader(String normalized) {
+        return () -> dataSource.withConnection(conn -> categoryDao.countByName(conn, normalized));
+    }
+
+    /**
+     * Keep categorys evicted from the heap cache in an off-heap tier, so far more of them stay cached.
+     *
+     * @param capacityBytes off-heap memory to use
+     * @param blockBytes size of one off-heap block
+     */
+    public void enableOffHeapTier(long capacityBytes, int blockBytes) {
+        categories.attachOffHeapTier(new CategorySnapshotCodec(), capacityBytes, blockBytes);
+    }
+
+    /**
+     * @return the snapshot section persisting cached categories across restarts, restored only while the
+     *         category table is unchanged
+     */
+    public CacheSnapshot.Section<Category> snapshotSection() {
+        return new CacheSnapshot.Section<>(NAMESPACE, categories, new CategorySnapshotCodec(),
+                () -> dataSource.withConnection(categoryDao::watermark));
+    }
+
+    private void writeThrough(Category category) {
+        String name = category.getName();
+        categories.put(category);
+        cache.put(nameKey(name), Optional.of(category), nameLoader(name), NAME_TAG);
+    }
+
+    private Supplier<Optional<Category>> nameLoader(String name) {
+        return () -> dataSource.withConnection(conn -> categoryDao.findByName(conn, name));
+    }
+
+    private static CacheKey nameKey(String name) {
+        return CacheKey.of(NAMESPACE, "name", name);
+    }
 }
@@ -1,6 +1,8 @@
 package org.example.store.customer;
 
 import org.example.application.ApplicationCache;
+import org.example.application.CacheInvalidationBus;
+import org.example.application.CacheKey;
 import org.example.config.DataSource;
 import org.example.config.exception.DatabaseConnectionException;
 import org.example.dao.exception.DAOException;
@@ -18,56 +20,85 @@ import java.util.Set;
 import java.util.UUID;
 
 public class CustomerStore {
+    public static final String NAMESPACE = "customer";
+
     private final DataSource dataSource;
     private final ApplicationCache cache;
+    private final CacheInvalidationBus invalidationBus;
     private final CustomerDao customerDao;
 
-    public CustomerStore(DataSource dataSource, ApplicationCache cache, CustomerDao customerDao) {
+    public CustomerStore(DataSource dataSource, ApplicationCache cache, CacheInvalidationBus invalidationBus,
+                         CustomerDao customerDao) {
         this.dataSource = dataSource;
         this.cache = cache;
+        this.invalidationBus = invalidationBus;
         this.customerDao = customerDao;
     }
 
     public Optional<Customer> findByEmail(String email) {
-        try(Connection conn = dataSource.getConnection()) {
-            String key = "customer:" +  email;
-            return this.cache.getOrLoad(key, () -> this.customerDao.findByEmail(conn, email));
+        try {
+            return this.cache.getOrLoad(emailKey(email), () -> dataSource.withConnection(
+                    conn -> this.customerDao.findByEmail(conn, email)));
         } catch (DAOException e) {
             throw new CustomerRetrievalException(email);
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
     public Optional<Customer> findById(UUID id) {
-        try(Connection conn = dataSource.getConnection()) {
-            String key = "customer:" + id;
-            return this.cache.getOrLoad(key, () -> this.customerDao.findById(conn, id));
+        try {
+            return this.cache.getOrLoad(idKey(id), () -> dataSource.withConnection(
+                    conn -> this.customerDao.findById(conn, id)));
         } catch (DAOException e) {
             throw new CustomerRetrievalException(id.toString());
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
     public List<Customer> findByMultipleIds(Set<UUID> ids) {
-        try(Connection conn = dataSource.getConnection()) {
-            String key = "customer:multiple:" + ids.hashCode();
-            return this.cache.getOrLoad(key, () -> this.customerDao.findByIds(conn, ids));
+        try {
+            Set<UUID> snapshot = Set.copyOf(ids);
+            CacheKey key = CacheKey.of(NAMESPACE, "multiple", snapshot);
+            return this.cache.getOrLoad(key, () -> dataSource.withConnection(
+                    conn -> this.customerDao.findByIds(conn, snapshot)));
         } catch (DAOException e) {
             throw new CustomerSearchException("multiple:" + ids.hashCode());
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
     public void save(Customer customer) {
         try(Connection conn = dataSource.getConnection()) {
             this.customerDao.save(conn, customer);
+            // Other instances only drop the id lookup; a cached "not found" for the email expires with its negative TTL
+            this.invalidationBus.publish(conn, NAMESPACE, customer.getCustomerId());
+            dataSource.recordWrite();
+            invalidateCustomer(customer);
         } catch (DAOException e) {
             throw new CustomerCreationException(customer.getCustomerId().toString());
         } catch (SQLException e) {
             throw new DatabaseConnectionException(e);
         }
     }
+
+    /**
+     * Drop cached lookups, including cached "not found" answers, for a customer that was just saved.
+     */
+    private void invalidateCustomer(Customer customer) {
+        this.cache.invalidate(emailKey(customer.getEmail()));
+        this.cache.invalidate(idKey(customer.getCustomerId()));
+    }
+
+    /**
+     * @param email customer email
+     * @return the cache key under which {@link #findByEmail(String)} stores the customer
+     */
+    public static CacheKey emailKey(String email) {
+        return CacheKey.of(NAMESPACE, "email", email);
+    }
+
+    /**
+     * @param id customer identifier
+     * @return the cache key under which {@link #findById(UUID)} stores the customer
+     */
+    public static CacheKey idKey(UUID id) {
+        return CacheKey.of(NAMESPACE, "id", id);
+    }
 }
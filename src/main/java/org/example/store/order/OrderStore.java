@@ -1,6 +1,8 @@
 package org.example.store.order;
 
 import org.example.application.ApplicationCache;
+import org.example.application.CacheInvalidationBus;
+import org.example.application.CacheKey;
 import org.example.config.DataSource;
 import org.example.config.exception.DatabaseConnectionException;
 import org.example.dao.exception.DAOException;
@@ -8,27 +10,40 @@ import org.example.dao.interfaces.CustomerDao;
 import org.example.dao.interfaces.OrdersDao;
 import org.example.dao.interfaces.ProductDao;
 import org.example.model.Customer;
+import org.example.model.OrderCursor;
+import org.example.model.OrderPage;
 import org.example.model.Orders;
+import org.example.model.PageWithTotal;
 import org.example.model.Product;
 import org.example.store.order.exception.OrderPlacementException;
 import org.example.store.order.exception.OrderRetrievalException;
 import org.example.store.order.exception.OrderCountException;
+import org.example.store.customer.CustomerStore;
+import org.example.store.product.ProductStore;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class OrderStore {
+    private static final String NAMESPACE = "order";
+    private static final CacheKey COUNT_KEY = CacheKey.of(NAMESPACE, "count");
+
     private final DataSource dataSource;
     private final ApplicationCache cache;
+    private final CacheInvalidationBus invalidationBus;
     private final CustomerDao customerDao;
     private final ProductDao productDao;
     private final OrdersDao ordersDao;
 
-    public OrderStore(DataSource dataSource, ApplicationCache cache, CustomerDao customerDao, ProductDao productDao, OrdersDao ordersDao) {
+    public OrderStore(DataSource dataSource, ApplicationCache cache, CacheInvalidationBus invalidationBus,
+                      CustomerDao customerDao, ProductDao productDao, OrdersDao ordersDao) {
         this.dataSource = dataSource;
         this.cache = cache;
+        this.invalidationBus = invalidationBus;
         this.customerDao = customerDao;
         this.productDao = productDao;
         this.ordersDao = ordersDao;
@@ -53,13 +68,20 @@ public class OrderStore {
             try {
                 this.productDao.update(conn, product);
                 // Check if the customer making order should be saved in db or not
-                if(this.customerDao.findById(conn, customer.getCustomerId()).isEmpty())
+                boolean newCustomer = this.customerDao.findById(conn, customer.getCustomerId()).isEmpty();
+                if(newCustomer)
                     this.customerDao.save(conn, customer);
 
                 this.ordersDao.save(conn, order);
 
+                this.invalidationBus.publish(conn, ProductStore.NAMESPACE, product.getProductId(), NAMESPACE);
+                if(newCustomer)
+                    this.invalidationBus.publish(conn, CustomerStore.NAMESPACE, customer.getCustomerId());
                 conn.commit();
+                dataSource.recordWrite();
                 invalidateCache(product.getProductId());
+                if(newCustomer)
+                    invalidateCustomerCache(customer);
             } catch (DAOException e) {
                 conn.rollback();
                 throw new OrderPlacementException(order.getOrderId().toString());
@@ -70,12 +92,17 @@ public class OrderStore {
     }
 
     private void invalidateCache(UUID productId) {
-        this.cache.invalidate("product:" + productId);
-        this.cache.invalidateByPrefix("product:all:");
-        this.cache.invalidateByPrefix("product:search:");
-        this.cache.invalidateByPrefix("product:count:");
-        this.cache.invalidateByPrefix("order:all:");
-        this.cache.invalidateByPrefix("order:count");
+        // Stock is not a search criterion, and product pages only hold ids, so the product entry is all that changes
+        this.cache.invalidate(ProductStore.productKey(productId));
+        this.cache.invalidateTag(NAMESPACE);
+        // Stock is a browsing facet, though; the product facet index re-reads it
+        this.invalidationBus.notifyLocalChange(ProductStore.NAMESPACE, productId);
+    }
+
+    private void invalidateCustomerCache(Customer customer) {
+        // Lookups made before the customer existed may have cached "not found"
+        this.cache.invalidate(CustomerStore.emailKey(customer.getEmail()));
+        this.cache.invalidate(CustomerStore.idKey(customer.getCustomerId()));
     }
 
     /**
@@ -91,24 +118,85 @@ public class OrderStore {
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
      */
     public List<Orders> getAllOrders(int limit, int offset) {
-        try(Connection conn = dataSource.getConnection()) {
-            String key = "order:all:" + limit + ':' + offset;
-            return this.cache.getOrLoad(key, () -> this.ordersDao.getAllOrders(conn, limit, offset));
+        try {
+            CacheKey key = CacheKey.of(NAMESPACE, "all", limit, offset);
+            return this.cache.getOrLoad(key, () -> dataSource.withConnection(
+                    conn -> this.ordersDao.getAllOrders(conn, limit, offset)));
+        } catch (DAOException e) {
+            throw new OrderRetrievalException("all");
+        }
+    }
+
+    /**
+     * Retrieve a page of orders after a cursor.
+     *
+     * Delegates to {@link org.example.dao.interfaces.OrdersDao#getAllOrdersAfter(java.sql.Connection, org.example.model.OrderCursor, int)},
+     * which seeks to the cursor instead of skipping rows, and caches the result. One order more than
+     * requested is read to tell whether a next page exists.
+     *
+     * @param after cursor of the previous page, or {@code null} for the first page
+     * @param limit maximum number of orders to return
+     * @return the page, with the cursor of the next page when there is one
+     * @throws org.example.store.order.exception.OrderRetrievalException when DAO retrieval fails
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public OrderPage getAllOrdersAfter(OrderCursor after, int limit) {
+        try {
+            CacheKey key = CacheKey.of(NAMESPACE, "seek", after, limit);
+            List<Orders> orders = this.cache.getOrLoad(key, () -> dataSource.withConnection(
+                    conn -> this.ordersDao.getAllOrdersAfter(conn, after, limit + 1)));
+            if (orders.size() <= limit) return new OrderPage(orders, null);
+            List<Orders> page = orders.subList(0, limit);
+            return new OrderPage(page, OrderCursor.after(page.get(limit - 1)));
+        } catch (DAOException e) {
+            throw new OrderRetrievalException("all");
+        }
+    }
+
+    /**
+     * Retrieve a page of orders and the number of orders.
+     *
+     * When the page is not cached, it is read together with the count in one statement via
+     * {@link org.example.dao.interfaces.OrdersDao#getAllOrdersWithTotal(java.sql.Connection, int, int)};
+     * the count is then cached as if loaded by {@link #countAll()}.
+     *
+     * @param limit maximum number of orders to return
+     * @param offset zero-based offset for paging
+     * @return the {@link Orders} on the page and the number of orders
+     * @throws org.example.store.order.exception.OrderRetrievalException when DAO retrieval fails
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public PageWithTotal<Orders> getAllOrdersWithTotal(int limit, int offset) {
+        try {
+            CacheKey key = CacheKey.of(NAMESPACE, "all", limit, offset);
+            AtomicReference<Integer> loadedTotal = new AtomicReference<>();
+            List<Orders> orders = this.cache.getOrLoad(key, () -> {
+                PageWithTotal<Orders> page = dataSource.withConnection(
+                        conn -> this.ordersDao.getAllOrdersWithTotal(conn, limit, offset));
+                loadedTotal.set(page.total());
+                return page.items();
+            });
+
+            Integer total = loadedTotal.get();
+            if (total == null)
+                total = countAll();
+            else
+                this.cache.putIfAbsent(COUNT_KEY, total, countLoader());
+            return new PageWithTotal<>(orders, total);
         } catch (DAOException e) {
             throw new OrderRetrievalException("all");
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
     public int countAll() {
-        try(Connection conn = dataSource.getConnection()) {
-            String key = "order:count";
-            return cache.getOrLoad(key, () -> ordersDao.countAll(conn));
+        try {
+            return cache.getOrLoad(COUNT_KEY, countLoader());
         } catch (DAOException e) {
             throw new OrderCountException("count");
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
+
+    private Supplier<Integer> countLoader() {
+        return () -> dataSource.withConnection(conn -> ordersDao.countAll(conn));
+    }
 }
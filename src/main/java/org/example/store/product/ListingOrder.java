@@ -0,0 +1,160 @@
+package org.example.store.product;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Listing order, (name, product id), of every product as the database sorts them, shared by the in-memory
+ * indexes.
+ *
+ * The database orders names by its collation and ids as unsigned bytes, neither of which Java's
+ * {@code String} and {@code UUID} comparisons reproduce, so the order is read from the database rather
+ * than sorted here: in full once
+ * ({@link org.example.dao.interfaces.ProductDao#findIdsInListingOrder(java.sql.Connection)}), then one
+ * product at a time. A product about to be added or renamed in an index is first {@link #moved}, which
+ * makes the order stale, and is then {@link #place placed} between the neighbours the database reports
+ * for it ({@link org.example.dao.interfaces.ProductDao#findListingNeighbours(java.sql.Connection, UUID)}).
+ * A placement or read that began before the product's latest move is refused, so it cannot place a
+ * product by its old name.
+ *
+ * Thread-safe. Every change increments {@link #version()}, so an index can keep its own ordinals in this
+ * order and recompute them only when it changed.
+ */
+public class ListingOrder {
+
+    private final List<UUID> productIds = new ArrayList<>();
+    private boolean loaded;
+    // Products moved and not placed since, with the stamp of their latest move
+    private final Map<UUID, Long> unplaced = new HashMap<>();
+    private long moves;
+    private long version;
+
+    /**
+     * Note that a product is about to be added or renamed; the order is stale until it is placed.
+     */
+    public synchronized void moved(UUID productId) {
+        unplaced.put(productId, ++moves);
+        version++;
+    }
+
+    public synchronized void removed(UUID productId) {
+        unplaced.remove(productId);
+        productIds.remove(productId);
+        version++;
+    }
+
+    /**
+     * Drop the order, for when changes may have been missed; it is stale until {@link #load loaded} again.
+     */
+    public synchronized void invalidate() {
+        productIds.clear();
+        loaded = false;
+        version++;
+    }
+
+    /**
+     * @return the stamp to pass to {@link #load} or {@link #place} with what is read after this call
+     */
+    public synchronized long stamp() {
+        return moves;
+    }
+
+    /**
+     * @return whether the order holds every product; it may still wait for some to be placed
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return whether the order is loaded and every moved product placed
+     */
+    public synchronized boolean isCurrent() {
+        return loaded && unplaced.isEmpty();
+    }
+
+    /**
+     * @return whether the order is loaded and lists {@code productId}
+     */
+    public synchronized boolean holds(UUID productId) {
+        return loaded && productIds.contains(productId);
+    }
+
+    /**
+     * @return whether {@code productId} was moved and waits for {@link #place}
+     */
+    public synchronized boolean isUnplaced(UUID productId) {
+        return loaded && unplaced.containsKey(productId);
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * @param productIds every product id in listing order, as read from the database
+     * @param stamp {@link #stamp()} taken before {@code productIds} were read
+     * @return whether the order was taken; it is not when a product was moved since {@code stamp}
+     */
+    public synchronized boolean load(List<UUID> productIds, long stamp) {
+        for (long moved : unplaced.values()) {
+            if (moved > stamp) return false;
+        }
+        this.productIds.clear();
+        this.productIds.addAll(productIds);
+        unplaced.clear();
+        loaded = true;
+        version++;
+        return true;
+    }
+
+    /**
+     * Put a moved product between its neighbours.
+     *
+     * @param productId the moved product
+     * @param previousId the product right before it in the database's order, or {@code null} when it is first
+     * @param nextId the product right after it, or {@code null} when it is last
+     * @param stamp {@link #stamp()} taken before the neighbours were read
+     * @return {@code false} when the order has to be read in full instead: it is not loaded, or the neighbours
+     *         are not next to each other here, as when they also moved; the order is then dropped. {@code true}
+     *         when placed, or when the product moved again since {@code stamp}, to be placed by a later call
+     */
+    public synchronized boolean place(UUID productId, UUID previousId, UUID nextId, long stamp) {
+        if (!loaded) return false;
+        Long moved = unplaced.get(productId);
+        if (moved != null && moved > stamp) return true;
+
+        productIds.remove(productId);
+        int at = previousId == null ? 0 : productIds.indexOf(previousId) + 1;
+        UUID atId = at < productIds.size() ? productIds.get(at) : null;
+        if ((previousId != null && at == 0) || !Objects.equals(atId, nextId)) {
+            invalidate();
+            return false;
+        }
+        productIds.add(at, productId);
+        unplaced.remove(productId);
+        version++;
+        return true;
+    }
+
+    /**
+     * @param ordinalsById an index's ordinal of every product it holds
+     * @return those ordinals in listing order, or {@code null} when the order is not current or misses a
+     *         product the index holds
+     */
+    public synchronized int[] ordinals(Map<UUID, Integer> ordinalsById) {
+        if (!isCurrent()) return null;
+        int[] order = new int[ordinalsById.size()];
+        int count = 0;
+        for (UUID productId : productIds) {
+            // Products the index does not hold are skipped
+            Integer ordinal = ordinalsById.get(productId);
+            if (ordinal != null) order[count++] = ordinal;
+        }
+        return count == order.length ? order : null;
+    }
+}
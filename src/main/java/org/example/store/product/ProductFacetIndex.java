@@ -0,0 +1,393 @@
+package org.example.store.product;
+
+import org.example.model.PriceRange;
+import org.example.model.Product;
+import org.example.model.ProductFacetCounts;
+import org.example.model.ProductFacetQuery;
+import org.example.model.ProductFacets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory bitmap index answering facet combinations and per-facet counts without a database round trip.
+ *
+ * Every indexed product gets a small int ordinal, reused once the product is removed, so the ordinals stay
+ * dense and a {@link BitSet} over them needs about one bit per product. Each facet value (category, price
+ * bucket, in stock, whole stars of the average rating) maps to the set of its products. A query ANDs the sets
+ * of the selected values; the count of a facet value ANDs its set with the selections of the other facets.
+ * Matches are paged in the {@link ListingOrder} shared with the other product indexes, so pages line up with
+ * those the database serves. The matches of recent queries are kept as a set of ranks in that order, with
+ * where their last page ended, so the next page starts from there with {@link BitSet#nextSetBit(int)}.
+ *
+ * Nothing is answered until the index has been completely built once, nor while the listing order is not
+ * current.
+ */
+public class ProductFacetIndex {
+
+    private static final int MAX_STARS = 5;
+    // Queries whose matches are kept in rank space, for their next pages
+    private static final int MAX_RANKED_QUERIES = 16;
+
+    /**
+     * One page of matching product ids, in listing order.
+     *
+     * @param productIds ids on the page
+     * @param total number of matching products on all pages
+     * @param counts counts of every facet value for the query
+     */
+    public record Result(List<UUID> productIds, int total, ProductFacetCounts counts) {
+    }
+
+    /**
+     * A query's matches by rank in the listing order, and where its last page ended.
+     */
+    private static final class RankedMatches {
+        private final BitSet ranks;
+        private final int total;
+        private final ProductFacetCounts counts;
+        private int cursorOffset;
+        private int cursorRank;
+
+        private RankedMatches(BitSet ranks, int total, ProductFacetCounts counts) {
+            this.ranks = ranks;
+            this.total = total;
+            this.counts = counts;
+        }
+    }
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<ProductFacets> entries = new ArrayList<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet all = new BitSet();
+    private final Map<UUID, BitSet> categories = new HashMap<>();
+    private final Map<PriceRange, BitSet> priceRanges = new EnumMap<>(PriceRange.class);
+    private final BitSet inStock = new BitSet();
+    // stars[n] holds the products whose average rating has n whole stars; stars[0] the unrated ones
+    private final BitSet[] stars = new BitSet[MAX_STARS + 1];
+    private final ListingOrder listingOrder;
+    // Ordinals in listing order as of listingOrder.version() == byRankVersion; null when to be recomputed
+    private int[] byRank;
+    private long byRankVersion;
+    // The rank of each ordinal in byRank
+    private int[] rankOf;
+    // Recent queries' matches, valid for byRank and the facets as of rankedChanges
+    private final Map<ProductFacetQuery, RankedMatches> ranked =
+            new LinkedHashMap<>(MAX_RANKED_QUERIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ProductFacetQuery, RankedMatches> eldest) {
+                    return size() > MAX_RANKED_QUERIES;
+                }
+            };
+    private int[] rankedOrder;
+    private long rankedChanges;
+    // Incremented whenever a product's facets change
+    private long changes;
+    private boolean ready;
+    // Products written while a build is running; the build's older copy of them is skipped
+    private Set<UUID> changedDuringBuild;
+
+    /**
+     * @param listingOrder order to page matches in; whoever adds or renames products in this index marks them
+     *                     {@link ListingOrder#moved moved} there first
+     */
+    public ProductFacetIndex(ListingOrder listingOrder) {
+        this.listingOrder = listingOrder;
+        for (PriceRange range : PriceRange.values()) {
+            priceRanges.put(range, new BitSet());
+        }
+        for (int n = 0; n <= MAX_STARS; n++) {
+            stars[n] = new BitSet();
+        }
+    }
+
+    /**
+     * Drop everything and start a build; nothing is answered until {@link #endBuild(boolean)}.
+     */
+    public synchronized void beginBuild() {
+        ordinals.clear();
+        entries.clear();
+        freeOrdinals.clear();
+        all.clear();
+        categories.clear();
+        priceRanges.values().forEach(BitSet::clear);
+        inStock.clear();
+        for (BitSet set : stars) {
+            set.clear();
+        }
+        byRank = null;
+        changes++;
+        ready = false;
+        changedDuringBuild = new HashSet<>();
+    }
+
+    /**
+     * Index products read by the running build, except those {@link #put} or {@link #remove}d since it began.
+     */
+    public synchronized void addAll(List<ProductFacets> products) {
+        for (ProductFacets product : products) {
+            if (changedDuringBuild == null || !changedDuringBuild.contains(product.productId())) index(product);
+        }
+    }
+
+    /**
+     * @param complete whether every product was read; an incomplete index answers nothing
+     */
+    public synchronized void endBuild(boolean complete) {
+        ready = complete;
+        changedDuringBuild = null;
+    }
+
+    /**
+     * @return whether the build has completed
+     */
+    public synchronized boolean isBuilt() {
+        return ready;
+    }
+
+    /**
+     * @return whether {@link #query} answers: the index is built and has every product it holds in a current
+     *         listing order
+     */
+    public synchronized boolean isReady() {
+        return ready && ordinalsByRank() != null;
+    }
+
+    /**
+     * @return the name indexed for a product, or {@code null} when it is not indexed
+     */
+    public synchronized String nameOf(UUID productId) {
+        Integer ordinal = ordinals.get(productId);
+        return ordinal == null ? null : entries.get(ordinal).name();
+    }
+
+    /**
+     * Index a created or changed product, replacing its previous facets.
+     */
+    public synchronized void put(ProductFacets product) {
+        if (changedDuringBuild != null) changedDuringBuild.add(product.productId());
+        index(product);
+    }
+
+    /**
+     * Index a product created or edited through this instance. Editing a product leaves its reviews alone,
+     * so the average rating already indexed for it is kept.
+     *
+     * @return whether the product was indexed; one without a price has no price bucket and is left as it was,
+     *         for the caller to read its facets from the database instead
+     */
+    public synchronized boolean put(Product product) {
+        if (product.getPrice() == null) return false;
+        Integer ordinal = ordinals.get(product.getProductId());
+        Double averageRating = ordinal == null ? null : entries.get(ordinal).averageRating();
+        put(new ProductFacets(product.getProductId(), product.getName(), product.getCategoryId(),
+                product.getPrice(), product.getStockQuantity(), averageRating));
+        return true;
+    }
+
+    public synchronized void remove(UUID productId) {
+        if (changedDuringBuild != null) changedDuringBuild.add(productId);
+        unindex(productId);
+    }
+
+    /**
+     * @param query facet values to match
+     * @param limit maximum number of ids on the page
+     * @param offset zero-based offset of the page
+     * @return the page of matching ids, the number of matches and the count of every facet value
+     * @throws IllegalStateException when the index has not been completely built or its listing order is stale
+     */
+    public synchronized Result query(ProductFacetQuery query, int limit, int offset) {
+        if (!ready) throw new IllegalStateException("The product facet index is not built");
+        int[] order = ordinalsByRank();
+        if (order == null) throw new IllegalStateException("The product listing order is not current");
+
+        if (rankedOrder != order || rankedChanges != changes) {
+            ranked.clear();
+            rankedOrder = order;
+            rankedChanges = changes;
+        }
+        RankedMatches matches = ranked.computeIfAbsent(query, this::rank);
+        return new Result(page(order, matches, limit, offset), matches.total, matches.counts);
+    }
+    /**
+     * @return number of indexed products
+     */
+    public synchronized int size() {
+        return ordinals.size();
+    }
+
+    private BitSet categorySelection(ProductFacetQuery query) {
+        if (query.categoryId() == null) return all;
+        BitSet category = categories.get(query.categoryId());
+        return category != null ? category : new BitSet();
+    }
+
+    private BitSet ratingSelection(int minRating) {
+        if (minRating == 0) return all;
+        BitSet rated = new BitSet();
+        for (int n = minRating; n <= MAX_STARS; n++) {
+            rated.or(stars[n]);
+        }
+        return rated;
+    }
+
+    private Map<UUID, Integer> categoryCounts(BitSet others) {
+        Map<UUID, Integer> counts = new HashMap<>();
+        categories.forEach((categoryId, products) -> {
+            int count = intersectionSize(others, products);
+            if (count > 0) counts.put(categoryId, count);
+        });
+        return counts;
+    }
+
+    private Map<PriceRange, Integer> priceCounts(BitSet others) {
+        Map<PriceRange, Integer> counts = new EnumMap<>(PriceRange.class);
+        priceRanges.forEach((range, products) -> counts.put(range, intersectionSize(others, products)));
+        return counts;
+    }
+
+    /**
+     * Counts per minimum rating, accumulated from five stars down.
+     */
+    private Map<Integer, Integer> ratingCounts(BitSet others) {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        int atLeast = 0;
+        for (int n = MAX_STARS; n >= 1; n--) {
+            atLeast += intersectionSize(others, stars[n]);
+            counts.put(n, atLeast);
+        }
+        return counts;
+    }
+
+    private int[] ordinalsByRank() {
+        long version = listingOrder.version();
+        if (byRank == null || version != byRankVersion) {
+            // Taken before reading, so a change made meanwhile is recomputed on the next call
+            byRankVersion = version;
+            byRank = listingOrder.ordinals(ordinals);
+            if (byRank != null) {
+                rankOf = new int[entries.size()];
+                for (int rank = 0; rank < byRank.length; rank++) {
+                    rankOf[byRank[rank]] = rank;
+                }
+            }
+        }
+        return byRank;
+    }
+
+    /**
+     * Match a query and count its facet values, keeping the matches by rank in the listing order.
+     */
+    private RankedMatches rank(ProductFacetQuery query) {
+        BitSet category = categorySelection(query);
+        BitSet price = query.priceRange() == null ? all : priceRanges.get(query.priceRange());
+        BitSet stock = query.inStockOnly() ? inStock : all;
+        BitSet rating = ratingSelection(query.minRating());
+
+        BitSet matches = intersect(category, price, stock, rating);
+        BitSet ranks = new BitSet(byRank.length);
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            ranks.set(rankOf[ordinal]);
+        }
+        ProductFacetCounts counts = new ProductFacetCounts(
+                categoryCounts(intersect(price, stock, rating)),
+                priceCounts(intersect(category, stock, rating)),
+                intersectionSize(intersect(category, price, rating), inStock),
+                ratingCounts(intersect(category, price, stock)));
+        return new RankedMatches(ranks, matches.cardinality(), counts);
+    }
+
+    private List<UUID> page(int[] order, RankedMatches matches, int limit, int offset) {
+        if (offset >= matches.total || limit <= 0) return List.of();
+        // From where the previous page of the query ended when this one comes later, else from the first match
+        boolean resume = offset >= matches.cursorOffset;
+        int skipped = resume ? matches.cursorOffset : 0;
+        int rank = matches.ranks.nextSetBit(resume ? matches.cursorRank : 0);
+        for (; skipped < offset; skipped++) {
+            rank = matches.ranks.nextSetBit(rank + 1);
+        }
+        List<UUID> ids = new ArrayList<>(Math.min(limit, matches.total - offset));
+        for (; rank >= 0 && ids.size() < limit; rank = matches.ranks.nextSetBit(rank + 1)) {
+            ids.add(entries.get(order[rank]).productId());
+        }
+        matches.cursorOffset = offset + ids.size();
+        matches.cursorRank = rank >= 0 ? rank : order.length;
+        return ids;
+    }
+
+    private void index(ProductFacets product) {
+        Integer previous = ordinals.get(product.productId());
+        if (previous != null) {
+            // Keeps its ordinal; a rename moves it in the listing order, not here
+            unsetFacets(entries.get(previous), previous);
+            entries.set(previous, product);
+            setFacets(product, previous);
+            changes++;
+            return;
+        }
+
+        unindex(product.productId());
+        Integer free = freeOrdinals.poll();
+        int ordinal = free != null ? free : entries.size();
+        if (ordinal == entries.size()) entries.add(product);
+        else entries.set(ordinal, product);
+        ordinals.put(product.productId(), ordinal);
+        all.set(ordinal);
+        setFacets(product, ordinal);
+        byRank = null;
+        changes++;
+    }
+
+    private void unindex(UUID productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) return;
+        unsetFacets(entries.get(ordinal), ordinal);
+        all.clear(ordinal);
+        entries.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+        byRank = null;
+        changes++;
+    }
+
+    private void setFacets(ProductFacets product, int ordinal) {
+        categories.computeIfAbsent(product.categoryId(), c -> new BitSet()).set(ordinal);
+        priceRanges.get(PriceRange.of(product.price())).set(ordinal);
+        if (product.inStock()) inStock.set(ordinal);
+        stars[product.ratingStars()].set(ordinal);
+    }
+
+    private void unsetFacets(ProductFacets product, int ordinal) {
+        BitSet category = categories.get(product.categoryId());
+        if (category != null) {
+            category.clear(ordinal);
+            if (category.isEmpty()) categories.remove(product.categoryId());
+        }
+        priceRanges.get(PriceRange.of(product.price())).clear(ordinal);
+        inStock.clear(ordinal);
+        stars[product.ratingStars()].clear(ordinal);
+    }
+
+    private static BitSet intersect(BitSet first, BitSet... others) {
+        BitSet result = (BitSet) first.clone();
+        for (BitSet other : others) {
+            result.and(other);
+        }
+        return result;
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result.cardinality();
+    }
+}
@@ -0,0 +1,320 @@
+package org.example.store.product;
+
+import org.example.model.Product;
+import org.example.model.ProductFilter;
+import org.example.model.SearchMode;
+import org.example.util.SearchTermUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * In-memory index over product names and descriptions, answering word searches, name-contains searches
+ * and category listings without a database round trip.
+ *
+ * Every indexed product gets a small int ordinal, reused once the product is removed. Each word of a
+ * name or description ({@link SearchTermUtil#words(String)}) maps to a {@link BitSet} of the ordinals of
+ * the products using it, kept sorted so the words starting with a prefix are one range. A
+ * {@link SearchMode#WORDS} search ORs the sets of the words starting with each word of the term, ANDs
+ * those of all its words and the category's set, so it returns exactly the rows matching
+ * {@code ~* '\mword'} on the name or description for every word. For {@link SearchMode#CONTAINS}, each
+ * run of three characters of a lower-cased name maps to the set of the products whose name contains
+ * it; a search ANDs the sets of the term's trigrams and the category's set, then checks the remaining
+ * names for the whole term, so it returns exactly the rows {@code name ILIKE '%term%'} does. Matches
+ * are listed in the {@link ListingOrder} shared with the other product indexes, so pages line up with
+ * those the database serves.
+ *
+ * Full-text searches are left to the database: {@code websearch_to_tsquery('english')} stems words and
+ * drops stopwords, and its matches are ordered by {@code ts_rank}, none of which this index reproduces.
+ * So are terms using characters outside ASCII, whose case folding may differ between Java and the
+ * database, and all searches until the index has been completely built, and while its listing order
+ * is not current.
+ * Words are split where the database splits them as long as its locale classifies letters and digits
+ * as Java does, as UTF-8 locales do.
+ */
+public class ProductSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private record Entry(UUID productId, String name, String lowerName, Set<String> words, UUID categoryId) {
+    }
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet all = new BitSet();
+    private final Map<Long, BitSet> trigrams = new HashMap<>();
+    private final NavigableMap<String, BitSet> words = new TreeMap<>();
+    private final Map<UUID, BitSet> categories = new HashMap<>();
+    private final ListingOrder listingOrder;
+    // Ordinals in listing order as of listingOrder.version() == byRankVersion; null when to be recomputed
+    private int[] byRank;
+    private long byRankVersion;
+    private boolean ready;
+    // Products written while a build is running; the build's older copy of them is skipped
+    private Set<UUID> changedDuringBuild;
+
+    /**
+     * @param listingOrder order to list matches in; whoever adds or renames products in this index marks them
+     *                     {@link ListingOrder#moved moved} there first
+     */
+    public ProductSearchIndex(ListingOrder listingOrder) {
+        this.listingOrder = listingOrder;
+    }
+
+    /**
+     * Drop everything and start a build; searches go to the database until {@link #endBuild(boolean)}.
+     */
+    public synchronized void beginBuild() {
+        ordinals.clear();
+        entries.clear();
+        freeOrdinals.clear();
+        all.clear();
+        trigrams.clear();
+        words.clear();
+        categories.clear();
+        byRank = null;
+        ready = false;
+        changedDuringBuild = new HashSet<>();
+    }
+
+    /**
+     * Index products read by the running build, except those {@link #put} or {@link #remove}d since it began.
+     */
+    public synchronized void addAll(List<Product> products) {
+        for (Product product : products) {
+            if (changedDuringBuild == null || !changedDuringBuild.contains(product.getProductId())) index(product);
+        }
+    }
+
+    /**
+     * @param complete whether every product was read; an incomplete index never answers searches
+     */
+    public synchronized void endBuild(boolean complete) {
+        ready = complete;
+        changedDuringBuild = null;
+    }
+
+    /**
+     * Index a created or updated product, replacing its previous version.
+     */
+    public synchronized void put(Product product) {
+        if (changedDuringBuild != null) changedDuringBuild.add(product.getProductId());
+        index(product);
+    }
+
+    public synchronized void remove(UUID productId) {
+        if (changedDuringBuild != null) changedDuringBuild.add(productId);
+        unindex(productId);
+    }
+
+    /**
+     * @return whether the build has completed, so {@link SearchMode#WORDS} searches are answered here
+     *         whenever the listing order is current
+     */
+    public synchronized boolean isBuilt() {
+        return ready;
+    }
+
+    /**
+     * @return whether the index is built and has every product it holds in a current listing order, so
+     *         {@link #canAnswer} accepts the searches it can answer exactly
+     */
+    public synchronized boolean isReady() {
+        return ready && ordinalsByRank() != null;
+    }
+
+    /**
+     * @return the name indexed for a product, or {@code null} when it is not indexed
+     */
+    public synchronized String nameOf(UUID productId) {
+        Integer ordinal = ordinals.get(productId);
+        return ordinal == null ? null : entries.get(ordinal).name();
+    }
+
+    /**
+     * @param filter normalized filter
+     * @return whether {@link #search(ProductFilter)} answers the filter
+     */
+    public synchronized boolean canAnswer(ProductFilter filter) {
+        if (!isReady()) return false;
+        if (!filter.hasName()) return true;
+        return switch (filter.searchMode()) {
+            case CONTAINS -> isPlain(filter.name());
+            case WORDS -> isAscii(filter.name());
+            case FULL_TEXT, SIMILAR -> false;
+        };
+    }
+
+    /**
+     * @param filter normalized filter that {@link #canAnswer(ProductFilter) can be answered}
+     * @return ids of every matching product, in listing order
+     * @throws IllegalStateException when the listing order went stale since {@link #canAnswer}
+     */
+    public synchronized List<UUID> search(ProductFilter filter) {
+        String term = filter.hasName() ? filter.name() : "";
+        boolean byWords = filter.searchMode() == SearchMode.WORDS;
+        BitSet candidates = byWords ? withWords(term) : withTrigrams(term);
+        if (filter.hasCategoryId()) candidates.and(categories.getOrDefault(filter.categoryId(), new BitSet()));
+
+        List<UUID> ids = new ArrayList<>();
+        int[] order = ordinalsByRank();
+        if (order == null) throw new IllegalStateException("The product listing order is not current");
+        for (int ordinal : order) {
+            if (!candidates.get(ordinal)) continue;
+            // Trigrams narrow the candidates; only the whole term decides. Words match exactly
+            Entry entry = entries.get(ordinal);
+            if (byWords || entry.lowerName().contains(term)) ids.add(entry.productId());
+        }
+        return ids;
+    }
+
+    /**
+     * @return number of indexed products
+     */
+    public synchronized int size() {
+        return ordinals.size();
+    }
+
+    private int[] ordinalsByRank() {
+        long version = listingOrder.version();
+        if (byRank == null || version != byRankVersion) {
+            // Taken before reading, so a change made meanwhile is recomputed on the next call
+            byRankVersion = version;
+            byRank = listingOrder.ordinals(ordinals);
+        }
+        return byRank;
+    }
+
+    /**
+     * Products having, for every word of the term, a word starting with it.
+     */
+    private BitSet withWords(String term) {
+        BitSet matches = (BitSet) all.clone();
+        for (String prefix : SearchTermUtil.words(term)) {
+            BitSet withPrefix = new BitSet();
+            for (Map.Entry<String, BitSet> word : words.tailMap(prefix, true).entrySet()) {
+                if (!word.getKey().startsWith(prefix)) break;
+                withPrefix.or(word.getValue());
+            }
+            matches.and(withPrefix);
+            if (matches.isEmpty()) break;
+        }
+        return matches;
+    }
+
+    /**
+     * Products whose name contains every trigram of the term; a superset of those containing the term.
+     */
+    private BitSet withTrigrams(String term) {
+        BitSet candidates = (BitSet) all.clone();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            BitSet postings = trigrams.get(trigram(term, i));
+            if (postings == null) return new BitSet();
+            candidates.and(postings);
+        }
+        return candidates;
+    }
+
+    private void index(Product product) {
+        unindex(product.getProductId());
+        Integer free = freeOrdinals.poll();
+        int ordinal = free != null ? free : entries.size();
+
+        Entry entry = new Entry(product.getProductId(), product.getName(), lowerCase(product.getName()),
+                wordsOf(product), product.getCategoryId());
+        if (ordinal == entries.size()) entries.add(entry);
+        else entries.set(ordinal, entry);
+        ordinals.put(product.getProductId(), ordinal);
+        all.set(ordinal);
+
+        for (long gram : trigramsOf(entry.lowerName())) {
+            trigrams.computeIfAbsent(gram, g -> new BitSet()).set(ordinal);
+        }
+        for (String word : entry.words()) {
+            words.computeIfAbsent(word, w -> new BitSet()).set(ordinal);
+        }
+        categories.computeIfAbsent(product.getCategoryId(), c -> new BitSet()).set(ordinal);
+        byRank = null;
+    }
+
+    private void unindex(UUID productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) return;
+        Entry entry = entries.get(ordinal);
+        clear(trigrams, trigramsOf(entry.lowerName()), ordinal);
+        clear(words, entry.words(), ordinal);
+        clear(categories, Set.of(entry.categoryId()), ordinal);
+        all.clear(ordinal);
+        entries.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+        byRank = null;
+    }
+
+    private static <K> void clear(Map<K, BitSet> postings, Set<K> keys, int ordinal) {
+        for (K key : keys) {
+            BitSet bits = postings.get(key);
+            if (bits == null) continue;
+            bits.clear(ordinal);
+            if (bits.isEmpty()) postings.remove(key);
+        }
+    }
+
+    private static Set<Long> trigramsOf(String lowerName) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= lowerName.length(); i++) {
+            grams.add(trigram(lowerName, i));
+        }
+        return grams;
+    }
+
+    private static Set<String> wordsOf(Product product) {
+        Set<String> words = new HashSet<>(SearchTermUtil.words(product.getName()));
+        if (product.getDescription() != null) words.addAll(SearchTermUtil.words(product.getDescription()));
+        return Set.copyOf(words);
+    }
+
+    private static long trigram(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    /**
+     * Lower-case one character at a time, as {@code ILIKE} does, rather than with the
+     * locale-sensitive, length-changing rules of {@link String#toLowerCase()}.
+     */
+    static String lowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static boolean isAscii(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (term.charAt(i) > 127) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether a normalized term is ASCII and free of the {@code %}, {@code _} and {@code \} that
+     * {@code ILIKE} would read as patterns.
+     */
+    private static boolean isPlain(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c > 127 || c == '%' || c == '_' || c == '\\') return false;
+        }
+        return true;
+    }
+}
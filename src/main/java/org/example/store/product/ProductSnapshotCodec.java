@@ -0,0 +1,40 @@
+package org.example.store.product;
+
+import org.example.application.CacheSnapshot;
+import org.example.model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static org.example.application.CacheSnapshot.*;
+
+class ProductSnapshotCodec implements CacheSnapshot.Codec<Product> {
+
+    @Override
+    public void write(DataOutput out, Product product) throws IOException {
+        writeUuid(out, product.getProductId());
+        writeNullableString(out, product.getName());
+        writeNullableString(out, product.getDescription());
+        out.writeBoolean(product.getPrice() != null);
+        if (product.getPrice() != null) out.writeDouble(product.getPrice());
+        out.writeInt(product.getStockQuantity());
+        writeUuid(out, product.getCategoryId());
+        writeInstant(out, product.getCreatedAt());
+        writeInstant(out, product.getUpdatedAt());
+    }
+
+    @Override
+    public Product read(DataInput in) throws IOException {
+        return new Product(
+                readUuid(in),
+                readNullableString(in),
+                readNullableString(in),
+                in.readBoolean() ? in.readDouble() : null,
+                in.readInt(),
+                readUuid(in),
+                readInstant(in),
+                readInstant(in)
+        );
+    }
+}
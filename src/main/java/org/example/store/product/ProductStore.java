@@ -1,36 +1,83 @@
 package org.example.store.product;
 
 import org.example.application.ApplicationCache;
+import org.example.application.CacheInvalidationBus;
+import org.example.application.CacheKey;
+import org.example.application.CacheSnapshot;
+import org.example.application.EntityCache;
 import org.example.config.DataSource;
 import org.example.config.exception.DatabaseConnectionException;
 import org.example.dao.exception.DAOException;
 import org.example.dao.interfaces.ProductDao;
+import org.example.model.ListingNeighbours;
+import org.example.model.PageWithTotal;
 import org.example.model.Product;
+import org.example.model.ProductCursor;
+import org.example.model.ProductFacetPage;
+import org.example.model.ProductFacetQuery;
+import org.example.model.ProductFacets;
 import org.example.model.ProductFilter;
+import org.example.model.ProductPage;
 import org.example.store.product.exception.*;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class ProductStore {
+    private static final Logger LOGGER = Logger.getLogger(ProductStore.class.getName());
+    public static final String NAMESPACE = "product";
+    private static final int SEARCH_INDEX_BATCH = 1_000;
+    private static final String SEARCH_TAG = "product:search";
+    private static final String COUNT_TAG = "product:count";
+    private static final String ANY_CATEGORY_TAG = "product:list:any";
+
     private final DataSource dataSource;
     private final ApplicationCache cache;
+    private final CacheInvalidationBus invalidationBus;
     private final ProductDao productDao;
+    private final EntityCache<Product> products;
+    private volatile ProductSearchIndex searchIndex;
+    private ExecutorService searchIndexBuilder;
+    private volatile ProductFacetIndex facetIndex;
+    private ExecutorService facetIndexBuilder;
+    // Shared by both indexes, and kept up to date on its own thread
+    private final ListingOrder listingOrder = new ListingOrder();
+    private volatile ExecutorService listingOrderUpdater;
+    private final AtomicBoolean listingOrderReadQueued = new AtomicBoolean();
+    private final List<Consumer<UUID>> writeListeners = new CopyOnWriteArrayList<>();
 
-    public ProductStore(DataSource dataSource, ApplicationCache cache, ProductDao productDao) {
+    public ProductStore(DataSource dataSource, ApplicationCache cache, CacheInvalidationBus invalidationBus,
+                        ProductDao productDao) {
         this.dataSource = dataSource;
         this.cache = cache;
+        this.invalidationBus = invalidationBus;
         this.productDao = productDao;
+        this.products = new EntityCache<>(cache, NAMESPACE, Product::getProductId,
+                id -> dataSource.withConnection(conn -> productDao.findById(conn, id)),
+                ids -> dataSource.withConnection(conn -> productDao.findByIds(conn, ids)));
     }
 
     /**
      * Persist a new {@link org.example.model.Product} inside a transaction.
      *
      * Delegates to {@link org.example.dao.interfaces.ProductDao#save(java.sql.Connection, org.example.model.Product)}
-     * and invalidates product caches on success.
+     * and on success caches the product and invalidates the pages and counts of its category.
      *
      * @param product the product to create
      * @return the persisted {@link Product}
@@ -42,8 +89,16 @@ public class ProductStore {
             conn.setAutoCommit(false);
             try {
                 this.productDao.save(conn, product);
+                String[] listings = listingTags(product.getCategoryId());
+                this.invalidationBus.publish(conn, NAMESPACE, product.getProductId(), listings);
                 conn.commit();
-                invalidateAllProductCache();
+                dataSource.recordWrite();
+                this.products.put(product);
+                productMoved(product.getProductId());
+                indexProduct(product);
+                indexFacets(product);
+                invalidateTags(listings);
+                notifyWriteListeners(product.getProductId());
                 return product;
             } catch (DAOException e) {
                 conn.rollback();
@@ -58,7 +113,9 @@ public class ProductStore {
      * Update an existing {@link org.example.model.Product} inside a transaction.
      *
      * Delegates to {@link org.example.dao.interfaces.ProductDao#update(java.sql.Connection, org.example.model.Product)}
-     * and invalidates product caches on success.
+     * and on success caches the updated product. Cached pages hold product ids, so they pick up the
+     * change without being dropped; only when the name, description or category changed, which can move the
+     * product between or within pages, are the pages and counts of its previous and current category invalidated.
      *
      * @param product product with updated fields
      * @return the updated {@link Product}
@@ -69,9 +126,25 @@ public class ProductStore {
         try (Connection conn = dataSource.getConnection()) {
             conn.setAutoCommit(false);
             try {
+                Optional<Product> previous = this.productDao.findById(conn, product.getProductId());
                 this.productDao.update(conn, product);
+                String[] listings;
+                if (previous.isEmpty())
+                    listings = listingTags(null, product.getCategoryId());
+                else if (affectsListings(previous.get(), product))
+                    listings = listingTags(previous.get().getCategoryId(), product.getCategoryId());
+                else
+                    listings = new String[0];
+                this.invalidationBus.publish(conn, NAMESPACE, product.getProductId(), listings);
                 conn.commit();
-                invalidateAllProductCache();
+                dataSource.recordWrite();
+                this.products.put(product);
+                if (previous.isEmpty() || !Objects.equals(previous.get().getName(), product.getName()))
+                    productMoved(product.getProductId());
+                indexProduct(product);
+                indexFacets(product);
+                invalidateTags(listings);
+                notifyWriteListeners(product.getProductId());
                 return product;
             } catch (DAOException e) {
                 conn.rollback();
@@ -85,6 +158,8 @@ public class ProductStore {
     /**
      * Delete a product by id.
      *
+     * On success the product's entry and the pages and counts of its category are invalidated.
+     *
      * @param productId product identifier
      * @throws org.example.store.product.exception.DeleteProductException when DAO delete fails
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
@@ -93,9 +168,22 @@ public class ProductStore {
         try (Connection conn = dataSource.getConnection()) {
             conn.setAutoCommit(false);
             try {
+                UUID categoryId = this.productDao.findById(conn, productId)
+                        .map(Product::getCategoryId)
+                        .orElse(null);
                 this.productDao.deleteById(conn, productId);
+                String[] listings = listingTags(categoryId);
+                this.invalidationBus.publish(conn, NAMESPACE, productId, listings);
                 conn.commit();
-                invalidateAllProductCache();
+                dataSource.recordWrite();
+                this.products.invalidate(productId);
+                ProductSearchIndex index = this.searchIndex;
+                if (index != null) index.remove(productId);
+                ProductFacetIndex facets = this.facetIndex;
+                if (facets != null) facets.remove(productId);
+                this.listingOrder.removed(productId);
+                invalidateTags(listings);
+                notifyWriteListeners(productId);
             } catch (DAOException e) {
                 conn.rollback();
                 throw new DeleteProductException(productId.toString());
@@ -109,7 +197,8 @@ public class ProductStore {
      * Retrieve a product by id.
      *
      * Uses {@link org.example.dao.interfaces.ProductDao#findById(java.sql.Connection, java.util.UUID)}
-     * and caches the result via {@link org.example.application.ApplicationCache#getOrLoad}.
+     * and caches the result via {@link org.example.application.ApplicationCache#getOrLoad}. The connection is
+     * borrowed inside the loader so the entry can be refreshed in the background.
      *
      * @param productId product identifier
      * @return an {@link Optional} containing the {@link Product} when found
@@ -117,13 +206,10 @@ public class ProductStore {
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
      */
     public Optional<Product> getProduct(UUID productId) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "product:" + productId.toString();
-            return this.cache.getOrLoad(key, () -> this.productDao.findById(conn, productId));
+        try {
+            return this.products.get(productId);
         } catch (DAOException e) {
             throw new ProductRetrievalException(productId.toString());
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
@@ -131,7 +217,9 @@ public class ProductStore {
      * Search products using a {@link ProductFilter} with paging.
      *
      * Delegates to {@link org.example.dao.interfaces.ProductDao#findFiltered(java.sql.Connection, org.example.model.ProductFilter, int, int)}
-     * and caches results.
+     * and caches each page as a list of product ids, with the products themselves cached once by id.
+     * The filter is normalized first, so searches differing only in case or whitespace share one cache entry.
+     * Searches the {@link #enableSearchIndex() search index} can answer do not query the database at all.
      *
      * @param filter filter criteria
      * @param limit maximum number of results
@@ -141,28 +229,570 @@ public class ProductStore {
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
      */
     public List<Product> searchProducts(ProductFilter filter, int limit, int offset) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "product:search:" + filter.hashCode() + limit + offset;
-            return this.cache.getOrLoad(key, () -> this.productDao.findFiltered(conn, filter, limit, offset));
+        try {
+            ProductFilter normalized = filter.normalized();
+            List<UUID> matches = searchIndexed(normalized);
+            if (matches != null) return this.products.getAll(page(matches, limit, offset));
+
+            CacheKey key = CacheKey.of(NAMESPACE, "search", normalized, limit, offset);
+            List<UUID> ids = this.cache.getOrLoad(key, () -> this.products.putAll(dataSource.withReadConnection(
+                    conn -> this.productDao.findFiltered(conn, normalized, limit, offset))),
+                    SEARCH_TAG, listingTag(normalized.categoryId()));
+            return this.products.getAll(ids);
+        } catch (DAOException e) {
+            throw new ProductSearchException("Failed to search with filter");
+        }
+    }
+
+    /**
+     * Search products using a {@link ProductFilter}, one page after a cursor.
+     *
+     * Delegates to {@link org.example.dao.interfaces.ProductDao#findFilteredAfter(java.sql.Connection, org.example.model.ProductFilter, org.example.model.ProductCursor, int)},
+     * which seeks to the cursor instead of skipping rows, so every page costs about as much as the first.
+     * One product more than requested is read to tell whether a next page exists. Pages are cached
+     * like those of {@link #searchProducts(ProductFilter, int, int)}. Searches the
+     * {@link #enableSearchIndex() search index} can answer seek in its matches instead, unless the cursor's
+     * product is no longer among them.
+     *
+     * @param filter filter criteria
+     * @param after cursor of the previous page, or {@code null} for the first page
+     * @param limit maximum number of results
+     * @return the page, with the cursor of the next page when there is one
+     * @throws org.example.store.product.exception.ProductSearchException when DAO search fails
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public ProductPage searchProductsAfter(ProductFilter filter, ProductCursor after, int limit) {
+        try {
+            ProductFilter normalized = filter.normalized();
+            List<UUID> matches = searchIndexed(normalized);
+            if (matches != null) {
+                int start = after == null ? 0 : matches.indexOf(after.productId()) + 1;
+                // A cursor whose product is no longer a match is sought in the database instead
+                if (after == null || start > 0) {
+                    List<Product> page = this.products.getAll(page(matches, limit, start));
+                    boolean hasNext = start + limit < matches.size();
+                    return new ProductPage(page,
+                            hasNext && !page.isEmpty() ? ProductCursor.after(page.get(page.size() - 1)) : null);
+                }
+            }
+
+            CacheKey key = CacheKey.of(NAMESPACE, "seek", normalized, after, limit);
+            List<UUID> ids = this.cache.getOrLoad(key, () -> this.products.putAll(dataSource.withReadConnection(
+                    conn -> this.productDao.findFilteredAfter(conn, normalized, after, limit + 1))),
+                    SEARCH_TAG, listingTag(normalized.categoryId()));
+
+            boolean hasNext = ids.size() > limit;
+            List<Product> page = this.products.getAll(hasNext ? ids.subList(0, limit) : ids);
+            ProductCursor next = hasNext && !page.isEmpty() ? ProductCursor.after(page.get(page.size() - 1)) : null;
+            return new ProductPage(page, next);
+        } catch (DAOException e) {
+            throw new ProductSearchException("Failed to search with filter");
+        }
+    }
+
+    /**
+     * Search products using a {@link ProductFilter} with paging, and count all matches.
+     *
+     * When the page is not cached, it is read together with the count in one statement via
+     * {@link org.example.dao.interfaces.ProductDao#findFilteredWithTotal(java.sql.Connection, org.example.model.ProductFilter, int, int)},
+     * so the filter is evaluated once; the count is then cached as if loaded by {@link #countProductsByFilter(ProductFilter)}.
+     * Searches the {@link #enableSearchIndex() search index} can answer do not query the database at all.
+     *
+     * @param filter filter criteria
+     * @param limit maximum number of results
+     * @param offset zero-based offset
+     * @return the matching {@link Product}s on the page and the number of matches
+     * @throws org.example.store.product.exception.ProductSearchException when DAO search fails
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public PageWithTotal<Product> searchProductsWithTotal(ProductFilter filter, int limit, int offset) {
+        try {
+            ProductFilter normalized = filter.normalized();
+            List<UUID> matches = searchIndexed(normalized);
+            if (matches != null) {
+                return new PageWithTotal<>(this.products.getAll(page(matches, limit, offset)), matches.size());
+            }
+
+            CacheKey key = CacheKey.of(NAMESPACE, "search", normalized, limit, offset);
+            AtomicReference<Integer> loadedTotal = new AtomicReference<>();
+            List<UUID> ids = this.cache.getOrLoad(key, () -> {
+                PageWithTotal<Product> page = dataSource.withReadConnection(
+                        conn -> this.productDao.findFilteredWithTotal(conn, normalized, limit, offset));
+                loadedTotal.set(page.total());
+                return this.products.putAll(page.items());
+            }, SEARCH_TAG, listingTag(normalized.categoryId()));
+
+            Integer total = loadedTotal.get();
+            if (total == null)
+                total = countProductsByFilter(normalized);
+            else
+                this.cache.putIfAbsent(countKey(normalized), total, countLoader(normalized),
+                        COUNT_TAG, listingTag(normalized.categoryId()));
+            return new PageWithTotal<>(this.products.getAll(ids), total);
         } catch (DAOException e) {
             throw new ProductSearchException("Failed to search with filter");
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
     public int countProductsByFilter(ProductFilter filter) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "product:count:" + filter.hashCode();
-            return this.cache.getOrLoad(key, () -> this.productDao.countFiltered(conn, filter));
+        try {
+            ProductFilter normalized = filter.normalized();
+            List<UUID> matches = searchIndexed(normalized);
+            if (matches != null) return matches.size();
+            return this.cache.getOrLoad(countKey(normalized), countLoader(normalized),
+                    COUNT_TAG, listingTag(normalized.categoryId()));
         } catch (DAOException e) {
             throw new ProductSearchException("Failed to count search results with filter");
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
-    private void invalidateAllProductCache() {
-        this.cache.invalidateByPrefix("product:");
+    /**
+     * Browse products by a combination of facets, counting the products every facet value would show.
+     *
+     * Answered from the {@link #enableFacetIndex() facet index} by bitmap intersection; only the products on the
+     * page are read, through the product cache and
+     * {@link org.example.dao.interfaces.ProductDao#findByIds(java.sql.Connection, java.util.Set)} for those not
+     * cached. While the index is being built or its listing order read again, the page is read with
+     * {@link org.example.dao.interfaces.ProductDao#findByFacets(java.sql.Connection, ProductFacetQuery, int, int)}
+     * instead, without facet counts, and the order is read on the index's thread; the caller never waits for it.
+     *
+     * @param query facet values to match
+     * @param limit maximum number of results
+     * @param offset zero-based offset
+     * @return the matching {@link Product}s on the page in listing order, their number and the facet counts,
+     *         which are {@code null} while the index is not ready
+     * @throws IllegalStateException when the facet index is not enabled
+     * @throws org.example.store.product.exception.ProductSearchException when the products cannot be read
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public ProductFacetPage browseProducts(ProductFacetQuery query, int limit, int offset) {
+        ProductFacetIndex index = this.facetIndex;
+        if (index == null) throw new IllegalStateException("Facet browsing is not enabled");
+        try {
+            if (index.isReady()) {
+                try {
+                    ProductFacetIndex.Result result = index.query(query, limit, offset);
+                    return new ProductFacetPage(this.products.getAll(result.productIds()), result.total(),
+                            result.counts());
+                } catch (IllegalStateException e) {
+                    // A product was added or renamed since isReady()
+                    LOGGER.log(Level.FINE, "The product facet index is not ready", e);
+                }
+            }
+            checkListingOrder(index.isBuilt(), false);
+            PageWithTotal<Product> page = dataSource.withReadConnection(
+                    conn -> this.productDao.findByFacets(conn, query, limit, offset));
+            this.products.putAll(page.items());
+            return new ProductFacetPage(page.items(), page.total(), null);
+        } catch (DAOException e) {
+            throw new ProductSearchException("Failed to browse products by facets");
+        }
+    }
+
+    /**
+     * @return whether the {@link #enableSearchIndex() search index} has been built, so it answers
+     *         {@link org.example.model.SearchMode#WORDS} searches rather than the database
+     */
+    public boolean isSearchIndexBuilt() {
+        ProductSearchIndex index = this.searchIndex;
+        return index != null && index.isBuilt();
+    }
+
+    /**
+     * @return whether {@link #browseProducts(ProductFacetQuery, int, int)} is available
+     */
+    public boolean isFacetIndexEnabled() {
+        return this.facetIndex != null;
+    }
+
+    /**
+     * Keep every product's category, price bucket, stock status and rating in an in-memory
+     * {@link ProductFacetIndex}, so {@link #browseProducts(ProductFacetQuery, int, int)} can answer them.
+     *
+     * The index is built on a background thread. It follows this store's writes and, through the
+     * {@link CacheInvalidationBus}, orders, reviews and other instances' writes, and is rebuilt when
+     * notifications may have been missed.
+     */
+    public synchronized void enableFacetIndex() {
+        if (this.facetIndexBuilder != null) return;
+        this.facetIndexBuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-facet-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        enableListingOrder();
+        this.facetIndex = new ProductFacetIndex(this.listingOrder);
+        this.invalidationBus.subscribe(NAMESPACE, productId -> {
+            ExecutorService builder = this.facetIndexBuilder;
+            if (builder != null) builder.execute(() -> refreshFacets(productId));
+        });
+        rebuildFacetIndex();
+    }
+
+    /**
+     * Call {@code listener} with the id of every product this store creates, updates or deletes, once the write
+     * has committed.
+     *
+     * The listener runs on the writing thread, so it should only hand the id on. Changes committed by other
+     * stores or instances are announced through {@link CacheInvalidationBus#subscribe} instead.
+     */
+    public void addWriteListener(Consumer<UUID> listener) {
+        this.writeListeners.add(listener);
+    }
+
+    /**
+     * Rebuild the facet index from the product and review tables in the background.
+     */
+    public synchronized void rebuildFacetIndex() {
+        if (this.facetIndexBuilder != null) this.facetIndexBuilder.execute(this::buildFacetIndex);
+    }
+
+    /**
+     * Answer name-contains searches and category listings from an in-memory {@link ProductSearchIndex} instead of
+     * the database; full-text searches keep going to the database.
+     *
+     * The index is built on a background thread; until it is complete and has read the listing order, searches keep
+     * going to the database.
+     * It follows this store's writes and, through the {@link CacheInvalidationBus}, other instances' writes,
+     * and is rebuilt when notifications may have been missed.
+     */
+    public synchronized void enableSearchIndex() {
+        if (this.searchIndexBuilder != null) return;
+        this.searchIndexBuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        enableListingOrder();
+        this.searchIndex = new ProductSearchIndex(this.listingOrder);
+        this.invalidationBus.subscribe(NAMESPACE, this::reindexProduct);
+        rebuildSearchIndex();
+    }
+
+    /**
+     * Rebuild the search index from the product table in the background.
+     */
+    public synchronized void rebuildSearchIndex() {
+        if (this.searchIndexBuilder != null) this.searchIndexBuilder.execute(this::buildSearchIndex);
+    }
+
+    /**
+     * Keep products evicted from the heap cache in an off-heap tier, so far more of them stay cached.
+     *
+     * @param capacityBytes off-heap memory to use
+     * @param blockBytes size of one off-heap block
+     */
+    public void enableOffHeapTier(long capacityBytes, int blockBytes) {
+        products.attachOffHeapTier(new ProductSnapshotCodec(), capacityBytes, blockBytes);
+    }
+
+    /**
+     * @return the snapshot section persisting cached products across restarts, restored only while the
+     *         product table is unchanged
+     */
+    public CacheSnapshot.Section<Product> snapshotSection() {
+        return new CacheSnapshot.Section<>(NAMESPACE, products, new ProductSnapshotCodec(),
+                () -> dataSource.withConnection(productDao::watermark));
+    }
+
+    /**
+     * @param productId product identifier
+     * @return the cache key under which {@link #getProduct(UUID)} stores the product
+     */
+    public static CacheKey productKey(UUID productId) {
+        return EntityCache.keyOf(NAMESPACE, productId);
+    }
+
+    /**
+     * Search filters on name, description and category, and pages are ordered by name.
+     */
+    private static boolean affectsListings(Product previous, Product updated) {
+        return !Objects.equals(previous.getName(), updated.getName())
+                || !Objects.equals(previous.getDescription(), updated.getDescription())
+                || !Objects.equals(previous.getCategoryId(), updated.getCategoryId());
+    }
+
+    private void buildSearchIndex() {
+        ProductSearchIndex index = this.searchIndex;
+        ProductFilter all = new ProductFilter(null, null);
+        long start = System.nanoTime();
+        boolean complete = false;
+        index.beginBuild();
+        try {
+            ProductCursor after = null;
+            while (true) {
+                ProductCursor cursor = after;
+                List<Product> batch = dataSource.withConnection(
+                        conn -> this.productDao.findFilteredAfter(conn, all, cursor, SEARCH_INDEX_BATCH));
+                index.addAll(batch);
+                if (batch.size() < SEARCH_INDEX_BATCH) break;
+                after = ProductCursor.after(batch.get(batch.size() - 1));
+            }
+            complete = true;
+        } catch (DAOException | DatabaseConnectionException e) {
+            LOGGER.log(Level.WARNING, "Could not build the product search index; searches use the database", e);
+        } finally {
+            index.endBuild(complete);
+        }
+        if (complete) {
+            LOGGER.info("Indexed " + index.size() + " products for search in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+            checkListingOrder(true, index.isReady());
+        }
+    }
+
+    /**
+     * Bring the search index up to date with another instance's change to a product.
+     *
+     * @param productId the changed product, or {@code null} when any product may have changed
+     */
+    private void reindexProduct(UUID productId) {
+        if (productId == null) {
+            rebuildSearchIndex();
+            reloadListingOrder();
+            return;
+        }
+        // The bus has already dropped the cached product, so this reads the committed row
+        Optional<Product> product = getProduct(productId);
+        if (product.isPresent()) {
+            if (mayHaveMoved(productId, this.searchIndex.nameOf(productId), product.get().getName()))
+                productMoved(productId);
+            this.searchIndex.put(product.get());
+        } else {
+            this.searchIndex.remove(productId);
+            this.listingOrder.removed(productId);
+        }
+    }
+
+    private void buildFacetIndex() {
+        ProductFacetIndex index = this.facetIndex;
+        long start = System.nanoTime();
+        boolean complete = false;
+        index.beginBuild();
+        try {
+            index.addAll(dataSource.withConnection(this.productDao::findAllFacets));
+            complete = true;
+        } catch (DAOException | DatabaseConnectionException e) {
+            LOGGER.log(Level.WARNING, "Could not build the product facet index", e);
+        } finally {
+            index.endBuild(complete);
+        }
+        if (complete) {
+            LOGGER.info("Indexed facets of " + index.size() + " products in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+            checkListingOrder(true, index.isReady());
+        }
+    }
+
+    /**
+     * Bring the facet index up to date with a committed change to a product, its stock or its reviews.
+     * Runs on the facet index thread, after any build queued before it.
+     *
+     * @param productId the changed product, or {@code null} when any product may have changed
+     */
+    private void refreshFacets(UUID productId) {
+        ProductFacetIndex index = this.facetIndex;
+        if (productId == null) {
+            rebuildFacetIndex();
+            reloadListingOrder();
+            return;
+        }
+        try {
+            // The primary, since a replica may not have the change yet
+            Optional<ProductFacets> facets = dataSource.withConnection(conn -> this.productDao.findFacets(conn, productId));
+            if (facets.isPresent()) {
+                if (mayHaveMoved(productId, index.nameOf(productId), facets.get().name())) productMoved(productId);
+                index.put(facets.get());
+            } else {
+                index.remove(productId);
+                this.listingOrder.removed(productId);
+            }
+        } catch (DAOException | DatabaseConnectionException e) {
+            LOGGER.log(Level.WARNING, "Could not refresh the facets of product " + productId + "; rebuilding", e);
+            rebuildFacetIndex();
+        }
+    }
+
+    private void notifyWriteListeners(UUID productId) {
+        for (Consumer<UUID> listener : this.writeListeners) {
+            listener.accept(productId);
+        }
+    }
+
+    private void indexFacets(Product product) {
+        ProductFacetIndex index = this.facetIndex;
+        if (index == null) return;
+        UUID productId = product.getProductId();
+        if (!index.put(product)) this.facetIndexBuilder.execute(() -> refreshFacets(productId));
+    }
+
+    private void indexProduct(Product product) {
+        ProductSearchIndex index = this.searchIndex;
+        if (index == null) return;
+        index.put(product);
+    }
+
+    /**
+     * @return every match of a normalized filter in listing order, from the search index, or {@code null} when
+     *         the database has to answer
+     */
+    private List<UUID> searchIndexed(ProductFilter normalized) {
+        ProductSearchIndex index = this.searchIndex;
+        if (index == null) return null;
+        if (!index.canAnswer(normalized)) {
+            checkListingOrder(index.isBuilt(), index.isReady());
+            return null;
+        }
+        try {
+            return index.search(normalized);
+        } catch (IllegalStateException e) {
+            // A product was added or renamed since canAnswer()
+            return null;
+        }
+    }
+
+    /**
+     * Start keeping the shared listing order, reading it in full on its own thread.
+     */
+    private synchronized void enableListingOrder() {
+        if (this.listingOrderUpdater != null) return;
+        this.listingOrderUpdater = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-listing-order");
+            thread.setDaemon(true);
+            return thread;
+        });
+        queueListingOrderRead();
+    }
+
+    /**
+     * Note that a product is about to be added to the indexes or renamed in them, and place it in the listing
+     * order on its thread. Called before the indexes change, so they never list it by its old place.
+     */
+    private void productMoved(UUID productId) {
+        ExecutorService updater = this.listingOrderUpdater;
+        if (updater == null) return;
+        this.listingOrder.moved(productId);
+        updater.execute(() -> placeInListingOrder(productId));
+    }
+
+    /**
+     * Whether another instance's change may have given a product a new place: it is new to the index, renamed,
+     * or missing from the listing order because it was created while the order was read.
+     */
+    private boolean mayHaveMoved(UUID productId, String indexedName, String name) {
+        return !Objects.equals(indexedName, name) || !this.listingOrder.holds(productId);
+    }
+
+    /**
+     * Read the listing order in full when a built index cannot use it: it was never read, a read or placement
+     * failed, or it misses a product the index holds. Otherwise placements already queued bring it up to date.
+     */
+    private void checkListingOrder(boolean indexBuilt, boolean indexReady) {
+        if (!indexBuilt || indexReady) return;
+        if (this.listingOrder.isCurrent()) reloadListingOrder();
+        else if (!this.listingOrder.isLoaded()) queueListingOrderRead();
+    }
+
+    private void queueListingOrderRead() {
+        ExecutorService updater = this.listingOrderUpdater;
+        // One queued read at a time, however many listings find the order missing
+        if (updater != null && this.listingOrderReadQueued.compareAndSet(false, true))
+            updater.execute(this::readListingOrder);
+    }
+
+    /**
+     * Drop the listing order, for when changes may have been missed, and read it again in full.
+     */
+    private void reloadListingOrder() {
+        ExecutorService updater = this.listingOrderUpdater;
+        if (updater == null) return;
+        this.listingOrder.invalidate();
+        queueListingOrderRead();
+    }
+
+    /**
+     * Read every product id in listing order, unless the order is already loaded. Runs on the listing order thread.
+     */
+    private void readListingOrder() {
+        this.listingOrderReadQueued.set(false);
+        if (this.listingOrder.isLoaded()) return;
+        long stamp = this.listingOrder.stamp();
+        try {
+            // The primary, since a replica may not have the latest change yet. A product moved meanwhile makes
+            // this read outdated; its placement, queued behind, then reads again
+            this.listingOrder.load(dataSource.withConnection(this.productDao::findIdsInListingOrder), stamp);
+        } catch (DAOException | DatabaseConnectionException e) {
+            LOGGER.log(Level.WARNING, "Could not read the product listing order; listings use the database", e);
+        }
+    }
+
+    /**
+     * Put one added or renamed product between its neighbours in the database's order, read with an index
+     * lookup rather than every id. Runs on the listing order thread.
+     */
+    private void placeInListingOrder(UUID productId) {
+        if (!this.listingOrder.isLoaded()) {
+            readListingOrder();
+            return;
+        }
+        // Placed already, by a read or an earlier placement
+        if (!this.listingOrder.isUnplaced(productId)) return;
+        long stamp = this.listingOrder.stamp();
+        try {
+            Optional<ListingNeighbours> neighbours = dataSource.withConnection(
+                    conn -> this.productDao.findListingNeighbours(conn, productId));
+            if (neighbours.isEmpty()) {
+                // Deleted since
+                this.listingOrder.removed(productId);
+            } else if (!this.listingOrder.place(productId, neighbours.get().previousId(), neighbours.get().nextId(),
+                    stamp)) {
+                readListingOrder();
+            }
+        } catch (DAOException | DatabaseConnectionException e) {
+            LOGGER.log(Level.WARNING, "Could not place product " + productId + " in the listing order", e);
+            this.listingOrder.invalidate();
+        }
+    }
+
+    private static List<UUID> page(List<UUID> ids, int limit, int offset) {
+        if (offset >= ids.size()) return List.of();
+        return ids.subList(offset, Math.min(ids.size(), offset + limit));
+    }
+
+    /**
+     * Tags of the search pages and counts that could include a product of the given categories:
+     * those filtered on one of them and those not filtered by category at all.
+     */
+    private static String[] listingTags(UUID... categoryIds) {
+        Set<String> tags = new LinkedHashSet<>();
+        tags.add(ANY_CATEGORY_TAG);
+        for (UUID categoryId : categoryIds) {
+            // The previous category is unknown when the row vanished concurrently; drop every listing
+            if (categoryId == null) {
+                tags.add(SEARCH_TAG);
+                tags.add(COUNT_TAG);
+            } else {
+                tags.add(listingTag(categoryId));
+            }
+        }
+        return tags.toArray(String[]::new);
+    }
+
+    private void invalidateTags(String[] tags) {
+        for (String tag : tags) {
+            this.cache.invalidateTag(tag);
+        }
+    }
+
+    private static CacheKey countKey(ProductFilter normalized) {
+        return CacheKey.of(NAMESPACE, "count", normalized);
+    }
+
+    private Supplier<Integer> countLoader(ProductFilter normalized) {
+        return () -> dataSource.withReadConnection(conn -> this.productDao.countFiltered(conn, normalized));
+    }
+
+    private static String listingTag(UUID categoryId) {
+        return categoryId == null ? ANY_CATEGORY_TAG : NAMESPACE + ":list:category:" + categoryId;
     }
 }
@@ -1,11 +1,16 @@
 package org.example.store.review;
 
 import org.example.application.ApplicationCache;
+import org.example.application.CacheInvalidationBus;
+import org.example.application.CacheKey;
+import org.example.application.EntityCache;
 import org.example.config.DataSource;
 import org.example.config.exception.DatabaseConnectionException;
 import org.example.dao.exception.DAOException;
 import org.example.dao.interfaces.ReviewDAO;
+import org.example.model.PageWithTotal;
 import org.example.model.Review;
+import org.example.store.product.ProductStore;
 import org.example.store.review.exception.ReviewCreationException;
 import org.example.store.review.exception.ReviewCountException;
 import org.example.store.review.exception.ReviewRetrievalException;
@@ -13,17 +18,30 @@ import org.example.store.review.exception.ReviewRetrievalException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class ReviewStore {
+    private static final String NAMESPACE = "review";
+
     private  final DataSource dataSource;
     private final ApplicationCache cache;
+    private final CacheInvalidationBus invalidationBus;
     private final ReviewDAO reviewDao;
+    private final EntityCache<Review> reviews;
 
-    public ReviewStore(DataSource dataSource, ApplicationCache cache, ReviewDAO reviewDao) {
+    public ReviewStore(DataSource dataSource, ApplicationCache cache, CacheInvalidationBus invalidationBus,
+                       ReviewDAO reviewDao) {
         this.dataSource = dataSource;
         this.cache = cache;
+        this.invalidationBus = invalidationBus;
         this.reviewDao = reviewDao;
+        this.reviews = new EntityCache<>(cache, NAMESPACE, Review::getReviewId,
+                id -> dataSource.withConnection(conn -> findById(conn, id)),
+                ids -> dataSource.withConnection(conn -> reviewDao.findByIds(conn, ids)));
     }
 
     /**
@@ -42,7 +60,12 @@ public class ReviewStore {
             conn.setAutoCommit(false);
             try {
                 this.reviewDao.save(conn, review);
+                this.invalidationBus.publish(conn, NAMESPACE, review.getReviewId(), productTag(review.getProductId()));
+                // The review changes the product's average rating, which the product facet index tracks
+                this.invalidationBus.publish(conn, ProductStore.NAMESPACE, review.getProductId());
                 conn.commit();
+                dataSource.recordWrite();
+                this.reviews.put(review);
                 invalidateReviewCache(review.getProductId());
                 return review;
             } catch (DAOException e) {
@@ -55,15 +78,24 @@ public class ReviewStore {
     }
 
     private void invalidateReviewCache(UUID productId) {
-        this.cache.invalidateByPrefix("review:product:" + productId);
-        this.cache.invalidateByPrefix("review:count:" + productId);
+        this.cache.invalidateTag(productTag(productId));
+        this.invalidationBus.notifyLocalChange(ProductStore.NAMESPACE, productId);
+    }
+
+    private Optional<Review> findById(Connection conn, UUID reviewId) {
+        return this.reviewDao.findByIds(conn, Set.of(reviewId)).stream().findFirst();
+    }
+
+    private static String productTag(UUID productId) {
+        return NAMESPACE + ":product:" + productId;
     }
 
     /**
      * Load a page of reviews for the given product id.
      *
      * Results are loaded via {@link org.example.dao.interfaces.ReviewDAO#findByProduct(java.sql.Connection, java.util.UUID, int, int)}
-     * and cached using {@link org.example.application.ApplicationCache#getOrLoad}.
+     * and cached using {@link org.example.application.ApplicationCache#getOrLoad} as a list of review ids,
+     * resolved against the reviews cached by id.
      *
      * @param productId product identifier to fetch reviews for
      * @param limit maximum number of reviews to return
@@ -73,24 +105,66 @@ public class ReviewStore {
      * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
      */
     public List<Review> getReviewsByProduct(UUID productId, int limit, int offset) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "review:product:" + productId + ":" + limit + ":" + offset;
-            return this.cache.getOrLoad(key, () -> this.reviewDao.findByProduct(conn, productId, limit, offset));
+        try {
+            CacheKey key = CacheKey.of(NAMESPACE, "product", productId, limit, offset);
+            List<UUID> ids = this.cache.getOrLoad(key, () -> this.reviews.putAll(dataSource.withReadConnection(
+                    conn -> this.reviewDao.findByProduct(conn, productId, limit, offset))),
+                    productTag(productId));
+            return this.reviews.getAll(ids);
+        } catch (DAOException e) {
+            throw new ReviewRetrievalException(productId.toString());
+        }
+    }
+
+    /**
+     * Load a page of reviews for the given product id and the number of its reviews.
+     *
+     * When the page is not cached, it is read together with the count in one statement via
+     * {@link org.example.dao.interfaces.ReviewDAO#findByProductWithTotal(java.sql.Connection, java.util.UUID, int, int)};
+     * the count is then cached as if loaded by {@link #countReviewsByProduct(UUID)}.
+     *
+     * @param productId product identifier to fetch reviews for
+     * @param limit maximum number of reviews to return
+     * @param offset zero-based offset for paging
+     * @return the {@link Review}s on the page and the number of reviews of the product
+     * @throws org.example.store.review.exception.ReviewRetrievalException when DAO retrieval fails
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public PageWithTotal<Review> getReviewsByProductWithTotal(UUID productId, int limit, int offset) {
+        try {
+            CacheKey key = CacheKey.of(NAMESPACE, "product", productId, limit, offset);
+            AtomicReference<Integer> loadedTotal = new AtomicReference<>();
+            List<UUID> ids = this.cache.getOrLoad(key, () -> {
+                PageWithTotal<Review> page = dataSource.withReadConnection(
+                        conn -> this.reviewDao.findByProductWithTotal(conn, productId, limit, offset));
+                loadedTotal.set(page.total());
+                return this.reviews.putAll(page.items());
+            }, productTag(productId));
+
+            Integer total = loadedTotal.get();
+            if (total == null)
+                total = countReviewsByProduct(productId);
+            else
+                this.cache.putIfAbsent(countKey(productId), total, countLoader(productId), productTag(productId));
+            return new PageWithTotal<>(this.reviews.getAll(ids), total);
         } catch (DAOException e) {
             throw new ReviewRetrievalException(productId.toString());
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
 
     public int countReviewsByProduct(UUID productId) {
-        try (Connection conn = dataSource.getConnection()) {
-            String key = "review:count:" + productId;
-            return this.cache.getOrLoad(key, () -> this.reviewDao.countByProduct(conn, productId));
+        try {
+            return this.cache.getOrLoad(countKey(productId), countLoader(productId), productTag(productId));
         } catch (DAOException e) {
             throw new ReviewCountException(productId.toString());
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException(e);
         }
     }
+
+    private static CacheKey countKey(UUID productId) {
+        return CacheKey.of(NAMESPACE, "count", productId);
+    }
+
+    private Supplier<Integer> countLoader(UUID productId) {
+        return () -> dataSource.withReadConnection(conn -> this.reviewDao.countByProduct(conn, productId));
+    }
 }
@@ -0,0 +1,255 @@
+package org.example.store.suggestion;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Immutable, compact index answering "the most popular names starting with this prefix".
+ *
+ * Every name is stored once, and a key is kept for each of its words: the lower-cased rest of the name
+ * from that word on, so "Wireless Mouse" is found by "wir" and by "mou". A key is not a copy of that
+ * rest but a pair of ints, the name and the offset of the word, read in place from the one lower-cased
+ * copy of each name, so the index grows with the number of words rather than with their square. The
+ * keys are sorted, so the keys starting with a prefix are one contiguous range found by two binary
+ * searches. A segment
+ * tree over the keys' weights gives the most popular key of any range in logarithmic time; the top
+ * {@code k} are taken by repeatedly splitting the range around the best key found so far.
+ *
+ * {@link #complete(CharSequence, Suggestions)} allocates nothing: the prefix is compared character by
+ * character and all working space lives in the caller's {@link Suggestions}, which grows once to the
+ * worst case of the index's names, so no candidate range is ever dropped. {@link #withWeights(long[])}
+ * reweighs the names, as sales come in, without sorting the keys again.
+ */
+public final class PrefixIndex {
+
+    /**
+     * A name to suggest.
+     *
+     * @param text the name as displayed
+     * @param categoryId the category the name is of, or {@code null} for a product name
+     * @param weight popularity; higher is suggested first
+     */
+    public record Entry(String text, UUID categoryId, long weight) {
+    }
+
+    public static final PrefixIndex EMPTY = of(List.of());
+
+    // Lower-cased text of each entry, which every key of the entry reads from
+    private final String[] lowerTexts;
+    // Key i is lowerTexts[entryOfKey[i]] from offsetOfKey[i] on
+    private final int[] entryOfKey;
+    private final int[] offsetOfKey;
+    private final Entry[] entries;
+    // Most keys of any one entry, which bounds the ranges a lookup splits off
+    private final int maxKeysPerEntry;
+    // tree[size + i] is key i; every inner node holds the key with the highest weight below it
+    private final int[] tree;
+    private final int size;
+
+    private PrefixIndex(String[] lowerTexts, int[] entryOfKey, int[] offsetOfKey, Entry[] entries,
+                        int maxKeysPerEntry) {
+        this.lowerTexts = lowerTexts;
+        this.entryOfKey = entryOfKey;
+        this.offsetOfKey = offsetOfKey;
+        this.entries = entries;
+        this.maxKeysPerEntry = maxKeysPerEntry;
+        this.size = entryOfKey.length;
+        this.tree = new int[Math.max(2 * size, 1)];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * @param entries names to index; names differing only in case are kept as given
+     */
+    public static PrefixIndex of(List<Entry> entries) {
+        Entry[] entryArray = entries.toArray(Entry[]::new);
+        String[] lowerTexts = new String[entryArray.length];
+        int keyCount = 0;
+        int maxKeysPerEntry = 0;
+        for (int e = 0; e < entryArray.length; e++) {
+            lowerTexts[e] = entryArray[e].text().toLowerCase(Locale.ROOT);
+            int keys = 0;
+            for (int start = 0; start < lowerTexts[e].length(); start++) {
+                if (isWordStart(lowerTexts[e], start)) keys++;
+            }
+            keyCount += keys;
+            maxKeysPerEntry = Math.max(maxKeysPerEntry, keys);
+        }
+
+        int[] unsortedEntry = new int[keyCount];
+        int[] unsortedOffset = new int[keyCount];
+        int key = 0;
+        for (int e = 0; e < entryArray.length; e++) {
+            for (int start = 0; start < lowerTexts[e].length(); start++) {
+                if (!isWordStart(lowerTexts[e], start)) continue;
+                unsortedEntry[key] = e;
+                unsortedOffset[key++] = start;
+            }
+        }
+
+        Integer[] order = new Integer[keyCount];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareKeys(lowerTexts[unsortedEntry[a]], unsortedOffset[a],
+                lowerTexts[unsortedEntry[b]], unsortedOffset[b]));
+        int[] entryOfKey = new int[keyCount];
+        int[] offsetOfKey = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            entryOfKey[i] = unsortedEntry[order[i]];
+            offsetOfKey[i] = unsortedOffset[order[i]];
+        }
+        return new PrefixIndex(lowerTexts, entryOfKey, offsetOfKey, entryArray, maxKeysPerEntry);
+    }
+
+    /**
+     * Reweigh the names without sorting their keys again: the new index shares the keys of this one and
+     * only rebuilds the segment tree, in time linear in the number of keys.
+     *
+     * @param weights the new weight of every entry, in the order the entries were given to {@link #of(List)}
+     * @return an index of the same names with the given weights
+     */
+    public PrefixIndex withWeights(long[] weights) {
+        if (weights.length != entries.length)
+            throw new IllegalArgumentException("Expected " + entries.length + " weights, got " + weights.length);
+        Entry[] reweighed = entries.clone();
+        for (int e = 0; e < reweighed.length; e++) {
+            Entry entry = reweighed[e];
+            if (entry.weight() != weights[e]) reweighed[e] = new Entry(entry.text(), entry.categoryId(), weights[e]);
+        }
+        return new PrefixIndex(lowerTexts, entryOfKey, offsetOfKey, reweighed, maxKeysPerEntry);
+    }
+
+    /**
+     * @return number of indexed names
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Fill {@code out} with the most popular names having a word that starts with {@code prefix},
+     * ignoring case, most popular first and each name once.
+     *
+     * @param prefix typed text; an empty prefix suggests nothing
+     * @param out receives up to {@link Suggestions#capacity()} names
+     * @return number of names suggested
+     */
+    public int complete(CharSequence prefix, Suggestions out) {
+        out.clear();
+        if (prefix.length() == 0 || size == 0) return 0;
+        int from = lowerBound(prefix, false);
+        int to = lowerBound(prefix, true);
+        if (from >= to) return 0;
+
+        // Every step takes one range and splits off at most two, so the ranges grow by one per step. A step
+        // either adds a name or meets a key of a name already added, which has at most maxKeysPerEntry keys.
+        out.ensureRangeCapacity(1 + out.capacity() * Math.max(maxKeysPerEntry, 1));
+        out.pushRange(from, to, best(from, to));
+        while (out.size() < out.capacity() && out.hasRanges()) {
+            int range = pickRange(out);
+            int lo = out.rangeFrom(range);
+            int hi = out.rangeTo(range);
+            int key = out.rangeBest(range);
+            out.removeRange(range);
+
+            int entry = entryOfKey[key];
+            if (!out.contains(entry)) {
+                Entry suggestion = entries[entry];
+                out.add(entry, suggestion.text(), suggestion.categoryId());
+            }
+            if (lo < key) out.pushRange(lo, key, best(lo, key));
+            if (key + 1 < hi) out.pushRange(key + 1, hi, best(key + 1, hi));
+        }
+        return out.size();
+    }
+
+    private int pickRange(Suggestions out) {
+        int picked = 0;
+        for (int r = 1; r < out.rangeCount(); r++) {
+            if (better(out.rangeBest(r), out.rangeBest(picked)) == out.rangeBest(r)) picked = r;
+        }
+        return picked;
+    }
+
+    /**
+     * @return the key with the highest weight in {@code [from, to)}
+     */
+    private int best(int from, int to) {
+        int result = -1;
+        for (int lo = from + size, hi = to + size; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) result = result < 0 ? tree[lo++] : better(result, tree[lo++]);
+            if ((hi & 1) == 1) result = result < 0 ? tree[--hi] : better(result, tree[--hi]);
+        }
+        return result;
+    }
+
+    /**
+     * Higher weight wins; between equal weights, the alphabetically first key.
+     */
+    private int better(int a, int b) {
+        long weightA = entries[entryOfKey[a]].weight();
+        long weightB = entries[entryOfKey[b]].weight();
+        if (weightA != weightB) return weightA > weightB ? a : b;
+        return Math.min(a, b);
+    }
+
+    /**
+     * @param after {@code false} for the first key starting with or sorting after the prefix,
+     *              {@code true} for the first key sorting after every key that starts with it
+     */
+    private int lowerBound(CharSequence prefix, boolean after) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(mid, prefix);
+            if (cmp < 0 || (after && cmp == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @return 0 when {@code key} starts with {@code prefix} (ignoring the prefix's case), otherwise
+     *         the sign of the comparison of {@code key} with the prefix
+     */
+    private int comparePrefix(int key, CharSequence prefix) {
+        String text = lowerTexts[entryOfKey[key]];
+        int offset = offsetOfKey[key];
+        int keyLength = text.length() - offset;
+        int length = Math.min(keyLength, prefix.length());
+        for (int i = 0; i < length; i++) {
+            char expected = Character.toLowerCase(prefix.charAt(i));
+            char actual = text.charAt(offset + i);
+            if (actual != expected) return actual < expected ? -1 : 1;
+        }
+        return keyLength < prefix.length() ? -1 : 0;
+    }
+
+    /**
+     * Compare {@code a} from {@code offsetA} on with {@code b} from {@code offsetB} on, as
+     * {@link String#compareTo(String)} compares the two substrings.
+     */
+    private static int compareKeys(String a, int offsetA, String b, int offsetB) {
+        int length = Math.min(a.length() - offsetA, b.length() - offsetB);
+        for (int i = 0; i < length; i++) {
+            char charA = a.charAt(offsetA + i);
+            char charB = b.charAt(offsetB + i);
+            if (charA != charB) return charA - charB;
+        }
+        return (a.length() - offsetA) - (b.length() - offsetB);
+    }
+
+    private static boolean isWordStart(String text, int start) {
+        return Character.isLetterOrDigit(text.charAt(start))
+                && (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)));
+    }
+}
@@ -0,0 +1,297 @@
+package org.example.store.suggestion;
+
+import org.example.config.DataSource;
+import org.example.config.exception.DatabaseConnectionException;
+import org.example.dao.exception.DAOException;
+import org.example.dao.interfaces.CategoryDao;
+import org.example.dao.interfaces.ProductDao;
+import org.example.model.Category;
+import org.example.model.ProductPopularity;
+import org.example.model.TableWatermark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Product and category names for type-ahead suggestions, ranked by units sold.
+ *
+ * Names live in an immutable {@link PrefixIndex} that lookups read without locking. Changes are pushed
+ * in: {@link #productChanged(UUID)} and {@link #categoryChanged(UUID)} are wired to the stores' write
+ * listeners and to the {@link org.example.application.CacheInvalidationBus}, which also announces orders
+ * and other instances' writes. A background thread then re-reads only the changed product, or the
+ * categories, of which there are few. Changes arriving within a short delay share one update of the
+ * index: new sales only reweigh the names ({@link PrefixIndex#withWeights(long[])}), and only added,
+ * removed or renamed names sort the keys again.
+ *
+ * As a fallback for changes nobody announced, the thread now and then reads the products whose change
+ * stamp moved since the poll before last, so a change committing up to one poll late is still seen, and
+ * compares the category table's {@link TableWatermark}.
+ */
+public class SuggestionStore {
+    private static final Logger LOGGER = Logger.getLogger(SuggestionStore.class.getName());
+    private static final int CATEGORY_PAGE_SIZE = 100;
+    // Changes arriving within this delay share one update of the index
+    private static final long REBUILD_DELAY_MILLIS = 200;
+
+    private final DataSource dataSource;
+    private final ProductDao productDao;
+    private final CategoryDao categoryDao;
+
+    private final Map<UUID, ProductPopularity> products = new HashMap<>();
+    private final Map<UUID, String> categories = new HashMap<>();
+    private boolean productsLoaded;
+    // Change stamps: the highest seen so far, and the one the next poll reads from
+    private long productsSeenThrough;
+    private long productsReadAfter;
+    private TableWatermark categoryWatermark;
+    // Whether names were added, removed or renamed since the index was built, so its keys need sorting again
+    private boolean namesChanged = true;
+    private boolean rebuildPending;
+    // Products, then categories, in the order of the index's entries
+    private UUID[] entryProducts = new UUID[0];
+    private UUID[] entryCategories = new UUID[0];
+    private volatile PrefixIndex index = PrefixIndex.EMPTY;
+    private ScheduledExecutorService scheduler;
+
+    public SuggestionStore(DataSource dataSource, ProductDao productDao, CategoryDao categoryDao) {
+        this.dataSource = dataSource;
+        this.productDao = productDao;
+        this.categoryDao = categoryDao;
+    }
+
+    /**
+     * Fill {@code out} with the most popular product and category names having a word starting with {@code prefix}.
+     *
+     * @return number of suggestions
+     */
+    public int suggest(CharSequence prefix, Suggestions out) {
+        return index.complete(prefix, out);
+    }
+
+    /**
+     * Read the products changed since the poll before last and the categories if their table changed, and
+     * update the index if anything did. Loads every product the first time and after a reload was asked for.
+     *
+     * @throws org.example.dao.exception.DAOException when the names cannot be read
+     * @throws org.example.config.exception.DatabaseConnectionException when a DB connection cannot be obtained
+     */
+    public synchronized void refresh() {
+        boolean changed = productsLoaded ? reloadChangedProducts() : reloadProducts();
+        changed |= reloadCategoriesIfChanged();
+        if (changed) rebuild();
+    }
+
+    /**
+     * Load the names now, then apply announced changes on a background thread and {@link #refresh()} every
+     * {@code fallbackInterval} for any that were not announced.
+     */
+    public synchronized void start(Duration fallbackInterval) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-suggestions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = fallbackInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Re-read a product's name and units sold in the background; does nothing until {@link #start started}.
+     *
+     * @param productId the created, changed, deleted or ordered product, or {@code null} when any product
+     *                  may have changed
+     */
+    public void productChanged(UUID productId) {
+        submit(() -> {
+            if (productId == null) return reloadProducts();
+            return reloadProduct(productId);
+        });
+    }
+
+    /**
+     * Re-read the category names in the background; does nothing until {@link #start started}.
+     *
+     * @param categoryId the created or changed category, or {@code null} when any category may have changed
+     */
+    public void categoryChanged(UUID categoryId) {
+        submit(() -> {
+            categoryWatermark = null;
+            return reloadCategoriesIfChanged();
+        });
+    }
+
+    private interface Change {
+        /**
+         * @return whether the names or their weights changed
+         */
+        boolean apply();
+    }
+
+    private synchronized void submit(Change change) {
+        if (scheduler == null) return;
+        scheduler.execute(() -> {
+            synchronized (this) {
+                try {
+                    if (change.apply()) scheduleRebuild();
+                } catch (DAOException | DatabaseConnectionException e) {
+                    LOGGER.log(Level.WARNING, "Could not refresh search suggestions", e);
+                }
+            }
+        });
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (DAOException | DatabaseConnectionException e) {
+            LOGGER.log(Level.WARNING, "Could not refresh search suggestions", e);
+        }
+    }
+
+    private boolean reloadProduct(UUID productId) {
+        try {
+            // The primary, since a replica may not have the change yet
+            List<ProductPopularity> product = dataSource.withConnection(conn -> productDao.findPopularity(conn, productId));
+            if (!product.isEmpty()) return put(product.get(0));
+            if (products.remove(productId) == null) return false;
+            namesChanged = true;
+            return true;
+        } catch (DAOException | DatabaseConnectionException e) {
+            LOGGER.log(Level.WARNING, "Could not read product " + productId + " for search suggestions", e);
+            // The next poll loads every product
+            productsLoaded = false;
+            return false;
+        }
+    }
+
+    private boolean reloadProducts() {
+        productsLoaded = false;
+        List<ProductPopularity> all = dataSource.withReadConnection(conn -> productDao.findPopularity(conn, null));
+        products.clear();
+        long seen = 0;
+        for (ProductPopularity product : all) {
+            products.put(product.productId(), product);
+            seen = Math.max(seen, product.changeSeq());
+        }
+        productsSeenThrough = seen;
+        productsReadAfter = seen;
+        productsLoaded = true;
+        namesChanged = true;
+        return true;
+    }
+
+    /**
+     * Read the products whose change stamp moved since the poll before last. Stamps are taken when a row is
+     * written, not when it commits, so reading from one poll further back still finds a change that committed
+     * after the last poll with a lower stamp than one it saw.
+     */
+    private boolean reloadChangedProducts() {
+        long readAfter = productsReadAfter;
+        List<ProductPopularity> changedProducts =
+                dataSource.withReadConnection(conn -> productDao.findPopularityChangedAfter(conn, readAfter));
+        boolean changed = false;
+        long seen = productsSeenThrough;
+        for (ProductPopularity product : changedProducts) {
+            changed |= put(product);
+            seen = Math.max(seen, product.changeSeq());
+        }
+        productsReadAfter = productsSeenThrough;
+        productsSeenThrough = seen;
+
+        // Deletes leave no stamp behind; a count that disagrees means one was not announced
+        int count = dataSource.withReadConnection(productDao::countAll);
+        if (count != products.size()) return reloadProducts();
+        return changed;
+    }
+
+    private boolean put(ProductPopularity product) {
+        ProductPopularity previous = products.put(product.productId(), product);
+        if (previous == null || !previous.name().equals(product.name())) namesChanged = true;
+        return !product.equals(previous);
+    }
+
+    private boolean reloadCategoriesIfChanged() {
+        TableWatermark watermark = dataSource.withReadConnection(categoryDao::watermark);
+        if (watermark.equals(categoryWatermark)) return false;
+
+        Map<UUID, String> names = new HashMap<>();
+        for (int offset = 0; ; offset += CATEGORY_PAGE_SIZE) {
+            int pageOffset = offset;
+            List<Category> page = dataSource.withReadConnection(
+                    conn -> categoryDao.findAll(conn, CATEGORY_PAGE_SIZE, pageOffset));
+            page.forEach(category -> names.put(category.getCategoryId(), category.getName()));
+            if (page.size() < CATEGORY_PAGE_SIZE) break;
+        }
+        categoryWatermark = watermark;
+        if (names.equals(categories)) return false;
+        categories.clear();
+        categories.putAll(names);
+        namesChanged = true;
+        return true;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending || scheduler == null) return;
+        rebuildPending = true;
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                rebuild();
+            }
+        }, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void rebuild() {
+        rebuildPending = false;
+        if (!namesChanged) {
+            index = index.withWeights(weights());
+            return;
+        }
+        entryProducts = products.keySet().toArray(UUID[]::new);
+        entryCategories = categories.keySet().toArray(UUID[]::new);
+        long[] weights = weights();
+        List<PrefixIndex.Entry> entries = new ArrayList<>(weights.length);
+        for (int i = 0; i < entryProducts.length; i++) {
+            entries.add(new PrefixIndex.Entry(products.get(entryProducts[i]).name(), null, weights[i]));
+        }
+        for (int i = 0; i < entryCategories.length; i++) {
+            UUID categoryId = entryCategories[i];
+            entries.add(new PrefixIndex.Entry(categories.get(categoryId), categoryId, weights[entryProducts.length + i]));
+        }
+        index = PrefixIndex.of(entries);
+        namesChanged = false;
+    }
+
+    /**
+     * Products weigh their units sold; categories the units sold of all their products. In the order of the
+     * index's entries.
+     */
+    private long[] weights() {
+        Map<UUID, Long> categorySales = new HashMap<>();
+        long[] weights = new long[entryProducts.length + entryCategories.length];
+        for (int i = 0; i < entryProducts.length; i++) {
+            weights[i] = products.get(entryProducts[i]).unitsSold();
+        }
+        for (ProductPopularity product : products.values()) {
+            categorySales.merge(product.categoryId(), product.unitsSold(), Long::sum);
+        }
+        for (int i = 0; i < entryCategories.length; i++) {
+            weights[entryProducts.length + i] = categorySales.getOrDefault(entryCategories[i], 0L);
+        }
+        return weights;
+    }
+}
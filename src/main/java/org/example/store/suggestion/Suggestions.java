@@ -0,0 +1,141 @@
+package org.example.store.suggestion;
+
+import java.util.UUID;
+
+/**
+ * Reusable result buffer for {@link PrefixIndex#complete(CharSequence, Suggestions)}.
+ *
+ * Holds the suggestions of the last lookup together with the working space the lookup needs, all
+ * allocated once, so that completing as the user types creates no garbage. Not thread-safe; each
+ * caller, typically one text field, keeps its own.
+ */
+public final class Suggestions {
+    private final int[] entries;
+    private final String[] texts;
+    private final UUID[] categoryIds;
+    private int size;
+
+    private int[] rangeFrom;
+    private int[] rangeTo;
+    private int[] rangeBest;
+    private int rangeCount;
+
+    /**
+     * @param capacity most suggestions returned by one lookup
+     */
+    public Suggestions(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.entries = new int[capacity];
+        this.texts = new String[capacity];
+        this.categoryIds = new UUID[capacity];
+        // Each step splits one range in two; grown by ensureRangeCapacity for names found through several words
+        int ranges = 4 * capacity + 2;
+        this.rangeFrom = new int[ranges];
+        this.rangeTo = new int[ranges];
+        this.rangeBest = new int[ranges];
+    }
+
+    public int capacity() {
+        return texts.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the name as displayed
+     */
+    public String text(int index) {
+        checkIndex(index);
+        return texts[index];
+    }
+
+    /**
+     * @return the category the suggestion names, or {@code null} when it is a product name
+     */
+    public UUID categoryId(int index) {
+        checkIndex(index);
+        return categoryIds[index];
+    }
+
+    public boolean isCategory(int index) {
+        return categoryId(index) != null;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            texts[i] = null;
+            categoryIds[i] = null;
+        }
+        size = 0;
+        rangeCount = 0;
+    }
+
+    void add(int entry, String text, UUID categoryId) {
+        entries[size] = entry;
+        texts[size] = text;
+        categoryIds[size] = categoryId;
+        size++;
+    }
+
+    boolean contains(int entry) {
+        for (int i = 0; i < size; i++) {
+            if (entries[i] == entry) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Make room for {@code ranges} ranges. Allocates only when a lookup may need more than any before it, so
+     * lookups against the same index stop allocating after the first.
+     */
+    void ensureRangeCapacity(int ranges) {
+        if (ranges <= rangeFrom.length) return;
+        rangeFrom = new int[ranges];
+        rangeTo = new int[ranges];
+        rangeBest = new int[ranges];
+    }
+
+    /**
+     * @throws IllegalStateException when the ranges {@link #ensureRangeCapacity reserved} are all in use
+     */
+    void pushRange(int from, int to, int best) {
+        if (rangeCount == rangeFrom.length) throw new IllegalStateException("No room for another range");
+        rangeFrom[rangeCount] = from;
+        rangeTo[rangeCount] = to;
+        rangeBest[rangeCount] = best;
+        rangeCount++;
+    }
+
+    void removeRange(int range) {
+        rangeCount--;
+        rangeFrom[range] = rangeFrom[rangeCount];
+        rangeTo[range] = rangeTo[rangeCount];
+        rangeBest[range] = rangeBest[rangeCount];
+    }
+
+    boolean hasRanges() {
+        return rangeCount > 0;
+    }
+
+    int rangeCount() {
+        return rangeCount;
+    }
+
+    int rangeFrom(int range) {
+        return rangeFrom[range];
+    }
+
+    int rangeTo(int range) {
+        return rangeTo[range];
+    }
+
+    int rangeBest(int range) {
+        return rangeBest[range];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+    }
+}
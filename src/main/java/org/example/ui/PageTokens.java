@@ -0,0 +1,29 @@
+package org.example.ui;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Continuation tokens of the pages of one listing reached so far, by page index.
+ *
+ * Lets a {@link javafx.scene.control.Pagination} seek to any page whose token is known (the first
+ * page, and the page after each page shown) and fall back to an offset only when the user jumps ahead.
+ */
+public class PageTokens {
+    private final Map<Integer, String> tokens = new HashMap<>();
+
+    public boolean has(int pageIndex) {
+        return pageIndex == 0 || tokens.containsKey(pageIndex);
+    }
+
+    /**
+     * @return the token of the page, or {@code null} for the first page
+     */
+    public String get(int pageIndex) {
+        return tokens.get(pageIndex);
+    }
+
+    public void put(int pageIndex, String token) {
+        if (token != null) tokens.put(pageIndex, token);
+    }
+}
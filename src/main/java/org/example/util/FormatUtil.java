@@ -35,6 +35,16 @@ public class FormatUtil {
         return String.format("GHS%,.2f", amount);
     }
 
+    public static String percent(double ratio) {
+        return String.format("%.1f%%", ratio * 100);
+    }
+
+    public static String bytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
     public static double currency(String amount) {
         if (amount == null || amount.equals("NA")) return 0.0;
 
@@ -0,0 +1,119 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class SearchTermUtil {
+    private SearchTermUtil() {}
+
+    /**
+     * Canonical form of a case-insensitive word search term: trimmed, lower-cased, with runs of
+     * whitespace collapsed to a single space. Returns {@code term} itself when it is already
+     * canonical, so repeated searches do not allocate.
+     *
+     * Only for terms split into words, such as full-text queries; a substring search matches the
+     * whitespace as typed and uses {@link #normalizeSubstring(String)} instead.
+     *
+     * @param term raw user input, may be {@code null}
+     * @return the normalized term, or {@code null} when {@code term} is {@code null}
+     */
+    public static String normalize(String term) {
+        if (term == null || isNormalized(term)) return term;
+
+        StringBuilder builder = new StringBuilder(term.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+            } else {
+                if (pendingSpace) builder.append(' ');
+                builder.append(c);
+                pendingSpace = false;
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Canonical form of a case-insensitive substring search term, as matched by {@code ILIKE}:
+     * trimmed and lower-cased. Whitespace inside the term is kept, since {@code "a  b"} matches
+     * names that {@code "a b"} does not. Returns {@code term} itself when it is already canonical.
+     *
+     * @param term raw user input, may be {@code null}
+     * @return the normalized term, or {@code null} when {@code term} is {@code null}
+     */
+    public static String normalizeSubstring(String term) {
+        if (term == null) return null;
+        String trimmed = term.strip();
+        String lower = trimmed.toLowerCase(Locale.ROOT);
+        return lower.equals(term) ? term : lower;
+    }
+
+    /**
+     * Canonical form of a word-prefix search term ({@link org.example.model.SearchMode#WORDS}): its
+     * {@link #words(String) words} joined by single spaces. Returns {@code term} itself when it is already
+     * canonical.
+     *
+     * @param term raw user input, may be {@code null}
+     * @return the normalized term, empty when it has no words, or {@code null} when {@code term} is {@code null}
+     */
+    public static String normalizeWords(String term) {
+        if (term == null) return null;
+        String joined = String.join(" ", words(term));
+        return joined.equals(term) ? term : joined;
+    }
+
+    /**
+     * Split text into words as a PostgreSQL regular expression's {@code \m} sees them: runs of letters,
+     * digits and underscores. ASCII letters are lower-cased; other characters are kept as they are, since
+     * {@code ~*} folds the case of a pattern character by character, which Java's case mapping does not
+     * reproduce for every non-ASCII character.
+     *
+     * @param text text to split
+     * @return the words in order, repeats included
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                word.appendCodePoint(c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) words.add(word.toString());
+        return words;
+    }
+
+    /**
+     * Whether a term uses the syntax of {@code websearch_to_tsquery}: a {@code "quoted phrase"}, an
+     * {@code or} between words or a {@code -excluded} word. Terms without it are plain words.
+     *
+     * @param term raw user input
+     * @return whether full-text search would read {@code term} as more than a list of words
+     */
+    public static boolean hasWebSearchSyntax(String term) {
+        if (term.indexOf('"') >= 0) return true;
+        for (String part : term.strip().split("\\s+")) {
+            if (part.startsWith("-") || part.equalsIgnoreCase("or")) return true;
+        }
+        return false;
+    }
+
+    private static boolean isNormalized(String term) {
+        char previous = ' ';
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (Character.isWhitespace(c) && (c != ' ' || previous == ' ')) return false;
+            if (Character.isUpperCase(c)) return false;
+            previous = c;
+        }
+        return previous != ' ' || term.isEmpty();
+    }
+}
@@ -0,0 +1,358 @@
+import org.example.application.ApplicationCache;
+import org.example.application.CacheKey;
+import org.example.application.CachePolicy;
+import org.example.application.CacheStats;
+import org.example.model.ProductFilter;
+import org.example.model.SearchMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ApplicationCacheTest {
+
+    @Test
+    @DisplayName("Should return cached value without running the loader again")
+    void shouldReturnCachedValueOnHit() {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "first-" + loads.incrementAndGet());
+        String result = cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "second-" + loads.incrementAndGet());
+
+        Assertions.assertEquals("first-1", result);
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when full")
+    void shouldEvictLeastRecentlyUsedEntry() {
+        ApplicationCache cache = new ApplicationCache(2, 1);
+
+        cache.getOrLoad(CacheKey.of("item", "a"), () -> "a");
+        cache.getOrLoad(CacheKey.of("item", "b"), () -> "b");
+        cache.getOrLoad(CacheKey.of("item", "a"), () -> "reloaded");
+        cache.getOrLoad(CacheKey.of("item", "c"), () -> "c");
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals("a", cache.getOrLoad(CacheKey.of("item", "a"), () -> "reloaded"));
+        Assertions.assertEquals("reloaded", cache.getOrLoad(CacheKey.of("item", "b"), () -> "reloaded"));
+    }
+
+    @Test
+    @DisplayName("Should not cache null results")
+    void shouldNotCacheNullResults() {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+
+        Object first = cache.getOrLoad(CacheKey.of("item", "missing"), () -> null);
+        String second = cache.getOrLoad(CacheKey.of("item", "missing"), () -> "found");
+
+        Assertions.assertNull(first);
+        Assertions.assertEquals("found", second);
+    }
+
+    @Test
+    @DisplayName("Should remove invalidated keys")
+    void shouldRemoveInvalidatedKeys() {
+        ApplicationCache cache = new ApplicationCache(10, 4);
+
+        cache.getOrLoad(CacheKey.of("category", "id", 1), () -> "c1");
+        cache.invalidate(CacheKey.of("category", "id", 1));
+
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals("reloaded", cache.getOrLoad(CacheKey.of("category", "id", 1), () -> "reloaded"));
+    }
+
+    @Test
+    @DisplayName("Should reload only entries carrying an invalidated tag")
+    void shouldReloadEntriesCarryingInvalidatedTag() {
+        ApplicationCache cache = new ApplicationCache(10, 4);
+
+        cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "p1");
+        cache.getOrLoad(CacheKey.of("product", "search", 1), () -> "page", "product:search");
+        cache.getOrLoad(CacheKey.of("category", "id", 1), () -> "c1");
+
+        cache.invalidateTag("product:search");
+
+        Assertions.assertEquals("p1", cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "reloaded"));
+        Assertions.assertEquals("reloaded", cache.getOrLoad(CacheKey.of("product", "search", 1), () -> "reloaded", "product:search"));
+
+        cache.invalidateTag("product");
+
+        Assertions.assertEquals("reloaded", cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "reloaded"));
+        Assertions.assertEquals("c1", cache.getOrLoad(CacheKey.of("category", "id", 1), () -> "reloaded"));
+    }
+
+    @Test
+    @DisplayName("Should not keep a value whose load overlapped an invalidation")
+    void shouldDiscardValueLoadedAcrossInvalidation() {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+
+        cache.getOrLoad(CacheKey.of("order", "count"), () -> {
+            cache.invalidateTag("order");
+            return 1;
+        });
+
+        Assertions.assertEquals(2, (int) cache.getOrLoad(CacheKey.of("order", "count"), () -> 2));
+    }
+
+    @Test
+    @DisplayName("Should reload entries once their namespace TTL has passed")
+    void shouldReloadExpiredEntries() throws InterruptedException {
+        ApplicationCache cache = new ApplicationCache(10, 1,
+                Map.of("product", CachePolicy.expireAfter(Duration.ofMillis(20))), 1);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(CacheKey.of("product", "id", 1), loads::incrementAndGet);
+        cache.getOrLoad(CacheKey.of("category", "id", 1), loads::incrementAndGet);
+        Thread.sleep(40);
+
+        Assertions.assertEquals(3, (int) cache.getOrLoad(CacheKey.of("product", "id", 1), loads::incrementAndGet));
+        Assertions.assertEquals(2, (int) cache.getOrLoad(CacheKey.of("category", "id", 1), loads::incrementAndGet));
+    }
+
+    @Test
+    @DisplayName("Should serve the current value while refreshing ahead of expiry")
+    void shouldRefreshAheadInBackground() throws InterruptedException {
+        ApplicationCache cache = new ApplicationCache(10, 1,
+                Map.of("product", new CachePolicy(Duration.ofSeconds(10), Duration.ofMillis(20))), 1);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(CacheKey.of("product", "id", 1), loads::incrementAndGet);
+        Thread.sleep(40);
+
+        Assertions.assertEquals(1, (int) cache.getOrLoad(CacheKey.of("product", "id", 1), loads::incrementAndGet));
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (loads.get() < 2 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        Thread.sleep(20);
+
+        Assertions.assertEquals(2, (int) cache.getOrLoad(CacheKey.of("product", "id", 1), loads::incrementAndGet));
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run a single load for concurrent misses on the same key")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> cache.<Integer>getOrLoad(CacheKey.of("product", "search", 1), () -> {
+                loads.incrementAndGet();
+                awaitQuietly(release);
+                return 42;
+            })));
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            Assertions.assertEquals(42, result.get(2, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, loads.get());
+        callers.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should pass a failed load to every waiter without caching it")
+    void shouldPropagateFailureToAllWaiters() throws Exception {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(() -> cache.getOrLoad(CacheKey.of("product", "id", 1), () -> {
+                awaitQuietly(release);
+                throw new IllegalStateException("database down");
+            })));
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            ExecutionException failure = Assertions.assertThrows(
+                    ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(IllegalStateException.class, failure.getCause());
+        }
+        Assertions.assertEquals("recovered", cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "recovered"));
+        callers.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should count hits, misses, loads and invalidations per namespace")
+    void shouldRecordStatsPerNamespace() {
+        ApplicationCache cache = new ApplicationCache(10, 2);
+
+        cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "p1");
+        cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "p1");
+        cache.getOrLoad(CacheKey.of("product", "id", 2), () -> "p2");
+        cache.getOrLoad(CacheKey.of("category", "id", 1), () -> "c1");
+        cache.invalidate(CacheKey.of("product", "id", 2));
+        cache.invalidateTag("category");
+
+        List<CacheStats> stats = cache.stats();
+        CacheStats product = stats.stream().filter(s -> s.namespace().equals("product")).findFirst().orElseThrow();
+        CacheStats category = stats.stream().filter(s -> s.namespace().equals("category")).findFirst().orElseThrow();
+
+        Assertions.assertEquals(1, product.hits());
+        Assertions.assertEquals(2, product.misses());
+        Assertions.assertEquals(2, product.loads());
+        Assertions.assertEquals(1, product.size());
+        Assertions.assertEquals(1, product.invalidations());
+        Assertions.assertEquals(1.0 / 3, product.hitRate(), 1e-9);
+        Assertions.assertEquals(1, category.invalidations());
+    }
+
+    @Test
+    @DisplayName("Should count evictions against the evicted entry's namespace")
+    void shouldRecordEvictions() {
+        ApplicationCache cache = new ApplicationCache(1, 1);
+
+        cache.getOrLoad(CacheKey.of("order", "count"), () -> 1);
+        cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "p1");
+
+        CacheStats order = cache.stats().stream()
+                .filter(s -> s.namespace().equals("order")).findFirst().orElseThrow();
+        Assertions.assertEquals(1, order.evictions());
+        Assertions.assertEquals(0, order.size());
+    }
+
+    @Test
+    @DisplayName("Should keep keys apart whose concatenated parts would collide")
+    void shouldNotCollideAcrossKeyParts() {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+
+        cache.getOrLoad(CacheKey.of("product", "search", 12, 3), () -> "first");
+        String result = cache.getOrLoad(CacheKey.of("product", "search", 1, 23), () -> "second");
+
+        Assertions.assertEquals("second", result);
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should compare keys by parameter shape as well as value")
+    void shouldKeepKeyShapesApart() {
+        Assertions.assertEquals(CacheKey.of("order", "all", 10, 0), CacheKey.of("order", "all", 10, 0));
+        Assertions.assertEquals(CacheKey.of("order", "all", 10, 0).hashCode(), CacheKey.of("order", "all", 10, 0).hashCode());
+        Assertions.assertNotEquals(CacheKey.of("order", "all", 10, 0), CacheKey.of("order", "all", (Object) 10, 0));
+        Assertions.assertNotEquals(CacheKey.of("order", "count"), CacheKey.of("order", "count", (Object) null));
+        Assertions.assertEquals("review:product:p1:5:10", CacheKey.of("review", "product", "p1", 5, 10).toString());
+    }
+
+    @Test
+    @DisplayName("Should share one entry between searches differing only in case and whitespace")
+    void shouldShareEntryForEquivalentFilters() {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+        UUID categoryId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        ProductFilter typed = new ProductFilter("  Gaming   Laptop ", categoryId, SearchMode.FULL_TEXT).normalized();
+        ProductFilter canonical = new ProductFilter("gaming laptop", categoryId, SearchMode.FULL_TEXT).normalized();
+        cache.getOrLoad(CacheKey.of("product", "search", typed, 10, 0), loads::incrementAndGet);
+        cache.getOrLoad(CacheKey.of("product", "search", canonical, 10, 0), loads::incrementAndGet);
+
+        Assertions.assertEquals(canonical, typed);
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertNull(new ProductFilter("   ", null).normalized().name());
+    }
+
+    @Test
+    @DisplayName("Should keep inner whitespace of substring searches, which ILIKE matches as typed")
+    void shouldKeepInnerWhitespaceOfSubstringSearches() {
+        UUID categoryId = UUID.randomUUID();
+
+        ProductFilter typed = new ProductFilter("  Gaming  Laptop ", categoryId).normalized();
+
+        Assertions.assertEquals("gaming  laptop", typed.name());
+        Assertions.assertEquals(new ProductFilter("gaming laptop", categoryId).normalized(),
+                new ProductFilter(" GAMING LAPTOP", categoryId).normalized());
+        Assertions.assertNotEquals(new ProductFilter("gaming laptop", categoryId).normalized(), typed);
+    }
+
+    @Test
+    @DisplayName("Should serve a written-through value without running the loader")
+    void shouldServeWrittenThroughValue() {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "old-" + loads.incrementAndGet());
+        cache.put(CacheKey.of("product", "id", 1), "new", () -> "reloaded-" + loads.incrementAndGet());
+
+        Assertions.assertEquals("new", cache.getOrLoad(CacheKey.of("product", "id", 1), () -> "unused"));
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should keep a written-through value over a load that started before the write")
+    void shouldNotOverwritePutWithOlderLoad() throws Exception {
+        ApplicationCache cache = new ApplicationCache(10, 1);
+        CacheKey key = CacheKey.of("product", "id", 1);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = reader.submit(() -> cache.getOrLoad(key, () -> {
+                loading.countDown();
+                awaitQuietly(written);
+                return "stale";
+            }));
+            awaitQuietly(loading);
+            cache.put(key, "fresh", () -> "fresh");
+            written.countDown();
+
+            Assertions.assertEquals("stale", stale.get(2, TimeUnit.SECONDS));
+            Assertions.assertEquals("fresh", cache.getOrLoad(key, () -> "unused"));
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should expire not-found results after the negative TTL while keeping found ones")
+    void shouldExpireNegativeResultsSooner() throws InterruptedException {
+        CachePolicy policy = CachePolicy.expireAfter(Duration.ofMinutes(5))
+                .withNegativeTimeToLive(Duration.ofMillis(50));
+        ApplicationCache cache = new ApplicationCache(10, 1, Map.of("customer", policy), 1);
+        CacheKey missing = CacheKey.of("customer", "email", "new@example.com");
+        CacheKey present = CacheKey.of("customer", "email", "old@example.com");
+
+        cache.getOrLoad(missing, Optional::empty);
+        cache.getOrLoad(present, () -> Optional.of("old"));
+        Assertions.assertEquals(Optional.empty(), cache.getOrLoad(missing, () -> Optional.of("new")));
+
+        Thread.sleep(100);
+
+        Assertions.assertEquals(Optional.of("new"), cache.getOrLoad(missing, () -> Optional.of("new")));
+        Assertions.assertEquals(Optional.of("old"), cache.getOrLoad(present, () -> Optional.of("reloaded")));
+        CacheStats stats = cache.stats().get(0);
+        Assertions.assertEquals(1, stats.negativeHits());
+        Assertions.assertEquals(1, stats.negativeLoads());
+        Assertions.assertEquals(1, stats.expirations());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
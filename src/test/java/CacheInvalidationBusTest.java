@@ -0,0 +1,142 @@
+import org.example.application.ApplicationCache;
+import org.example.application.CacheInvalidation;
+import org.example.application.CacheInvalidationBus;
+import org.example.application.EntityCache;
+import org.example.dao.impl.CacheNotificationJdbcDao;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+
+    private static final String TEST_DB_URL = "CACHE_BUS_TEST_DB_URL";
+
+    @Test
+    @DisplayName("Should round-trip an invalidation through its wire form")
+    void shouldEncodeAndDecode() {
+        CacheInvalidation invalidation = new CacheInvalidation("origin", "product", UUID.randomUUID(),
+                List.of("product:list:any", "product:search"));
+
+        Assertions.assertEquals(invalidation, CacheInvalidation.decode(invalidation.encode()));
+        Assertions.assertEquals(new CacheInvalidation("origin", "order", null, List.of()),
+                CacheInvalidation.decode("origin|order||"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CacheInvalidation.decode("garbage"));
+    }
+
+    @Test
+    @DisplayName("Should apply each distinct remote key and tag once")
+    void shouldApplyDeduplicatedBatch() {
+        ApplicationCache cache = mock(ApplicationCache.class);
+        CacheInvalidationBus bus = new CacheInvalidationBus(cache, new CacheNotificationJdbcDao(),
+                "cache_invalidation", "jdbc:postgresql://unused", "user", "password", true);
+        UUID productId = UUID.randomUUID();
+
+        bus.apply(List.of(
+                new CacheInvalidation("remote", "product", productId, List.of("product:list:any")),
+                new CacheInvalidation("remote", "product", productId, List.of("product:list:any")),
+                new CacheInvalidation("other", "order", null, List.of("order"))));
+
+        verify(cache, times(1)).invalidate(EntityCache.keyOf("product", productId));
+        verify(cache, times(1)).invalidateTag("product:list:any");
+        verify(cache, times(1)).invalidateTag("order");
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    @DisplayName("Should run the remote change listener before dropping remote entries")
+    void shouldRunRemoteChangeListenerFirst() {
+        ApplicationCache cache = mock(ApplicationCache.class);
+        Runnable listener = mock(Runnable.class);
+        CacheInvalidationBus bus = new CacheInvalidationBus(cache, new CacheNotificationJdbcDao(),
+                "cache_invalidation", "jdbc:postgresql://unused", "user", "password", true);
+        bus.onRemoteChange(listener);
+        UUID productId = UUID.randomUUID();
+
+        bus.apply(List.of());
+        verifyNoInteractions(listener);
+
+        bus.apply(List.of(new CacheInvalidation("remote", "product", productId, List.of())));
+        InOrder order = inOrder(listener, cache);
+        order.verify(listener).run();
+        order.verify(cache).invalidate(EntityCache.keyOf("product", productId));
+    }
+
+    @Test
+    @DisplayName("Should tell subscribers about remote changes to their namespace only")
+    void shouldNotifySubscribersOfRemoteChanges() {
+        CacheInvalidationBus bus = new CacheInvalidationBus(mock(ApplicationCache.class), new CacheNotificationJdbcDao(),
+                "cache_invalidation", "jdbc:postgresql://unused", "user", "password", true, Runnable::run);
+        List<UUID> changed = new ArrayList<>();
+        bus.subscribe("product", changed::add);
+        UUID productId = UUID.randomUUID();
+
+        bus.apply(List.of(
+                new CacheInvalidation("remote", "product", productId, List.of("product:list:any")),
+                new CacheInvalidation("remote", "product", productId, List.of()),
+                new CacheInvalidation("remote", "product", null, List.of("product:search")),
+                new CacheInvalidation("remote", "category", UUID.randomUUID(), List.of())));
+
+        Assertions.assertEquals(List.of(productId), changed);
+    }
+
+    @Test
+    @DisplayName("Should reject channel names that cannot be used with LISTEN")
+    void shouldRejectInvalidChannel() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CacheInvalidationBus(
+                mock(ApplicationCache.class), new CacheNotificationJdbcDao(), "cache; DROP TABLE product",
+                "jdbc:postgresql://unused", "user", "password", true));
+    }
+
+    /**
+     * Runs against a local PostgreSQL when {@code CACHE_BUS_TEST_DB_URL} (plus {@code CACHE_BUS_TEST_DB_USER}
+     * and {@code CACHE_BUS_TEST_DB_PASSWORD}) are set.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = TEST_DB_URL, matches = ".+")
+    @DisplayName("Should invalidate another instance's cache when a publishing transaction commits")
+    void shouldPropagateInvalidationBetweenInstances() throws Exception {
+        String url = System.getenv(TEST_DB_URL);
+        String user = System.getenv("CACHE_BUS_TEST_DB_USER");
+        String password = System.getenv("CACHE_BUS_TEST_DB_PASSWORD");
+        String channel = "cache_invalidation_test";
+        UUID productId = UUID.randomUUID();
+
+        ApplicationCache writerCache = new ApplicationCache(10, 1);
+        ApplicationCache readerCache = new ApplicationCache(10, 1);
+        CacheInvalidationBus writer = new CacheInvalidationBus(writerCache, new CacheNotificationJdbcDao(),
+                channel, url, user, password, true);
+        CacheInvalidationBus reader = new CacheInvalidationBus(readerCache, new CacheNotificationJdbcDao(),
+                channel, url, user, password, true);
+        reader.start();
+        try {
+            readerCache.getOrLoad(EntityCache.keyOf("product", productId), () -> "stale");
+            Thread.sleep(1_000);
+
+            try (Connection conn = DriverManager.getConnection(url, user, password)) {
+                conn.setAutoCommit(false);
+                writer.publish(conn, "product", productId);
+                conn.commit();
+            }
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            String value = "stale";
+            while ("stale".equals(value) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                value = readerCache.getOrLoad(EntityCache.keyOf("product", productId), () -> "fresh");
+            }
+            Assertions.assertEquals("fresh", value);
+        } finally {
+            reader.stop();
+        }
+    }
+}
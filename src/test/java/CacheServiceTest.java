@@ -0,0 +1,56 @@
+import org.example.application.ApplicationCache;
+import org.example.application.CacheStats;
+import org.example.dto.cache.CacheStatsResponse;
+import org.example.service.CacheService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheServiceTest {
+
+    @Mock
+    private ApplicationCache cache;
+
+    @InjectMocks
+    private CacheService cacheService;
+
+    @Test
+    @DisplayName("Should map cache stats to responses")
+    void shouldMapCacheStatsToResponses() {
+        List<Long> buckets = new ArrayList<>(Collections.nCopies(CacheStats.LATENCY_BUCKET_BOUNDS_MILLIS.length + 1, 0L));
+        buckets.set(3, 4L);
+        CacheStats stats = new CacheStats("product", 12, 30, 10, 5, 2, 4, 0, 2, 1, 3, 28_000_000L, buckets);
+
+        when(cache.stats()).thenReturn(List.of(stats));
+
+        List<CacheStatsResponse> result = cacheService.getCacheStats();
+
+        Assertions.assertEquals(1, result.size());
+        CacheStatsResponse response = result.get(0);
+        Assertions.assertEquals("product", response.namespace());
+        Assertions.assertEquals(0.75, response.hitRate(), 1e-9);
+        Assertions.assertEquals(7.0, response.averageLoadMillis(), 1e-9);
+        Assertions.assertEquals(10, response.p95LoadMillis());
+        Assertions.assertEquals(5, response.negativeHits());
+        verify(cache).stats();
+    }
+
+    @Test
+    @DisplayName("Should return empty list before any cache activity")
+    void shouldReturnEmptyListWhenNoStats() {
+        when(cache.stats()).thenReturn(List.of());
+
+        Assertions.assertTrue(cacheService.getCacheStats().isEmpty());
+    }
+}
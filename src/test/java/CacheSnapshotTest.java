@@ -0,0 +1,116 @@
+import org.example.application.ApplicationCache;
+import org.example.application.CacheSnapshot;
+import org.example.application.EntityCache;
+import org.example.model.TableWatermark;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+class CacheSnapshotTest {
+
+    private record Item(UUID id, String name) {}
+
+    private static final CacheSnapshot.Codec<Item> CODEC = new CacheSnapshot.Codec<>() {
+        @Override
+        public void write(DataOutput out, Item item) throws IOException {
+            CacheSnapshot.writeUuid(out, item.id());
+            CacheSnapshot.writeNullableString(out, item.name());
+        }
+
+        @Override
+        public Item read(DataInput in) throws IOException {
+            return new Item(CacheSnapshot.readUuid(in), CacheSnapshot.readNullableString(in));
+        }
+    };
+
+    @TempDir
+    Path dir;
+
+    private final Map<UUID, Item> table = new HashMap<>();
+    private final List<UUID> loaded = new ArrayList<>();
+    private final AtomicReference<TableWatermark> watermark =
+            new AtomicReference<>(new TableWatermark(41, "4f3c"));
+
+    @Test
+    @DisplayName("Should restore cached entities when the table is unchanged")
+    void shouldRestoreUnchangedSection() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Item first = save("first");
+        Item second = save(null);
+        EntityCache<Item> before = items();
+        before.get(first.id());
+        before.get(second.id());
+        new CacheSnapshot(file, List.of(section(before))).save();
+
+        EntityCache<Item> after = items();
+        int restored = new CacheSnapshot(file, List.of(section(after))).load();
+        loaded.clear();
+
+        Assertions.assertEquals(2, restored);
+        Assertions.assertEquals(Optional.of(first), after.get(first.id()));
+        Assertions.assertEquals(Optional.of(second), after.get(second.id()));
+        Assertions.assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should skip a section whose table changed since the snapshot")
+    void shouldSkipOutdatedSection() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Item item = save("item");
+        EntityCache<Item> before = items();
+        before.get(item.id());
+        new CacheSnapshot(file, List.of(section(before))).save();
+
+        watermark.set(new TableWatermark(41, "9a07"));
+        EntityCache<Item> after = items();
+        int restored = new CacheSnapshot(file, List.of(section(after))).load();
+
+        Assertions.assertEquals(0, restored);
+        Assertions.assertTrue(after.cached().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should start cold when the snapshot file is corrupt")
+    void shouldIgnoreCorruptFile() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Files.write(file, new byte[]{1, 2, 3});
+
+        EntityCache<Item> items = items();
+
+        Assertions.assertEquals(0, new CacheSnapshot(file, List.of(section(items))).load());
+        Assertions.assertTrue(items.cached().isEmpty());
+    }
+
+    private EntityCache<Item> items() {
+        return new EntityCache<>(new ApplicationCache(100, 1), "item", Item::id,
+                id -> {
+                    loaded.add(id);
+                    return Optional.ofNullable(table.get(id));
+                },
+                ids -> ids.stream().map(table::get).filter(item -> item != null).toList());
+    }
+
+    private CacheSnapshot.Section<Item> section(EntityCache<Item> items) {
+        return new CacheSnapshot.Section<>("item", items, CODEC, watermark::get);
+    }
+
+    private Item save(String name) {
+        Item item = new Item(UUID.randomUUID(), name);
+        table.put(item.id(), item);
+        return item;
+    }
+}
@@ -1,7 +1,9 @@
+import org.example.dto.PageWithTotalResponse;
 import org.example.dto.category.CategoryResponse;
 import org.example.dto.category.CreateCategoryRequest;
 import org.example.dto.category.UpdateCategoryRequest;
 import org.example.model.Category;
+import org.example.model.PageWithTotal;
 import org.example.service.CategoryService;
 import org.example.service.exception.CategoryNotFoundException;
 import org.example.service.exception.DuplicateCategoryException;
@@ -313,4 +315,17 @@ class CategoryServiceTest {
         ));
     }
 
+    @Test
+    @DisplayName("Should return an empty category page with a page count of one")
+    void shouldReturnEmptyCategoryPageWithTotal() {
+        when(categoryStore.findAllWithTotal(10, 0)).thenReturn(new PageWithTotal<>(List.of(), 0));
+
+        PageWithTotalResponse<CategoryResponse> result = categoryService.getAllCategoriesWithTotal(10, 0);
+
+        Assertions.assertTrue(result.items().isEmpty());
+        Assertions.assertEquals(0, result.total());
+        Assertions.assertEquals(1, result.pageCount(10));
+        verify(categoryStore, never()).count();
+    }
+
 }
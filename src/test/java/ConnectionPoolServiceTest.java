@@ -0,0 +1,87 @@
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.example.config.ConnectionPoolStats;
+import org.example.config.DataSource;
+import org.example.config.PoolMetrics;
+import org.example.dto.pool.ConnectionPoolStatsResponse;
+import org.example.service.ConnectionPoolService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionPoolServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    @InjectMocks
+    private ConnectionPoolService connectionPoolService;
+
+    @Test
+    @DisplayName("Should report pool state and wait-time percentiles")
+    void shouldReportPoolStats() {
+        PoolMetrics metrics = new PoolMetrics(1_000);
+        IMetricsTracker tracker = metrics.create("test-pool", null);
+        for (int i = 0; i < 90; i++) tracker.recordConnectionAcquiredNanos(50_000);
+        for (int i = 0; i < 10; i++) tracker.recordConnectionAcquiredNanos(20_000_000);
+        tracker.recordConnectionTimeout();
+
+        when(pool.getActiveConnections()).thenReturn(3);
+        when(pool.getIdleConnections()).thenReturn(2);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(1);
+        when(pool.getTotalConnections()).thenReturn(5);
+        ConnectionPoolStats stats = metrics.snapshot(pool, 10);
+        when(dataSource.poolStats()).thenReturn(stats);
+
+        ConnectionPoolStatsResponse response = connectionPoolService.getPoolStats();
+
+        Assertions.assertEquals(3, response.active());
+        Assertions.assertEquals(1, response.pending());
+        Assertions.assertEquals(10, response.maximumPoolSize());
+        Assertions.assertEquals(100, response.acquisitions());
+        Assertions.assertEquals(1, response.timeouts());
+        Assertions.assertEquals(100, response.p50WaitMicros());
+        Assertions.assertEquals(25_000, response.p95WaitMicros());
+        Assertions.assertEquals(20.0, response.maxWaitMillis(), 1e-9);
+        verify(dataSource).poolStats();
+    }
+
+    @Test
+    @DisplayName("Should count connections held past the leak detection threshold")
+    void shouldCountLongHeldConnections() {
+        PoolMetrics metrics = new PoolMetrics(1_000);
+        IMetricsTracker tracker = metrics.create("test-pool", null);
+        tracker.recordConnectionUsageMillis(999);
+        tracker.recordConnectionUsageMillis(5_000);
+
+        ConnectionPoolStats stats = metrics.snapshot(null, 10);
+
+        Assertions.assertEquals(1, stats.longHeld());
+        Assertions.assertEquals(0, stats.total());
+    }
+
+    @Test
+    @DisplayName("Should report each replica pool by name")
+    void shouldReportReplicaPoolStats() {
+        PoolMetrics metrics = new PoolMetrics(1_000);
+        metrics.create("ecommerce-replica-1", null).recordConnectionTimeout();
+        when(dataSource.replicaPoolStats()).thenReturn(Map.of("ecommerce-replica-1", metrics.snapshot(null, 10)));
+
+        Map<String, ConnectionPoolStatsResponse> replicas = connectionPoolService.getReplicaPoolStats();
+
+        Assertions.assertEquals(1, replicas.size());
+        Assertions.assertEquals(1, replicas.get("ecommerce-replica-1").timeouts());
+    }
+}
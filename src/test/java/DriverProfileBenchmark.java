@@ -0,0 +1,85 @@
+import org.example.config.DataSource;
+import org.example.config.DatabaseConfig;
+import org.example.config.DriverSettings;
+import org.example.config.PoolSettings;
+import org.example.config.ReplicaSettings;
+import org.example.dao.impl.ProductJdbcDao;
+import org.example.dao.interfaces.ProductDao;
+import org.example.model.Product;
+import org.example.model.ProductFilter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+/**
+ * Compares {@link ProductJdbcDao#findById} and {@link ProductJdbcDao#findFiltered} latency with pgjdbc's
+ * default settings and with the driver profile configured in {@code .env}.
+ *
+ * Not a unit test (surefire does not pick it up); it needs the database from {@code .env} with some
+ * products in it. Run it with:
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) DriverProfileBenchmark [iterations]
+ * </pre>
+ *
+ * Every call borrows a pooled connection and prepares its statement again, exactly like the stores do.
+ */
+public class DriverProfileBenchmark {
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        PoolSettings pool = PoolSettings.fromConfig();
+
+        run("pgjdbc defaults", DriverSettings.DRIVER_DEFAULTS, pool, iterations);
+        run("configured profile", DriverSettings.fromConfig(), pool, iterations);
+    }
+
+    private static void run(String name, DriverSettings driver, PoolSettings pool, int iterations) {
+        DataSource dataSource = new DataSource(DatabaseConfig.DB_URL, DatabaseConfig.DB_USER,
+                DatabaseConfig.DB_PASSWORD, pool, driver, ReplicaSettings.NONE);
+        try {
+            ProductDao productDao = new ProductJdbcDao();
+            List<Product> sample = dataSource.withConnection(
+                    conn -> productDao.findFiltered(conn, new ProductFilter(null, null), 200, 0));
+            if (sample.isEmpty()) throw new IllegalStateException("The product table is empty");
+            List<UUID> ids = sample.stream().map(Product::getProductId).toList();
+            List<UUID> categoryIds = sample.stream().map(Product::getCategoryId).distinct().toList();
+
+            System.out.println("== " + name + ": " + driver);
+            measure("findById", iterations, i -> dataSource.withConnection(
+                    conn -> productDao.findById(conn, ids.get(i % ids.size()))));
+            measure("findFiltered (category)", iterations, i -> dataSource.withConnection(
+                    conn -> productDao.findFiltered(conn,
+                            new ProductFilter(null, categoryIds.get(i % categoryIds.size())), 20, 0)));
+            measure("findFiltered (name)", iterations, i -> dataSource.withConnection(
+                    conn -> productDao.findFiltered(conn,
+                            new ProductFilter(sample.get(i % sample.size()).getName().substring(0, 1), null), 20, 0)));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private static void measure(String label, int iterations, IntConsumer call) {
+        // Let both the JIT and the driver's statement cache settle before timing
+        for (int i = 0; i < Math.min(iterations, 1_000); i++) call.accept(i);
+
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            call.accept(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double mean = Arrays.stream(nanos).average().orElse(0) / 1_000.0;
+        System.out.printf("%-26s mean %8.1f us   p50 %8.1f us   p95 %8.1f us   p99 %8.1f us%n", label, mean,
+                percentile(nanos, 0.50), percentile(nanos, 0.95), percentile(nanos, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(sorted.length * percentile) - 1;
+        return sorted[Math.max(index, 0)] / 1_000.0;
+    }
+}
@@ -0,0 +1,81 @@
+import org.example.application.ApplicationCache;
+import org.example.application.EntityCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+class EntityCacheTest {
+
+    private record Item(UUID id, String name) {}
+
+    private final Map<UUID, Item> table = new HashMap<>();
+    private final List<Set<UUID>> batches = new ArrayList<>();
+    private EntityCache<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationCache cache = new ApplicationCache(100, 1);
+        items = new EntityCache<>(cache, "item", Item::id,
+                id -> Optional.ofNullable(table.get(id)),
+                ids -> {
+                    batches.add(Set.copyOf(ids));
+                    return ids.stream().map(table::get).filter(item -> item != null).toList();
+                });
+    }
+
+    @Test
+    @DisplayName("Should load only the uncached entities, in one batch, and keep page order")
+    void shouldBatchLoadMissingEntities() {
+        Item first = save("first");
+        Item second = save("second");
+        Item third = save("third");
+        items.get(second.id());
+
+        List<Item> page = items.getAll(List.of(third.id(), second.id(), first.id()));
+
+        Assertions.assertEquals(List.of(third, second, first), page);
+        Assertions.assertEquals(List.of(Set.of(first.id(), third.id())), batches);
+    }
+
+    @Test
+    @DisplayName("Should show a written-through entity on pages without reloading them")
+    void shouldReflectWriteThroughOnPages() {
+        Item original = save("original");
+        List<UUID> page = items.putAll(List.of(original));
+
+        Item renamed = new Item(original.id(), "renamed");
+        table.put(renamed.id(), renamed);
+        items.put(renamed);
+
+        Assertions.assertEquals(List.of(renamed), items.getAll(page));
+        Assertions.assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should skip ids that no longer exist")
+    void shouldSkipDeletedEntities() {
+        Item kept = save("kept");
+        Item deleted = save("deleted");
+        List<UUID> page = items.putAll(List.of(kept, deleted));
+
+        table.remove(deleted.id());
+        items.invalidate(deleted.id());
+
+        Assertions.assertEquals(List.of(kept), items.getAll(page));
+    }
+
+    private Item save(String name) {
+        Item item = new Item(UUID.randomUUID(), name);
+        table.put(item.id(), item);
+        return item;
+    }
+}
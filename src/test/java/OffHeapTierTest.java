@@ -0,0 +1,127 @@
+import org.example.application.ApplicationCache;
+import org.example.application.CacheSnapshot;
+import org.example.application.EntityCache;
+import org.example.application.SecondTierStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+class OffHeapTierTest {
+
+    private record Item(UUID id, String name) {}
+
+    private static final CacheSnapshot.Codec<Item> CODEC = new CacheSnapshot.Codec<>() {
+        @Override
+        public void write(DataOutput out, Item item) throws IOException {
+            CacheSnapshot.writeUuid(out, item.id());
+            CacheSnapshot.writeNullableString(out, item.name());
+        }
+
+        @Override
+        public Item read(DataInput in) throws IOException {
+            return new Item(CacheSnapshot.readUuid(in), CacheSnapshot.readNullableString(in));
+        }
+    };
+
+    private final Map<UUID, Item> table = new HashMap<>();
+    private final List<UUID> loaded = new ArrayList<>();
+    private ApplicationCache cache;
+    private EntityCache<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        // A heap cache of one entry, so every other entity lives only in the off-heap tier
+        cache = new ApplicationCache(1, 1);
+        items = new EntityCache<>(cache, "item", Item::id,
+                id -> {
+                    loaded.add(id);
+                    return Optional.ofNullable(table.get(id));
+                },
+                ids -> ids.stream().map(table::get).filter(item -> item != null).toList());
+        items.attachOffHeapTier(CODEC, 4096, 1024);
+    }
+
+    @Test
+    @DisplayName("Should serve entities evicted from the heap from the off-heap tier")
+    void shouldServeEvictedEntitiesOffHeap() {
+        Item first = save("first");
+        Item second = save("second");
+        items.get(first.id());
+        items.get(second.id());
+        loaded.clear();
+
+        Assertions.assertEquals(Optional.of(first), items.get(first.id()));
+        Assertions.assertEquals(List.of(second, first), items.getAll(List.of(second.id(), first.id())));
+        Assertions.assertTrue(loaded.isEmpty());
+
+        SecondTierStats stats = cache.secondTierStats().get(0);
+        Assertions.assertEquals("item", stats.namespace());
+        Assertions.assertEquals(2, stats.entries());
+        Assertions.assertTrue(stats.usedBytes() > 0);
+        Assertions.assertEquals(1024, stats.allocatedBytes());
+        Assertions.assertTrue(stats.hits() > 0);
+    }
+
+    @Test
+    @DisplayName("Should drop invalidated entities from both tiers")
+    void shouldInvalidateBothTiers() {
+        Item item = save("item");
+        items.get(item.id());
+        items.invalidate(item.id());
+        loaded.clear();
+
+        items.get(item.id());
+
+        Assertions.assertEquals(List.of(item.id()), loaded);
+    }
+
+    @Test
+    @DisplayName("Should clear the off-heap tier when its namespace is invalidated")
+    void shouldClearOnNamespaceInvalidation() {
+        Item first = save("first");
+        Item second = save("second");
+        items.get(first.id());
+        items.get(second.id());
+
+        cache.invalidateTag("item");
+
+        Assertions.assertEquals(0, cache.secondTierStats().get(0).entries());
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest block once the off-heap capacity is used up")
+    void shouldEvictOldestBlock() {
+        String name = "x".repeat(300);
+        List<Item> saved = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Item item = save(name);
+            saved.add(item);
+            items.get(item.id());
+        }
+        loaded.clear();
+
+        SecondTierStats stats = cache.secondTierStats().get(0);
+        Assertions.assertTrue(stats.evictions() > 0);
+        Assertions.assertEquals(4096, stats.allocatedBytes());
+
+        items.get(saved.get(0).id());
+        Assertions.assertEquals(List.of(saved.get(0).id()), loaded);
+    }
+
+    private Item save(String name) {
+        Item item = new Item(UUID.randomUUID(), name);
+        table.put(item.id(), item);
+        return item;
+    }
+}
@@ -0,0 +1,100 @@
+import org.example.store.suggestion.PrefixIndex;
+import org.example.store.suggestion.Suggestions;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class PrefixIndexTest {
+
+    private final UUID electronics = UUID.randomUUID();
+    private final PrefixIndex index = PrefixIndex.of(List.of(
+            new PrefixIndex.Entry("Wireless Mouse", null, 40),
+            new PrefixIndex.Entry("Wireless Keyboard", null, 90),
+            new PrefixIndex.Entry("Mouse Pad", null, 10),
+            new PrefixIndex.Entry("Wired Headset", null, 5),
+            new PrefixIndex.Entry("Monitor", null, 10),
+            new PrefixIndex.Entry("Electronics", electronics, 145)));
+
+    @Test
+    @DisplayName("Should suggest names with a word starting with the prefix, most popular first")
+    void shouldSuggestMostPopularWordStarts() {
+        Suggestions out = new Suggestions(10);
+
+        Assertions.assertEquals(List.of("Wireless Keyboard", "Wireless Mouse", "Wired Headset"),
+                texts(out, index.complete("wi", out)));
+        Assertions.assertEquals(List.of("Wireless Mouse", "Mouse Pad"), texts(out, index.complete("MOU", out)));
+        // Equal weights fall back to alphabetical order
+        Assertions.assertEquals(List.of("Wireless Mouse", "Monitor", "Mouse Pad"),
+                texts(out, index.complete("mo", out)));
+        Assertions.assertEquals(List.of(), texts(out, index.complete("ouse", out)));
+    }
+
+    @Test
+    @DisplayName("Should stop at the buffer capacity and list each name once")
+    void shouldLimitToCapacityWithoutDuplicates() {
+        PrefixIndex repeated = PrefixIndex.of(List.of(
+                new PrefixIndex.Entry("Desk Desk Lamp", null, 50),
+                new PrefixIndex.Entry("Desk Chair", null, 20),
+                new PrefixIndex.Entry("Desk Mat", null, 1)));
+        Suggestions out = new Suggestions(2);
+
+        Assertions.assertEquals(List.of("Desk Desk Lamp", "Desk Chair"), texts(out, repeated.complete("desk", out)));
+    }
+
+    @Test
+    @DisplayName("Should find the true top names however many of their words match the prefix")
+    void shouldKeepEveryRangeForNamesWithRepeatedWords() {
+        List<PrefixIndex.Entry> entries = new ArrayList<>();
+        // Each of these names is met through ten keys before a lighter name comes up
+        for (int i = 0; i < 6; i++) {
+            entries.add(new PrefixIndex.Entry("Desk ".repeat(10) + i, null, 100 + i));
+        }
+        entries.add(new PrefixIndex.Entry("Desk Lamp", null, 50));
+        entries.add(new PrefixIndex.Entry("Desk Mat", null, 40));
+        Suggestions out = new Suggestions(8);
+
+        Assertions.assertEquals(8, PrefixIndex.of(entries).complete("desk", out));
+        Assertions.assertEquals("Desk Lamp", out.text(6));
+        Assertions.assertEquals("Desk Mat", out.text(7));
+    }
+
+    @Test
+    @DisplayName("Should rank reweighed names by their new weights")
+    void shouldReweighNames() {
+        Suggestions out = new Suggestions(10);
+
+        PrefixIndex reweighed = index.withWeights(new long[]{40, 1, 10, 500, 10, 145});
+
+        Assertions.assertEquals(List.of("Wired Headset", "Wireless Mouse", "Wireless Keyboard"),
+                texts(out, reweighed.complete("wi", out)));
+        Assertions.assertEquals(List.of("Wireless Keyboard", "Wireless Mouse", "Wired Headset"),
+                texts(out, index.complete("wi", out)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.withWeights(new long[]{1}));
+    }
+
+    @Test
+    @DisplayName("Should mark category suggestions and suggest nothing for an empty prefix")
+    void shouldMarkCategoriesAndIgnoreEmptyPrefix() {
+        Suggestions out = new Suggestions(5);
+
+        Assertions.assertEquals(1, index.complete("elec", out));
+        Assertions.assertTrue(out.isCategory(0));
+        Assertions.assertEquals(electronics, out.categoryId(0));
+
+        Assertions.assertEquals(0, index.complete("", out));
+        Assertions.assertEquals(0, PrefixIndex.EMPTY.complete("wi", out));
+    }
+
+    private static List<String> texts(Suggestions out, int count) {
+        Assertions.assertEquals(count, out.size());
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            texts.add(out.text(i));
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,188 @@
+import org.example.model.PriceRange;
+import org.example.model.Product;
+import org.example.model.ProductFacetCounts;
+import org.example.model.ProductFacetQuery;
+import org.example.model.ProductFacets;
+import org.example.store.product.ListingOrder;
+import org.example.store.product.ProductFacetIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class ProductFacetIndexTest {
+
+    private final UUID electronics = UUID.randomUUID();
+    private final UUID office = UUID.randomUUID();
+    private final ListingOrder order = new ListingOrder();
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex(order);
+    }
+
+    @Test
+    @DisplayName("Should intersect the selected facets and page the matches in name order")
+    void shouldIntersectFacetsInNameOrder() {
+        ProductFacets mouse = facets("Wireless Mouse", electronics, 20.0, 5, 4.5);
+        ProductFacets keyboard = facets("Keyboard", electronics, 45.0, 0, 4.0);
+        ProductFacets monitor = facets("Monitor", electronics, 180.0, 3, 3.2);
+        ProductFacets lamp = facets("Desk Lamp", office, 22.0, 8, null);
+        build(mouse, keyboard, monitor, lamp);
+        // Deliberately not Java's String order, as a database collation may sort differently
+        Assertions.assertTrue(order.load(ids(lamp, keyboard, monitor, mouse), order.stamp()));
+
+        Assertions.assertEquals(List.of(lamp.productId(), keyboard.productId(), monitor.productId(), mouse.productId()),
+                index.query(ProductFacetQuery.ALL, 10, 0).productIds());
+
+        ProductFacetIndex.Result inStock = index.query(new ProductFacetQuery(electronics, null, true, 0), 1, 1);
+        Assertions.assertEquals(List.of(mouse.productId()), inStock.productIds());
+        Assertions.assertEquals(2, inStock.total());
+
+        ProductFacetIndex.Result cheapRated = index.query(new ProductFacetQuery(null, PriceRange.UNDER_25, false, 4), 10, 0);
+        Assertions.assertEquals(List.of(mouse.productId()), cheapRated.productIds());
+        Assertions.assertEquals(0, index.query(new ProductFacetQuery(UUID.randomUUID(), null, false, 0), 10, 0).total());
+    }
+
+    @Test
+    @DisplayName("Should page forward from where the last page ended, and back or after a change from the start")
+    void shouldResumePagingFromLastPage() {
+        ProductFacets mouse = facets("Wireless Mouse", electronics, 20.0, 5, 4.5);
+        ProductFacets keyboard = facets("Keyboard", electronics, 45.0, 0, 4.0);
+        ProductFacets monitor = facets("Monitor", electronics, 180.0, 3, 3.2);
+        ProductFacets lamp = facets("Desk Lamp", office, 22.0, 8, null);
+        ProductFacets cable = facets("Cable", electronics, 5.0, 9, null);
+        build(mouse, keyboard, monitor, lamp, cable);
+        order.load(ids(cable, lamp, keyboard, monitor, mouse), order.stamp());
+        ProductFacetQuery electronicsOnly = new ProductFacetQuery(electronics, null, false, 0);
+
+        Assertions.assertEquals(ids(cable, keyboard), index.query(electronicsOnly, 2, 0).productIds());
+        Assertions.assertEquals(ids(monitor, mouse), index.query(electronicsOnly, 2, 2).productIds());
+        Assertions.assertEquals(ids(mouse), index.query(electronicsOnly, 2, 3).productIds());
+        Assertions.assertEquals(List.of(), index.query(electronicsOnly, 2, 4).productIds());
+        Assertions.assertEquals(ids(keyboard, monitor), index.query(electronicsOnly, 2, 1).productIds());
+
+        // Restocking the keyboard is seen by the next page of an in-stock query
+        ProductFacetQuery inStock = new ProductFacetQuery(electronics, null, true, 0);
+        Assertions.assertEquals(ids(cable), index.query(inStock, 1, 0).productIds());
+        index.put(new Product(keyboard.productId(), "Keyboard", "Mechanical", 45.0, 4,
+                electronics, Instant.now(), Instant.now()));
+        ProductFacetIndex.Result next = index.query(inStock, 1, 1);
+        Assertions.assertEquals(ids(keyboard), next.productIds());
+        Assertions.assertEquals(4, next.total());
+    }
+
+    @Test
+    @DisplayName("Should count each facet's values against the selections of the other facets")
+    void shouldCountFacetValues() {
+        ProductFacets mouse = facets("Wireless Mouse", electronics, 20.0, 5, 4.5);
+        ProductFacets keyboard = facets("Keyboard", electronics, 45.0, 0, 4.0);
+        ProductFacets monitor = facets("Monitor", electronics, 180.0, 3, 3.2);
+        ProductFacets lamp = facets("Desk Lamp", office, 22.0, 8, null);
+        build(mouse, keyboard, monitor, lamp);
+        order.load(ids(lamp, keyboard, monitor, mouse), order.stamp());
+
+        ProductFacetCounts counts = index.query(new ProductFacetQuery(electronics, PriceRange.UNDER_25, true, 0), 10, 0)
+                .counts();
+
+        // Categories ignore the category selection, price ranges the price selection, and so on
+        Assertions.assertEquals(Map.of(electronics, 1, office, 1), counts.categories());
+        Assertions.assertEquals(1, counts.priceRanges().get(PriceRange.UNDER_25));
+        Assertions.assertEquals(1, counts.priceRanges().get(PriceRange.FROM_100_TO_250));
+        Assertions.assertEquals(0, counts.priceRanges().get(PriceRange.FROM_25_TO_50));
+        Assertions.assertEquals(1, counts.inStock());
+        Assertions.assertEquals(Map.of(5, 0, 4, 1, 3, 1, 2, 1, 1, 1), counts.minRatings());
+    }
+
+    @Test
+    @DisplayName("Should follow changes, keeping the rating when a product is edited, once moved products are placed")
+    void shouldFollowWrites() {
+        ProductFacets mouse = facets("Wireless Mouse", electronics, 20.0, 5, 4.5);
+        ProductFacets lamp = facets("Desk Lamp", office, 22.0, 8, null);
+        build(mouse, lamp);
+        order.load(ids(lamp, mouse), order.stamp());
+        long beforeRename = order.stamp();
+
+        order.moved(mouse.productId());
+        Assertions.assertTrue(index.put(new Product(mouse.productId(), "Gaming Mouse", "Compact", 60.0, 0,
+                electronics, Instant.now(), Instant.now())));
+        index.remove(lamp.productId());
+        order.removed(lamp.productId());
+        ProductFacets stand = facets("Laptop Stand", office, 30.0, 2, 2.0);
+        order.moved(stand.productId());
+        index.put(stand);
+
+        Assertions.assertFalse(index.isReady());
+        Assertions.assertThrows(IllegalStateException.class, () -> index.query(ProductFacetQuery.ALL, 10, 0));
+        Assertions.assertFalse(order.load(ids(stand, mouse), beforeRename));
+        // Each between the neighbours the database reports for it
+        Assertions.assertTrue(order.place(stand.productId(), mouse.productId(), null, order.stamp()));
+        Assertions.assertFalse(index.isReady());
+        Assertions.assertTrue(order.place(mouse.productId(), null, stand.productId(), order.stamp()));
+
+        Assertions.assertEquals(List.of(mouse.productId()),
+                index.query(new ProductFacetQuery(null, PriceRange.FROM_50_TO_100, false, 4), 10, 0).productIds());
+        Assertions.assertEquals(List.of(stand.productId()),
+                index.query(new ProductFacetQuery(null, null, true, 0), 10, 0).productIds());
+        Assertions.assertEquals(List.of(mouse.productId(), stand.productId()),
+                index.query(ProductFacetQuery.ALL, 10, 0).productIds());
+        Assertions.assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should keep writes made while a build is running and answer only once built")
+    void shouldPreferWritesDuringBuild() {
+        ProductFacets stale = facets("Wireless Mouse", electronics, 20.0, 5, null);
+        ProductFacets reviewed = new ProductFacets(stale.productId(), stale.name(), electronics, 20.0, 5, 5.0);
+
+        index.beginBuild();
+        Assertions.assertThrows(IllegalStateException.class, () -> index.query(ProductFacetQuery.ALL, 10, 0));
+        index.put(reviewed);
+        index.addAll(List.of(stale));
+        index.endBuild(true);
+        Assertions.assertFalse(index.isReady());
+        order.load(ids(stale), order.stamp());
+
+        Assertions.assertEquals(List.of(stale.productId()),
+                index.query(new ProductFacetQuery(null, null, false, 5), 10, 0).productIds());
+    }
+
+    @Test
+    @DisplayName("Should leave a product without a price as indexed, for its facets to be read from the database")
+    void shouldNotIndexProductWithoutPrice() {
+        ProductFacets mouse = facets("Wireless Mouse", electronics, 20.0, 5, 4.5);
+        build(mouse);
+        order.load(ids(mouse), order.stamp());
+
+        Assertions.assertFalse(index.put(new Product(mouse.productId(), "Gaming Mouse", "Compact", null, 0,
+                electronics, Instant.now(), Instant.now())));
+        Assertions.assertFalse(index.put(new Product(UUID.randomUUID(), "Desk Lamp", "Warm", null, 8,
+                office, Instant.now(), Instant.now())));
+
+        Assertions.assertTrue(index.isReady());
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertEquals(List.of(mouse.productId()),
+                index.query(new ProductFacetQuery(null, PriceRange.UNDER_25, true, 4), 10, 0).productIds());
+    }
+
+    private void build(ProductFacets... products) {
+        index.beginBuild();
+        index.addAll(List.of(products));
+        index.endBuild(true);
+    }
+
+    private static List<UUID> ids(ProductFacets... products) {
+        return Arrays.stream(products).map(ProductFacets::productId).toList();
+    }
+
+    private static ProductFacets facets(String name, UUID categoryId, double price, int stock, Double rating) {
+        return new ProductFacets(UUID.randomUUID(), name, categoryId, price, stock, rating);
+    }
+}
@@ -0,0 +1,143 @@
+import org.example.dao.impl.ProductJdbcDao;
+import org.example.model.ListingNeighbours;
+import org.example.model.PriceRange;
+import org.example.model.ProductFacetQuery;
+import org.example.model.ProductFilter;
+import org.example.model.SearchMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductJdbcDaoTest {
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private final ProductJdbcDao productDao = new ProductJdbcDao();
+
+    @Test
+    @DisplayName("Should match a similar-name search with the trigram operator and order it by similarity")
+    void shouldBuildSimilarNameSearch() throws Exception {
+        UUID categoryId = UUID.randomUUID();
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        productDao.findFiltered(connection, new ProductFilter("laptpo", categoryId, SearchMode.SIMILAR), 5, 10);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        Assertions.assertTrue(sql.getValue().contains(" AND p.name % ?"), sql.getValue());
+        Assertions.assertTrue(sql.getValue().endsWith(
+                " ORDER BY similarity(p.name, ?) DESC, p.name ASC, p.product_id ASC LIMIT ? OFFSET ?"), sql.getValue());
+        Assertions.assertFalse(sql.getValue().contains("websearch_to_tsquery"), sql.getValue());
+        Assertions.assertFalse(sql.getValue().contains("ILIKE"), sql.getValue());
+
+        // The term itself, not an ILIKE pattern, for both the operator and the ordering
+        InOrder parameters = inOrder(statement);
+        parameters.verify(statement).setObject(1, "laptpo");
+        parameters.verify(statement).setObject(2, categoryId);
+        parameters.verify(statement).setObject(3, "laptpo");
+        parameters.verify(statement).setInt(4, 5);
+        parameters.verify(statement).setInt(5, 10);
+    }
+
+    @Test
+    @DisplayName("Should browse facets in SQL with the bounds of the in-memory index")
+    void shouldBuildFacetQuery() throws Exception {
+        UUID categoryId = UUID.randomUUID();
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        productDao.findByFacets(connection,
+                new ProductFacetQuery(categoryId, PriceRange.FROM_25_TO_50, true, 4), 20, 0);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        Assertions.assertTrue(sql.getValue().endsWith(" WHERE 1=1 AND p.category_id = ?"
+                + " AND p.price >= ? AND p.price < ? AND p.stock_quantity > 0"
+                + " AND (SELECT AVG(r.rating) FROM review r WHERE r.product_id = p.product_id) >= ?"
+                + " ORDER BY p.name ASC, p.product_id ASC LIMIT ? OFFSET ?"), sql.getValue());
+
+        InOrder parameters = inOrder(statement);
+        parameters.verify(statement).setObject(1, categoryId);
+        parameters.verify(statement).setObject(2, BigDecimal.valueOf(25.0));
+        parameters.verify(statement).setObject(3, BigDecimal.valueOf(50.0));
+        parameters.verify(statement).setObject(4, 4);
+        parameters.verify(statement).setInt(5, 20);
+        parameters.verify(statement).setInt(6, 0);
+    }
+
+    @Test
+    @DisplayName("Should match every word of a word search at the start of a word of the name or description")
+    void shouldBuildWordPrefixSearch() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        productDao.findFiltered(connection,
+                new ProductFilter("Wireless 2.4GHz", null, SearchMode.WORDS).normalized(), 5, 0);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        Assertions.assertTrue(sql.getValue().contains(
+                " AND (p.name ~* ? OR p.description ~* ?) AND (p.name ~* ? OR p.description ~* ?)"
+                        + " AND (p.name ~* ? OR p.description ~* ?) ORDER BY p.name ASC, p.product_id ASC"),
+                sql.getValue());
+
+        InOrder parameters = inOrder(statement);
+        // Each word twice, for the name and the description; the dot splits "2.4ghz" into two words
+        parameters.verify(statement).setObject(1, "\\mwireless");
+        parameters.verify(statement).setObject(2, "\\mwireless");
+        parameters.verify(statement).setObject(3, "\\m2");
+        parameters.verify(statement).setObject(4, "\\m2");
+        parameters.verify(statement).setObject(5, "\\m4ghz");
+        parameters.verify(statement).setObject(6, "\\m4ghz");
+        parameters.verify(statement).setInt(7, 5);
+    }
+
+    @Test
+    @DisplayName("Should read a product's listing neighbours, or nothing when it does not exist")
+    void shouldReadListingNeighbours() throws Exception {
+        UUID productId = UUID.randomUUID();
+        UUID previousId = UUID.randomUUID();
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getObject("previous_id", UUID.class)).thenReturn(previousId);
+        when(resultSet.getObject("next_id", UUID.class)).thenReturn(null);
+
+        Assertions.assertEquals(Optional.of(new ListingNeighbours(previousId, null)),
+                productDao.findListingNeighbours(connection, productId));
+        Assertions.assertEquals(Optional.empty(), productDao.findListingNeighbours(connection, productId));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection, times(2)).prepareStatement(sql.capture());
+        // Row comparisons in the order of index_product_name_id
+        Assertions.assertTrue(sql.getValue().contains("(q.name, q.product_id) < (p.name, p.product_id)"),
+                sql.getValue());
+        Assertions.assertTrue(sql.getValue().contains("(q.name, q.product_id) > (p.name, p.product_id)"),
+                sql.getValue());
+        verify(statement, times(2)).setObject(1, productId);
+    }
+}
@@ -0,0 +1,203 @@
+import org.example.model.Product;
+import org.example.model.ProductFilter;
+import org.example.model.SearchMode;
+import org.example.service.ProductService;
+import org.example.store.product.ListingOrder;
+import org.example.store.product.ProductSearchIndex;
+import org.example.store.product.ProductStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private final UUID electronics = UUID.randomUUID();
+    private final UUID office = UUID.randomUUID();
+    private final ListingOrder order = new ListingOrder();
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(order);
+    }
+
+    @Test
+    @DisplayName("Should match names containing the term, in the listing order read from the database")
+    void shouldMatchNameSubstringsInListingOrder() {
+        Product mouse = product("Wireless Mouse", electronics);
+        Product pad = product("Mouse Pad", office);
+        Product stand = product("Laptop Stand", office);
+        build(mouse, pad, stand);
+        // Deliberately not Java's String order, as a database collation may sort differently
+        Assertions.assertTrue(order.load(ids(stand, mouse, pad), order.stamp()));
+
+        Assertions.assertEquals(ids(mouse, pad), index.search(contains("mouse", null)));
+        Assertions.assertEquals(ids(pad), index.search(contains("mouse", office)));
+        Assertions.assertEquals(ids(mouse), index.search(contains("s m", null)));
+        Assertions.assertEquals(ids(stand, mouse, pad), index.search(contains("s", null)));
+        Assertions.assertEquals(ids(stand, pad), index.search(contains(null, office)));
+        Assertions.assertEquals(List.of(), index.search(contains("mice", null)));
+    }
+
+    @Test
+    @DisplayName("Should match every word of the term at the start of a word of the name or description")
+    void shouldMatchWordPrefixesOfNamesAndDescriptions() {
+        Product mouse = product("Wireless Mouse", "Ergonomic, 2.4GHz receiver", electronics);
+        Product pad = product("Mouse Pad", "Cloth surface", office);
+        Product stand = product("Laptop Stand", "Aluminium; fits mice and keyboards", office);
+        build(mouse, pad, stand);
+        Assertions.assertTrue(order.load(ids(stand, mouse, pad), order.stamp()));
+
+        Assertions.assertEquals(ids(mouse, pad), index.search(words("mou", null)));
+        Assertions.assertEquals(ids(pad), index.search(words("mou", office)));
+        Assertions.assertEquals(ids(mouse), index.search(words("  MOUSE   wire ", null)));
+        Assertions.assertEquals(ids(stand), index.search(words("mice keyboard", null)));
+        Assertions.assertEquals(ids(mouse), index.search(words("2.4ghz", null)));
+        Assertions.assertEquals(List.of(), index.search(words("ouse", null)));
+        Assertions.assertEquals(List.of(), index.search(words("mouse laptop", null)));
+
+        // Descriptions are re-indexed with the product
+        index.put(new Product(pad.getProductId(), "Mouse Pad", "Rubber base", 5.0, 3,
+                office, Instant.now(), Instant.now()));
+        Assertions.assertEquals(ids(pad), index.search(words("rubber", null)));
+        Assertions.assertEquals(List.of(), index.search(words("cloth", null)));
+    }
+
+    @Test
+    @DisplayName("Should serve a buyer's plain search from memory once the index is built")
+    void shouldServeBuyerSearchFromMemory() {
+        Product mouse = product("Wireless Mouse", "Ergonomic", electronics);
+        Product pad = product("Mouse Pad", "Cloth surface", office);
+        build(mouse, pad);
+        order.load(ids(pad, mouse), order.stamp());
+        ProductStore productStore = mock(ProductStore.class);
+        when(productStore.isSearchIndexBuilt()).thenReturn(true);
+        ProductService productService = new ProductService(productStore);
+
+        // Built as the buyer screen builds it
+        ProductFilter searched = productService.buyerSearchFilter("Wireless Mou", null).normalized();
+
+        Assertions.assertEquals(SearchMode.WORDS, searched.searchMode());
+        Assertions.assertTrue(index.canAnswer(searched));
+        Assertions.assertEquals(ids(mouse), index.search(searched));
+        Assertions.assertFalse(index.canAnswer(
+                productService.buyerSearchFilter("\"wireless mouse\" -pad", null).normalized()));
+    }
+
+    @Test
+    @DisplayName("Should follow writes and answer again only once moved products are placed")
+    void shouldFollowWritesAndRefuseOutdatedOrder() {
+        Product mouse = product("Wireless Mouse", electronics);
+        Product stand = product("Laptop Stand", office);
+        build(mouse, stand);
+        Assertions.assertTrue(order.load(ids(stand, mouse), order.stamp()));
+
+        // Price changes keep the order; renames and new products move in it
+        index.put(new Product(stand.getProductId(), "Laptop Stand", "Steel", 35.0, 2,
+                office, Instant.now(), Instant.now()));
+        Assertions.assertTrue(index.canAnswer(contains("mouse", null)));
+        long beforeRename = order.stamp();
+        order.moved(mouse.getProductId());
+        index.put(new Product(mouse.getProductId(), "Gaming Mouse", "Compact", 20.0, 5,
+                electronics, Instant.now(), Instant.now()));
+        index.remove(stand.getProductId());
+        order.removed(stand.getProductId());
+        Product lamp = product("Desk Lamp", office);
+        order.moved(lamp.getProductId());
+        index.put(lamp);
+
+        Assertions.assertFalse(index.canAnswer(contains("mouse", null)));
+        Assertions.assertFalse(order.load(ids(lamp, mouse), beforeRename));
+        // Neighbours that are not next to each other here drop the order, to be read in full
+        Assertions.assertFalse(order.place(mouse.getProductId(), stand.getProductId(), null, order.stamp()));
+        Assertions.assertFalse(order.isLoaded());
+        // An order missing a product the index holds is not used
+        Assertions.assertTrue(order.load(ids(mouse), order.stamp()));
+        Assertions.assertFalse(index.canAnswer(contains("mouse", null)));
+        Assertions.assertTrue(order.load(ids(lamp, stand, mouse), order.stamp()));
+
+        Assertions.assertEquals(List.of(), index.search(contains("wireless", null)));
+        Assertions.assertEquals(ids(mouse), index.search(contains("gaming", null)));
+        Assertions.assertEquals(ids(lamp, mouse), index.search(contains(null, null)));
+        Assertions.assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should keep writes made while a build is running over the build's older copy")
+    void shouldPreferWritesDuringBuild() {
+        Product stale = product("Wireless Mouse", electronics);
+        Product renamed = new Product(stale.getProductId(), "Gaming Mouse", "Compact", 20.0, 5,
+                electronics, Instant.now(), Instant.now());
+        Product deleted = product("Laptop Stand", office);
+
+        index.beginBuild();
+        index.put(renamed);
+        index.remove(deleted.getProductId());
+        index.addAll(List.of(stale, deleted));
+        index.endBuild(true);
+        order.load(ids(stale), order.stamp());
+
+        Assertions.assertEquals(ids(stale), index.search(contains("gaming", null)));
+        Assertions.assertEquals(List.of(), index.search(contains("wireless", null)));
+        Assertions.assertEquals(List.of(), index.search(contains("laptop", null)));
+    }
+
+    @Test
+    @DisplayName("Should leave full-text searches, patterns, unfinished builds and stale orders to the database")
+    void shouldOnlyAnswerExactSearches() {
+        Product mouse = product("Wireless Mouse", electronics);
+        index.beginBuild();
+        Assertions.assertFalse(index.canAnswer(contains("mouse", null)));
+        index.endBuild(false);
+        Assertions.assertFalse(index.canAnswer(contains("mouse", null)));
+
+        build(mouse);
+        Assertions.assertFalse(index.canAnswer(contains("mouse", null)));
+        order.load(ids(mouse), order.stamp());
+
+        Assertions.assertTrue(index.canAnswer(contains("wireless mouse", null)));
+        Assertions.assertTrue(index.canAnswer(contains(null, electronics)));
+        Assertions.assertFalse(index.canAnswer(new ProductFilter("mouse", null, SearchMode.FULL_TEXT).normalized()));
+        Assertions.assertFalse(index.canAnswer(new ProductFilter("mouse", null, SearchMode.SIMILAR).normalized()));
+        Assertions.assertFalse(index.canAnswer(contains("mo_se", null)));
+        Assertions.assertFalse(index.canAnswer(contains("100%", null)));
+        Assertions.assertFalse(index.canAnswer(contains("café", null)));
+        Assertions.assertTrue(index.canAnswer(words("wireless mou", null)));
+        Assertions.assertFalse(index.canAnswer(words("café", null)));
+    }
+
+    private void build(Product... products) {
+        index.beginBuild();
+        index.addAll(List.of(products));
+        index.endBuild(true);
+    }
+
+    private static List<UUID> ids(Product... products) {
+        return Arrays.stream(products).map(Product::getProductId).toList();
+    }
+
+    private static ProductFilter contains(String name, UUID categoryId) {
+        return new ProductFilter(name, categoryId).normalized();
+    }
+
+    private static ProductFilter words(String name, UUID categoryId) {
+        return new ProductFilter(name, categoryId, SearchMode.WORDS).normalized();
+    }
+
+    private static Product product(String name, UUID categoryId) {
+        return product(name, "Description", categoryId);
+    }
+
+    private static Product product(String name, String description, UUID categoryId) {
+        return new Product(UUID.randomUUID(), name, description, 10.0, 5, categoryId, Instant.now(), Instant.now());
+    }
+}
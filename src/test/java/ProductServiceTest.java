@@ -1,10 +1,20 @@
 import org.example.dto.product.CreateProductRequest;
 import org.example.dto.product.CreateProductResponse;
+import org.example.dto.product.ProductFacetPageResponse;
+import org.example.dto.product.ProductPageResponse;
 import org.example.dto.product.ProductResponse;
 import org.example.dto.product.UpdateProductRequest;
+import org.example.model.PriceRange;
 import org.example.model.Product;
+import org.example.model.ProductFacetCounts;
+import org.example.model.ProductFacetPage;
+import org.example.model.ProductFacetQuery;
+import org.example.model.ProductCursor;
 import org.example.model.ProductFilter;
+import org.example.model.ProductPage;
+import org.example.model.SearchMode;
 import org.example.service.ProductService;
+import org.example.service.exception.InvalidPageTokenException;
 import org.example.service.exception.ProductNotFoundException;
 import org.example.store.product.ProductStore;
 import org.junit.jupiter.api.Assertions;
@@ -17,6 +27,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -263,4 +274,104 @@ class ProductServiceTest {
         verify(productStore).searchProducts(filter, 5, 10);
     }
 
+    @Test
+    @DisplayName("Should hand out a page token that seeks past the last product of the page")
+    void shouldRoundTripPageTokens() {
+        ProductFilter filter = new ProductFilter("Phone", null);
+        Product last = new Product(UUID.randomUUID(), "Phöne Ω", "Desc", 800.0, 10, UUID.randomUUID(), Instant.now(), Instant.now());
+        ProductCursor cursor = ProductCursor.after(last);
+
+        when(productStore.searchProductsAfter(filter, null, 1)).thenReturn(new ProductPage(List.of(last), cursor));
+        when(productStore.searchProductsAfter(filter, cursor, 1)).thenReturn(new ProductPage(List.of(), null));
+
+        ProductPageResponse first = productService.searchProductsAfter(filter, null, 1);
+        ProductPageResponse second = productService.searchProductsAfter(filter, first.nextPageToken(), 1);
+
+        Assertions.assertTrue(first.hasNext());
+        Assertions.assertEquals(first.nextPageToken(), productService.pageTokenAfter(first.products().getFirst()));
+        Assertions.assertFalse(second.hasNext());
+        verify(productStore).searchProductsAfter(filter, cursor, 1);
+    }
+
+    @Test
+    @DisplayName("Should reject a page token it did not issue")
+    void shouldRejectInvalidPageToken() {
+        ProductFilter filter = new ProductFilter(null, null);
+
+        Assertions.assertThrows(InvalidPageTokenException.class,
+                () -> productService.searchProductsAfter(filter, "not a token", 5));
+        Assertions.assertThrows(InvalidPageTokenException.class,
+                () -> productService.searchProductsAfter(filter, "AA", 5));
+        verifyNoInteractions(productStore);
+    }
+
+    @Test
+    @DisplayName("Should page full-text searches by offset, not by page token")
+    void shouldRejectPageTokensForRankedSearch() {
+        ProductFilter filter = new ProductFilter("wireless mouse", null, SearchMode.FULL_TEXT);
+
+        Assertions.assertTrue(filter.isRanked());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> productService.searchProductsAfter(filter, null, 5));
+        verifyNoInteractions(productStore);
+    }
+
+    @Test
+    @DisplayName("Should treat a full-text filter without a name like any other filter without a name")
+    void shouldNormalizeSearchModeWithoutName() {
+        UUID categoryId = UUID.randomUUID();
+        ProductFilter filter = new ProductFilter("  ", categoryId, SearchMode.FULL_TEXT);
+
+        Assertions.assertFalse(filter.isRanked());
+        Assertions.assertEquals(new ProductFilter(null, categoryId), filter.normalized());
+    }
+
+    @Test
+    @DisplayName("Should rank a similar-name search and page it by offset")
+    void shouldRankSimilarNameSearch() {
+        UUID categoryId = UUID.randomUUID();
+        ProductFilter filter = new ProductFilter("laptpo", categoryId, SearchMode.FULL_TEXT)
+                .withSearchMode(SearchMode.SIMILAR);
+
+        Assertions.assertEquals(new ProductFilter("laptpo", categoryId, SearchMode.SIMILAR), filter);
+        Assertions.assertTrue(filter.isRanked());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> productService.searchProductsAfter(filter, null, 5));
+    }
+
+    @Test
+    @DisplayName("Should search a buyer's plain words by prefix once the search index is built")
+    void shouldChooseBuyerSearchMode() {
+        UUID categoryId = UUID.randomUUID();
+        when(productStore.isSearchIndexBuilt()).thenReturn(false, true);
+
+        Assertions.assertEquals(new ProductFilter("wireless mou", categoryId, SearchMode.FULL_TEXT),
+                productService.buyerSearchFilter("wireless mou", categoryId));
+        ProductFilter words = productService.buyerSearchFilter("Wireless  Mou", categoryId);
+        Assertions.assertEquals(new ProductFilter("wireless mou", categoryId, SearchMode.WORDS), words.normalized());
+        Assertions.assertFalse(words.isRanked());
+        Assertions.assertEquals(SearchMode.FULL_TEXT,
+                productService.buyerSearchFilter("mouse or keyboard", categoryId).searchMode());
+        Assertions.assertEquals(SearchMode.FULL_TEXT,
+                productService.buyerSearchFilter("mouse -wireless", categoryId).searchMode());
+    }
+
+    @Test
+    @DisplayName("Should browse products by facets and pass the facet counts through")
+    void shouldBrowseProductsByFacets() {
+        UUID categoryId = UUID.randomUUID();
+        ProductFacetQuery query = new ProductFacetQuery(categoryId, PriceRange.UNDER_25, true, 4);
+        Product product = new Product(UUID.randomUUID(), "Mouse", "Desc", 20.0, 5,
+                categoryId, Instant.now(), Instant.now());
+        ProductFacetCounts counts = new ProductFacetCounts(Map.of(categoryId, 6),
+                Map.of(PriceRange.UNDER_25, 6), 6, Map.of(4, 6));
+
+        when(productStore.browseProducts(query, 5, 5)).thenReturn(new ProductFacetPage(List.of(product), 6, counts));
+
+        ProductFacetPageResponse page = productService.browseProducts(query, 5, 5);
+
+        Assertions.assertEquals(List.of("Mouse"), page.products().stream().map(ProductResponse::name).toList());
+        Assertions.assertEquals(2, page.pageCount(5));
+        Assertions.assertSame(counts, page.counts());
+    }
 }
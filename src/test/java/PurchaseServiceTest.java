@@ -1,11 +1,15 @@
 import org.example.dto.order.CustomerDetails;
+import org.example.dto.order.OrderPageResponse;
 import org.example.dto.order.OrderRequest;
 import org.example.dto.order.OrderResponse;
 import org.example.model.Customer;
+import org.example.model.OrderCursor;
+import org.example.model.OrderPage;
 import org.example.model.Orders;
 import org.example.model.Product;
 import org.example.service.PurchaseService;
 import org.example.service.exception.InsufficientProductStock;
+import org.example.service.exception.InvalidPageTokenException;
 import org.example.service.exception.ProductNotFoundException;
 import org.example.store.customer.CustomerStore;
 import org.example.store.order.OrderStore;
@@ -478,4 +482,37 @@ class PurchaseServiceTest {
         verify(orderStore).countAll();
     }
 
+    @Test
+    @DisplayName("Should hand out a page token that seeks past the last order of the page")
+    void shouldRoundTripPurchaseHistoryPageTokens() {
+        UUID customerId = UUID.randomUUID();
+        Orders last = new Orders(
+                UUID.randomUUID(), customerId, Instant.parse("2025-03-01T10:15:30.123456Z"), 1500.0,
+                "Ghana", "Accra", "00233"
+        );
+        OrderCursor cursor = OrderCursor.after(last);
+        Customer customer = new Customer(
+                customerId, "John", "Doe", "john@example.com", "+233123456789", Instant.now()
+        );
+
+        when(orderStore.getAllOrdersAfter(null, 1)).thenReturn(new OrderPage(List.of(last), cursor));
+        when(orderStore.getAllOrdersAfter(cursor, 1)).thenReturn(new OrderPage(List.of(), null));
+        when(customerStore.findByMultipleIds(any())).thenReturn(List.of(customer));
+
+        OrderPageResponse first = purchaseService.getPurchaseHistoryAfter(null, 1);
+        OrderPageResponse second = purchaseService.getPurchaseHistoryAfter(first.nextPageToken(), 1);
+
+        Assertions.assertEquals("john@example.com", first.orders().getFirst().customerEmail());
+        Assertions.assertEquals(first.nextPageToken(), purchaseService.pageTokenAfter(first.orders().getFirst()));
+        Assertions.assertFalse(second.hasNext());
+        verify(orderStore).getAllOrdersAfter(cursor, 1);
+    }
+
+    @Test
+    @DisplayName("Should reject a purchase history page token it did not issue")
+    void shouldRejectInvalidPurchaseHistoryPageToken() {
+        Assertions.assertThrows(InvalidPageTokenException.class,
+                () -> purchaseService.getPurchaseHistoryAfter("not a token", 5));
+        verifyNoInteractions(orderStore);
+    }
 }
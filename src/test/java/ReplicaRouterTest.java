@@ -0,0 +1,91 @@
+import org.example.config.ReplicaRouter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRouterTest {
+
+    @Mock
+    private ReplicaRouter.Replica first;
+    @Mock
+    private ReplicaRouter.Replica second;
+    @Mock
+    private Connection firstConnection;
+    @Mock
+    private Connection secondConnection;
+    @Mock
+    private Connection primaryConnection;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("Should alternate between replicas when round-robin")
+    void shouldRoundRobin() throws SQLException {
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        ReplicaRouter router = router(ReplicaRouter.Strategy.ROUND_ROBIN);
+
+        Assertions.assertSame(firstConnection, router.getConnection(() -> primaryConnection));
+        Assertions.assertSame(secondConnection, router.getConnection(() -> primaryConnection));
+        Assertions.assertSame(firstConnection, router.getConnection(() -> primaryConnection));
+    }
+
+    @Test
+    @DisplayName("Should prefer the replica with the fewest borrowed connections")
+    void shouldPreferLeastLoaded() throws SQLException {
+        when(first.activeConnections()).thenReturn(5);
+        when(second.activeConnections()).thenReturn(1);
+        when(second.getConnection()).thenReturn(secondConnection);
+        ReplicaRouter router = router(ReplicaRouter.Strategy.LEAST_LOADED);
+
+        Assertions.assertSame(secondConnection, router.getConnection(() -> primaryConnection));
+        Assertions.assertSame(secondConnection, router.getConnection(() -> primaryConnection));
+        verify(first, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should skip a failed replica until its retry delay passes")
+    void shouldSkipFailedReplica() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("down")).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        ReplicaRouter router = router(ReplicaRouter.Strategy.ROUND_ROBIN);
+
+        Assertions.assertSame(secondConnection, router.getConnection(() -> primaryConnection));
+        Assertions.assertSame(secondConnection, router.getConnection(() -> primaryConnection));
+        Assertions.assertEquals(1, router.healthyReplicas());
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        Assertions.assertEquals(2, router.healthyReplicas());
+        verify(first, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when no replica is healthy")
+    void shouldFallBackToPrimary() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("down"));
+        when(second.getConnection()).thenThrow(new SQLException("down"));
+        ReplicaRouter router = router(ReplicaRouter.Strategy.LEAST_LOADED);
+
+        Assertions.assertSame(primaryConnection, router.getConnection(() -> primaryConnection));
+        Assertions.assertSame(primaryConnection, router.getConnection(() -> primaryConnection));
+        verify(first, times(1)).getConnection();
+        verify(second, times(1)).getConnection();
+    }
+
+    private ReplicaRouter router(ReplicaRouter.Strategy strategy) {
+        return new ReplicaRouter(List.of(first, second), strategy, Duration.ofSeconds(30), clock::get);
+    }
+}
@@ -1,6 +1,8 @@
- import org.example.dto.review.CreateReviewRequest;
+import org.example.dto.PageWithTotalResponse;
+import org.example.dto.review.CreateReviewRequest;
 import org.example.dto.review.ReviewResponse;
 import org.example.model.Customer;
+import org.example.model.PageWithTotal;
 import org.example.model.Review;
 import org.example.service.ReviewService;
 import org.example.service.exception.CustomerNotFoundException;
@@ -121,4 +123,21 @@ class ReviewServiceTest {
         verify(reviewStore).countReviewsByProduct(productId);
     }
 
+    @Test
+    @DisplayName("Should return a review page together with the total review count")
+    void shouldReturnReviewPageWithTotal() {
+        UUID productId = UUID.randomUUID();
+        Review review = new Review(UUID.randomUUID(), productId, UUID.randomUUID(), 4, "Good", Instant.now());
+
+        when(reviewStore.getReviewsByProductWithTotal(productId, 5, 0)).thenReturn(new PageWithTotal<>(List.of(review), 12));
+
+        PageWithTotalResponse<ReviewResponse> result = reviewService.getProductReviewsWithTotal(productId, 5, 0);
+
+        Assertions.assertEquals(1, result.items().size());
+        Assertions.assertEquals("Good", result.items().get(0).comment());
+        Assertions.assertEquals(12, result.total());
+        Assertions.assertEquals(3, result.pageCount(5));
+        verify(reviewStore, never()).countReviewsByProduct(productId);
+    }
+
 }
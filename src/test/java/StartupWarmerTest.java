@@ -0,0 +1,111 @@
+import org.example.application.StartupWarmer;
+import org.example.config.DataSource;
+import org.example.dao.interfaces.CategoryDao;
+import org.example.dao.interfaces.ProductDao;
+import org.example.dto.PageWithTotalResponse;
+import org.example.dto.category.CategoryResponse;
+import org.example.dto.product.ProductPageResponse;
+import org.example.dto.product.ProductResponse;
+import org.example.model.ProductFilter;
+import org.example.service.CategoryService;
+import org.example.service.ProductService;
+import org.example.service.PurchaseService;
+import org.example.store.category.exception.CategoryRetrievalException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StartupWarmerTest {
+
+    @Mock
+    private CategoryService categoryService;
+    @Mock
+    private ProductService productService;
+    @Mock
+    private PurchaseService purchaseService;
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private ProductDao productDao;
+    @Mock
+    private CategoryDao categoryDao;
+    @Mock
+    private Connection connection;
+
+    @Test
+    @DisplayName("Should preload categories, the first product pages of each category and the first order page")
+    void shouldPreloadStartupData() {
+        UUID categoryId = UUID.randomUUID();
+        CategoryResponse category = new CategoryResponse(categoryId, "Books", "", Instant.now(), Instant.now());
+        when(categoryService.getAllCategories(100, 0)).thenReturn(List.of(category));
+        ProductFilter all = new ProductFilter(null, null);
+        List<ProductResponse> fullPage = Collections.nCopies(5, product());
+        when(productService.searchProductsWithTotal(all, 5, 0)).thenReturn(new PageWithTotalResponse<>(fullPage, 12));
+        when(productService.pageTokenAfter(any())).thenReturn("p2");
+        when(productService.searchProductsAfter(all, "p2", 5)).thenReturn(new ProductPageResponse(fullPage, "p3"));
+        when(productService.searchProductsWithTotal(new ProductFilter(null, categoryId), 5, 0))
+                .thenReturn(new PageWithTotalResponse<>(List.of(product()), 1));
+
+        StartupWarmer.Result result = warmer(0).run();
+
+        verify(categoryService).getCategoryCount();
+        verify(productService).searchProductsWithTotal(all, 5, 0);
+        verify(productService).searchProductsWithTotal(new ProductFilter(null, categoryId), 5, 0);
+        verify(productService).searchProductsAfter(all, "p2", 5);
+        verify(productService, times(1)).searchProductsAfter(any(), any(), anyInt());
+        verify(purchaseService).getPurchaseHistoryWithTotal(5, 0);
+        Assertions.assertEquals(0, result.failures());
+        Assertions.assertFalse(result.timedOut());
+    }
+
+    @Test
+    @DisplayName("Should run the uncached queries once per JIT round")
+    @SuppressWarnings("unchecked")
+    void shouldExerciseQueries() {
+        when(dataSource.withConnection(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, Function.class).apply(connection));
+
+        warmer(3).run();
+
+        verify(productDao, times(3)).findFilteredAfter(connection, new ProductFilter(null, null), null, 100);
+        verify(categoryDao, times(3)).findAll(connection, 100, 0);
+    }
+
+    @Test
+    @DisplayName("Should count failed tasks and keep warming up the rest")
+    void shouldContinueAfterFailures() {
+        when(categoryService.getAllCategories(100, 0)).thenThrow(new CategoryRetrievalException("boom"));
+        when(productService.searchProductsWithTotal(any(), anyInt(), anyInt()))
+                .thenReturn(new PageWithTotalResponse<>(List.of(), 0));
+
+        StartupWarmer.Result result = warmer(0).run();
+
+        Assertions.assertEquals(1, result.failures());
+        verify(productService).searchProductsWithTotal(new ProductFilter(null, null), 5, 0);
+        verify(purchaseService).getPurchaseHistoryWithTotal(5, 0);
+    }
+
+    private StartupWarmer warmer(int jitRounds) {
+        return new StartupWarmer(categoryService, productService, purchaseService, dataSource, productDao,
+                categoryDao, new StartupWarmer.Settings(2, 2, 5, jitRounds, Duration.ofSeconds(10)));
+    }
+
+    private static ProductResponse product() {
+        return new ProductResponse(UUID.randomUUID(), UUID.randomUUID(), "Book", "", 10.0, 1, Instant.now());
+    }
+}